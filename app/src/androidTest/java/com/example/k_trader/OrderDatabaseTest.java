@@ -0,0 +1,225 @@
+package com.example.k_trader;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteStatement;
+import android.arch.persistence.room.Room;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.example.k_trader.base.CoinUnits;
+import com.example.k_trader.database.ApiCallResultEntity;
+import com.example.k_trader.database.OrderDatabase;
+import com.example.k_trader.database.OrderEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OrderDatabase migration, 인덱스 사용 여부(EXPLAIN QUERY PLAN), api_call_results 100만 건 조회 시간
+ */
+@RunWith(AndroidJUnit4.class)
+public class OrderDatabaseTest {
+    private static final String DB_NAME = "order_database_test";
+
+    // version 5 (인덱스 없음, orders.units REAL) 스키마
+    private static final String[] SCHEMA_V5 = {
+            "CREATE TABLE IF NOT EXISTS `orders` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `orderId` TEXT, `type` TEXT, "
+                    + "`status` TEXT, `units` REAL NOT NULL, `price` INTEGER NOT NULL, `feeRaw` TEXT, `feeEvaluated` REAL NOT NULL, "
+                    + "`placedTimeInMillis` INTEGER NOT NULL, `processedTimeInMillis` INTEGER NOT NULL, `marked` INTEGER NOT NULL, "
+                    + "`createdAt` INTEGER NOT NULL, `updatedAt` INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS `transaction_errors` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `error_time` INTEGER NOT NULL, "
+                    + "`error_type` TEXT, `error_message` TEXT, `error_code` TEXT, `transaction_context` TEXT, `stack_trace` TEXT, "
+                    + "`is_resolved` INTEGER NOT NULL, `api_error_details` TEXT, `resolution_note` TEXT, "
+                    + "`created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS `api_call_results` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `call_time` INTEGER NOT NULL, "
+                    + "`api_endpoint` TEXT, `is_success` INTEGER NOT NULL, `response_data` TEXT, `error_code` TEXT, `error_message` TEXT, "
+                    + "`server_error_message` TEXT, `transaction_data` TEXT, `created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS `coin_price_info` (`id` INTEGER NOT NULL, `coinType` TEXT, `currentPrice` TEXT, "
+                    + "`priceChange` TEXT, `lastUpdated` INTEGER NOT NULL, PRIMARY KEY(`id`))",
+            "CREATE TABLE IF NOT EXISTS `transaction_info` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `transaction_time` TEXT, "
+                    + "`btc_current_price` TEXT, `hourly_change` TEXT, `daily_change` TEXT, `estimated_balance` TEXT, `last_buy_price` TEXT, "
+                    + "`last_sell_price` TEXT, `next_buy_price` TEXT, `is_from_server` INTEGER NOT NULL, `created_at` INTEGER NOT NULL)"
+    };
+
+    private Context context;
+    private OrderDatabase db;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null)
+            db.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    private OrderDatabase open() {
+        return Room.databaseBuilder(context, OrderDatabase.class, DB_NAME)
+                .addMigrations(OrderDatabase.MIGRATIONS)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    // version 5 데이터가 지워지지 않고 올라오고 중복 주문은 하나만 남는다. 스키마가 entity와 다르면 Room이 열 때 예외를 던진다.
+    @Test
+    public void migratesFromVersion5WithoutDataLoss() {
+        SQLiteDatabase v5 = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(DB_NAME), null);
+        for (String sql : SCHEMA_V5)
+            v5.execSQL(sql);
+        // 예전 동기화는 같은 주문을 매번 새 행으로 저장했다.
+        for (int i = 0; i < 2; i++)
+            v5.execSQL("INSERT INTO orders (orderId, type, status, units, price, feeEvaluated, placedTimeInMillis, "
+                    + "processedTimeInMillis, marked, createdAt, updatedAt) VALUES ('C0101', 'BUY', 'PLACED', ?, 50000000, 0, 1, 0, 1, 1, 1)",
+                    new Object[]{(double) 0.0047f});
+        v5.execSQL("INSERT INTO api_call_results (call_time, api_endpoint, is_success, response_data, transaction_data, created_at, updated_at) "
+                + "VALUES (1000, '/info/balance', 1, 'Success', '{\"btcCurrentPrice\":\"₩50,000,000\"}', 1000, 1000)");
+        v5.setVersion(5);
+        v5.close();
+
+        db = open();
+        List<OrderEntity> orders = db.orderDao().getAllActiveOrders();
+        assertEquals(1, orders.size());
+        assertEquals("C0101", orders.get(0).getOrderId());
+        assertEquals(CoinUnits.fromDouble(0.0047), orders.get(0).getUnits());
+        assertEquals(1, db.apiCallResultDao().getApiCallResultCount());
+        // TEXT로 저장된 응답 본문은 BLOB으로 옮겨진 뒤에도 그대로 읽힌다.
+        ApiCallResultEntity apiCallResult = db.apiCallResultDao().getAllApiCallResults().get(0);
+        assertEquals("Success", apiCallResult.getResponseData());
+        assertEquals("{\"btcCurrentPrice\":\"₩50,000,000\"}", apiCallResult.getTransactionData());
+
+        try (Cursor cursor = db.query("SELECT name FROM sqlite_master WHERE type = 'index' AND name LIKE 'index_%'", null)) {
+            assertEquals(11, cursor.getCount());
+        }
+    }
+
+    // DAO 조회마다 기대한 인덱스를 쓰는지 확인한다.
+    @Test
+    public void daoQueriesUseIndices() {
+        db = open();
+        String[][] expectations = {
+                {"SELECT * FROM orders ORDER BY createdAt DESC", "index_orders_createdAt"},
+                {"SELECT COUNT(*) FROM orders WHERE status = 'PLACED' AND type = 'SELL'", "index_orders_status_type"},
+                {"SELECT * FROM orders WHERE status = 'PLACED'", "index_orders_status_type"},
+                {"SELECT type, COUNT(*) as count FROM orders WHERE status = 'PLACED' GROUP BY type", "index_orders_status_type"},
+                {"SELECT * FROM api_call_results ORDER BY call_time DESC", "index_api_call_results_call_time"},
+                {"SELECT * FROM api_call_results WHERE call_time >= ? ORDER BY call_time DESC", "index_api_call_results_call_time"},
+                {"SELECT * FROM api_call_results WHERE call_time >= ? AND call_time <= ? ORDER BY call_time DESC", "index_api_call_results_call_time"},
+                {"DELETE FROM api_call_results WHERE call_time < ?", "index_api_call_results_call_time"},
+                {"SELECT * FROM api_call_results WHERE api_endpoint = ? ORDER BY call_time DESC", "index_api_call_results_api_endpoint_call_time"},
+                {"SELECT * FROM api_call_results WHERE is_success = 0 ORDER BY call_time DESC", "index_api_call_results_is_success_call_time"},
+                {"SELECT COUNT(*) FROM api_call_results WHERE is_success = 1", "index_api_call_results_is_success_call_time"},
+                {"DELETE FROM api_call_results WHERE is_success = ? AND call_time < ?", "index_api_call_results_is_success_call_time"},
+                {"UPDATE api_call_results SET response_data = NULL, transaction_data = NULL WHERE is_success = 1 AND call_time < ? "
+                        + "AND (response_data IS NOT NULL OR transaction_data IS NOT NULL)", "index_api_call_results_is_success_call_time"},
+                {"SELECT * FROM transaction_errors ORDER BY error_time DESC", "index_transaction_errors_error_time"},
+                {"SELECT * FROM transaction_errors WHERE is_resolved = 0 ORDER BY error_time DESC", "index_transaction_errors_is_resolved_error_time"},
+                {"SELECT COUNT(*) FROM transaction_errors WHERE is_resolved = 0", "index_transaction_errors_is_resolved_error_time"},
+                {"SELECT * FROM transaction_errors WHERE error_type = ? ORDER BY error_time DESC", "index_transaction_errors_error_type_error_time"},
+                {"SELECT * FROM transaction_errors WHERE error_time > ? ORDER BY error_time DESC", "index_transaction_errors_error_time"},
+                {"SELECT * FROM transaction_errors WHERE error_time BETWEEN ? AND ? ORDER BY error_time DESC", "index_transaction_errors_error_time"},
+                {"DELETE FROM transaction_errors WHERE error_time < ?", "index_transaction_errors_error_time"},
+                {"SELECT * FROM transaction_info ORDER BY created_at DESC LIMIT 1", "index_transaction_info_created_at"},
+                {"SELECT * FROM transaction_info WHERE is_from_server = 1 ORDER BY created_at DESC LIMIT 1", "index_transaction_info_is_from_server_created_at"},
+                {"SELECT * FROM price_ticks WHERE coin_type = ? AND time >= ? AND time < ? ORDER BY time", "sqlite_autoindex_price_ticks_1"},
+                {"DELETE FROM price_ticks WHERE coin_type = ? AND time < ?", "sqlite_autoindex_price_ticks_1"},
+                {"SELECT * FROM price_candles WHERE coin_type = ? AND resolution = ? AND open_time = ?", "sqlite_autoindex_price_candles_1"},
+                {"SELECT * FROM price_candles WHERE coin_type = ? AND resolution = ? AND open_time >= ? AND open_time < ? ORDER BY open_time", "sqlite_autoindex_price_candles_1"},
+                {"DELETE FROM price_candles WHERE coin_type = ? AND resolution = ? AND open_time < ?", "sqlite_autoindex_price_candles_1"},
+        };
+        for (String[] expectation : expectations) {
+            String plan = queryPlan(expectation[0]);
+            assertTrue(expectation[0] + "\n" + plan, plan.contains(expectation[1]));
+            assertFalse(expectation[0] + "\n" + plan, plan.contains("TEMP B-TREE"));
+        }
+    }
+
+    private String queryPlan(String sql) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase().query("EXPLAIN QUERY PLAN " + sql)) {
+            int detail = cursor.getColumnIndex("detail");
+            while (cursor.moveToNext())
+                plan.append(cursor.getString(detail)).append('\n');
+        }
+        return plan.toString();
+    }
+
+    // api_call_results 100만 건에서 자주 쓰는 조회를 인덱스 사용/미사용(NOT INDEXED)으로 비교한다.
+    @Test
+    public void apiCallResultsQueryLatencyAt1MRows() {
+        db = open();
+        final int rows = 1000000;
+        final long start = 1700000000000L;
+        String[] endpoints = {"/public/ticker", "/public/orderbook", "/info/balance", "/info/orders", "/info/user_transactions"};
+
+        SupportSQLiteDatabase sqlite = db.getOpenHelper().getWritableDatabase();
+        SupportSQLiteStatement insert = sqlite.compileStatement("INSERT INTO api_call_results "
+                + "(call_time, api_endpoint, is_success, created_at, updated_at) VALUES (?, ?, ?, ?, ?)");
+        long insertStart = System.nanoTime();
+        sqlite.beginTransaction();
+        try {
+            for (int i = 0; i < rows; i++) {
+                long callTime = start + i * 1000L;   // 1초에 한 번
+                insert.bindLong(1, callTime);
+                insert.bindString(2, i % 100 == 0 ? "/trade/place" : endpoints[i % endpoints.length]);
+                insert.bindLong(3, i % 50 == 0 ? 0 : 1);
+                insert.bindLong(4, callTime);
+                insert.bindLong(5, callTime);
+                insert.executeInsert();
+            }
+            sqlite.setTransactionSuccessful();
+        } finally {
+            sqlite.endTransaction();
+        }
+        Log.i("KTrader", String.format(Locale.getDefault(), "[OrderDatabaseTest] %,d건 insert : %,d ms",
+                rows, (System.nanoTime() - insertStart) / 1000000));
+
+        long lastHour = start + (rows - 3600) * 1000L;
+        Object[][] queries = {
+                {"SELECT * FROM api_call_results %s WHERE call_time >= ? ORDER BY call_time DESC", new Object[]{lastHour}},
+                {"SELECT * FROM api_call_results %s WHERE api_endpoint = ? ORDER BY call_time DESC", new Object[]{"/trade/place"}},
+                {"SELECT * FROM api_call_results %s WHERE is_success = 0 ORDER BY call_time DESC", new Object[0]},
+                {"SELECT COUNT(*) FROM api_call_results %s WHERE is_success = 0", new Object[0]},
+        };
+        for (Object[] query : queries) {
+            String sql = (String) query[0];
+            Object[] args = (Object[]) query[1];
+            long indexed = medianNanos(String.format(sql, ""), args);
+            long scanned = medianNanos(String.format(sql, "NOT INDEXED"), args);
+            Log.i("KTrader", String.format(Locale.getDefault(), "[OrderDatabaseTest] %s %s : index %.2f ms, full scan %.2f ms",
+                    String.format(sql, "").replaceAll("\\s+", " "), Arrays.toString(args), indexed / 1e6, scanned / 1e6));
+            assertTrue(sql + " index " + indexed + " >= scan " + scanned, indexed < scanned);
+        }
+    }
+
+    private long medianNanos(String sql, Object[] args) {
+        long[] samples = new long[5];
+        for (int i = 0; i < samples.length; i++) {
+            long begin = System.nanoTime();
+            try (Cursor cursor = db.query(sql, args)) {
+                while (cursor.moveToNext())
+                    cursor.getLong(0);
+            }
+            samples[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+}
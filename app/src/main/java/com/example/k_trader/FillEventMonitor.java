@@ -0,0 +1,210 @@
+package com.example.k_trader;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.base.OrderManager;
+import com.example.k_trader.base.TradeData;
+import com.example.k_trader.bitthumb.lib.ApiExecutor;
+import com.example.k_trader.bitthumb.lib.BithumbWebSocketFeed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+
+/**
+ * 대기 중인 매수 주문의 체결을 빨리 감지하여 매도 주문까지의 시간을 줄인다.
+ *
+ * 빗썸 1.0 API에는 내 주문 체결을 알려주는 private WebSocket이 없으므로 다음 두 가지 방법으로 체결을 감지한다.
+ * - public 체결(transaction) 스트림에서 대기 중인 매수가 이하의 체결이 보이면 바로 최근 체결 이력 몇 건만 조회한다.
+ * - WebSocket이 끊어져 있는 동안에는 짧은 주기로 최근 체결 이력을 조회한다.
+ * 새 매수 체결이 확인되면 TradeJobService의 tick을 바로 실행시켜 매도 주문을 발행한다.
+ */
+public class FillEventMonitor implements BithumbWebSocketFeed.Listener {
+    private static final String RECENT_FILL_COUNT = "5";
+    private static final long FALLBACK_POLL_INTERVAL_MS = 2000;
+    private static final long SELL_LATENCY_TARGET_MS = 1000;
+
+    private static FillEventMonitor gMonitor;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final AtomicBoolean pollInFlight = new AtomicBoolean();
+    private final AtomicBoolean pollAgain = new AtomicBoolean();
+
+    private OrderManager orderManager = new OrderManager();
+    private Runnable fillHandler;
+    private ScheduledFuture<?> fallbackTask;
+    private volatile String symbol;
+    private volatile int restingBuyPrice;   // 대기 중인 매수 주문 가격, 없으면 0
+    private volatile long lastSignaledTime; // 마지막으로 tick을 실행시킨 체결 시점
+
+    private final AtomicLong hintCount = new AtomicLong();
+    private final AtomicLong pollCount = new AtomicLong();
+    private final AtomicLong fillCount = new AtomicLong();
+    private final AtomicLong sellCount = new AtomicLong();
+    private final AtomicLong sellLatencySumMs = new AtomicLong();
+    private final AtomicLong sellLatencyMaxMs = new AtomicLong();
+    private final AtomicLong sellLatencyOverCount = new AtomicLong();
+
+    FillEventMonitor() {
+        scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "fill-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized FillEventMonitor getInstance() {
+        if (gMonitor == null)
+            gMonitor = new FillEventMonitor();
+        return gMonitor;
+    }
+
+    /**
+     * 체결 감시를 시작한다. 새 매수 체결이 확인되면 tick을 바로 실행시킨다.
+     */
+    public void start(Context context) {
+        final Context appContext = context.getApplicationContext();
+        start(new OrderManager(), () -> TradeJobService.requestImmediateTick(appContext));
+    }
+
+    synchronized void start(OrderManager orderManager, Runnable fillHandler) {
+        this.orderManager = orderManager;
+        this.fillHandler = fillHandler;
+        this.symbol = GlobalSettings.getInstance().getCoinType().toUpperCase(Locale.US) + "_KRW";
+        BithumbWebSocketFeed.getInstance().addListener(this);
+        if (fallbackTask == null)
+            fallbackTask = scheduler.scheduleWithFixedDelay(this::fallbackPoll, FALLBACK_POLL_INTERVAL_MS, FALLBACK_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        BithumbWebSocketFeed.getInstance().removeListener(this);
+        if (fallbackTask != null)
+            fallbackTask.cancel(false);
+        fallbackTask = null;
+        restingBuyPrice = 0;
+    }
+
+    /**
+     * tick에서 확인한 대기 중인 매수 주문 가격을 알려준다. 매수 주문이 없으면 0을 넘긴다.
+     */
+    public void setRestingBuyPrice(int price) {
+        restingBuyPrice = price;
+    }
+
+    @Override
+    public void onTrade(String tradeSymbol, double price, double quantity, boolean buy) {
+        int buyPrice = restingBuyPrice;
+        if (buyPrice <= 0 || price > buyPrice || !tradeSymbol.equals(symbol))
+            return;
+
+        // 대기 중인 매수가 이하에서 체결이 일어났으므로 내 매수 주문도 체결되었을 수 있다.
+        hintCount.incrementAndGet();
+        requestPoll();
+    }
+
+    private void fallbackPoll() {
+        if (restingBuyPrice > 0 && !BithumbWebSocketFeed.getInstance().isConnected())
+            requestPoll();
+    }
+
+    // 조회는 한 번에 하나만 실행하고, 조회 중에 들어온 요청은 끝난 뒤 한 번 더 조회하는 것으로 합친다.
+    void requestPoll() {
+        if (!pollInFlight.compareAndSet(false, true)) {
+            pollAgain.set(true);
+            return;
+        }
+        scheduler.execute(this::poll);
+    }
+
+    private void poll() {
+        try {
+            pollCount.incrementAndGet();
+            List<TradeData> fills = ApiExecutor.await(orderManager.getProcessedOrdersAsync("", 0, RECENT_FILL_COUNT));
+            checkNewFills(fills);
+        } catch (Exception e) {
+            Log.e("KTrader", "[FillEventMonitor] 체결 이력 조회 실패", e);
+        } finally {
+            pollInFlight.set(false);
+            if (pollAgain.getAndSet(false))
+                requestPoll();
+        }
+    }
+
+    private void checkNewFills(List<TradeData> fills) {
+        long handledTime = Math.max(TradeJobService.lastNotiTimeInMillis, lastSignaledTime);
+        List<TradeData> newFills = new ArrayList<>();
+        for (TradeData data : fills) {
+            if (data.getType() == BUY && data.getProcessedTime() > handledTime)
+                newFills.add(data);
+        }
+        if (newFills.isEmpty())
+            return;
+
+        long latest = handledTime;
+        for (TradeData data : newFills)
+            latest = Math.max(latest, data.getProcessedTime());
+        lastSignaledTime = latest;
+        fillCount.addAndGet(newFills.size());
+
+        Log.d("KTrader", "[FillEventMonitor] 매수 체결 감지 : " + newFills.size() + "건, 체결 후 "
+                + (System.currentTimeMillis() - latest) + "ms");
+        if (fillHandler != null)
+            fillHandler.run();
+    }
+
+    /**
+     * 매수 체결 이후 매도 주문이 접수되기까지 걸린 시간을 기록한다.
+     */
+    public void recordFillToSell(long buyProcessedTime) {
+        long latencyMs = Math.max(0, System.currentTimeMillis() - buyProcessedTime);
+        sellCount.incrementAndGet();
+        sellLatencySumMs.addAndGet(latencyMs);
+        sellLatencyMaxMs.accumulateAndGet(latencyMs, Math::max);
+        if (latencyMs > SELL_LATENCY_TARGET_MS)
+            sellLatencyOverCount.incrementAndGet();
+        Log.d("KTrader", "[FillEventMonitor] 체결 → 매도 주문 : " + latencyMs + "ms");
+    }
+
+    public Stats getStats() {
+        return new Stats(hintCount.get(), pollCount.get(), fillCount.get(), sellCount.get(),
+                sellLatencySumMs.get(), sellLatencyMaxMs.get(), sellLatencyOverCount.get());
+    }
+
+    /**
+     * 체결 감지 통계
+     */
+    public static class Stats {
+        public final long hintCount;            // 매수가 이하 public 체결을 본 횟수
+        public final long pollCount;            // 체결 이력을 조회한 횟수
+        public final long fillCount;            // 감지한 새 매수 체결 수
+        public final long sellCount;            // 매수 체결에 대해 매도 주문을 낸 횟수
+        public final long avgSellLatencyMs;     // 체결 → 매도 주문 평균 시간
+        public final long maxSellLatencyMs;
+        public final long overTargetCount;      // 목표 시간(1초)을 넘긴 횟수
+
+        Stats(long hintCount, long pollCount, long fillCount, long sellCount, long sellLatencySumMs, long maxSellLatencyMs, long overTargetCount) {
+            this.hintCount = hintCount;
+            this.pollCount = pollCount;
+            this.fillCount = fillCount;
+            this.sellCount = sellCount;
+            this.avgSellLatencyMs = sellCount == 0 ? 0 : sellLatencySumMs / sellCount;
+            this.maxSellLatencyMs = maxSellLatencyMs;
+            this.overTargetCount = overTargetCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "hints=%d, polls=%d, fills=%d, sells=%d, avg=%dms, max=%dms, over 1s=%d",
+                    hintCount, pollCount, fillCount, sellCount, avgSellLatencyMs, maxSellLatencyMs, overTargetCount);
+        }
+    }
+}
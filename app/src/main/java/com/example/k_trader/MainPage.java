@@ -1,6 +1,5 @@
 package com.example.k_trader;
 
-import android.app.job.JobInfo;
 import android.app.job.JobScheduler;
 import android.content.BroadcastReceiver;
 import android.content.ComponentName;
@@ -16,6 +15,7 @@ import android.support.design.widget.TabLayout;
 import android.support.v4.app.Fragment;
 import android.support.v4.app.FragmentManager;
 import android.support.v4.app.FragmentPagerAdapter;
+import android.support.v4.content.ContextCompat;
 import android.support.v4.view.ViewPager;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -265,27 +265,11 @@ public class MainPage extends Fragment {
             Log.d("KTrader", "[MainPage] Existing buy orders canceled");
         }).start();
 
-        // JOB_ID_REGULAR가 1분 후부터 스케줄링 되기 때문에 1회성으로 한번 더 실행
-        Log.d("KTrader", "[MainPage] Creating job schedules");
-        JobInfo firstTradeJob = new JobInfo.Builder(JOB_ID_FIRST, component)
-                .setMinimumLatency(1000) // 1000 ms
-                .build();
-
-        JobInfo tradeJob = new JobInfo.Builder(JOB_ID_REGULAR, component)
-                .setMinimumLatency((long) GlobalSettings.getInstance().getTradeInterval() * 1000)
-                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
-                .build();
-
+        // 매매 tick은 foreground service 안의 TradingEngine이 고정 주기로 실행한다.
+        Log.d("KTrader", "[MainPage] Starting trading engine service");
         Log.d("KTrader", "[MainPage] Trade interval: " + GlobalSettings.getInstance().getTradeInterval() + " seconds");
-
         mainActivity.jobScheduler = (JobScheduler) mainActivity.getSystemService(Context.JOB_SCHEDULER_SERVICE);
-        if (mainActivity.jobScheduler != null) {
-            int firstJobResult = mainActivity.jobScheduler.schedule(firstTradeJob);
-            int regularJobResult = mainActivity.jobScheduler.schedule(tradeJob);
-            Log.d("KTrader", "[MainPage] Job scheduling results - First: " + firstJobResult + ", Regular: " + regularJobResult);
-        } else {
-            Log.e("KTrader", "[MainPage] JobScheduler is null");
-        }
+        ContextCompat.startForegroundService(mainActivity, new Intent(mainActivity, TradingEngineService.class));
 
         isTradingStarted = true;
         updateTradingToggleButton(isTradingStarted);
@@ -298,10 +282,14 @@ public class MainPage extends Fragment {
     private void stopTrading() {
         Log.d("KTrader", "[MainPage] Stop Trading button clicked");
         
+        mainActivity.stopService(new Intent(mainActivity, TradingEngineService.class));
         if (mainActivity.jobScheduler != null) {
             mainActivity.jobScheduler.cancelAll();
             Log.d("KTrader", "[MainPage] All jobs canceled");
         }
+        TradingEngine.stopAll();
+        MarketDataFeedHandler.getInstance().stop();
+        FillEventMonitor.getInstance().stop();
 
         isTradingStarted = false;
         updateTradingToggleButton(isTradingStarted);
@@ -452,6 +440,9 @@ public class MainPage extends Fragment {
                 jobScheduler.cancel(JOB_ID_FIRST);
                 jobScheduler.cancel(JOB_ID_REGULAR);
             }
+            getContext().stopService(new Intent(getContext(), TradingEngineService.class));
+            MarketDataFeedHandler.getInstance().stop();
+            FillEventMonitor.getInstance().stop();
         }
         
         // RxJava 리소스 정리
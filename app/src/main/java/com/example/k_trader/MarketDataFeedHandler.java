@@ -0,0 +1,148 @@
+package com.example.k_trader;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.base.MarketSettings;
+import com.example.k_trader.base.SlotLadder;
+import com.example.k_trader.bitthumb.lib.BithumbWebSocketFeed;
+import com.example.k_trader.database.CoinPriceInfoRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * WebSocket 시세를 받아 화면용 가격 정보를 갱신하고, 가격이 다른 매수 구간(slot)으로 넘어가면 매매 job을 즉시 실행시킨다.
+ * 주기적인 TradeJobService 실행은 그대로 유지되며, 이 클래스는 그 사이에 생긴 가격 변화에 빨리 반응하기 위한 것이다.
+ * 여러 코인을 매매하면 모든 코인의 시세를 받아 코인별로 변동폭을 기록하고 그 코인의 엔진만 즉시 실행시킨다. 화면용 가격 정보는 화면에 표시하는 코인만 저장한다.
+ */
+public class MarketDataFeedHandler implements BithumbWebSocketFeed.Listener {
+    private static final long PRICE_SAVE_INTERVAL_MS = 1000;
+    private static final long TRIGGER_INTERVAL_MS = 3000;
+
+    private static MarketDataFeedHandler gHandler;
+
+    private Context context;
+    private CoinPriceInfoRepository repository;
+    private String symbol; // 화면에 표시하는 코인의 symbol
+    private final Map<String, Market> markets = new HashMap<>(); // symbol별 코인 상태
+    private long lastSaveMillis;
+
+    // 코인별 매수 구간 변경 감지 상태
+    private static class Market {
+        final String coinType;
+        long lastTriggerMillis;
+        int lastSlot = -1;
+        SlotLadder ladder;
+
+        Market(String coinType) {
+            this.coinType = coinType;
+        }
+    }
+
+    private MarketDataFeedHandler() {
+    }
+
+    public static synchronized MarketDataFeedHandler getInstance() {
+        if (gHandler == null)
+            gHandler = new MarketDataFeedHandler();
+        return gHandler;
+    }
+
+    /**
+     * 현재 설정된 코인들의 시세 수신을 시작한다. 이미 같은 코인들로 시작되어 있으면 아무 것도 하지 않는다.
+     */
+    public synchronized void start(Context ctx) {
+        String newSymbol = toSymbol(GlobalSettings.getInstance().getCoinType());
+        List<String> coinTypes = GlobalSettings.getInstance().getCoinTypes();
+        BithumbWebSocketFeed feed = BithumbWebSocketFeed.getInstance();
+        if (feed.isRunning() && newSymbol.equals(symbol) && markets.size() == coinTypes.size()) {
+            boolean same = true;
+            for (String coinType : coinTypes)
+                same &= markets.containsKey(toSymbol(coinType));
+            if (same)
+                return;
+        }
+
+        context = ctx.getApplicationContext();
+        repository = new CoinPriceInfoRepository(context);
+        symbol = newSymbol;
+        markets.clear();
+        for (String coinType : coinTypes)
+            markets.put(toSymbol(coinType), new Market(coinType));
+
+        feed.addListener(this);
+        for (String coinType : coinTypes)
+            feed.subscribe(coinType);
+        feed.start();
+        Log.d("KTrader", "[MarketDataFeedHandler] 시세 수신 시작 : " + markets.keySet());
+    }
+
+    private static String toSymbol(String coinType) {
+        return coinType.toUpperCase(Locale.US) + "_KRW";
+    }
+
+    public synchronized void stop() {
+        BithumbWebSocketFeed feed = BithumbWebSocketFeed.getInstance();
+        feed.removeListener(this);
+        feed.stop();
+        Log.d("KTrader", "[MarketDataFeedHandler] 시세 수신 중지 : " + feed.getStats());
+    }
+
+    @Override
+    public synchronized void onTicker(String tickerSymbol, double closePrice, double changeRate) {
+        if (!tickerSymbol.equals(symbol))
+            return;
+
+        // 화면 갱신용이므로 초당 한 번만 저장한다.
+        long now = System.currentTimeMillis();
+        if (now - lastSaveMillis < PRICE_SAVE_INTERVAL_MS)
+            return;
+        lastSaveMillis = now;
+
+        String currentPrice = String.format(Locale.getDefault(), "₩%,d", (long) closePrice);
+        String priceChange = String.format(Locale.getDefault(), "%+.2f%%", Double.isNaN(changeRate) ? 0.0 : changeRate);
+        repository.savePriceInfo(GlobalSettings.getInstance().getCoinType(), currentPrice, priceChange)
+                .subscribe(
+                        () -> {},
+                        throwable -> Log.e("KTrader", "[MarketDataFeedHandler] Error saving price info", throwable)
+                );
+    }
+
+    @Override
+    public synchronized void onTrade(String tradeSymbol, double price, double quantity, boolean buy) {
+        Market market = markets.get(tradeSymbol);
+        if (market == null)
+            return;
+
+        if (price < 1 || price > Integer.MAX_VALUE / 4)
+            return;
+        TradeJobService.recordMarketPrice(market.coinType, System.currentTimeMillis(), (int) price);
+
+        MarketSettings settings = GlobalSettings.getInstance().getMarketSettings(market.coinType);
+        if (market.ladder == null || !market.ladder.covers((int) price, 1, settings))
+            market.ladder = SlotLadder.around((int) price, settings);
+        // 사다리를 다시 만들면 index가 바뀌므로 slot 가격으로 비교한다.
+        int slot = market.ladder.getSlotPrice(market.ladder.floorIndex((int) price));
+        if (slot == market.lastSlot)
+            return;
+
+        boolean first = market.lastSlot < 0;
+        market.lastSlot = slot;
+        long now = System.currentTimeMillis();
+        if (first || now - market.lastTriggerMillis < TRIGGER_INTERVAL_MS)
+            return;
+        market.lastTriggerMillis = now;
+
+        Log.d("KTrader", "[MarketDataFeedHandler] " + market.coinType + " 매수 구간 변경 : " + (long) price + ", 매매 job 즉시 실행");
+        TradeJobService.requestImmediateTick(context, market.coinType);
+    }
+
+    @Override
+    public void onConnectionChanged(boolean connected) {
+        Log.d("KTrader", "[MarketDataFeedHandler] WebSocket " + (connected ? "연결됨" : "연결 끊어짐"));
+    }
+}
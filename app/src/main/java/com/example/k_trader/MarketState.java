@@ -0,0 +1,68 @@
+package com.example.k_trader;
+
+import com.example.k_trader.base.EngineStateJournal;
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.base.MarketSettings;
+import com.example.k_trader.base.PriceHistory;
+import com.example.k_trader.base.RollingPriceWindow;
+import com.example.k_trader.base.TradeDataManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 코인(market)별 매매 상태
+ *
+ * 여러 코인을 동시에 매매할 때 코인마다 시장가 기록, 체결 이력, tick 상태를 따로 갖는다.
+ * 엔진이 다시 만들어지거나 JobScheduler job으로 tick이 실행되어도 같은 코인이면 같은 상태를 이어서 사용한다.
+ */
+class MarketState {
+    static final long PRICE_WINDOW_SPAN_MS = TimeUnit.HOURS.toMillis(1);  // 1시간 분량의 시장가를 저장해 두고 분석에 사용한다.
+    static final int PRICE_WINDOW_CAPACITY = 8192;  // 실시간 체결가까지 담을 수 있는 크기, 넘치면 오래된 가격부터 밀어낸다.
+
+    private static final Map<String, MarketState> gStates = new HashMap<>();
+
+    final String coinType;
+    final TradeDataManager processedOrderManager = new TradeDataManager();
+    final RollingPriceWindow priceWindow = new RollingPriceWindow(PRICE_WINDOW_SPAN_MS, PRICE_WINDOW_CAPACITY);
+    final AtomicBoolean tickRunning = new AtomicBoolean(); // 정기 tick과 시세 변경으로 당겨진 tick이 겹치지 않도록 한다.
+    final AtomicBoolean tickPending = new AtomicBoolean(); // tick 실행 중에 들어온 즉시 실행 요청
+    final PriceHistory priceHistory;                      // tick이 끝날 때 DB(price_ticks, price_candles)에 저장한다.
+    volatile EngineStateJournal stateJournal;             // restoreEngineState() 이후에 생성된다.
+
+    volatile int currentPrice;                 // 현재 코인 시장가
+    volatile long lastNotiTimeInMillis;        // 마지막 Notification 완료 시점
+    volatile long availableCoinBalance;        // 현재 판매 가능한 코인 총량 = 현재 보유중인 코인 총량 - 매도 중인 코인 총량 (CoinUnits)
+
+    private MarketState(String coinType) {
+        this.coinType = coinType;
+        this.priceHistory = new PriceHistory(coinType, PRICE_WINDOW_CAPACITY);
+    }
+
+    /**
+     * 코인의 상태. null이면 GlobalSettings에 설정된 코인의 상태를 리턴한다.
+     */
+    static synchronized MarketState of(String coinType) {
+        if (coinType == null)
+            coinType = GlobalSettings.getInstance().getCoinType();
+        MarketState state = gStates.get(coinType);
+        if (state == null) {
+            state = new MarketState(coinType);
+            gStates.put(coinType, state);
+        }
+        return state;
+    }
+
+    MarketSettings getSettings() {
+        return GlobalSettings.getInstance().getMarketSettings(coinType);
+    }
+
+    /**
+     * 화면에 표시하는 코인(GlobalSettings의 coinType)인지 확인한다.
+     */
+    boolean isPrimary() {
+        return coinType.equals(GlobalSettings.getInstance().getCoinType());
+    }
+}
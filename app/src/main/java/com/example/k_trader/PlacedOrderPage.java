@@ -26,7 +26,9 @@ import android.widget.PopupMenu;
 import android.widget.Spinner;
 import android.widget.Toast;
 
+import com.example.k_trader.base.CoinUnits;
 import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.base.Krw;
 import com.example.k_trader.base.OrderManager;
 import com.example.k_trader.base.TradeData;
 import com.example.k_trader.base.TradeDataManager;
@@ -133,7 +135,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                                     .setType(orderManager.convertOrderType((String) item.get("type")))
                                     .setStatus(PLACED)
                                     .setId(id)
-                                    .setUnits((float) Double.parseDouble((String) item.get("units_remaining")))
+                                    .setUnits(CoinUnits.parse((String) item.get("units_remaining")))
                                     .setPrice(Integer.parseInt(((String) item.get("price")).replaceAll(",", "")))
                                     .setPlacedTime(Long.parseLong((String) item.get("order_date")) / 1000));
                         }
@@ -147,7 +149,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                         cal.setTimeInMillis(data.getPlacedTime());
                         text = data.getType().toString()
                                 + (data.getType() == SELL ? (" (" + sellIndex-- + ") : ") : " : ")   // 남아 있는 Sell count를 쉽게 알 수 있게 보여준다.
-                                + String.format(Locale.getDefault(), "%.4f", data.getUnits())
+                                + CoinUnits.toPlainString(data.getUnits())
                                 + " : "
                                 + String.format(Locale.getDefault(), "%,d", data.getPrice())
                                 + " : "
@@ -156,10 +158,10 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                                         , cal.get(Calendar.HOUR_OF_DAY), cal.get(Calendar.MINUTE), cal.get(Calendar.SECOND));
 
                         Listviewitem listItem = new Listviewitem(0, text);
-                        float baseUnits = (float) ((int) ((GlobalSettings.getInstance().getUnitPrice() / (double)data.getPrice()) * 10000) / 10000.0);
+                        long baseUnits = CoinUnits.floorToLot(CoinUnits.forKrw(GlobalSettings.getInstance().getUnitPrice(), data.getPrice()));
 
                         // merge가 필요하거나 down이 필요한 item은 다른 색깔로 보여준다.
-                        if (data.getUnits() < (baseUnits / 2.0) || data.getUnits() > (baseUnits * 1.5) || placedOrderManager.getByPrice(SELL, data.getPrice()).size() > 1)
+                        if (data.getUnits() < baseUnits / 2 || data.getUnits() > baseUnits * 3 / 2 || placedOrderManager.getByPrice(SELL, data.getPrice()).size() > 1)
                             listItem.setBgColor(-2044724);
                         else if (data.getPrice() > (TradeJobService.currentPrice * 2 - 1000000)) {
                             // down 할 수 없는 가격대는 좀 더 진한 색으로 보여준다.
@@ -261,10 +263,10 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                             public void run() {
                                 TradeData data = list.get(position).getData();
                                 OrderManager orderManager = new OrderManager();
-                                float movingUnits = (float)((int)(((float)GlobalSettings.getInstance().getUnitPrice() / data.getPrice()) * 10000) / 10000.0);
+                                long movingUnits = CoinUnits.floorToLot(CoinUnits.forKrw(GlobalSettings.getInstance().getUnitPrice(), data.getPrice()));
 
                                 // 옮긴 이후에 애매하게 남을거 같으면 다 옮긴다.
-                                if (movingUnits * 1.5 > data.getUnits()) {
+                                if (movingUnits * 3 / 2 > data.getUnits()) {
                                     movingUnits = data.getUnits();
                                 }
 
@@ -334,14 +336,14 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                     Log.d("KTrader", "[PlacedOrderPage] KRW 잔고: " + totalKrw);
                     
                     if (totalKrw != null) {
-                        double krwBalance = Double.parseDouble(totalKrw);
-                        double requiredAmount = GlobalSettings.getInstance().getUnitPrice();
+                        long krwBalance = Krw.parse(totalKrw);
+                        long requiredAmount = GlobalSettings.getInstance().getUnitPrice();
                         Log.d("KTrader", "[PlacedOrderPage] 필요 금액: " + requiredAmount + ", 보유 금액: " + krwBalance);
 
                         if (krwBalance < requiredAmount) {
                             String message = "잔고 부족으로 시장가 매수를 건너뜁니다. 필요: " +
-                                String.format(Locale.getDefault(), "%,.0f", requiredAmount) +
-                                "원, 보유: " + String.format(Locale.getDefault(), "%,.0f", krwBalance) + "원";
+                                String.format(Locale.getDefault(), "%,d", requiredAmount) +
+                                "원, 보유: " + String.format(Locale.getDefault(), "%,d", krwBalance) + "원";
                             Log.w("KTrader", "[PlacedOrderPage] " + message);
                             log_info(message);
                             return;
@@ -405,9 +407,9 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                 return;
             }
             
-            float units = (float) ((int) ((GlobalSettings.getInstance().getUnitPrice() / (double)currentPrice) * 10000) / 10000.0);
-            Log.d("KTrader", "[PlacedOrderPage] 계산된 매수 수량: " + units);
-            log_info("시장가 매수 시도 - 수량: " + String.format("%.4f", units) + ", 현재가: " + currentPrice);
+            long units = CoinUnits.floorToLot(CoinUnits.forKrw(GlobalSettings.getInstance().getUnitPrice(), currentPrice));
+            Log.d("KTrader", "[PlacedOrderPage] 계산된 매수 수량: " + CoinUnits.toPlainString(units));
+            log_info("시장가 매수 시도 - 수량: " + CoinUnits.toPlainString(units) + ", 현재가: " + currentPrice);
             
             JSONObject result = orderManager.addOrderWithMarketPrice("시장가 수동 매수 +" + profit, BUY, units);
             Log.d("KTrader", "[PlacedOrderPage] 시장가 매수 결과: " + (result != null ? "성공" : "실패"));
@@ -431,15 +433,15 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                 
                 // 시장가 매수로 체결된 수량과 평균 가격을 추정
                 // 실제 체결된 수량은 요청한 수량과 동일하다고 가정
-                float earnedUnits = units;
+                long earnedUnits = units;
                 int earnedPrice = currentPrice; // 현재가로 체결되었다고 가정
                 
-                Log.d("KTrader", "[PlacedOrderPage] 추정 체결 수량: " + earnedUnits + ", 추정 체결 가격: " + earnedPrice);
+                Log.d("KTrader", "[PlacedOrderPage] 추정 체결 수량: " + CoinUnits.toPlainString(earnedUnits) + ", 추정 체결 가격: " + earnedPrice);
                 
                 // +PROFIT_PRICE 가격에 매도 요청
                 int sellPrice = (int) ((earnedPrice + (MainPage.getProfitPrice(earnedPrice) * profit)) / 1000) * 1000;
                 Log.d("KTrader", "[PlacedOrderPage] 매도 가격 계산: " + sellPrice);
-                log_info("매도 주문 시도 - 수량: " + String.format("%.4f", earnedUnits) + ", 가격: " + String.format(Locale.getDefault(), "%,d", sellPrice));
+                log_info("매도 주문 시도 - 수량: " + CoinUnits.toPlainString(earnedUnits) + ", 가격: " + String.format(Locale.getDefault(), "%,d", sellPrice));
                 
                 result = orderManager.addOrder("시장가 수동 매수 +" + profit, SELL, earnedUnits, sellPrice);
                 Log.d("KTrader", "[PlacedOrderPage] 매도 주문 결과: " + (result != null ? "성공" : "실패"));
@@ -492,10 +494,10 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                 new Thread(() -> {
                     TradeData data = list.get(g_position).getData();
                     OrderManager orderManager = new OrderManager();
-                    float movingUnits = (float)((int)(((float)GlobalSettings.getInstance().getUnitPrice() / data.getPrice()) * 10000) / 10000.0);
+                    long movingUnits = CoinUnits.floorToLot(CoinUnits.forKrw(GlobalSettings.getInstance().getUnitPrice(), data.getPrice()));
 
                     // 옮긴 이후에 애매하게 남을거 같으면 다 옮긴다.
-                    if (movingUnits * 1.5 > data.getUnits()) {
+                    if (movingUnits * 3 / 2 > data.getUnits()) {
                         movingUnits = data.getUnits();
                     }
 
@@ -514,7 +516,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                             return;
                         }
 
-                        float newUnits = (float)(Math.round((movingUnits + targetData.getUnits()) * 10000d) / 10000d);
+                        long newUnits = CoinUnits.roundToLot(movingUnits + targetData.getUnits());
                         JSONObject result = orderManager.addOrder("OrderListPage_Up_3", data.getType(), newUnits, targetData.getPrice());
                         if (!((String)result.get("status")).equals("0000")) {
                             Log.d("KTrader", result.toString());
@@ -533,7 +535,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
 
                     // 원래 order에 -ONE_TIME_PRICE 만큼 추가
                     if (data.getUnits() > movingUnits) {
-                        float newUnits = (float)(Math.round((data.getUnits() - movingUnits) * 10000d) / 10000d);
+                        long newUnits = CoinUnits.roundToLot(data.getUnits() - movingUnits);
                         JSONObject result = orderManager.addOrder("OrderListPage_Up_5", data.getType(), newUnits, data.getPrice());
                         if (!((String)result.get("status")).equals("0000")) {
                             Log.d("KTrader", result.toString());
@@ -575,7 +577,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                     List<TradeData> list = placedOrderManager.getByPrice(SELL, data.getPrice());
                     if (list.size() > 1) {
                         // merge
-                        float mergedUnits = 0;
+                        long mergedUnits = 0;
                         for (TradeData data2 : list) {
                             mergedUnits += data2.getUnits();
 
@@ -587,7 +589,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                         }
 
                         // add new merged order
-                        float newUnits = (float)(Math.round(mergedUnits * 10000d) / 10000d);
+                        long newUnits = CoinUnits.roundToLot(mergedUnits);
                         JSONObject result = orderManager.addOrder("OrderListPage_Down_375", SELL, newUnits, data.getPrice());
                         if (!((String)result.get("status")).equals("0000")) {
                             Log.d("KTrader", result.toString());
@@ -602,11 +604,11 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                 new Thread(() -> {
                     TradeData data = list.get(g_position).getData();
                     OrderManager orderManager = new OrderManager();
-                    float sellUnits = (float)((int)((10000.0 / TradeJobService.currentPrice) * 10000) / 10000.0);
+                    long sellUnits = CoinUnits.floorToLot(CoinUnits.forKrw(10000, TradeJobService.currentPrice));
 
                     // 이상하게 큰 값이 나오면 에러로 판단한다.
-                    if (sellUnits > 0.1) {
-                        log_info("계산된 만원 어치가 너무 큼 : " + sellUnits);
+                    if (sellUnits > CoinUnits.ONE / 10) {
+                        log_info("계산된 만원 어치가 너무 큼 : " + CoinUnits.toPlainString(sellUnits));
                         return;
                     }
 
@@ -629,9 +631,9 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                     }
 
                     // 원래 order에 -10,000원 만큼 다시 판매
-                    float newUnits = 0;
+                    long newUnits = 0;
                     if (data.getUnits() > sellUnits) {
-                        newUnits = (float)(Math.round((data.getUnits() - sellUnits) * 10000d) / 10000d);
+                        newUnits = CoinUnits.roundToLot(data.getUnits() - sellUnits);
                         result = orderManager.addOrder("sell_10000_3", data.getType(), newUnits, data.getPrice());
                         if (!((String)result.get("status")).equals("0000")) {
                             Log.d("KTrader", result.toString());
@@ -639,7 +641,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                         }
                     }
 
-                    log_info("시장가 10,000원 어치 매도 성공 : " + data.getUnits() + " -> " + newUnits);
+                    log_info("시장가 10,000원 어치 매도 성공 : " + CoinUnits.toPlainString(data.getUnits()) + " -> " + CoinUnits.toPlainString(newUnits));
                 }).start();
                 return true;
             case R.id.sell_50000:
@@ -647,11 +649,11 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                 new Thread(() -> {
                     TradeData data = list.get(g_position).getData();
                     OrderManager orderManager = new OrderManager();
-                    float sellUnits = (float)((int)((50000.0 / TradeJobService.currentPrice) * 10000) / 10000.0);
+                    long sellUnits = CoinUnits.floorToLot(CoinUnits.forKrw(50000, TradeJobService.currentPrice));
 
                     // 이상하게 큰 값이 나오면 에러로 판단한다.
-                    if (sellUnits > 0.1) {
-                        log_info("계산된 만원 어치가 너무 큼 : " + sellUnits);
+                    if (sellUnits > CoinUnits.ONE / 10) {
+                        log_info("계산된 만원 어치가 너무 큼 : " + CoinUnits.toPlainString(sellUnits));
                         return;
                     }
 
@@ -674,9 +676,9 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                     }
 
                     // 원래 order에 -50,000원 만큼 다시 판매
-                    float newUnits = 0;
+                    long newUnits = 0;
                     if (data.getUnits() > sellUnits) {
-                        newUnits = (float)(Math.round((data.getUnits() - sellUnits) * 10000d) / 10000d);
+                        newUnits = CoinUnits.roundToLot(data.getUnits() - sellUnits);
                         result = orderManager.addOrder("sell_50000_3", data.getType(), newUnits, data.getPrice());
                         if (!((String)result.get("status")).equals("0000")) {
                             Log.d("KTrader", result.toString());
@@ -684,7 +686,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                         }
                     }
 
-                    log_info("시장가 50,000원 어치 매도 성공 : " + data.getUnits() + " -> " + newUnits);
+                    log_info("시장가 50,000원 어치 매도 성공 : " + CoinUnits.toPlainString(data.getUnits()) + " -> " + CoinUnits.toPlainString(newUnits));
                 }).start();
                 return true;
             case R.id.cancel:
@@ -705,7 +707,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
         new Thread(() -> {
             TradeData data = list.get(g_position).getData();
             OrderManager orderManager = new OrderManager();
-            float movingUnits = (float)((int)(((float)GlobalSettings.getInstance().getUnitPrice() / data.getPrice()) * 10000) / 10000.0);
+            long movingUnits = CoinUnits.floorToLot(CoinUnits.forKrw(GlobalSettings.getInstance().getUnitPrice(), data.getPrice()));
 
             // server 정책 체크
             if ((TradeJobService.currentPrice * 2 - 1000000) < (data.getPrice())) {
@@ -722,7 +724,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
             }
 
             // 옮긴 이후에 애매하게 남을거 같으면 다 옮긴다.
-            if (movingUnits * 1.5 > data.getUnits()) {
+            if (movingUnits * 3 / 2 > data.getUnits()) {
                 movingUnits = data.getUnits();
             }
 
@@ -741,7 +743,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
                     return;
                 }
 
-                float newUnits = (float)(Math.round((movingUnits + targetData.getUnits()) * 10000d) / 10000d);
+                long newUnits = CoinUnits.roundToLot(movingUnits + targetData.getUnits());
                 JSONObject result = orderManager.addOrder("OrderListPage_Down_3", data.getType(), newUnits, targetData.getPrice());
                 if (!((String)result.get("status")).equals("0000")) {
                     Log.d("KTrader", result.toString());
@@ -760,7 +762,7 @@ public class PlacedOrderPage extends Fragment implements PopupMenu.OnMenuItemCli
 
             // 원래 order에 -amount 만큼 추가
             if (data.getUnits() > movingUnits) {
-                float newUnits = (float)(Math.round((data.getUnits() - movingUnits) * 10000d) / 10000d);
+                long newUnits = CoinUnits.roundToLot(data.getUnits() - movingUnits);
                 JSONObject result = orderManager.addOrder("OrderListPage_Down_5", data.getType(), newUnits, data.getPrice());
                 if (!((String)result.get("status")).equals("0000")) {
                     Log.d("KTrader", result.toString());
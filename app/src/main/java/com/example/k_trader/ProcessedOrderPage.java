@@ -15,21 +15,18 @@ import android.widget.ListView;
 import android.widget.Spinner;
 import android.widget.TextView;
 
+import com.example.k_trader.base.CoinUnits;
 import com.example.k_trader.base.OrderManager;
 import com.example.k_trader.base.TradeData;
 import com.example.k_trader.base.TradeDataManager;
 import com.google.gson.Gson;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Locale;
 
-import static com.example.k_trader.base.TradeDataManager.Status.PROCESSED;
 import static com.example.k_trader.base.TradeDataManager.Type.BUY;
-import static com.example.k_trader.base.TradeDataManager.Type.NONE;
 import static com.example.k_trader.base.TradeDataManager.Type.SELL;
 
 /**
@@ -48,7 +45,7 @@ public class ProcessedOrderPage extends Fragment {
     Spinner spinnerRange;
 
     double feeTotal;
-    int priceTotal;
+    long priceTotal;
     int buyTotal;
     int sellTotal;
     int rangeDays;
@@ -129,49 +126,32 @@ public class ProcessedOrderPage extends Fragment {
                         {
                             while(condition) {
                                 // 매수/매도 완료 리스트를 가져온다.
-                                JSONArray dataArray = null;
+                                List<TradeData> processedOrders;
                                 try {
-                                    dataArray = orderManager.getProcessedOrderList("", offset, "50");
+                                    processedOrders = orderManager.getProcessedOrders("", offset, "50");
                                 } catch (Exception e) {
                                     return;
                                 }
 
-                                if (dataArray.size() == 0) {
+                                if (processedOrders.size() == 0) {
                                     condition = false;
                                     break;
                                 }
 
-                                for (Object o : dataArray) {
-                                    JSONObject item = (JSONObject) o;
-
-                                    //{"search":"1","btc_remain":"5.42478202","price":-99330,"fee":"0.00003225","krw_remain":4275528,"units":"+ 0.01286775","transfer_date":"1557543507259903","btc1krw":7700000}
-                                    //{"search":"2","btc_remain":"5.41191427","price":1012350,"fee":"2537.22","krw_remain":4374858,"units":"- 0.1331","transfer_date":"1557538928212073","btc1krw":7625000}
+                                //{"search":"1","btc_remain":"5.42478202","price":-99330,"fee":"0.00003225","krw_remain":4275528,"units":"+ 0.01286775","transfer_date":"1557543507259903","btc1krw":7700000}
+                                //{"search":"2","btc_remain":"5.41191427","price":1012350,"fee":"2537.22","krw_remain":4374858,"units":"- 0.1331","transfer_date":"1557538928212073","btc1krw":7625000}
 
-                                    //{"search":"2","btc_remain":"0.75468327","price":101010,"fee":"0","krw_remain":9157566,"units":"0.0078","transfer_date":"1566201030737","btc1krw":"12950000"}
-                                    Log.d("KTrader", item.toString());
+                                //{"search":"2","btc_remain":"0.75468327","price":101010,"fee":"0","krw_remain":9157566,"units":"0.0078","transfer_date":"1566201030737","btc1krw":"12950000"}
+                                for (TradeData data : processedOrders) {
+                                    Log.d("KTrader", data.toString());
 
-                                    int search = Integer.parseInt((String) item.get("search"));
-                                    long processedTimeInMillis;
-                                    String date_string = (String) item.get("transfer_date");
-                                    if (date_string.length() == 13)
-                                        processedTimeInMillis = Long.parseLong((String) item.get("transfer_date"));
-                                    else // micro second
-                                        processedTimeInMillis = Long.parseLong((String) item.get("transfer_date")) / 1000;
-
-                                    if ((currentTime.getTimeInMillis() - processedTimeInMillis) / 1000 / 60 / 60 / 24.0 > rangeDays) {
+                                    if ((currentTime.getTimeInMillis() - data.getProcessedTime()) / 1000 / 60 / 60 / 24.0 > rangeDays) {
                                         condition = false;
                                         break;
                                     }
 
-                                    if (tradedataManager.findByProcessedTime(processedTimeInMillis) == null && convertSearchType(search) != NONE) {
-                                        tradedataManager.add(tradedataManager.build()
-                                                .setType(convertSearchType(search))
-                                                .setStatus(PROCESSED)
-                                                .setUnits(((float) Double.parseDouble(((String) item.get("units")).replace(" ", "").replace("-", ""))))
-                                                .setPrice(Math.abs(Integer.parseInt(((String) item.get("price")))))
-                                                .setFeeRaw((String) item.get("fee"))
-                                                .setProcessedTime(processedTimeInMillis));
-                                    }
+                                    if (tradedataManager.findByProcessedTime(data.getProcessedTime()) == null)
+                                        tradedataManager.add(data);
                                 }
 
                                 // 다음 50개 거래 리스트를 가져온다.
@@ -200,14 +180,6 @@ public class ProcessedOrderPage extends Fragment {
         return layout;
     }
 
-    private TradeDataManager.Type convertSearchType(int search) {
-        switch(search) {
-            case 1 : return BUY;
-            case 2 : return SELL;
-        }
-        return NONE;
-    }
-
     @Override
     public void onSaveInstanceState(@NonNull Bundle outState) {
         super.onSaveInstanceState(outState);
@@ -243,7 +215,7 @@ public class ProcessedOrderPage extends Fragment {
             } else
                 continue;
 
-            text += String.format(Locale.getDefault(), "%.4f", data.getUnits())
+            text += CoinUnits.toPlainString(data.getUnits())
                     + " : " + String.format(Locale.getDefault(), "%,d", data.getPrice())
                     + " : " + date
                     + " : " + (int)data.getFeeEvaluated();
@@ -253,7 +225,7 @@ public class ProcessedOrderPage extends Fragment {
 //                                Log.d("KTrader", text);
 
             feeTotal += data.getFeeEvaluated();
-            priceTotal += (data.getPrice() * data.getUnits());
+            priceTotal += CoinUnits.krwValue(data.getUnits(), data.getPrice());
         }
 
         // run ui thread to prevent 'CalledFromWrongThreadException'
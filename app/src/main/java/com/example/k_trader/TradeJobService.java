@@ -4,6 +4,7 @@ import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
+import android.app.Service;
 import android.app.job.JobInfo;
 import android.app.job.JobParameters;
 import android.app.job.JobScheduler;
@@ -21,29 +22,45 @@ import android.support.v4.content.ContextCompat;
 import android.support.v4.content.LocalBroadcastManager;
 import android.util.Log;
 
+import com.example.k_trader.base.CoinUnits;
+import com.example.k_trader.base.EngineStateJournal;
 import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.base.GridDecisionKernel;
 import com.example.k_trader.base.Log4jHelper;
+import com.example.k_trader.base.MarketSettings;
 import com.example.k_trader.base.OrderManager;
+import com.example.k_trader.base.PriceHistory;
+import com.example.k_trader.base.SlotLadder;
 import com.example.k_trader.base.TradeData;
 import com.example.k_trader.base.TradeDataManager;
+import com.example.k_trader.bitthumb.lib.ApiExecutor;
+import com.example.k_trader.bitthumb.lib.ApiRateLimiter;
+import com.example.k_trader.bitthumb.lib.ApiResilience;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Balance;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Orderbook;
+import com.example.k_trader.bitthumb.lib.BithumbWebSocketFeed;
+import com.example.k_trader.bitthumb.lib.HttpConnectionPool;
+import com.example.k_trader.bitthumb.lib.MarketDataGateway;
+import com.example.k_trader.database.PriceHistoryRepository;
 import static com.example.k_trader.base.TradeDataManager.Type.BUY;
 import static com.example.k_trader.base.TradeDataManager.Type.SELL;
 import static com.example.k_trader.base.ErrorCode.*;
 
-import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
-import java.util.ArrayList;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.example.k_trader.base.TradeDataManager.Status.PLACED;
-import static com.example.k_trader.base.TradeDataManager.Status.PROCESSED;
-import static com.example.k_trader.base.TradeDataManager.Type.NONE;
 
 /**
  * Created by 김무창 on 2017-12-17.
@@ -51,23 +68,26 @@ import static com.example.k_trader.base.TradeDataManager.Type.NONE;
 
 public class TradeJobService extends JobService {
 
-    private static final int PRICE_SAVING_QUEUE_COUNT = 60;  // 1시간 분량의 시장가를 저장해 두고 분석에 사용한다.
-    private static final int SELL_SLOT_LOOK_ASIDE_MAX = 3; // 3 단계 위까지 매도점을 찾아본다.
-    private static final int BUY_SLOT_LOOK_ASIDE_MAX = 3;
-    private static final double TRADING_VALUE_MIN = 0.0001;
+    private static final String PRICE_WINDOW_FILE_NAME = "price_window.bin"; // 이전 버전의 시장가 기록 파일
+    private static final String ENGINE_STATE_FILE_NAME = "engine_state_%s.bin"; // 코인별 엔진 상태 파일
+    private static final long ENGINE_STATE_COMPACTION_BYTES = 512 * 1024; // 파일이 이보다 커지면 현재 상태로 새로 쓴다.
+    private static final int SLOT_LADDER_MARGIN = 10; // 사다리 끝에서 이만큼 가까워지면 다시 만든다.
     
     // Foreground Service 관련 상수
     private static final int FOREGROUND_SERVICE_ID = 1001;
     private static final String CHANNEL_ID = "k_trader_foreground_channel";
 
+    // 화면에 표시하는 코인의 값. 코인별 값은 MarketState에 있으며 화면에 표시하는 코인의 tick이 끝날 때 복사한다.
     public static int currentPrice;                  // 현재 코인 시장가
     public static long lastNotiTimeInMillis;        // 마지막 Notification 완료 시점
-    public static double availableCoinBalance;      // 현재 판매 가능한 코인 총량 = 현재 보유중인 코인 총량 - 매도 중인 코인 총량
+    public static long availableCoinBalance;        // 현재 판매 가능한 코인 총량 = 현재 보유중인 코인 총량 - 매도 중인 코인 총량 (CoinUnits)
 
     private final TradeDataManager placedOrderManager = new TradeDataManager();
-    private static final TradeDataManager processedOrderManager = new TradeDataManager();
+    private SlotLadder slotLadder; // placedOrderManager의 주문을 slot별로 기록한다.
+    private MarketState market;    // orderManager가 매매하는 코인의 상태
+    private GridDecisionKernel kernel; // 매매 판단. 이 서비스는 조회, 주문, 알림만 한다.
+    private final GridDecisionKernel.ExchangePort exchangePort = new LiveExchangePort();
 
-    private static final List<Integer> priceQueue = new ArrayList<>();
     private static org.apache.log4j.Logger logger = Log4jHelper.getLogger("TradeJobService");
     private Context ctx;
     private OrderManager orderManager;
@@ -75,7 +95,7 @@ public class TradeJobService extends JobService {
     @Override
     public void onCreate() {
         super.onCreate();
-        createNotificationChannel();
+        createNotificationChannel(this);
     }
 
     @Override
@@ -83,21 +103,15 @@ public class TradeJobService extends JobService {
         Log.d("KTrader", "[TradeJobService] onStartJob() 시작 - Job ID: " + jobParameters.getJobId());
         
         // Foreground Service로 시작
-        startForegroundService();
+        startForegroundService(this);
+
+        // 매매 job 사이의 가격 변화는 WebSocket 시세로 감지한다.
+        restoreEngineState(this);
+        MarketDataFeedHandler.getInstance().start(this);
+        FillEventMonitor.getInstance().start(this);
         
         new Thread(() -> {
-            ctx = TradeJobService.this;
-            orderManager = new OrderManager();
-
-            try {
-                tradeBusinessLogic();
-            } catch (Exception e) {
-                // 예외 발생 시 로그만 출력
-                log_info("Trade business logic error: " + e.getMessage());
-                
-                // 에러 카드 전송
-                sendErrorCard("Trade Business Logic Error", ERR_BUSINESS_001.getDescription());
-            }
+            runTick(TradeJobService.this, new OrderManager());
 
             if (jobParameters.getJobId() == MainPage.JOB_ID_REGULAR)
                 scheduleRefresh();
@@ -108,12 +122,66 @@ public class TradeJobService extends JobService {
         return true;
     }
 
+    /**
+     * 매매 tick을 한 번 실행한다. 다른 tick이 실행 중이면 건너뛰고, 그 tick이 끝난 뒤 한 번 더 실행되도록 한다.
+     * JobScheduler job과 TradingEngine이 같이 사용하며, TradingEngine은 같은 인스턴스로 계속 호출해 tick 사이의 상태를 유지한다.
+     *
+     * @return tick을 실행했으면 true
+     */
+    boolean runTick(Context context, OrderManager orderManager) {
+        ctx = context;
+        this.orderManager = orderManager;
+        market = MarketState.of(orderManager.getCoinType());
+        long tickStartNanos = System.nanoTime();
+
+        if (!market.tickRunning.compareAndSet(false, true)) {
+            // 실행 중인 tick이 끝나면 한 번 더 실행한다. 그 사이에 들어온 체결을 놓치지 않기 위함이다.
+            market.tickPending.set(true);
+            Log.d("KTrader", "[TradeJobService] " + market.coinType + " 이전 tick이 실행 중이므로 건너뜀");
+            return false;
+        }
+        // 여러 코인의 엔진이 호출 제한을 나눠 쓰므로 이 tick의 API 호출은 코인별 lane에서 차례를 기다린다.
+        ApiRateLimiter.setLane(market.coinType);
+
+        try {
+            tradeBusinessLogic();
+        } catch (Exception e) {
+            // 예외 발생 시 로그만 출력
+            log_info("Trade business logic error: " + e.getMessage());
+
+            // 에러 카드 전송
+            sendErrorCard("Trade Business Logic Error", ERR_BUSINESS_001.getDescription());
+        } finally {
+            ApiRateLimiter.setLane(null);
+            saveEngineState(market);
+            savePriceHistory(market);
+            if (market.isPrimary()) {
+                currentPrice = market.currentPrice;
+                lastNotiTimeInMillis = market.lastNotiTimeInMillis;
+                availableCoinBalance = market.availableCoinBalance;
+            }
+            market.tickRunning.set(false);
+        }
+        if (market.tickPending.getAndSet(false))
+            requestImmediateTick(context, market.coinType);
+
+        Log.d("KTrader", "[TradeJobService] " + market.coinType + " tick 소요 시간 : " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - tickStartNanos)
+                + "ms, 연결 풀 : " + HttpConnectionPool.getInstance().getStats()
+                + ", 시세 gateway : " + MarketDataGateway.getInstance().getStats()
+                + ", 호출 제한 : " + ApiRateLimiter.getInstance().getStats()
+                + ", WebSocket : " + BithumbWebSocketFeed.getInstance().getStats()
+                + ", 체결 감지 : " + FillEventMonitor.getInstance().getStats()
+                + ", API : " + ApiResilience.getInstance().getStats()
+                + ", 엔진 : " + TradingEngine.getInstance(market.coinType).getStats());
+        return true;
+    }
+
     @Override
     public boolean onStopJob(JobParameters jobParameters) {
         return false;
     }
 
-    private void createNotificationChannel() {
+    static void createNotificationChannel(Context context) {
         Log.d("KTrader", "[TradeJobService] createNotificationChannel() 시작");
         
         try {
@@ -129,7 +197,7 @@ public class TradeJobService extends JobService {
             
             Log.d("KTrader", "[TradeJobService] NotificationChannel 생성 완료 - ID: " + CHANNEL_ID);
             
-            NotificationManager notificationManager = getSystemService(NotificationManager.class);
+            NotificationManager notificationManager = context.getSystemService(NotificationManager.class);
             if (notificationManager != null) {
                 Log.d("KTrader", "[TradeJobService] NotificationManager 획득 성공");
                 
@@ -158,18 +226,21 @@ public class TradeJobService extends JobService {
         }
     }
 
-    private void startForegroundService() {
+    /**
+     * service를 자동 거래 알림과 함께 foreground service로 전환한다. TradingEngineService도 같은 알림을 사용한다.
+     */
+    static void startForegroundService(Service service) {
         Log.d("KTrader", "[TradeJobService] startForegroundService() 시작");
         
         try {
-            Intent notificationIntent = new Intent(this, MainActivity.class);
+            Intent notificationIntent = new Intent(service, MainActivity.class);
             PendingIntent pendingIntent = PendingIntent.getActivity(
-                this, 0, notificationIntent, 
+                service, 0, notificationIntent, 
                 PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
             );
             Log.d("KTrader", "[TradeJobService] PendingIntent 생성 완료");
 
-            NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
+            NotificationCompat.Builder builder = new NotificationCompat.Builder(service, CHANNEL_ID)
                 .setContentTitle("K-Trader 자동 거래")
                 .setContentText("백그라운드에서 자동 거래가 실행 중입니다")
                 .setSmallIcon(R.drawable.ic_notification)
@@ -177,12 +248,12 @@ public class TradeJobService extends JobService {
                 .setOngoing(true)
                 .setPriority(NotificationCompat.PRIORITY_LOW)
                 .setCategory(NotificationCompat.CATEGORY_SERVICE)
-                        .setColor(getNotificationColorByTheme()); // 테마에 따른 동적 색상 설정
+                        .setColor(getNotificationColorByTheme(service)); // 테마에 따른 동적 색상 설정
 
             Log.d("KTrader", "[TradeJobService] NotificationCompat.Builder 생성 완료");
 
             // 채널 존재 확인
-            NotificationManager nm = getSystemService(NotificationManager.class);
+            NotificationManager nm = service.getSystemService(NotificationManager.class);
             if (nm != null) {
                 NotificationChannel channel = nm.getNotificationChannel(CHANNEL_ID);
                 if (channel != null) {
@@ -195,10 +266,10 @@ public class TradeJobService extends JobService {
             if (Build.VERSION.SDK_INT >= 34) {
                 // Android 14 (API 34) 이상에서는 서비스 타입을 지정해야 함
                 Log.d("KTrader", "[TradeJobService] Android 14+ - FOREGROUND_SERVICE_TYPE_DATA_SYNC 사용");
-                startForeground(FOREGROUND_SERVICE_ID, builder.build(), android.content.pm.ServiceInfo.FOREGROUND_SERVICE_TYPE_DATA_SYNC);
+                service.startForeground(FOREGROUND_SERVICE_ID, builder.build(), android.content.pm.ServiceInfo.FOREGROUND_SERVICE_TYPE_DATA_SYNC);
             } else {
                 Log.d("KTrader", "[TradeJobService] Android 13 이하 - 기본 startForeground 사용");
-                startForeground(FOREGROUND_SERVICE_ID, builder.build());
+                service.startForeground(FOREGROUND_SERVICE_ID, builder.build());
             }
             
             Log.d("KTrader", "[TradeJobService] startForeground() 호출 완료");
@@ -222,6 +293,38 @@ public class TradeJobService extends JobService {
         }
     }
 
+    /**
+     * 정기 실행 주기와 관계 없이 tick을 바로 한 번 실행시킨다.
+     * TradingEngine이 실행 중이면 엔진 thread에서 실행하고, 아니면 1회성 job(JOB_ID_FIRST)을 등록한다. 대기 중인 1회성 job은 대체된다.
+     */
+    static void requestImmediateTick(Context context) {
+        requestImmediateTick(context, null);
+    }
+
+    /**
+     * coinType 코인의 tick을 바로 한 번 실행시킨다. null이면 화면에 표시하는 코인이다.
+     * JobScheduler job은 화면에 표시하는 코인만 매매하므로, 다른 코인은 엔진이 실행 중일 때만 실행된다.
+     */
+    static void requestImmediateTick(Context context, String coinType) {
+        if (coinType == null)
+            coinType = GlobalSettings.getInstance().getCoinType();
+        if (TradingEngine.getInstance(coinType).requestTick())
+            return;
+        if (!coinType.equals(GlobalSettings.getInstance().getCoinType()))
+            return;
+
+        JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (jobScheduler == null)
+            return;
+
+        JobInfo job = new JobInfo.Builder(MainPage.JOB_ID_FIRST, new ComponentName(context, TradeJobService.class))
+                .setMinimumLatency(0)
+                .setOverrideDeadline(0)
+                .build();
+        if (jobScheduler.schedule(job) <= JobScheduler.RESULT_FAILURE)
+            Log.e("KTrader", "[TradeJobService] Unable to schedule immediate trade job!");
+    }
+
     private void log_info(final String log) {
         if (logger != null) {
             logger.info(log);
@@ -241,20 +344,20 @@ public class TradeJobService extends JobService {
         Log.d("KTrader", "[TradeJobService] notificationTrade() 시작 - title: " + title + ", text: " + text);
         
         try {
-            Resources res = getResources();
+            Resources res = ctx.getResources();
 
-            Intent notificationIntent = new Intent(this, MainActivity.class);
+            Intent notificationIntent = new Intent(ctx, MainActivity.class);
             notificationIntent.setAction(Intent.ACTION_MAIN);
             notificationIntent.addCategory(Intent.CATEGORY_LAUNCHER);
             notificationIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
 
             PendingIntent contentIntent = PendingIntent.getActivity(
-                this, 0, notificationIntent, 
+                ctx, 0, notificationIntent, 
                 PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
             );
             Log.d("KTrader", "[TradeJobService] PendingIntent 생성 완료");
 
-            NotificationCompat.Builder builder = new NotificationCompat.Builder(this, "my_channel_id_03");
+            NotificationCompat.Builder builder = new NotificationCompat.Builder(ctx, "my_channel_id_03");
 
             builder.setContentTitle(title)
                     .setContentText(text)
@@ -271,7 +374,7 @@ public class TradeJobService extends JobService {
 
             Log.d("KTrader", "[TradeJobService] NotificationCompat.Builder 생성 완료");
 
-            NotificationManager nm = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+            NotificationManager nm = (NotificationManager) ctx.getSystemService(Context.NOTIFICATION_SERVICE);
 
             if (nm != null) {
                 Log.d("KTrader", "[TradeJobService] NotificationManager 획득 성공");
@@ -312,65 +415,119 @@ public class TradeJobService extends JobService {
         }
     }
 
-    private TradeDataManager.Type convertSearchType(int search) {
-        switch(search) {
-            case 1 : return BUY;
-            case 2 : return SELL;
-        }
-        return NONE;
-    }
-
     // 1시간 동안 시장가 변동폭을 구해 리턴한다.
     private float getPriceVariationRate() {
-        int maxPrice = Collections.max(priceQueue);
-        int minPrice = Collections.min(priceQueue);
+        market.priceWindow.expire(System.currentTimeMillis());
+        return market.priceWindow.getVariationRate();
+    }
 
-        int minIndex = priceQueue.indexOf(minPrice);
-        int maxIndex = priceQueue.indexOf(maxPrice);
+    /**
+     * 실시간 시세로 받은 체결가를 변동폭 계산에 반영한다.
+     */
+    static void recordMarketPrice(long timeMillis, int price) {
+        recordMarketPrice(MarketState.of(null), timeMillis, price);
+    }
 
-        if (minIndex < maxIndex) {
-            // 상승
-            return ((maxPrice / (float)minPrice ) - 1) * 100;
-        } else {
-            // 하락
-            return ((minPrice / (float)maxPrice ) - 1) * 100;
-        }
+    /**
+     * 실시간 시세로 받은 coinType 코인의 체결가를 변동폭 계산에 반영한다.
+     */
+    static void recordMarketPrice(String coinType, long timeMillis, int price) {
+        recordMarketPrice(MarketState.of(coinType), timeMillis, price);
     }
 
-    private List<TradeData> mergeSamePrice(List<TradeData> list) {
-        Iterator<TradeData> i = list.iterator();
-        List<TradeData> newList = new ArrayList<>();
+    private static void recordMarketPrice(MarketState market, long timeMillis, int price) {
+        market.priceWindow.add(timeMillis, price);
+        market.priceHistory.add(timeMillis, price);
+        EngineStateJournal journal = market.stateJournal;
+        if (journal != null)
+            journal.appendPrice(timeMillis, price);
+    }
 
-        while (i.hasNext()) {
-            TradeData outer = i.next();
-            boolean skip = false;
+    // 프로세스가 종료되었다가 다시 시작되어도 이전과 같은 판단을 할 수 있도록 시장가 기록, 체결 이력, tick 상태를 파일에서 한 번만 복원한다.
+    // 읽은 내용으로 기록을 덮어쓰므로 실시간 시세 수신을 시작하기 전에 호출한다.
+    static void restoreEngineState(Context context) {
+        for (String coinType : GlobalSettings.getInstance().getCoinTypes())
+            restoreEngineState(context, coinType);
+    }
 
-            for (TradeData inner : newList) {
-                if (inner.getPrice() == outer.getPrice()) {
-                    inner.setUnits(outer.getUnits() + inner.getUnits());
-                    if (outer.getProcessedTime() > inner.getProcessedTime())
-                        inner.setProcessedTime(outer.getProcessedTime());
-                    skip = true;
-                }
-            }
+    // coinType 코인의 상태를 복원한다. 코인마다 파일을 따로 사용한다.
+    static synchronized void restoreEngineState(Context context, String coinType) {
+        MarketState market = MarketState.of(coinType);
+        if (market.stateJournal != null || context.getFilesDir() == null)
+            return;
 
-            if (!skip)
-                newList.add(outer);
+        long startNanos = System.nanoTime();
+        File file = new File(context.getFilesDir(), String.format(Locale.US, ENGINE_STATE_FILE_NAME, market.coinType));
+        EngineStateJournal journal = new EngineStateJournal(file, ENGINE_STATE_COMPACTION_BYTES);
+        try {
+            EngineStateJournal.State state = journal.restore(market.priceWindow, market.processedOrderManager, System.currentTimeMillis());
+            if (state != null) {
+                market.lastNotiTimeInMillis = state.lastNotiTimeInMillis;
+                market.availableCoinBalance = state.availableCoinBalance;
+                Log.d("KTrader", "[TradeJobService] " + market.coinType + " 엔진 상태 복원 : record " + state.recordCount + ", 시장가 " + market.priceWindow.size()
+                        + ", 체결 이력 " + market.processedOrderManager.size() + ", " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + "ms");
+            } else if (market.isPrimary()) {
+                // 이전 버전은 화면에 표시하는 코인만 매매했다.
+                restoreLegacyPriceWindow(context, market);
+            }
+        } catch (IOException e) {
+            Log.e("KTrader", "[TradeJobService] 엔진 상태 복원 실패", e);
+        }
+        if (market.isPrimary()) {
+            lastNotiTimeInMillis = market.lastNotiTimeInMillis;
+            availableCoinBalance = market.availableCoinBalance;
         }
 
-        return newList;
+        // 복원한 상태로 파일을 새로 써서 이후 기록은 짧은 파일에 덧붙인다.
+        try {
+            journal.compact(market.priceWindow, market.processedOrderManager, market.lastNotiTimeInMillis, market.availableCoinBalance);
+        } catch (IOException e) {
+            Log.e("KTrader", "[TradeJobService] 엔진 상태 저장 실패", e);
+        }
+        market.stateJournal = journal;
     }
 
-    private boolean isSameSlotOrder(TradeData oData, TradeData pData, int price) {
-        if (((oData.getUnits() + pData.getUnits()) * price) <= (GlobalSettings.getInstance().getUnitPrice() + GlobalSettings.getInstance().getUnitPrice() * (GlobalSettings.getInstance().getEarningRate() / 100.0))) {
-            log_info("isSameSlotOrder : " + String.format(Locale.getDefault(), "%,d", (int)((oData.getUnits() + pData.getUnits()) * price))
-                    + ", " + String.format(Locale.getDefault(), "%,d", (int)(oData.getUnits() * price))
-                    + ", " + String.format(Locale.getDefault(), "%,d", (int)(pData.getUnits() * price)));
+    // 이전 버전이 저장한 시장가 기록을 읽어 온다. 이후에는 엔진 상태 파일에 저장되므로 읽은 뒤 지운다.
+    private static void restoreLegacyPriceWindow(Context context, MarketState market) {
+        File file = new File(context.getFilesDir(), PRICE_WINDOW_FILE_NAME);
+        if (!file.exists())
+            return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            market.priceWindow.readFrom(in, System.currentTimeMillis());
+            Log.d("KTrader", "[TradeJobService] 시장가 기록 복원 : " + market.priceWindow.size());
+        } catch (IOException e) {
+            Log.e("KTrader", "[TradeJobService] 시장가 기록 복원 실패", e);
+        }
+        if (!file.delete())
+            Log.e("KTrader", "[TradeJobService] 이전 시장가 기록 삭제 실패");
+    }
 
-            return true;
+    // tick이 끝날 때 이번 tick에서 쌓인 기록을 엔진 상태 파일에 덧붙인다.
+    private static void saveEngineState(MarketState market) {
+        EngineStateJournal journal = market.stateJournal;
+        if (journal == null)
+            return;
+        journal.appendState(market.lastNotiTimeInMillis, market.availableCoinBalance);
+        try {
+            journal.flush();
+            if (journal.needsCompaction()) {
+                market.priceWindow.expire(System.currentTimeMillis());
+                journal.compact(market.priceWindow, market.processedOrderManager, market.lastNotiTimeInMillis, market.availableCoinBalance);
+            }
+        } catch (IOException e) {
+            Log.e("KTrader", "[TradeJobService] 엔진 상태 저장 실패", e);
         }
+    }
 
-        return false;
+    // tick이 끝날 때 이번 tick에서 모인 체결가와 봉을 DB에 저장한다. 저장은 io 스레드에서 진행하므로 tick을 기다리게 하지 않는다.
+    private void savePriceHistory(MarketState market) {
+        PriceHistory.Batch batch = market.priceHistory.drain();
+        if (batch.isEmpty() || ctx == null)
+            return;
+        if (batch.droppedTicks > 0)
+            Log.w("KTrader", "[TradeJobService] " + market.coinType + " 저장하지 못한 체결가 : " + batch.droppedTicks);
+        PriceHistoryRepository.getInstance(ctx).save(batch)
+                .subscribe(() -> { }, throwable -> Log.e("KTrader", "[TradeJobService] 시장가 기록 저장 실패", throwable));
     }
 
     private void tradeBusinessLogic() throws Exception {
@@ -386,16 +543,18 @@ public class TradeJobService extends JobService {
                                         .setFileLogEnabled(sharedPreferences.getBoolean(GlobalSettings.FILE_LOG_ENABLED_KEY_NAME, false))
                                         .setEarningRate(sharedPreferences.getFloat(GlobalSettings.EARNING_RATE_KEY_NAME, GlobalSettings.EARNING_RATE_DEFAULT_VALUE))
                                         .setSlotIntervalRate(sharedPreferences.getFloat(GlobalSettings.SLOT_INTERVAL_RATE_KEY_NAME, GlobalSettings.SLOT_INTERVAL_RATE_DEFAULT_VALUE));
+            GlobalSettings.getInstance().loadMarketSettings(sharedPreferences);
             logger = Log4jHelper.getLogger("TradeJobService");
             log_info("App has been terminated by Android");
         }
+        market = getMarket();
 
         // static 변수 초기화 - 매번 현재 시간으로 설정하여 중복 노티 방지
         long currentTimeMillis = Calendar.getInstance().getTimeInMillis();
         
         // 마지막으로 처리된 거래의 시간을 찾아서 설정 (매수/매도 구분 없이)
-        TradeData lastBuyTrade = processedOrderManager.findLatestProcessedTime(BUY);
-        TradeData lastSellTrade = processedOrderManager.findLatestProcessedTime(SELL);
+        TradeData lastBuyTrade = market.processedOrderManager.findLatestProcessedTime(BUY);
+        TradeData lastSellTrade = market.processedOrderManager.findLatestProcessedTime(SELL);
         
         long lastBuyTimeMillis = lastBuyTrade != null ? lastBuyTrade.getProcessedTime() : 0;
         long lastSellTimeMillis = lastSellTrade != null ? lastSellTrade.getProcessedTime() : 0;
@@ -404,18 +563,18 @@ public class TradeJobService extends JobService {
         long latestTradeTime = Math.max(lastBuyTimeMillis, lastSellTimeMillis);
         
         if (latestTradeTime > 0 && latestTradeTime < currentTimeMillis) {
-            lastNotiTimeInMillis = latestTradeTime;
+            market.lastNotiTimeInMillis = latestTradeTime;
             Calendar lastTradeCal = Calendar.getInstance();
-            lastTradeCal.setTimeInMillis(lastNotiTimeInMillis);
+            lastTradeCal.setTimeInMillis(market.lastNotiTimeInMillis);
             Log.d("KTrader", "[TradeJobService] lastNotiTimeInMillis 초기화 - 마지막 처리된 거래 시간: " + 
                 String.format(Locale.getDefault(), "%02d/%02d %02d:%02d:%02d", 
                     lastTradeCal.get(Calendar.MONTH) + 1, lastTradeCal.get(Calendar.DATE),
                     lastTradeCal.get(Calendar.HOUR_OF_DAY), lastTradeCal.get(Calendar.MINUTE), lastTradeCal.get(Calendar.SECOND)));
         } else {
             // 처리된 거래가 없거나 시간이 이상한 경우 현재 시간으로 설정
-            lastNotiTimeInMillis = currentTimeMillis;
+            market.lastNotiTimeInMillis = currentTimeMillis;
             Calendar currentCal = Calendar.getInstance();
-            currentCal.setTimeInMillis(lastNotiTimeInMillis);
+            currentCal.setTimeInMillis(market.lastNotiTimeInMillis);
             Log.d("KTrader", "[TradeJobService] lastNotiTimeInMillis 초기화 - 현재 시간으로 설정: " + 
                 String.format(Locale.getDefault(), "%02d/%02d %02d:%02d:%02d", 
                     currentCal.get(Calendar.MONTH) + 1, currentCal.get(Calendar.DATE),
@@ -428,16 +587,22 @@ public class TradeJobService extends JobService {
                 , currentTime.get(Calendar.YEAR), currentTime.get(Calendar.MONTH) + 1, currentTime.get(Calendar.DATE)
                 , currentTime.get(Calendar.HOUR_OF_DAY), currentTime.get(Calendar.MINUTE), currentTime.get(Calendar.SECOND)));
 
+        // 잔고, 호가, 미체결 주문, 체결 이력 조회는 서로 독립적이므로 한 번에 요청하고 필요한 시점에 결과를 기다린다.
+        // 이 tick의 주문 요청은 네 조회가 모두 끝난 뒤에 발행된다.
+        long fetchStartNanos = System.nanoTime();
+        CompletableFuture<Balance> balanceFuture = orderManager.getBalanceInfoAsync("");
+        CompletableFuture<Orderbook> orderbookFuture = orderManager.getOrderbookAsync("");
+        CompletableFuture<List<TradeData>> placedOrdersFuture = orderManager.getPlacedOrdersAsync("");
+        CompletableFuture<List<TradeData>> processedOrdersFuture = orderManager.getProcessedOrdersAsync("", 0, "50");
+
                 // 잔고를 가져와 업데이트 한다.
-                double krwBalance;
+                long krwBalance;
                 {
-                    JSONObject dataObj = orderManager.getBalance("");
-                    String totalKrw = (String) dataObj.get("total_krw");
-                    String availableBtc = (String) dataObj.get("available_btc");
+                    Balance balance = ApiExecutor.await(balanceFuture);
                     
-                    if (totalKrw != null && availableBtc != null) {
-                        krwBalance = Double.parseDouble(totalKrw);
-                        availableCoinBalance = Double.parseDouble(availableBtc);
+                    if (balance.isValid()) {
+                        krwBalance = balance.totalKrw;
+                        market.availableCoinBalance = balance.availableCoin;
                     } else {
                         log_info("잔고 정보를 가져올 수 없습니다.");
                         sendErrorCard("Balance Error", ERR_API_003.getDescription());
@@ -447,13 +612,11 @@ public class TradeJobService extends JobService {
 
         // 현재 코인 현재가를 가져온다.
         {
-            JSONObject dataObj = orderManager.getCurrentPrice("");
-            JSONArray dataArray = (JSONArray) dataObj.get("bids"); // 매수가
-            if (dataArray != null && !dataArray.isEmpty()) {
-                JSONObject item = (JSONObject) dataArray.get(0); // 기본 5개 아이템 중 첫번째 아이템 사용
-                String priceStr = (String) item.get("price");
-                if (priceStr != null) {
-                    currentPrice = (int)Double.parseDouble(priceStr);
+            Orderbook orderbook = ApiExecutor.await(orderbookFuture);
+            if (orderbook.bidCount > 0) { // 매수가
+                double bestBidPrice = orderbook.getBestBidPrice(); // 첫번째 아이템 사용
+                if (!Double.isNaN(bestBidPrice)) {
+                    market.currentPrice = (int) bestBidPrice;
                 } else {
                     log_info("현재가 정보를 가져올 수 없습니다.");
                     sendErrorCard("Price Error", ERR_API_004.getDescription());
@@ -465,105 +628,72 @@ public class TradeJobService extends JobService {
                 return;
             }
 
-            log_info(getCurrentCoinType() + " 현재가 : " + String.format(Locale.getDefault(), "%,d", currentPrice));
+            log_info(getCurrentCoinType() + " 현재가 : " + String.format(Locale.getDefault(), "%,d", market.currentPrice));
             
             // 카드 데이터 전송
-            sendCardData(currentPrice, krwBalance);
+            if (market.isPrimary()) // 화면은 한 코인만 표시한다.
+                sendCardData(market.currentPrice, krwBalance);
 
             // 빗썸은 0.0001 코인이 최소 거래 단위이므로 체크
             String coinType = getCurrentCoinType();
-            if (currentPrice / 10000 > GlobalSettings.getInstance().getUnitPrice()) {
-                log_info("확인 필요 : 현재 설정 된 1회 거래 금액 설정값(" + String.format(Locale.getDefault(), "%,d원", GlobalSettings.getInstance().getUnitPrice()) +")이 거래소 최소 거래 가능 금액 0.0001" + coinType + String.format(Locale.getDefault(), "(%,d원)", currentPrice / 10000) + " 보다 작습니다.");
+            if (!getKernel().isTradable(market.currentPrice)) {
+                log_info("확인 필요 : 현재 설정 된 1회 거래 금액 설정값(" + String.format(Locale.getDefault(), "%,d원", market.getSettings().getUnitPrice()) +")이 거래소 최소 거래 가능 금액 0.0001" + coinType + String.format(Locale.getDefault(), "(%,d원)", market.currentPrice / 10000) + " 보다 작습니다.");
                 return;
             }
 
-            priceQueue.add(currentPrice);
-            while (priceQueue.size() > PRICE_SAVING_QUEUE_COUNT) {
-                // 가장 오래된 시장가를 밀어낸다.
-                priceQueue.remove(0);
-            }
+            recordMarketPrice(market, System.currentTimeMillis(), market.currentPrice);
 
             log_info("최근 한시간 변화폭 : " + String.format(Locale.getDefault(), "(%,.1f%%)", getPriceVariationRate()));
         }
 
         // 현재 걸려 있는 매도 리스트를 가져온다.
         {
-            JSONArray dataArray = orderManager.getPlacedOrderList("");
-            Log.d("KTrader", "placed order item count : " +  dataArray.size());
+            List<TradeData> placedOrders = ApiExecutor.await(placedOrdersFuture);
+            Log.d("KTrader", "placed order item count : " +  placedOrders.size());
 
-            for (int i = 0; i < dataArray.size(); i++) {
-                JSONObject item = (JSONObject) dataArray.get(i);
-                
-                String typeStr = (String) item.get("type");
-                String unitsStr = (String) item.get("units_remaining");
-                String priceStr = (String) item.get("price");
-                String orderDateStr = (String) item.get("order_date");
-                
-                if (typeStr != null && unitsStr != null && priceStr != null && orderDateStr != null) {
-                    placedOrderManager.add(placedOrderManager.build()
-                            .setType(orderManager.convertOrderType(typeStr))
-                            .setStatus(PLACED)
-                            .setId((String) item.get("order_id"))
-                            .setUnits((float) Double.parseDouble(unitsStr))
-                            .setPrice(Integer.parseInt(priceStr.replaceAll(",", "")))
-                            .setPlacedTime(Long.parseLong(orderDateStr) / 1000));
-                }
+            // TradingEngine은 같은 인스턴스로 tick을 반복하므로 이번에 받은 목록으로 새로 채운다.
+            placedOrderManager.clear();
+
+            int restingBuyPrice = 0;
+            for (TradeData data : placedOrders) {
+                placedOrderManager.add(data);
+                if (data.getType() == BUY)
+                    restingBuyPrice = Math.max(restingBuyPrice, data.getPrice());
             }
+            if (market.isPrimary()) // 체결 감시는 화면에 표시하는 코인의 체결만 받는다.
+                FillEventMonitor.getInstance().setRestingBuyPrice(restingBuyPrice);
+
+            slotLadder = null;
+            getSlotLadder(market.currentPrice);
         }
 
         // 현재 매도 걸려 있는 order들이 전부 매도 완료되었을 때 예상 잔고
         log_info("예상잔고 : " + String.format(Locale.getDefault(), "%,d"
-                , (long)(krwBalance + placedOrderManager.getEstimation()) + (int)(availableCoinBalance * currentPrice))
-                + " , 주문가능원화 (" + String.format(Locale.getDefault(), "%,d", (long)(krwBalance)) +")" );
+                , krwBalance + placedOrderManager.getEstimation() + CoinUnits.krwValue(market.availableCoinBalance, market.currentPrice))
+                + " , 주문가능원화 (" + String.format(Locale.getDefault(), "%,d", krwBalance) +")" );
         //log_info("예상잔고 : " + String.format(Locale.getDefault(), "%,d"
         //        , (long)(krwBalance + placedOrderManager.getEstimation()) + (int)(availableCoinBalance * currentPrice))
         //        );
         log_info("매도완료시: " + String.format(Locale.getDefault(), "%,d", (long)(placedOrderManager.getEstimation()))
-                + " , 주문잔고: " + String.format(Locale.getDefault(), "%,d", (int)(availableCoinBalance * currentPrice))
+                + " , 주문잔고: " + String.format(Locale.getDefault(), "%,d", CoinUnits.krwValue(market.availableCoinBalance, market.currentPrice))
                 );
 
         // 매수/매도 완료 이력을 가져온다.
         {
-            JSONArray dataArray = orderManager.getProcessedOrderList("", 0, "15");
-            for (Object o : dataArray) {
-                JSONObject item = (JSONObject)o;
-//              Log.d("KTrader", item.toString());
-
-                String searchStr = (String)item.get("search");
-                String transferDateStr = (String)item.get("transfer_date");
-                
-                if (searchStr != null && transferDateStr != null) {
-                    int search = Integer.parseInt(searchStr);
-                    long processedTimeInMillis;
-                    
-                    if (transferDateStr.length() == 13)
-                        processedTimeInMillis = Long.parseLong(transferDateStr);
-                    else // micro second
-                        processedTimeInMillis = Long.parseLong(transferDateStr) / 1000;
-
-                if (processedOrderManager.findByProcessedTime(processedTimeInMillis) == null && convertSearchType(search) != NONE) {
-//                                Log.d("KTrader", item.toString());
-                    String unitsStr = (String) item.get("units");
-                    String priceStr = (String) item.get("price");
-                    String feeStr = (String) item.get("fee");
-                    
-                    if (unitsStr != null && priceStr != null) {
-                        processedOrderManager.add(processedOrderManager.build()
-                                .setType(convertSearchType(search))
-                                .setStatus(PROCESSED)
-                                .setUnits(((float) Double.parseDouble(unitsStr.replace(" ", "").replace("-", ""))))
-                                .setPrice(Math.abs(Integer.parseInt(priceStr)))
-                                .setFeeRaw(feeStr)
-                                .setProcessedTime(processedTimeInMillis));
-                    }
-                }
+            List<TradeData> processedOrders = ApiExecutor.await(processedOrdersFuture);
+            for (TradeData data : processedOrders) {
+                if (market.processedOrderManager.findByProcessedTime(data.getProcessedTime()) == null) {
+                    market.processedOrderManager.add(data);
+                    if (market.stateJournal != null)
+                        market.stateJournal.appendTrade(data);
                 }
             }
         }
+        Log.d("KTrader", "[TradeJobService] 조회 소요 시간 : " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fetchStartNanos) + "ms");
 
         // 마지막 매수 관련 정보를 초기화 한다.
         {
-            TradeData data = processedOrderManager.findLatestProcessedTime(BUY);
+            TradeData data = market.processedOrderManager.findLatestProcessedTime(BUY);
             if (data != null) {
                 Calendar lastBuyTime;
                 lastBuyTime = Calendar.getInstance();
@@ -576,7 +706,7 @@ public class TradeJobService extends JobService {
 
         // 마지막 매도 관련 정보를 초기화 환다.
         {
-            TradeData data = processedOrderManager.findLatestProcessedTime(SELL);
+            TradeData data = market.processedOrderManager.findLatestProcessedTime(SELL);
             if (data != null) {
                 Calendar lastSellTime;
                 lastSellTime = Calendar.getInstance();
@@ -590,7 +720,7 @@ public class TradeJobService extends JobService {
         // 마지막 Noti 이후 발생한 매도/매수에 대해서 Noti를 발송하고, 매수건에 대해서는 이익금을 더해 매도 오더를 발행한다.
         {
             // 마지막 Noti 이후 발생한 매도/매수만 필터링 한 결과를 얻는다.
-            List<TradeData> allTrades = processedOrderManager.getList();
+            List<TradeData> allTrades = market.processedOrderManager.getList();
             Log.d("KTrader", "[TradeJobService] 전체 처리된 거래 수: " + allTrades.size());
             
             // 각 거래의 시간을 로그로 출력
@@ -605,128 +735,57 @@ public class TradeJobService extends JobService {
             }
             
             List<TradeData> list = allTrades.stream()
-                    .filter(T -> T.getProcessedTime() > lastNotiTimeInMillis)
+                    .filter(T -> T.getProcessedTime() > market.lastNotiTimeInMillis)
                     .collect(Collectors.toList());
             
             Log.d("KTrader", "[TradeJobService] 필터링된 새로운 거래 수: " + list.size());
             
             Calendar lastNotiCal = Calendar.getInstance();
-            lastNotiCal.setTimeInMillis(lastNotiTimeInMillis);
+            lastNotiCal.setTimeInMillis(market.lastNotiTimeInMillis);
             Log.d("KTrader", "[TradeJobService] lastNotiTimeInMillis: " + 
                 String.format(Locale.getDefault(), "%02d/%02d %02d:%02d:%02d", 
                     lastNotiCal.get(Calendar.MONTH) + 1, lastNotiCal.get(Calendar.DATE),
                     lastNotiCal.get(Calendar.HOUR_OF_DAY), lastNotiCal.get(Calendar.MINUTE), lastNotiCal.get(Calendar.SECOND)));
 
-            // 동일 가격이 여러개로 나눠져 있으면 합친다. (따로 매도 등록 되지 않도록 방지)
-            List<TradeData> newList = mergeSamePrice(list);
+            // 동일 가격이 여러개로 나눠져 있으면 kernel이 합친다. (따로 매도 등록 되지 않도록 방지)
+            getKernel().clearFills();
+            for (TradeData pData : list)
+                kernel.addFill(pData.getType(), pData.getPrice(), pData.getUnits(), pData.getProcessedTime());
 
             // 각 항목에 대해 Noti 처리한다.
-            long maxProcessedTime = lastNotiTimeInMillis; // 현재까지의 최대 처리 시간
+            long maxProcessedTime = market.lastNotiTimeInMillis; // 현재까지의 최대 처리 시간
             
-            for (TradeData pData : newList) {
+            for (int f = 0; f < kernel.getFillCount(); f++) {
                 Calendar time = Calendar.getInstance();
-                time.setTimeInMillis(pData.getProcessedTime());
+                time.setTimeInMillis(kernel.getFillTime(f));
+                int price = kernel.getFillPrice(f);
 
-                if (pData.getType() == BUY) {
-                    log_info("매수 발생 : " + String.format(Locale.getDefault(), "%,d", pData.getPrice()));
-                    notificationTrade("매수 발생", "매수 : " + String.format(Locale.getDefault(), "%,d", pData.getPrice()) + ", " + String.format(Locale.getDefault(), "%02d/%02d %02d:%02d"
+                if (kernel.getFillType(f) == BUY) {
+                    log_info("매수 발생 : " + String.format(Locale.getDefault(), "%,d", price));
+                    notificationTrade("매수 발생", "매수 : " + String.format(Locale.getDefault(), "%,d", price) + ", " + String.format(Locale.getDefault(), "%02d/%02d %02d:%02d"
                             , time.get(Calendar.MONTH) + 1, time.get(Calendar.DATE)
                             , time.get(Calendar.HOUR_OF_DAY), time.get(Calendar.MINUTE)));
-
-                    // 매도 오더 발행 : 마지막 매수 오더가 완료되었다면 +INTERVAL_PRICE 가격에 매도 오더를 발행한다.
-                    // 매수되었던 unit이 소수점 4자리 이하 일수도 있으니 다시 4자리로 절사 한다.
-                    float unit = (float)((int)(pData.getUnits() * 10000) / 10000.0);
-
-                    // 0.00005~9 만큼 남는다면 반올림한다.
-                    if ((pData.getUnits() - unit) > 0.00005) {
-                        if ((availableCoinBalance - unit) > 0.0001) {
-                            unit = (float)(Math.round(pData.getUnits() * 10000d) / 10000d);
-                            log_info(String.format(Locale.getDefault(), "매도 보정1 : %f -> %f", pData.getUnits(), unit));
-                        }
-                    }
-
-                    // 이전 매수된 BTC 가 소수점 5자리에서 반올림 되는 경우 대비
-                    // 남은 잔고보다 계산 값이 큰 경우에는 서버 에러가 발생하므로 잔고만큼만 매도한다. (ex : 0.0047 vs 0.00469..)
-                    // 런타임에 availableCoinBalance 값이 변경되므로 조건문은 정상적으로 동작함
-                    if (unit > availableCoinBalance) {
-                        log_info(String.format(Locale.getDefault(), "매도 보정2 : %f, %f", unit, availableCoinBalance));
-                        unit = (float)((int)(availableCoinBalance * 10000) / 10000.0);
-                    }
-
-                    // 매수된 내용이 있다면 가능한 상위 slot에 매도하도록 한다.
-                    boolean isSold = false;
-                    for (int i = 0; i< SELL_SLOT_LOOK_ASIDE_MAX; i++) {
-                        // intervalPrice가 바뀌는 경계값일 때 문제를 해결하기 위해서 매도할 때의 interval은 현재가가 아니라 매수가를 기준으로 산정한다.
-                        int sellIntervalPrice = MainPage.getSlotIntervalPrice(pData.getPrice());
-                        int targetPrice = pData.getPrice() + MainPage.getProfitPrice(pData.getPrice()) + (sellIntervalPrice * (SELL_SLOT_LOOK_ASIDE_MAX - 1 - i));
-                        if ((pData.getPrice() % sellIntervalPrice) != 0)
-                            targetPrice = (pData.getPrice() - (pData.getPrice() % sellIntervalPrice) + sellIntervalPrice) + MainPage.getProfitPrice(pData.getPrice()) + (sellIntervalPrice * (SELL_SLOT_LOOK_ASIDE_MAX - 1 - i));
-
-                        TradeData oData = placedOrderManager.findByPrice(SELL, targetPrice);
-                        // 런타임에 oData 값이 변경되므로 조건문은 정상적으로 동작함
-                        @SuppressWarnings("ConstantConditions")
-                        boolean oDataCondition = oData == null || // Slot이 비어 있다면 해당 Slot에 매도 주문을 넣는다.
-                                (oData != null && isSameSlotOrder(oData, pData, targetPrice)); // 해당 Slot에 이미 Order가 있는 경우라도 분할 매수된 경우라면 동일 가격으로 매도 주문하도록 한다.
-                        if (oDataCondition) {
-                            Log.d("KTrader", "[TradeJobService] 매도 주문 시도 - 가격: " + targetPrice + ", 수량: " + unit);
-                            JSONObject sellResult = orderManager.addOrder("매수 발생 대응 매도", SELL, unit, targetPrice);
-                            if (sellResult == null) {
-                                Log.e("KTrader", "[TradeJobService] 매도 주문 실패 - API 응답이 null");
-                                // isSold는 false로 유지되어 매도 실패 노티가 발생함
-                            } else if (!"0000".equals(sellResult.get("status"))) {
-                                Log.e("KTrader", "[TradeJobService] 매도 주문 실패 - 상태: " + sellResult.get("status") + ", 메시지: " + sellResult.get("message"));
-                                // isSold는 false로 유지되어 매도 실패 노티가 발생함
-                            } else {
-                                Log.d("KTrader", "[TradeJobService] 매도 주문 성공: " + sellResult.toString());
-                                isSold = true;
-                                availableCoinBalance -= unit;
-
-                                // 매도 대기 정보 업데이트 노티 발생
-                                Calendar sellTime = Calendar.getInstance();
-                                String notificationTitle = "매도 대기 등록";
-                                String notificationText = "매도 대기 : " + String.format(Locale.getDefault(), "%,d", targetPrice) + 
-                                    ", " + String.format(Locale.getDefault(), "%02d/%02d %02d:%02d",
-                                    sellTime.get(Calendar.MONTH) + 1, sellTime.get(Calendar.DATE),
-                                    sellTime.get(Calendar.HOUR_OF_DAY), sellTime.get(Calendar.MINUTE));
-                                
-                                Log.d("KTrader", "[TradeJobService] 매도 대기 등록 노티 발생: " + notificationText);
-                                notificationTrade(notificationTitle, notificationText);
-
-                                // 뒤쪽에서 매수 주문 낼 때 위에서 매도낸 금액이랑 똑같은 매수 다시 내지 않도록 리스트에 넣어둔다. (리스트 전체를 다시 갱신하려면 REST API를 한번 더 호출 해야 하니 경제적)
-                                placedOrderManager.add(placedOrderManager.build()
-                                        .setType(SELL)
-                                        .setStatus(PLACED)
-                                        .setUnits(unit)
-                                        .setPrice(targetPrice));
-                                break;
-                            }
-                        }
-                    }
-                    if (!isSold) {
-                        notificationTrade("매도 실패", "매도시도 : "
-                                + String.format(Locale.getDefault(), "%,d", pData.getPrice()));
-                    }
-                } else if (pData.getType() == SELL) {
-                    log_info("매도 발생 : " + String.format(Locale.getDefault(), "%,d", pData.getPrice()));
-                    notificationTrade("매도 발생", "매도 : " + String.format(Locale.getDefault(), "%,d", pData.getPrice()) + ", " + String.format(Locale.getDefault(), "%02d/%02d %02d:%02d"
+                } else if (kernel.getFillType(f) == SELL) {
+                    log_info("매도 발생 : " + String.format(Locale.getDefault(), "%,d", price));
+                    notificationTrade("매도 발생", "매도 : " + String.format(Locale.getDefault(), "%,d", price) + ", " + String.format(Locale.getDefault(), "%02d/%02d %02d:%02d"
                             , time.get(Calendar.MONTH) + 1, time.get(Calendar.DATE)
                             , time.get(Calendar.HOUR_OF_DAY), time.get(Calendar.MINUTE)));
                 } else {
                     // BUY, SELL 이외 수수료 쿠폰 구입 등의 항목일 경우에 여기로 올 수 있다.
-                    log_info("기타 거래 항목: " + pData.getType());
+                    log_info("기타 거래 항목: " + kernel.getFillType(f));
                 }
 
                 // 최대 처리 시간 업데이트
-                if (pData.getProcessedTime() > maxProcessedTime) {
-                    maxProcessedTime = pData.getProcessedTime();
+                if (kernel.getFillTime(f) > maxProcessedTime) {
+                    maxProcessedTime = kernel.getFillTime(f);
                 }
             }
             
             // 모든 노티 처리 완료 후 lastNotiTimeInMillis 업데이트
-            if (maxProcessedTime > lastNotiTimeInMillis) {
-                lastNotiTimeInMillis = maxProcessedTime;
+            if (maxProcessedTime > market.lastNotiTimeInMillis) {
+                market.lastNotiTimeInMillis = maxProcessedTime;
                 Calendar updatedCal = Calendar.getInstance();
-                updatedCal.setTimeInMillis(lastNotiTimeInMillis);
+                updatedCal.setTimeInMillis(market.lastNotiTimeInMillis);
                 Log.d("KTrader", "[TradeJobService] lastNotiTimeInMillis 업데이트 완료: " + 
                     String.format(Locale.getDefault(), "%02d/%02d %02d:%02d:%02d", 
                         updatedCal.get(Calendar.MONTH) + 1, updatedCal.get(Calendar.DATE),
@@ -734,140 +793,128 @@ public class TradeJobService extends JobService {
             }
         }
 
-        // 매수건에 대한 매도를 다 처리 했음에도 코인 잔고가 남아 있는 경우에 대한 예외처리, 가능한 slot을 찾아 매도 오더를 발행한다.
-        // 예) 매수 발생 후 앱이 종료되었다가 앱이 재실행 된 경우
-        if (availableCoinBalance > TRADING_VALUE_MIN) {
-            log_info("매도 필요 잔고 : " + String.format(Locale.getDefault(), "%.4f", availableCoinBalance));
-            // 현재가보다 상위에 비어 있는 slot 중 하나를 찾아보고 있다면 매도하도록 한다.
-            int floorPrice = getFloorPrice(currentPrice);
-            double unit = Math.min(getUnitAmount4Price(floorPrice), (availableCoinBalance * 10000) / 10000.0);
-            int sellIntervalPrice = MainPage.getSlotIntervalPrice(floorPrice) ;
-            for (int i = 0; i< SELL_SLOT_LOOK_ASIDE_MAX; i++) {
-                int targetPrice = floorPrice + MainPage.getProfitPrice(floorPrice) + (sellIntervalPrice * (SELL_SLOT_LOOK_ASIDE_MAX - 1 - i));
-
-                TradeData oData = placedOrderManager.findByPrice(SELL, targetPrice);
-                // 런타임에 oData 값이 변경되므로 조건문은 정상적으로 동작함
-                @SuppressWarnings("ConstantConditions")
-                boolean oDataCondition = oData == null || // Slot이 비어 있다면 해당 Slot에 매도 주문을 넣는다.
-                        (oData != null && isSameSlotOrder(oData, new TradeData().build().setUnits((float)unit), targetPrice)); // 해당 Slot에 이미 Order가 있는 경우라도 분할 매수된 경우라면 동일 가격으로 매도 주문하도록 한다.
-                if (oDataCondition) {
-                    JSONObject sellResult = orderManager.addOrder("이전 실행 매수 발생 대응 매도", SELL, unit, targetPrice);
-                    if (sellResult == null) {
-                        Log.e("KTrader", "[TradeJobService] 예외 처리 매도 주문 실패 - API 응답이 null");
-                        return;
-                    } else if (!"0000".equals(sellResult.get("status"))) {
-                        Log.e("KTrader", "[TradeJobService] 예외 처리 매도 주문 실패 - 상태: " + sellResult.get("status") + ", 메시지: " + sellResult.get("message"));
-                        return;
-                    } else {
-                        Log.d("KTrader", "[TradeJobService] 예외 처리 매도 주문 성공: " + sellResult.toString());
-                        availableCoinBalance -= unit;
-
-                        // 매도 대기 정보 업데이트 노티 발생
-                        Calendar exceptionTime = Calendar.getInstance();
-                        String notificationTitle = "매도 대기 등록";
-                        String notificationText = "매도 대기 : " + String.format(Locale.getDefault(), "%,d", targetPrice) + 
-                            ", " + String.format(Locale.getDefault(), "%02d/%02d %02d:%02d",
-                            exceptionTime.get(Calendar.MONTH) + 1, exceptionTime.get(Calendar.DATE),
-                            exceptionTime.get(Calendar.HOUR_OF_DAY), exceptionTime.get(Calendar.MINUTE));
-                        
-                        Log.d("KTrader", "[TradeJobService] 예외 처리 매도 대기 등록 노티 발생: " + notificationText);
-                        notificationTrade(notificationTitle, notificationText);
-
-                        // 뒤쪽에서 매수 주문 낼 때 위에서 매도낸 금액이랑 똑같은 매수 다시 내지 않도록 리스트에 넣어둔다. (리스트 전체를 다시 갱신하려면 REST API를 한번 더 호출 해야 하니 경제적)
-                        placedOrderManager.add(placedOrderManager.build()
-                                .setType(SELL)
-                                .setStatus(PLACED)
-                                .setUnits((float)unit)
-                                .setPrice(targetPrice));
-                        break;
-                    }
+        // 매수건에 대한 매도, 매도 주문에 들어가지 못한 코인 잔고 매도, 저점 매수 주문은 kernel이 판단하고 순서대로 발행한다.
+        // 매수건에 대한 매도 외의 주문이 실패하면 나머지 주문은 발행하지 않고 다음 tick에 다시 판단한다.
+        {
+            Log.d("KTrader", "[TradeJobService] 주문 판단 시작 - 현재가: " + market.currentPrice + ", KRW 잔고: " + krwBalance);
+            kernel.decide(getSlotLadder(market.currentPrice), market.currentPrice, krwBalance, market.availableCoinBalance);
+            for (int i = 0; i < kernel.getIntentCount(); i++)
+                Log.d("KTrader", "[TradeJobService] 주문 판단 " + i + " - " + kernel.getIntentType(i)
+                        + ", 가격: " + kernel.getIntentPrice(i) + ", 수량: " + kernel.getIntentUnits(i));
+
+            kernel.execute(exchangePort);
+
+            for (int f = 0; f < kernel.getFillCount(); f++) {
+                if (kernel.getFillType(f) == BUY && !kernel.isFillSold(f)) {
+                    notificationTrade("매도 실패", "매도시도 : "
+                            + String.format(Locale.getDefault(), "%,d", kernel.getFillPrice(f)));
                 }
             }
         }
+    }
 
-        // 매수 요청 발행, 어느 시점에서나 active한 매수 오더는 1개만 유지하도록 한다.
-        {
-            Log.d("KTrader", "[TradeJobService] 매수 주문 로직 시작 - 현재가: " + currentPrice);
-            Log.d("KTrader", "[TradeJobService] KRW 잔고: " + krwBalance);
-            
-            for (int i = 0; i< BUY_SLOT_LOOK_ASIDE_MAX; i++) {
-                int targetPrice = getFloorPrice(currentPrice);
-                targetPrice -= (i * (MainPage.getSlotIntervalPrice(targetPrice)));
-                
-                Log.d("KTrader", "[TradeJobService] 매수 슬롯 " + i + " - 목표가격: " + targetPrice);
+    // kernel이 판단한 주문을 거래소에 발행한다. 사다리는 kernel이 이미 갱신했으므로 잔고, 주문 목록, 알림만 처리한다.
+    private class LiveExchangePort implements GridDecisionKernel.ExchangePort {
+        @Override
+        public boolean sell(int price, long units, int fillIndex) {
+            boolean isFillSell = fillIndex >= 0;
+            if (!isFillSell)
+                log_info("매도 필요 잔고 : " + CoinUnits.toPlainString(market.availableCoinBalance));
+
+            Log.d("KTrader", "[TradeJobService] 매도 주문 시도 - 가격: " + price + ", 수량: " + CoinUnits.toPlainString(units));
+            JSONObject sellResult = orderManager.addOrder(isFillSell ? "매수 발생 대응 매도" : "이전 실행 매수 발생 대응 매도", SELL, units, price);
+            if (sellResult == null) {
+                Log.e("KTrader", "[TradeJobService] 매도 주문 실패 - API 응답이 null");
+                return false;
+            } else if (!"0000".equals(sellResult.get("status"))) {
+                Log.e("KTrader", "[TradeJobService] 매도 주문 실패 - 상태: " + sellResult.get("status") + ", 메시지: " + sellResult.get("message"));
+                return false;
+            }
 
-                // 해당 가격에 이미 대기중인 매수가 있다면 skip
-                TradeData existingBuy = placedOrderManager.findByPrice(BUY, targetPrice);
-                if (existingBuy != null) {
-                    Log.d("KTrader", "[TradeJobService] 이미 대기중인 매수 주문 존재 - 가격: " + targetPrice + ", 수량: " + existingBuy.getUnits());
-                    return;
-                }
+            Log.d("KTrader", "[TradeJobService] 매도 주문 성공: " + sellResult.toString());
+            market.availableCoinBalance -= units;
+            if (isFillSell && market.isPrimary())
+                FillEventMonitor.getInstance().recordFillToSell(kernel.getFillTime(fillIndex));
+
+            // 매도 대기 정보 업데이트 노티 발생
+            Calendar sellTime = Calendar.getInstance();
+            String notificationText = "매도 대기 : " + String.format(Locale.getDefault(), "%,d", price) +
+                ", " + String.format(Locale.getDefault(), "%02d/%02d %02d:%02d",
+                sellTime.get(Calendar.MONTH) + 1, sellTime.get(Calendar.DATE),
+                sellTime.get(Calendar.HOUR_OF_DAY), sellTime.get(Calendar.MINUTE));
+            Log.d("KTrader", "[TradeJobService] 매도 대기 등록 노티 발생: " + notificationText);
+            notificationTrade("매도 대기 등록", notificationText);
+
+            // 이번 tick에 낸 주문도 목록에 넣어둔다. (리스트 전체를 다시 갱신하려면 REST API를 한번 더 호출 해야 하니 경제적)
+            placedOrderManager.add(placedOrderManager.build()
+                    .setType(SELL)
+                    .setStatus(PLACED)
+                    .setUnits(units)
+                    .setPrice(price));
+            return true;
+        }
 
-                // 해당 가격에 이미 대기중인 매도가 있다면 skip
-                int sellPrice = targetPrice + MainPage.getProfitPrice(targetPrice);
-                TradeData existingSell = placedOrderManager.findByPrice(SELL, sellPrice);
-                if (existingSell != null) {
-                    Log.d("KTrader", "[TradeJobService] 이미 대기중인 매도 주문 존재 - 가격: " + sellPrice + ", 수량: " + existingSell.getUnits());
-                    continue;
+        @Override
+        public boolean cancelBuys() {
+            // 체결 되기 어려운 낮은 가격 order는 모두 취소한다.
+            for (TradeData tmp : placedOrderManager.getList()) {
+                if (tmp.getType() == BUY) {  // 1000만원 단위 경계에서 buy price가 미세하게 차이나서 data가 null이 되어 들어올 수 있으므로 전체 buy를 취소한다.
+                    Log.d("KTrader", "[TradeJobService] 기존 매수 주문 취소 - 가격: " + tmp.getPrice() + ", 수량: " + CoinUnits.toPlainString(tmp.getUnits()));
+                    if (!orderManager.cancelOrder("체결 안 될 오더", tmp)) {
+                        Log.e("KTrader", "[TradeJobService] 기존 매수 주문 취소 실패");
+                        return false;
+                    }
                 }
+            }
+            return true;
+        }
 
-                log_info("다음 저점 매수가 : " + String.format(Locale.getDefault(), "%,d", targetPrice));
-
-                // 매수 주문 전 잔고 확인
-                double requiredAmount = getUnitAmount4Price(targetPrice) * targetPrice;
-                Log.d("KTrader", "[TradeJobService] 매수 주문 필요 금액: " + requiredAmount + ", 보유 금액: " + krwBalance);
-                
-                if (krwBalance < requiredAmount) {
-                    log_info("잔고 부족으로 매수 주문을 건너뜁니다. 필요: " + 
-                        String.format(Locale.getDefault(), "%,.0f", requiredAmount) + 
-                        "원, 보유: " + String.format(Locale.getDefault(), "%,.0f", krwBalance) + "원");
-                    Log.d("KTrader", "[TradeJobService] 잔고 부족으로 매수 주문 건너뜀");
-                    continue; // 다음 슬롯으로 이동
-                }
+        @Override
+        public boolean buy(int price, long units) {
+            log_info("다음 저점 매수가 : " + String.format(Locale.getDefault(), "%,d", price));
+            if (orderManager.addOrder("저점", BUY, units, price) == null)
+                return false;
 
-                // 체결 되기 어려운 낮은 가격 order는 모두 취소한다.
-                Log.d("KTrader", "[TradeJobService] 기존 매수 주문 취소 시작");
-                for (TradeData tmp : placedOrderManager.getList()) {
-                    if (tmp.getType() == BUY) {  // 1000만원 단위 경계에서 buy price가 미세하게 차이나서 data가 null이 되어 들어올 수 있으므로 전체 buy를 취소한다.
-                        Log.d("KTrader", "[TradeJobService] 기존 매수 주문 취소 - 가격: " + tmp.getPrice() + ", 수량: " + tmp.getUnits());
-                        if (!orderManager.cancelOrder("체결 안 될 오더", tmp)) {
-                            Log.e("KTrader", "[TradeJobService] 기존 매수 주문 취소 실패");
-                            return;
-                        }
-                    }
-                }
+            Log.d("KTrader", "[TradeJobService] 매수 주문 성공");
+            if (market.isPrimary())
+                FillEventMonitor.getInstance().setRestingBuyPrice(price);
+            return true;
+        }
+    }
 
-                // add buy request for targt price
-                if (orderManager.addOrder("저점", BUY, getUnitAmount4Price(targetPrice), targetPrice) == null) {
-                    return;
-                } else {
-                    Log.d("KTrader", "[TradeJobService] 매수 주문 성공");
-                }
-                break;
-            }
+    // 현재 설정과 price 주변을 담는 slot 사다리를 리턴한다. 없거나 범위를 벗어나면 다시 만들고 대기 주문을 기록한다.
+    private SlotLadder getSlotLadder(int price) {
+        MarketSettings settings = getMarket().getSettings();
+        if (slotLadder == null || !slotLadder.covers(price, SLOT_LADDER_MARGIN, settings)) {
+            slotLadder = SlotLadder.around(price, settings);
+            for (TradeData data : placedOrderManager.getList())
+                slotLadder.addOrder(data);
         }
+        return slotLadder;
     }
 
-    // 주어진 가격 아래쪽의 첫번째 매수 slot 가격을 구한다.
-    private int getFloorPrice(int price) {
-        return price - (price % MainPage.getSlotIntervalPrice(price));
+    // 매매 판단 kernel. 설정이 바뀔 수 있으므로 tick마다 코인 설정을 다시 넣는다.
+    private GridDecisionKernel getKernel() {
+        MarketSettings settings = getMarket().getSettings();
+        if (kernel == null)
+            kernel = new GridDecisionKernel(GridDecisionKernel.SYSTEM_CLOCK, settings);
+        else if (kernel.getSettings() != settings)
+            kernel.setSettings(settings);
+        return kernel;
     }
 
-    // 주어진 가격 slot에 매수 가능한 코인 개수를 구한다. 소수점 아래 4자리로 절사
-    private double getUnitAmount4Price(int price) {
-        return (((double)GlobalSettings.getInstance().getUnitPrice() / price) * 10000) / 10000.0;
+    // 매매할 코인의 상태. tick 밖에서 호출되면 orderManager의 코인(없으면 화면에 표시하는 코인)을 사용한다.
+    private MarketState getMarket() {
+        if (market == null)
+            market = MarketState.of(orderManager == null ? null : orderManager.getCoinType());
+        return market;
     }
     
     /**
      * 현재 설정된 코인 타입을 반환
      */
     private String getCurrentCoinType() {
-        String coinType = GlobalSettings.getInstance().getCoinType();
-        if (GlobalSettings.COIN_TYPE_ETH.equals(coinType)) {
-            return "ETH";
-        } else {
-            return "BTC"; // 기본값
-        }
+        return getMarket().coinType;
     }
     
     /**
@@ -932,7 +979,7 @@ public class TradeJobService extends JobService {
         this.orderManager = orderManager;
     }
     
-    private void sendCardData(int currentPrice, double krwBalance) {
+    private void sendCardData(int currentPrice, long krwBalance) {
         try {
             Calendar currentTime = Calendar.getInstance();
             String transactionTime = String.format(Locale.getDefault(), "%d/%02d/%02d %02d:%02d:%02d",
@@ -944,11 +991,11 @@ public class TradeJobService extends JobService {
             // 시간당 변화율은 API에서 가져온 실제 데이터 사용
             String hourlyChange = getCurrentPriceChangeFromApi();
             
-            String estimatedBalance = String.format(Locale.getDefault(), "₩%,.0f", krwBalance);
+            String estimatedBalance = String.format(Locale.getDefault(), "₩%,d", krwBalance);
             
             // 마지막 매수 정보 가져오기
             String lastBuyPrice = "정보 없음";
-            TradeData lastBuyData = processedOrderManager.findLatestProcessedTime(BUY);
+            TradeData lastBuyData = market.processedOrderManager.findLatestProcessedTime(BUY);
             if (lastBuyData != null) {
                 Calendar lastBuyTime = Calendar.getInstance();
                 lastBuyTime.setTimeInMillis(lastBuyData.getProcessedTime());
@@ -960,7 +1007,7 @@ public class TradeJobService extends JobService {
             
             // 마지막 매도 정보 가져오기
             String lastSellPrice = "정보 없음";
-            TradeData lastSellData = processedOrderManager.findLatestProcessedTime(SELL);
+            TradeData lastSellData = market.processedOrderManager.findLatestProcessedTime(SELL);
             if (lastSellData != null) {
                 Calendar lastSellTime = Calendar.getInstance();
                 lastSellTime.setTimeInMillis(lastSellData.getProcessedTime());
@@ -1020,21 +1067,21 @@ public class TradeJobService extends JobService {
     /**
      * 현재 테마에 따라 Notification 색상을 반환하는 메서드
      */
-    private int getNotificationColorByTheme() {
+    private static int getNotificationColorByTheme(Context context) {
         // 현재 테마가 Light 테마인지 확인
         boolean isLightTheme = isLightTheme();
         
         if (isLightTheme) {
-            return ContextCompat.getColor(this, R.color.notification_light);
+            return ContextCompat.getColor(context, R.color.notification_light);
         } else {
-            return ContextCompat.getColor(this, R.color.notification_dark);
+            return ContextCompat.getColor(context, R.color.notification_dark);
         }
     }
     
     /**
      * 현재 테마가 Light 테마인지 확인하는 메서드
      */
-    private boolean isLightTheme() {
+    private static boolean isLightTheme() {
         // 현재 앱이 Light 테마를 사용하고 있는지 확인
         // AppTheme의 parent가 Theme.AppCompat.Light.DarkActionBar이므로 Light 테마
         return true; // 현재 앱은 Light 테마 사용
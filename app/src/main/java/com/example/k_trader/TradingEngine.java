@@ -0,0 +1,264 @@
+package com.example.k_trader;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.base.OrderManager;
+import com.example.k_trader.bitthumb.lib.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 매매 tick을 전용 thread에서 고정 주기로 실행하는 엔진
+ *
+ * JobScheduler로 tick마다 job을 다시 등록하면 다음 tick 시점을 OS가 정하므로 주기가 들쭉날쭉하고, tick마다 thread와 OrderManager를 새로 만든다.
+ * 엔진은 TradingEngineService(foreground service)가 살아 있는 동안 다음과 같이 동작한다.
+ * - 하나의 scheduler thread에서 scheduleAtFixedRate로 tick을 실행하므로 1초 미만의 주기도 가능하다.
+ * - 같은 TradeJobService 인스턴스와 OrderManager로 tick을 반복하므로 slot 사다리 등 tick 사이의 상태가 유지된다.
+ * - tick이 예정 시각보다 늦게 시작된 시간(jitter)과 tick 실행 시간을 기록한다.
+ * - tick이 주기보다 오래 걸려 밀린 tick은 몰아서 실행하지 않고 건너뛴다.
+ *
+ * 여러 코인을 매매하면 코인마다 엔진이 하나씩 실행된다({@link #startAll(Context, long)}).
+ * 엔진들의 첫 tick은 주기 안에서 고르게 나누어 시작하므로 tick들이 같은 순간에 몰려 호출 제한을 다투지 않는다.
+ */
+public class TradingEngine {
+    private static final Map<String, TradingEngine> gEngines = new LinkedHashMap<>();
+
+    private final String coinType;
+
+    private final AtomicBoolean tickQueued = new AtomicBoolean();
+    private final AtomicLong tickCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong requestedCount = new AtomicLong();
+    private final LatencyHistogram jitter = new LatencyHistogram();
+    private final LatencyHistogram duration = new LatencyHistogram();
+
+    private ScheduledThreadPoolExecutor scheduler;
+    private ScheduledFuture<?> tickTask;
+    private Runnable tick;
+    private volatile boolean running;
+    private long periodNanos;
+    private long firstTickNanos;
+    private long scheduledCount; // 지금까지 예정된 정기 tick 수. scheduler thread에서만 사용한다.
+
+    TradingEngine() {
+        this(null);
+    }
+
+    TradingEngine(String coinType) {
+        this.coinType = coinType;
+    }
+
+    /**
+     * 화면에 표시하는 코인(GlobalSettings의 coinType)의 엔진
+     */
+    public static TradingEngine getInstance() {
+        return getInstance(GlobalSettings.getInstance().getCoinType());
+    }
+
+    /**
+     * coinType 코인의 엔진
+     */
+    public static synchronized TradingEngine getInstance(String coinType) {
+        TradingEngine engine = gEngines.get(coinType);
+        if (engine == null) {
+            engine = new TradingEngine(coinType);
+            gEngines.put(coinType, engine);
+        }
+        return engine;
+    }
+
+    /**
+     * 설정된 모든 코인의 엔진을 periodMillis 주기로 시작한다. 설정에서 빠진 코인의 엔진은 멈춘다.
+     */
+    public static void startAll(Context context, long periodMillis) {
+        List<String> coinTypes = GlobalSettings.getInstance().getCoinTypes();
+        for (TradingEngine engine : getEngines())
+            if (!coinTypes.contains(engine.coinType))
+                engine.stop();
+        for (int i = 0; i < coinTypes.size(); i++)
+            getInstance(coinTypes.get(i)).start(context, periodMillis, periodMillis * i / coinTypes.size());
+    }
+
+    /**
+     * 모든 코인의 엔진을 멈춘다.
+     */
+    public static void stopAll() {
+        for (TradingEngine engine : getEngines())
+            engine.stop();
+    }
+
+    /**
+     * 모든 코인의 엔진 통계
+     */
+    public static String getAllStats() {
+        StringBuilder sb = new StringBuilder();
+        for (TradingEngine engine : getEngines()) {
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append(engine.coinType).append("={").append(engine.getStats()).append('}');
+        }
+        return sb.toString();
+    }
+
+    private static synchronized List<TradingEngine> getEngines() {
+        return new ArrayList<>(gEngines.values());
+    }
+
+    /**
+     * periodMillis 주기로 매매 tick을 시작한다. 이미 실행 중이면 멈추고 새 주기로 다시 시작한다.
+     */
+    public void start(Context context, long periodMillis) {
+        start(context, periodMillis, 0);
+    }
+
+    private void start(Context context, long periodMillis, long initialDelayMillis) {
+        final Context appContext = context.getApplicationContext();
+        final TradeJobService job = new TradeJobService();
+        final OrderManager orderManager = new OrderManager(coinType);
+        start(() -> job.runTick(appContext, orderManager), periodMillis, initialDelayMillis);
+    }
+
+    void start(Runnable tick, long periodMillis) {
+        start(tick, periodMillis, 0);
+    }
+
+    /**
+     * initialDelayMillis 뒤에 첫 tick을 실행하고 이후 periodMillis 주기로 tick을 실행한다.
+     */
+    synchronized void start(Runnable tick, long periodMillis, long initialDelayMillis) {
+        if (periodMillis <= 0)
+            throw new IllegalArgumentException("period must be positive : " + periodMillis);
+        if (initialDelayMillis < 0)
+            throw new IllegalArgumentException("initial delay must not be negative : " + initialDelayMillis);
+        stop();
+
+        this.tick = tick;
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.scheduledCount = 0;
+        scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, coinType == null ? "trade-engine" : "trade-engine-" + coinType);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+
+        running = true;
+        long initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(initialDelayMillis);
+        firstTickNanos = System.nanoTime() + initialDelayNanos;
+        tickTask = scheduler.scheduleAtFixedRate(this::onScheduledTick, initialDelayNanos, periodNanos, TimeUnit.NANOSECONDS);
+        Log.d("KTrader", "[TradingEngine] " + coinType + " 시작 - 주기 : " + periodMillis + "ms, 첫 tick : " + initialDelayMillis + "ms 후");
+    }
+
+    /**
+     * 엔진을 멈춘다. 실행 중인 tick은 끝까지 실행되고 이후 tick은 실행되지 않는다.
+     */
+    public synchronized void stop() {
+        if (scheduler == null)
+            return;
+        running = false;
+        if (tickTask != null)
+            tickTask.cancel(false);
+        scheduler.shutdown();
+        scheduler = null;
+        tickTask = null;
+        tickQueued.set(false);
+        Log.d("KTrader", "[TradingEngine] " + coinType + " 중지");
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 정기 주기와 관계 없이 엔진 thread에서 tick을 한 번 더 실행한다. 이미 대기 중인 요청이 있으면 합쳐진다.
+     *
+     * @return 엔진이 실행 중이 아니어서 요청하지 못했으면 false
+     */
+    public synchronized boolean requestTick() {
+        if (!running)
+            return false;
+        if (tickQueued.compareAndSet(false, true)) {
+            requestedCount.incrementAndGet();
+            scheduler.execute(() -> {
+                tickQueued.set(false);
+                runTick();
+            });
+        }
+        return true;
+    }
+
+    private void onScheduledTick() {
+        long now = System.nanoTime();
+        long lateness = now - (firstTickNanos + scheduledCount * periodNanos);
+        scheduledCount++;
+
+        // 이전 tick이 오래 걸려 한 주기 이상 밀렸다면 이번 tick은 건너뛴다. 밀린 tick을 연달아 실행하지 않기 위함이다.
+        if (lateness >= periodNanos) {
+            skippedCount.incrementAndGet();
+            return;
+        }
+        jitter.record(Math.max(0, lateness));
+        runTick();
+    }
+
+    private void runTick() {
+        if (!running)
+            return;
+        long start = System.nanoTime();
+        try {
+            tick.run();
+        } catch (RuntimeException e) {
+            // 예외로 scheduleAtFixedRate가 멈추지 않도록 여기서 처리한다.
+            Log.e("KTrader", "[TradingEngine] tick 실행 중 오류", e);
+        } finally {
+            tickCount.incrementAndGet();
+            duration.record(System.nanoTime() - start);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(running, TimeUnit.NANOSECONDS.toMillis(periodNanos), tickCount.get(), skippedCount.get(), requestedCount.get(),
+                jitter.snapshot(), duration.snapshot());
+    }
+
+    /**
+     * 엔진 통계
+     */
+    public static class Stats {
+        public final boolean running;
+        public final long periodMs;
+        public final long tickCount;        // 실행한 tick 수 (요청 tick 포함)
+        public final long skippedCount;     // 밀려서 건너뛴 정기 tick 수
+        public final long requestedCount;   // requestTick()으로 실행한 tick 수
+        public final LatencyHistogram.Snapshot jitter;   // 정기 tick이 예정 시각보다 늦게 시작된 시간
+        public final LatencyHistogram.Snapshot duration; // tick 실행 시간
+
+        Stats(boolean running, long periodMs, long tickCount, long skippedCount, long requestedCount,
+              LatencyHistogram.Snapshot jitter, LatencyHistogram.Snapshot duration) {
+            this.running = running;
+            this.periodMs = periodMs;
+            this.tickCount = tickCount;
+            this.skippedCount = skippedCount;
+            this.requestedCount = requestedCount;
+            this.jitter = jitter;
+            this.duration = duration;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "running=%b, period=%dms, ticks=%d, skipped=%d, requested=%d, jitter=[%s], duration=[%s]",
+                    running, periodMs, tickCount, skippedCount, requestedCount, jitter, duration);
+        }
+    }
+}
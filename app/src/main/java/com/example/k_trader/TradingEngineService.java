@@ -0,0 +1,74 @@
+package com.example.k_trader;
+
+import android.app.Service;
+import android.content.Intent;
+import android.os.IBinder;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.database.ApiCallResultRepository;
+import com.example.k_trader.database.DatabaseMaintenance;
+import com.example.k_trader.database.ErrorRepository;
+import com.example.k_trader.database.OrderDatabase;
+
+/**
+ * 매매 중에 TradingEngine을 실행하는 foreground service
+ *
+ * MainPage에서 매매를 시작하면 시작되고 중지하면 종료된다. service가 살아 있는 동안 설정된 코인별 엔진, 시세 WebSocket, 체결 감시가 함께 실행된다.
+ * tick 주기는 EXTRA_PERIOD_MS로 ms 단위로 지정할 수 있으며, 없으면 설정의 매매 주기(초)를 사용한다.
+ */
+public class TradingEngineService extends Service {
+    public static final String EXTRA_PERIOD_MS = "periodMs";
+    private static final long WRITE_FLUSH_TIMEOUT_MS = 1000;
+
+    @Nullable
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        TradeJobService.createNotificationChannel(this);
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        TradeJobService.startForegroundService(this);
+
+        long periodMillis = (long) GlobalSettings.getInstance().getTradeInterval() * 1000;
+        if (intent != null)
+            periodMillis = intent.getLongExtra(EXTRA_PERIOD_MS, periodMillis);
+        Log.d("KTrader", "[TradingEngineService] onStartCommand() - 주기 : " + periodMillis + "ms");
+
+        // 매매 tick 사이의 가격 변화는 WebSocket 시세로 감지한다.
+        TradeJobService.restoreEngineState(this);
+        MarketDataFeedHandler.getInstance().start(this);
+        FillEventMonitor.getInstance().start(this);
+        TradingEngine.startAll(this, periodMillis);
+        DatabaseMaintenance.getInstance().start(this);
+
+        // 시스템이 service를 종료했다가 다시 시작하면 설정된 주기로 엔진을 다시 시작한다.
+        return START_STICKY;
+    }
+
+    @Override
+    public void onDestroy() {
+        TradingEngine.stopAll();
+        MarketDataFeedHandler.getInstance().stop();
+        FillEventMonitor.getInstance().stop();
+        DatabaseMaintenance.getInstance().stop();
+        Log.d("KTrader", "[TradingEngineService] onDestroy() - 엔진 통계 : " + TradingEngine.getAllStats());
+
+        // write-behind 큐에 남은 에러/API 호출 기록을 저장한다.
+        ErrorRepository errorRepository = ErrorRepository.getInstance(this);
+        ApiCallResultRepository apiCallResultRepository = ApiCallResultRepository.getInstance(OrderDatabase.getInstance(this).apiCallResultDao());
+        errorRepository.flushPendingWrites(WRITE_FLUSH_TIMEOUT_MS);
+        apiCallResultRepository.flushPendingWrites(WRITE_FLUSH_TIMEOUT_MS);
+        Log.d("KTrader", "[TradingEngineService] onDestroy() - DB 쓰기 : 에러 [" + errorRepository.getWriteStats()
+                + "], API 호출 [" + apiCallResultRepository.getWriteStats() + "], DB 크기 [" + DatabaseMaintenance.getInstance().getStats() + "]");
+        super.onDestroy();
+    }
+}
@@ -15,6 +15,7 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
+import com.example.k_trader.base.CoinUnits;
 import com.example.k_trader.base.TradeData;
 import com.example.k_trader.database.DatabaseMonitor;
 import com.example.k_trader.database.ApiCallResultRepository;
@@ -602,7 +603,7 @@ public class TransactionItemFragment extends Fragment implements DatabaseMonitor
                 orderHolder.textOrderId.setText(tradeData.getId());
                 orderHolder.textOrderType.setText(tradeData.getType().toString());
                 orderHolder.textOrderStatus.setText(tradeData.getStatus().toString());
-                orderHolder.textUnits.setText(String.format(java.util.Locale.getDefault(), "%.4f", tradeData.getUnits()));
+                orderHolder.textUnits.setText(CoinUnits.toPlainString(tradeData.getUnits()));
                 orderHolder.textPrice.setText(String.format(java.util.Locale.getDefault(), "%,d", tradeData.getPrice()));
                 
                 java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("MM/dd HH:mm", java.util.Locale.getDefault());
@@ -0,0 +1,138 @@
+package com.example.k_trader.base;
+
+/**
+ * 코인 수량 고정소수점
+ *
+ * 수량은 long 하나로 1 = 0.00000001 코인(빗썸 응답의 소수점 8자리)을 나타낸다. float/double로 들고 있다가
+ * (float)((int)(units * 10000) / 10000.0) 처럼 절사하면 0.0047이 0.00469..가 되어 잔고 부족으로 주문이 거절되므로
+ * 거래소 문자열을 바로 고정소수점으로 읽고, 주문 단위(LOT) 보정과 원화 환산도 정수 연산으로 한다.
+ * 객체를 만들지 않도록 primitive long을 받는 static 메소드만 제공한다.
+ */
+public final class CoinUnits {
+    public static final int SCALE_DIGITS = 8;
+    public static final long ONE = 100000000L;         // 1 코인
+    public static final long LOT = 10000L;             // 빗썸 최소 주문 단위 0.0001 코인
+    public static final int LOT_DIGITS = 4;            // 주문 수량 소수점 자리수
+    public static final long NONE = Long.MIN_VALUE;    // 값 없음
+
+    private CoinUnits() {}
+
+    public static long fromDouble(double units) {
+        return Math.round(units * ONE);
+    }
+
+    public static double toDouble(long units) {
+        return (double) units / ONE;
+    }
+
+    /**
+     * "0.00469814", "1,234.5", "-0.1" 형식의 문자열을 읽는다. 소수점 8자리 아래는 반올림한다. 숫자가 아니면 NONE을 리턴한다.
+     */
+    public static long parse(CharSequence text) {
+        if (text == null)
+            return NONE;
+        return parse(text, 0, text.length(), SCALE_DIGITS, true);
+    }
+
+    /**
+     * text[start, end)의 10진수를 10^scaleDigits 배 한 정수로 읽는다. 쉼표와 공백은 무시하고, scaleDigits 아래 자리는
+     * round가 true이면 반올림, false이면 버린다. 숫자가 하나도 없거나 다른 문자가 있으면 NONE을 리턴한다.
+     */
+    public static long parse(CharSequence text, int start, int end, int scaleDigits, boolean round) {
+        long value = 0;
+        boolean negative = false;
+        boolean fraction = false;
+        boolean digits = false;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (!fraction) {
+                    value = value * 10 + (c - '0');
+                } else if (fractionDigits < scaleDigits) {
+                    value = value * 10 + (c - '0');
+                    fractionDigits++;
+                } else if (fractionDigits == scaleDigits) {
+                    roundUp = round && c >= '5';
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c == '-' && !digits && !negative) {
+                negative = true;
+            } else if (c != ',' && c != ' ' && c != '+') {
+                return NONE;
+            }
+        }
+        if (!digits)
+            return NONE;
+        for (int i = Math.min(fractionDigits, scaleDigits); i < scaleDigits; i++)
+            value *= 10;
+        if (roundUp)
+            value++;
+        return negative ? -value : value;
+    }
+
+    public static long floorToLot(long units) {
+        return Math.floorDiv(units, LOT) * LOT;
+    }
+
+    public static long ceilToLot(long units) {
+        return -Math.floorDiv(-units, LOT) * LOT;
+    }
+
+    // 0.00005 이상 남으면 올린다.
+    public static long roundToLot(long units) {
+        return floorToLot(units + LOT / 2);
+    }
+
+    /**
+     * units 코인의 price 원 기준 원화 금액. 원 단위 아래는 버린다.
+     */
+    public static long krwValue(long units, long price) {
+        return (units / ONE) * price + (units % ONE) * price / ONE;
+    }
+
+    /**
+     * krw 원으로 price 원에 살 수 있는 수량. 0.00000001 아래는 버린다.
+     */
+    public static long forKrw(long krw, long price) {
+        return (krw / price) * ONE + (krw % price) * ONE / price;
+    }
+
+    /**
+     * 소수점 digits 자리까지 반올림해 "0.0047" 형식으로 만든다. (거래소 주문 parameter, 로그용)
+     */
+    public static String toPlainString(long units, int digits) {
+        StringBuilder sb = new StringBuilder(24);
+        appendTo(sb, units, digits);
+        return sb.toString();
+    }
+
+    public static String toPlainString(long units) {
+        return toPlainString(units, LOT_DIGITS);
+    }
+
+    public static StringBuilder appendTo(StringBuilder sb, long units, int digits) {
+        long step = 1;
+        for (int i = digits; i < SCALE_DIGITS; i++)
+            step *= 10;
+        long abs = Math.abs(units);
+        long rounded = (abs + step / 2) / step; // 10^digits 배 한 값
+        long divisor = ONE / step;
+
+        if (units < 0 && rounded != 0)
+            sb.append('-');
+        sb.append(rounded / divisor);
+        if (digits > 0) {
+            sb.append('.');
+            String fraction = Long.toString(rounded % divisor);
+            for (int i = fraction.length(); i < digits; i++)
+                sb.append('0');
+            sb.append(fraction);
+        }
+        return sb;
+    }
+}
@@ -7,11 +7,15 @@ import android.support.v4.content.LocalBroadcastManager;
 import com.example.k_trader.KTraderApplication;
 import com.example.k_trader.TransactionLogFragment;
 import com.example.k_trader.bitthumb.lib.Api_Client;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Response;
 import com.example.k_trader.database.DatabaseMonitor;
+import com.example.k_trader.database.OrderChangeSet;
 import com.example.k_trader.database.OrderRepository;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
@@ -69,77 +73,34 @@ public class DatabaseOrderManager {
     public Completable syncPlacedOrders(String tag) {
         return Completable.fromAction(() -> {
             Api_Client api = tradeApiService.getApiService();
-            JSONObject result;
+            Response<List<TradeData>> result;
 
             try {
                 HashMap<String, String> param = new HashMap<>();
                 param.put("count", "300");
-                param.put("order_currency", "BTC");
+                param.put("order_currency", GlobalSettings.getInstance().getCoinType());
 
-                result = api.callApi("POST", "/info/orders", param);
+                result = BithumbResponseDecoder.decodePlacedOrders(api.callApiText("POST", "/info/orders", param));
 
                 if (result == null) {
                     log_info(tag + " : " + "/info/orders : 1 : null");
                     return;
                 }
 
-                if (result.get("status") instanceof Long) {
-                    log_info(tag + " : " + "/info/orders : 2 : " + result);
+                if ("5600".equals(result.status) && "거래 진행중인 내역이 존재하지 않습니다.".equals(result.message)) {
+                    // DB에서 미체결 주문들 삭제
+                    reconcile(tag, Collections.emptyList());
                     return;
                 }
 
-                if (result.get("status") != null && String.valueOf(result.get("status")).equals("5600")) {
-                    if (result.get("message") != null && String.valueOf(result.get("message")).equals("거래 진행중인 내역이 존재하지 않습니다.")) {
-                        // DB에서 미체결 주문들 삭제
-                        orderRepository.deleteUnmarkedOrders().blockingAwait();
-                        return;
-                    }
-                }
-
-                if (result.get("status") == null || !String.valueOf(result.get("status")).equals("0000")) {
+                if (!result.isSuccess()) {
                     log_info(tag + " : " + "/info/orders : 3 : " + result);
                     return;
                 }
 
-                // API 응답을 DB와 동기화
-                JSONArray dataArray = (JSONArray) result.get("data");
-                if (dataArray != null) {
-                    List<TradeData> apiOrders = new java.util.ArrayList<>();
-                    
-                    for (int i = 0; i < dataArray.size(); i++) {
-                        JSONObject item = (JSONObject) dataArray.get(i);
-                        String priceStr = (String) item.get("price");
-                        int price = 0;
-                        if (priceStr != null) {
-                            price = Integer.parseInt(priceStr.replaceAll(",", ""));
-                        }
-                        
-                        String typeStr = (String) item.get("type");
-                        String unitsStr = (String) item.get("units_remaining");
-                        
-                        if (typeStr != null && unitsStr != null) {
-                            TradeData tradeData = new TradeData()
-                                .setType(convertOrderType(typeStr))
-                                .setStatus(TradeDataManager.Status.PLACED)
-                                .setId((String) item.get("order_id"))
-                                .setUnits((float) Double.parseDouble(unitsStr))
-                                .setPrice(price)
-                                .setPlacedTime(System.currentTimeMillis())
-                                .setMarked(true); // API에서 가져온 주문은 마킹
-                            
-                            apiOrders.add(tradeData);
-                        }
-                    }
-                    
-                    // DB에 저장 (결과는 의도적으로 무시함)
-                    @SuppressWarnings("unused")
-                    List<Long> insertResults = orderRepository.saveOrders(apiOrders).blockingGet();
-                    
-                    // 마킹되지 않은 주문들 삭제 (API에 없는 주문들)
-                    orderRepository.deleteUnmarkedOrders().blockingAwait();
-                    
-                    // 모든 주문의 마킹 해제
-                    orderRepository.unmarkAllOrders().blockingAwait();
+                // API 응답을 DB와 동기화 (바뀐 주문만 하나의 transaction으로 반영)
+                if (result.data != null) {
+                    reconcile(tag, result.data);
                 }
 
             } catch (Exception e) {
@@ -153,6 +114,14 @@ public class DatabaseOrderManager {
         .observeOn(AndroidSchedulers.mainThread());
     }
 
+    private void reconcile(String tag, List<TradeData> placedOrders) {
+        OrderChangeSet changes = orderRepository.reconcilePlacedOrders(placedOrders).blockingGet();
+        if (!changes.isEmpty()) {
+            log_info(tag + " : 미체결 주문 동기화 : " + changes);
+            databaseMonitor.notifyOrdersReconciled(changes);
+        }
+    }
+
     /**
      * 체결 주문 목록 조회 및 DB 동기화
      */
@@ -166,7 +135,7 @@ public class DatabaseOrderManager {
                 rgParams.put("offset", String.valueOf(offset));
                 rgParams.put("count", count); // 1~50, default = 20
                 rgParams.put("searchGb", "0"); // 0 = all, 1 = buy
-                rgParams.put("order_currency", "BTC");
+                rgParams.put("order_currency", GlobalSettings.getInstance().getCoinType());
                 rgParams.put("payment_currency", "KRW");
 
                 result = api.callApi("POST", "/info/user_transactions", rgParams);
@@ -207,7 +176,7 @@ public class DatabaseOrderManager {
                                 .setType(convertOrderType(typeStr))
                                 .setStatus(TradeDataManager.Status.PROCESSED)
                                 .setId((String) item.get("order_id"))
-                                .setUnits((float) Double.parseDouble(unitsStr))
+                                .setUnits(CoinUnits.parse(unitsStr))
                                 .setPrice(price)
                                 .setFeeRaw((String) item.get("fee"))
                                 .setPlacedTime(System.currentTimeMillis())
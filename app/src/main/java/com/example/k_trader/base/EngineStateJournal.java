@@ -0,0 +1,239 @@
+package com.example.k_trader.base;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * 프로세스가 종료되었다가 다시 시작되어도 매매 엔진이 이어서 동작할 수 있도록 엔진 상태를 저장하는 append-only 파일
+ *
+ * 파일은 header 뒤에 record를 이어 붙인 형태이다.
+ * - 시장가, 새 체결 이력, tick 종료 시점의 상태(마지막 노티 시각, 매도 가능 코인)를 record로 쌓아 두었다가 tick이 끝날 때 한 번에 덧붙인다.
+ * - 파일이 커지면 현재 상태 전체를 새 파일로 쓰고 교체(compaction)한다.
+ * - 쓰는 도중에 프로세스가 종료되어 마지막 record가 잘렸다면 그 앞까지만 복원한다.
+ */
+public class EngineStateJournal {
+    private static final int MAGIC = 0x4B54454A; // "KTEJ"
+    private static final int VERSION = 2; // 2 : 수량을 CoinUnits 고정소수점으로 기록
+
+    private static final byte RECORD_PRICE = 1;
+    private static final byte RECORD_TRADE = 2;
+    private static final byte RECORD_STATE = 3;
+    private static final byte RECORD_WINDOW = 4;
+
+    private final File file;
+    private final long compactionBytes;
+    private final ByteArrayOutputStream pendingBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pending = new DataOutputStream(pendingBytes);
+
+    public EngineStateJournal(File file, long compactionBytes) {
+        this.file = file;
+        this.compactionBytes = compactionBytes;
+    }
+
+    /**
+     * 복원된 tick 상태
+     */
+    public static class State {
+        public long lastNotiTimeInMillis;
+        public long availableCoinBalance;   // CoinUnits
+        public int recordCount;
+    }
+
+    // ---- 기록 ----
+
+    public synchronized void appendPrice(long timeMillis, int price) {
+        try {
+            pending.writeByte(RECORD_PRICE);
+            pending.writeLong(timeMillis);
+            pending.writeInt(price);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // 메모리에 쓰므로 발생하지 않는다.
+        }
+    }
+
+    public synchronized void appendTrade(TradeData data) {
+        try {
+            pending.writeByte(RECORD_TRADE);
+            writeTrade(pending, data);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public synchronized void appendState(long lastNotiTimeInMillis, long availableCoinBalance) {
+        try {
+            pending.writeByte(RECORD_STATE);
+            pending.writeLong(lastNotiTimeInMillis);
+            pending.writeLong(availableCoinBalance);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 쌓아 둔 record를 파일 끝에 덧붙인다. 파일이 없으면 header부터 쓴다.
+     */
+    public synchronized void flush() throws IOException {
+        if (pendingBytes.size() == 0)
+            return;
+        boolean exists = file.exists() && file.length() > 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))) {
+            if (!exists)
+                writeHeader(out);
+            pendingBytes.writeTo(out);
+        }
+        pendingBytes.reset();
+    }
+
+    public boolean needsCompaction() {
+        return file.length() > compactionBytes;
+    }
+
+    /**
+     * 현재 상태 전체를 새 파일로 쓰고 기존 파일을 교체한다. 쌓아 둔 record는 현재 상태에 이미 들어 있으므로 버린다.
+     */
+    public synchronized void compact(RollingPriceWindow window, TradeDataManager trades,
+                                     long lastNotiTimeInMillis, long availableCoinBalance) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            writeHeader(out);
+
+            ByteArrayOutputStream windowBytes = new ByteArrayOutputStream();
+            window.writeTo(new DataOutputStream(windowBytes));
+            out.writeByte(RECORD_WINDOW);
+            out.writeInt(windowBytes.size());
+            windowBytes.writeTo(out);
+
+            for (TradeData data : trades.getList()) {
+                out.writeByte(RECORD_TRADE);
+                writeTrade(out, data);
+            }
+
+            out.writeByte(RECORD_STATE);
+            out.writeLong(lastNotiTimeInMillis);
+            out.writeLong(availableCoinBalance);
+        }
+        if (!temp.renameTo(file))
+            throw new IOException("rename failed : " + temp);
+        pendingBytes.reset();
+    }
+
+    // ---- 복원 ----
+
+    /**
+     * 파일에 저장된 상태를 window와 trades에 복원한다. window와 trades의 기존 내용은 지워지며,
+     * 같은 체결 시각의 체결 이력은 한 번만 추가하고 nowMillis 기준으로 보관 시간이 지난 가격은 버린다.
+     *
+     * @return 복원된 상태, 파일이 없으면 null
+     */
+    public synchronized State restore(RollingPriceWindow window, TradeDataManager trades, long nowMillis) throws IOException {
+        if (!file.exists() || file.length() == 0)
+            return null;
+
+        window.clear();
+        trades.clear();
+        State state = new State();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException("unknown journal format");
+
+            long limit = nowMillis - window.getSpanMillis();
+            while (true) {
+                int record = in.read();
+                if (record < 0)
+                    break;
+                try {
+                    readRecord(in, (byte) record, window, trades, state, nowMillis, limit);
+                } catch (EOFException e) {
+                    // 마지막 record를 쓰는 도중에 종료되었다.
+                    break;
+                }
+                state.recordCount++;
+            }
+        }
+        window.expire(nowMillis);
+        return state;
+    }
+
+    private static void readRecord(DataInputStream in, byte record, RollingPriceWindow window, TradeDataManager trades,
+                                   State state, long nowMillis, long limit) throws IOException {
+        switch (record) {
+            case RECORD_PRICE: {
+                long time = in.readLong();
+                int price = in.readInt();
+                if (time > limit)
+                    window.add(time, price);
+                break;
+            }
+            case RECORD_TRADE: {
+                TradeData data = readTrade(in);
+                if (trades.findByProcessedTime(data.getProcessedTime()) == null)
+                    trades.add(data);
+                break;
+            }
+            case RECORD_STATE:
+                state.lastNotiTimeInMillis = in.readLong();
+                state.availableCoinBalance = in.readLong();
+                break;
+            case RECORD_WINDOW: {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                window.readFrom(new DataInputStream(new ByteArrayInputStream(bytes)), nowMillis);
+                break;
+            }
+            default:
+                throw new IOException("unknown record : " + record);
+        }
+    }
+
+    private static void writeHeader(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    private static void writeTrade(DataOutput out, TradeData data) throws IOException {
+        out.writeByte(data.getType() == null ? -1 : data.getType().ordinal());
+        out.writeByte(data.getStatus() == null ? -1 : data.getStatus().ordinal());
+        out.writeInt(data.getPrice());
+        out.writeLong(data.getUnits());
+        out.writeLong(data.getPlacedTime());
+        out.writeLong(data.getProcessedTime());
+        writeNullableString(out, data.getId());
+        writeNullableString(out, data.getFeeRaw());
+    }
+
+    private static TradeData readTrade(DataInput in) throws IOException {
+        int type = in.readByte();
+        int status = in.readByte();
+        TradeData data = new TradeData().build()
+                .setType(type < 0 ? null : TradeDataManager.Type.values()[type])
+                .setStatus(status < 0 ? null : TradeDataManager.Status.values()[status])
+                .setPrice(in.readInt())
+                .setUnits(in.readLong())
+                .setPlacedTime(in.readLong())
+                .setProcessedTime(in.readLong())
+                .setId(readNullableString(in));
+        return data.setFeeRaw(readNullableString(in));
+    }
+
+    private static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeUTF(value);
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -1,5 +1,14 @@
 package com.example.k_trader.base;
 
+import android.content.SharedPreferences;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 public class GlobalSettings {
     public static String API_KEY_KEY_NAME = "API_KEY";
     public static String API_SECRET_KEY_NAME = "API_SECRET";
@@ -10,6 +19,7 @@ public class GlobalSettings {
     public static String SLOT_INTERVAL_RATE_KEY_NAME = "SLOT_INTERVAL_RATE";
     public static String COIN_TYPE_KEY_NAME = "COIN_TYPE";
     public static String AUTO_SCROLL_KEY_NAME = "AUTO_SCROLL";
+    public static String COIN_TYPES_KEY_NAME = "COIN_TYPES"; // 동시에 매매할 코인 목록, ex) "BTC,ETH"
     
     public static String COIN_TYPE_BTC = "BTC";
     public static String COIN_TYPE_ETH = "ETH";
@@ -32,6 +42,8 @@ public class GlobalSettings {
     private float slotIntervalRate = SLOT_INTERVAL_RATE_DEFAULT_VALUE;
     private String coinType = COIN_TYPE_DEFAULT_VALUE;
     private boolean autoScroll = AUTO_SCROLL_DEFAULT_VALUE;
+    private List<String> coinTypes = Collections.emptyList(); // 비어 있으면 coinType 하나만 매매한다.
+    private final Map<String, MarketSettings> marketSettings = new HashMap<>();
 
     private static GlobalSettings gSettings = new GlobalSettings();
     private GlobalSettings() {}
@@ -58,6 +70,28 @@ public class GlobalSettings {
     public String getCoinType() {return coinType;}
     public boolean isAutoScroll() {return autoScroll;}
 
+    /**
+     * 매매할 코인 목록. 첫 번째가 coinType(화면에 표시하는 코인)이다.
+     */
+    public synchronized List<String> getCoinTypes() {
+        List<String> list = new ArrayList<>();
+        list.add(coinType);
+        for (String type : coinTypes)
+            if (!list.contains(type))
+                list.add(type);
+        return list;
+    }
+
+    /**
+     * 코인별 설정. 따로 설정하지 않은 코인은 공통 설정을 사용한다.
+     */
+    public synchronized MarketSettings getMarketSettings(String coinType) {
+        MarketSettings settings = marketSettings.get(coinType);
+        if (settings != null)
+            return settings;
+        return new MarketSettings(coinType, unitPrice, earningRate, slotIntervalRate);
+    }
+
     public GlobalSettings setApiKey(String apiKey) {
         this.apiKey = apiKey;
         return this;
@@ -94,4 +128,48 @@ public class GlobalSettings {
         this.autoScroll = autoScroll;
         return this;
     }
+    /**
+     * @param coinTypes 쉼표로 구분한 코인 목록, null이나 빈 문자열이면 coinType 하나만 매매한다.
+     */
+    public synchronized GlobalSettings setCoinTypes(String coinTypes) {
+        List<String> list = new ArrayList<>();
+        if (coinTypes != null) {
+            for (String type : coinTypes.split(",")) {
+                type = type.trim().toUpperCase(Locale.US);
+                if (!type.isEmpty() && !list.contains(type))
+                    list.add(type);
+            }
+        }
+        this.coinTypes = list;
+        return this;
+    }
+    public synchronized GlobalSettings setMarketSettings(MarketSettings settings) {
+        marketSettings.put(settings.getCoinType(), settings);
+        return this;
+    }
+    public synchronized GlobalSettings clearMarketSettings() {
+        marketSettings.clear();
+        return this;
+    }
+
+    /**
+     * 코인 목록과 코인별 설정을 읽는다. 코인별 설정은 공통 설정 key 뒤에 "_코인"을 붙인 key(ex: EARNING_RATE_ETH)에 저장하며,
+     * 저장된 값이 없는 항목은 공통 설정을 사용한다. 공통 설정을 먼저 읽은 뒤에 호출한다.
+     */
+    public GlobalSettings loadMarketSettings(SharedPreferences sharedPreferences) {
+        setCoinTypes(sharedPreferences.getString(COIN_TYPES_KEY_NAME, ""));
+        clearMarketSettings();
+        for (String type : getCoinTypes()) {
+            String suffix = "_" + type;
+            if (!sharedPreferences.contains(UNIT_PRICE_KEY_NAME + suffix)
+                    && !sharedPreferences.contains(EARNING_RATE_KEY_NAME + suffix)
+                    && !sharedPreferences.contains(SLOT_INTERVAL_RATE_KEY_NAME + suffix))
+                continue;
+            setMarketSettings(new MarketSettings(type,
+                    sharedPreferences.getInt(UNIT_PRICE_KEY_NAME + suffix, unitPrice),
+                    sharedPreferences.getFloat(EARNING_RATE_KEY_NAME + suffix, earningRate),
+                    sharedPreferences.getFloat(SLOT_INTERVAL_RATE_KEY_NAME + suffix, slotIntervalRate)));
+        }
+        return this;
+    }
 }
@@ -0,0 +1,372 @@
+package com.example.k_trader.base;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+import static com.example.k_trader.base.TradeDataManager.Type.SELL;
+
+/**
+ * grid 매매 전략 backtester
+ *
+ * 과거 체결가 시계열을 실거래(TradeJobService)와 같은 GridDecisionKernel로 재생해 설정값(이익률, slot 간격, look-aside 단계)의 성과를 본다.
+ * 주문 장부는 SlotLadder를 그대로 사용하며, kernel이 낸 주문은 모두 바로 접수된다고 보고, 체결은 시장가가 매수가 이하 / 매도가 이상이 되면 주문 수량 전부가 주문 가격으로 체결된다고 본다.
+ * 수수료는 체결 금액에 feeRate를 곱해 원화에서 뺀다.
+ *
+ * 판단은 decisionIntervalMillis마다 한 번(TradingEngine의 tick 주기), 체결 확인과 평가 금액 계산은 가격마다 한다.
+ * kernel의 Clock은 재생 중인 가격의 시간을 돌려준다.
+ * 가격 하나를 처리하는 동안 객체를 만들지 않으므로 한 core에서 초당 수백만 건을 처리할 수 있다. 사다리를 다시 만들 때만 배열을 새로 만든다.
+ * thread safe 하지 않다. 설정별로 인스턴스를 따로 만들어 사용한다.
+ */
+public class GridBacktester {
+    private static final int SLOT_LADDER_MARGIN = 10;       // 사다리 끝에서 이만큼 가까워지면 다시 만든다.
+
+    private final Config config;
+    private final MarketSettings settings;
+    private final GridDecisionKernel kernel;
+    private final GridDecisionKernel.ExchangePort port = new BacktestPort();
+
+    private SlotLadder ladder;
+    private double krw;                 // 원화 잔고 (매수 주문에 묶인 금액 포함)
+    private long availableCoin;         // 매도 주문에 묶이지 않은 코인 (CoinUnits)
+    private long lockedCoin;            // 매도 주문에 묶인 코인 (CoinUnits)
+    private int buyPrice;               // 걸려 있는 매수 주문 가격, 없으면 0
+    private long buyUnits;
+    private long timeMillis;            // 재생 중인 가격의 시간
+    private int lastPrice;
+
+    private long ticks;
+    private long decisions;
+    private long buyOrders;
+    private long buyFills;
+    private long buyCancels;
+    private long sellOrders;
+    private long sellFills;
+    private long sellFailures;
+    private long ladderRebuilds;
+    private double fees;
+    private double initialEquity = Double.NaN;
+    private double peakEquity;
+    private double maxDrawdown;
+    private double maxDrawdownRate;
+
+    public GridBacktester(Config config) {
+        this.config = config;
+        this.settings = new MarketSettings(config.coinType, config.unitPrice, config.earningRate, config.slotIntervalRate);
+        this.kernel = new GridDecisionKernel(() -> timeMillis, settings);
+        kernel.setLookAside(config.sellLookAside, config.buyLookAside);
+        kernel.setDecisionIntervalMillis(config.decisionIntervalMillis);
+        this.krw = config.initialKrw;
+        this.availableCoin = CoinUnits.fromDouble(config.initialCoin);
+    }
+
+    /**
+     * 시간순으로 정렬된 체결가 [from, to)를 재생한다. 긴 시계열을 나눠서 여러 번 호출해도 한 번에 호출한 것과 같다.
+     */
+    public void run(long[] timeMillis, int[] prices, int from, int to) {
+        for (int i = from; i < to; i++)
+            onPrice(timeMillis[i], prices[i]);
+    }
+
+    public void run(PriceSeries series) {
+        run(series.timeMillis, series.prices, 0, series.size);
+    }
+
+    private void onPrice(long timeMillis, int price) {
+        ticks++;
+        this.timeMillis = timeMillis;
+        lastPrice = price;
+        if (ladder == null || !ladder.covers(price, SLOT_LADDER_MARGIN, settings))
+            rebuildLadder(price);
+
+        // 체결 확인
+        if (buyPrice > 0 && price <= buyPrice)
+            fillBuy();
+        for (int slot = ladder.previousSellSlot(ladder.sellFloorIndex(price)); slot >= 0; slot = ladder.previousSellSlot(slot - 1))
+            fillSell(slot);
+
+        // 평가 금액과 최대 낙폭
+        double equity = krw + CoinUnits.krwValue(availableCoin + lockedCoin, price);
+        if (Double.isNaN(initialEquity)) {
+            initialEquity = equity;
+            peakEquity = equity;
+        } else if (equity > peakEquity) {
+            peakEquity = equity;
+        } else {
+            double drawdown = peakEquity - equity;
+            if (drawdown > maxDrawdown)
+                maxDrawdown = drawdown;
+            if (drawdown / peakEquity * 100 > maxDrawdownRate)
+                maxDrawdownRate = drawdown / peakEquity * 100;
+        }
+
+        if (kernel.isDecisionDue())
+            decide(price);
+    }
+
+    private void fillBuy() {
+        long amount = CoinUnits.krwValue(buyUnits, buyPrice);
+        double fee = amount * config.feeRate;
+        krw -= amount + fee;
+        fees += fee;
+        availableCoin += buyUnits;
+        ladder.removeOrder(BUY, buyPrice, buyUnits);
+        buyFills++;
+
+        kernel.addFill(BUY, buyPrice, buyUnits, timeMillis); // 다음 판단에서 매도한다.
+        buyPrice = 0;
+    }
+
+    private void fillSell(int slot) {
+        int sellPrice = ladder.getSellPrice(slot);
+        long units = ladder.getSellUnits(slot);
+        long amount = CoinUnits.krwValue(units, sellPrice);
+        double fee = amount * config.feeRate;
+        krw += amount - fee;
+        fees += fee;
+        lockedCoin -= units;
+        ladder.removeOrder(SELL, sellPrice, units);
+        sellFills++;
+    }
+
+    private void decide(int price) {
+        decisions++;
+
+        // 1회 거래 금액이 최소 거래 단위보다 작으면 체결된 매수는 다음 판단까지 그대로 둔다.
+        if (!kernel.decide(ladder, price, (long) krw, availableCoin))
+            return;
+        kernel.execute(port);
+
+        for (int f = 0; f < kernel.getFillCount(); f++) {
+            if (kernel.getFillType(f) == BUY && !kernel.isFillSold(f))
+                sellFailures++;
+        }
+        kernel.clearFills();
+    }
+
+    // 주문은 kernel이 이미 사다리에 기록했으므로 잔고와 걸려 있는 매수만 반영한다.
+    private class BacktestPort implements GridDecisionKernel.ExchangePort {
+        @Override
+        public boolean sell(int price, long units, int fillIndex) {
+            availableCoin -= units;
+            lockedCoin += units;
+            sellOrders++;
+            return true;
+        }
+
+        @Override
+        public boolean cancelBuys() {
+            if (buyPrice > 0) {
+                buyPrice = 0;
+                buyCancels++;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean buy(int price, long units) {
+            buyPrice = price;
+            buyUnits = units;
+            buyOrders++;
+            return true;
+        }
+    }
+
+    // 가격이 사다리 끝에 가까워지면 새 사다리를 만들고 걸려 있는 주문을 옮긴다.
+    private void rebuildLadder(int price) {
+        SlotLadder old = ladder;
+        ladder = SlotLadder.around(price, settings);
+        ladderRebuilds++;
+        if (old == null)
+            return;
+
+        if (buyPrice > 0 && !ladder.addOrder(BUY, buyPrice, buyUnits)) {
+            buyPrice = 0;
+            buyCancels++;
+        }
+        for (int slot = old.previousSellSlot(old.size() - 1); slot >= 0; slot = old.previousSellSlot(slot - 1)) {
+            if (!ladder.addOrder(SELL, old.getSellPrice(slot), old.getSellUnits(slot))) {
+                // 새 사다리 밖의 매도는 취소한 것으로 보고 잔고로 돌린다.
+                availableCoin += old.getSellUnits(slot);
+                lockedCoin -= old.getSellUnits(slot);
+            }
+        }
+    }
+
+    public Result getResult() {
+        double equity = krw + CoinUnits.krwValue(availableCoin + lockedCoin, lastPrice);
+        double initial = Double.isNaN(initialEquity) ? equity : initialEquity;
+        return new Result(ticks, decisions, buyOrders, buyFills, buyCancels, sellOrders, sellFills, sellFailures, ladderRebuilds,
+                krw, CoinUnits.toDouble(availableCoin), CoinUnits.toDouble(lockedCoin), fees, initial, equity, maxDrawdown, maxDrawdownRate);
+    }
+
+    /**
+     * backtest 설정. 기본값은 GlobalSettings의 기본 설정과 GridDecisionKernel의 look-aside 단계이다.
+     */
+    public static class Config {
+        String coinType = GlobalSettings.COIN_TYPE_DEFAULT_VALUE;
+        int unitPrice = GlobalSettings.UNIT_PRICE_DEFAULT_VALUE;
+        float earningRate = GlobalSettings.EARNING_RATE_DEFAULT_VALUE;
+        float slotIntervalRate = GlobalSettings.SLOT_INTERVAL_RATE_DEFAULT_VALUE;
+        int sellLookAside = GridDecisionKernel.SELL_SLOT_LOOK_ASIDE_DEFAULT;
+        int buyLookAside = GridDecisionKernel.BUY_SLOT_LOOK_ASIDE_DEFAULT;
+        double feeRate = 0.0004;
+        long decisionIntervalMillis = GlobalSettings.TRADE_INTERVAL_DEFAULT_VALUE * 1000L;
+        double initialKrw = 100 * 1000 * 1000;
+        double initialCoin;
+
+        public int getUnitPrice() {return unitPrice;}
+        public float getEarningRate() {return earningRate;}
+        public float getSlotIntervalRate() {return slotIntervalRate;}
+        public int getSellLookAside() {return sellLookAside;}
+        public int getBuyLookAside() {return buyLookAside;}
+        public long getDecisionIntervalMillis() {return decisionIntervalMillis;}
+
+        public Config setMarketSettings(MarketSettings settings) {
+            this.coinType = settings.getCoinType();
+            this.unitPrice = settings.getUnitPrice();
+            this.earningRate = settings.getEarningRate();
+            this.slotIntervalRate = settings.getSlotIntervalRate();
+            return this;
+        }
+        public Config setUnitPrice(int unitPrice) {
+            this.unitPrice = unitPrice;
+            return this;
+        }
+        public Config setEarningRate(float earningRate) {
+            this.earningRate = earningRate;
+            return this;
+        }
+        public Config setSlotIntervalRate(float slotIntervalRate) {
+            this.slotIntervalRate = slotIntervalRate;
+            return this;
+        }
+        public Config setLookAside(int sellLookAside, int buyLookAside) {
+            if (sellLookAside < 1 || buyLookAside < 1)
+                throw new IllegalArgumentException("look-aside must be positive : " + sellLookAside + ", " + buyLookAside);
+            this.sellLookAside = sellLookAside;
+            this.buyLookAside = buyLookAside;
+            return this;
+        }
+        public Config setFeeRate(double feeRate) {
+            this.feeRate = feeRate;
+            return this;
+        }
+        public Config setDecisionIntervalMillis(long decisionIntervalMillis) {
+            this.decisionIntervalMillis = decisionIntervalMillis;
+            return this;
+        }
+        public Config setInitialBalance(double krw, double coin) {
+            this.initialKrw = krw;
+            this.initialCoin = coin;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "unit=%,d, earning=%.2f%%, slot=%.2f%%, look-aside=%d/%d, fee=%.4f%%, interval=%dms",
+                    unitPrice, earningRate, slotIntervalRate, sellLookAside, buyLookAside, feeRate * 100, decisionIntervalMillis);
+        }
+    }
+
+    /**
+     * backtest 결과
+     */
+    public static class Result {
+        public final long ticks;
+        public final long decisions;
+        public final long buyOrders;
+        public final long buyFills;
+        public final long buyCancels;
+        public final long sellOrders;
+        public final long sellFills;
+        public final long sellFailures;     // 체결된 매수에 대한 매도를 걸 slot을 찾지 못한 수
+        public final long ladderRebuilds;
+        public final double krw;
+        public final double availableCoin;
+        public final double lockedCoin;
+        public final double fees;
+        public final double initialEquity;  // 첫 가격 기준 평가 금액
+        public final double finalEquity;    // 마지막 가격 기준 평가 금액
+        public final double maxDrawdown;    // 평가 금액의 최고점 대비 최대 하락 금액
+        public final double maxDrawdownRate; // 최고점 대비 최대 하락률 (%)
+
+        Result(long ticks, long decisions, long buyOrders, long buyFills, long buyCancels, long sellOrders, long sellFills,
+               long sellFailures, long ladderRebuilds, double krw, double availableCoin, double lockedCoin, double fees,
+               double initialEquity, double finalEquity, double maxDrawdown, double maxDrawdownRate) {
+            this.ticks = ticks;
+            this.decisions = decisions;
+            this.buyOrders = buyOrders;
+            this.buyFills = buyFills;
+            this.buyCancels = buyCancels;
+            this.sellOrders = sellOrders;
+            this.sellFills = sellFills;
+            this.sellFailures = sellFailures;
+            this.ladderRebuilds = ladderRebuilds;
+            this.krw = krw;
+            this.availableCoin = availableCoin;
+            this.lockedCoin = lockedCoin;
+            this.fees = fees;
+            this.initialEquity = initialEquity;
+            this.finalEquity = finalEquity;
+            this.maxDrawdown = maxDrawdown;
+            this.maxDrawdownRate = maxDrawdownRate;
+        }
+
+        public double getProfit() {
+            return finalEquity - initialEquity;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "ticks=%d, P&L=%,.0f원, 매수 %d/%d, 매도 %d/%d, 매도 실패=%d, 수수료=%,.0f원, MDD=%,.0f원(%.2f%%)",
+                    ticks, getProfit(), buyFills, buyOrders, sellFills, sellOrders, sellFailures, fees, maxDrawdown, maxDrawdownRate);
+        }
+    }
+
+    /**
+     * 시간순 체결가 시계열. 원시 배열로 들고 있어 재생 중에 boxing이 없다.
+     */
+    public static class PriceSeries {
+        public long[] timeMillis;
+        public int[] prices;
+        public int size;
+
+        public PriceSeries(int capacity) {
+            timeMillis = new long[Math.max(16, capacity)];
+            prices = new int[Math.max(16, capacity)];
+        }
+
+        public void add(long time, int price) {
+            if (size == prices.length) {
+                timeMillis = Arrays.copyOf(timeMillis, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            timeMillis[size] = time;
+            prices[size] = price;
+            size++;
+        }
+
+        /**
+         * "시간(ms),가격" 형식의 줄을 읽는다. 숫자로 시작하지 않는 줄(header 등)은 건너뛴다.
+         */
+        public static PriceSeries readCsv(Reader reader) throws IOException {
+            PriceSeries series = new PriceSeries(1024);
+            BufferedReader in = new BufferedReader(reader);
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                int comma = line.indexOf(',');
+                if (comma <= 0 || !Character.isDigit(line.charAt(0)))
+                    continue;
+                int end = line.indexOf(',', comma + 1);
+                String price = line.substring(comma + 1, end < 0 ? line.length() : end).trim();
+                series.add(Long.parseLong(line.substring(0, comma).trim()), (int) Double.parseDouble(price));
+            }
+            return series;
+        }
+    }
+}
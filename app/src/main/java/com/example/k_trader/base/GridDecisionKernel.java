@@ -0,0 +1,327 @@
+package com.example.k_trader.base;
+
+import java.util.Arrays;
+
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+import static com.example.k_trader.base.TradeDataManager.Type.SELL;
+
+/**
+ * grid 매매 판단 kernel
+ *
+ * TradeJobService.tradeBusinessLogic()이 tick마다 하던 판단만 떼어낸 것으로, Android API나 로그 없이 현재 시장가, 잔고,
+ * 걸려 있는 주문(SlotLadder), 새로 체결된 주문을 받아 발행할 주문(intent) 목록을 만든다.
+ * - 체결된 매수 : 바로 위 slot부터 SELL 단계 위까지 중 가장 높은, 비어 있거나 isSameSlotOrder()로 합칠 수 있는 slot에 매도한다.
+ * - 남은 코인 잔고 : 현재가 floor slot부터 같은 방법으로 매도한다.
+ * - 매수 : 현재가 floor slot부터 BUY 단계 아래까지 매도가 없는 slot에 하나만 걸고, 기존 매수는 모두 취소한다.
+ * 판단하면서 발행한 주문은 성공한다고 보고 사다리와 잔고에 바로 반영한다. 실패한 주문은 다음 tick에 다시 판단한다.
+ *
+ * 같은 kernel을 실거래(TradeJobService), backtest(GridBacktester), 성능 측정(GridDecisionKernelTest.measureDecisionsPerSecond)에서 사용한다.
+ * 시간은 주입한 Clock으로만 읽고, 체결과 intent는 미리 잡아 둔 배열에 담으므로 판단 중에는 객체를 만들지 않는다.
+ * 수량은 CoinUnits 고정소수점, 원화는 원 단위 long으로 다루며 주문 수량은 항상 주문 단위(0.0001)의 배수이다.
+ * 주문 실행은 {@link #execute(ExchangePort)}로 호출하는 쪽의 ExchangePort에 맡긴다.
+ * thread safe 하지 않다. 매매하는 코인(엔진)마다 하나씩 사용한다.
+ */
+public class GridDecisionKernel {
+    public static final int SELL_SLOT_LOOK_ASIDE_DEFAULT = 3; // 3 단계 위까지 매도점을 찾아본다.
+    public static final int BUY_SLOT_LOOK_ASIDE_DEFAULT = 3;
+
+    public enum IntentType {
+        SELL_FOR_FILL,  // 체결된 매수에 대한 매도
+        SELL_BALANCE,   // 매도 주문에 들어가지 못한 잔고 매도
+        CANCEL_BUYS,    // 걸려 있는 매수 모두 취소
+        BUY
+    }
+
+    public interface Clock {
+        long currentTimeMillis();
+    }
+
+    public static final Clock SYSTEM_CLOCK = System::currentTimeMillis;
+
+    /**
+     * intent를 실제로 실행하는 쪽. 성공하면 true를 리턴한다.
+     */
+    public interface ExchangePort {
+        /**
+         * @param fillIndex SELL_FOR_FILL이면 매도하는 체결의 index, SELL_BALANCE면 -1
+         */
+        boolean sell(int price, long units, int fillIndex);
+        boolean cancelBuys();
+        boolean buy(int price, long units);
+    }
+
+    private final Clock clock;
+    private MarketSettings settings;
+    private long sameSlotLimit;     // isSameSlotOrder()의 기준 금액
+    private int sellLookAside = SELL_SLOT_LOOK_ASIDE_DEFAULT;
+    private int buyLookAside = BUY_SLOT_LOOK_ASIDE_DEFAULT;
+    private long decisionIntervalMillis;
+    private long nextDecisionMillis = Long.MIN_VALUE;
+    private long lastDecisionMillis;
+
+    // 새로 체결된 주문. 같은 가격의 체결은 하나로 합친다.
+    private int fillCount;
+    private TradeDataManager.Type[] fillTypes = new TradeDataManager.Type[8];
+    private int[] fillPrices = new int[8];
+    private long[] fillUnits = new long[8];
+    private long[] fillTimes = new long[8];
+    private boolean[] fillSold = new boolean[8];
+
+    // 발행할 주문
+    private int intentCount;
+    private IntentType[] intentTypes = new IntentType[8];
+    private int[] intentPrices = new int[8];
+    private long[] intentUnits = new long[8];
+    private int[] intentFills = new int[8];
+
+    public GridDecisionKernel(Clock clock, MarketSettings settings) {
+        this.clock = clock;
+        setSettings(settings);
+    }
+
+    public void setSettings(MarketSettings settings) {
+        this.settings = settings;
+        this.sameSlotLimit = (long) (settings.getUnitPrice() + settings.getUnitPrice() * (settings.getEarningRate() / 100.0));
+    }
+
+    public MarketSettings getSettings() {
+        return settings;
+    }
+
+    public void setLookAside(int sellLookAside, int buyLookAside) {
+        if (sellLookAside < 1 || buyLookAside < 1)
+            throw new IllegalArgumentException("look-aside must be positive : " + sellLookAside + ", " + buyLookAside);
+        this.sellLookAside = sellLookAside;
+        this.buyLookAside = buyLookAside;
+    }
+
+    /**
+     * {@link #isDecisionDue()}가 사용하는 판단 주기. 실거래에서는 TradingEngine이 주기를 정하므로 0으로 둔다.
+     */
+    public void setDecisionIntervalMillis(long decisionIntervalMillis) {
+        this.decisionIntervalMillis = decisionIntervalMillis;
+    }
+
+    public boolean isDecisionDue() {
+        return clock.currentTimeMillis() >= nextDecisionMillis;
+    }
+
+    public long getLastDecisionMillis() {
+        return lastDecisionMillis;
+    }
+
+    /**
+     * 빗썸은 0.0001 코인이 최소 거래 단위이므로, 1회 거래 금액으로 최소 단위를 살 수 있는지 확인한다.
+     */
+    public boolean isTradable(int currentPrice) {
+        return currentPrice / 10000 <= settings.getUnitPrice();
+    }
+
+    // 주어진 가격 slot에 1회 거래 금액으로 매수할 수량. 주문 단위로 반올림한다.
+    public long getUnitAmount4Price(int price) {
+        return CoinUnits.roundToLot(CoinUnits.forKrw(settings.getUnitPrice(), price));
+    }
+
+    // placedUnits : slot에 이미 걸려 있는 매도 수량, units : 새로 매도할 수량
+    public boolean isSameSlotOrder(long placedUnits, long units, int price) {
+        return CoinUnits.krwValue(placedUnits + units, price) <= sameSlotLimit;
+    }
+
+    // ---- 체결 ----
+
+    public void clearFills() {
+        fillCount = 0;
+    }
+
+    /**
+     * 새로 체결된 주문을 추가한다. 이미 같은 가격의 체결이 있으면 수량을 더하고 늦은 체결 시간을 사용한다. (따로 매도 등록 되지 않도록 방지)
+     */
+    public void addFill(TradeDataManager.Type type, int price, long units, long processedTime) {
+        for (int i = 0; i < fillCount; i++) {
+            if (fillPrices[i] == price) {
+                fillUnits[i] += units;
+                if (processedTime > fillTimes[i])
+                    fillTimes[i] = processedTime;
+                return;
+            }
+        }
+        if (fillCount == fillPrices.length) {
+            int capacity = fillCount * 2;
+            fillTypes = Arrays.copyOf(fillTypes, capacity);
+            fillPrices = Arrays.copyOf(fillPrices, capacity);
+            fillUnits = Arrays.copyOf(fillUnits, capacity);
+            fillTimes = Arrays.copyOf(fillTimes, capacity);
+            fillSold = Arrays.copyOf(fillSold, capacity);
+        }
+        fillTypes[fillCount] = type;
+        fillPrices[fillCount] = price;
+        fillUnits[fillCount] = units;
+        fillTimes[fillCount] = processedTime;
+        fillSold[fillCount] = false;
+        fillCount++;
+    }
+
+    public int getFillCount() {return fillCount;}
+    public TradeDataManager.Type getFillType(int index) {return fillTypes[index];}
+    public int getFillPrice(int index) {return fillPrices[index];}
+    public long getFillUnits(int index) {return fillUnits[index];}
+    public long getFillTime(int index) {return fillTimes[index];}
+
+    /**
+     * 매수 체결에 대한 매도 주문이 {@link #execute(ExchangePort)}에서 성공했는지 확인한다.
+     */
+    public boolean isFillSold(int index) {
+        return fillSold[index];
+    }
+
+    // ---- 판단 ----
+
+    /**
+     * 발행할 주문을 판단한다. 판단한 주문은 ladder에 바로 기록된다.
+     *
+     * @param ladder 현재가 주변 slot과 걸려 있는 주문
+     * @param krwBalance 주문 가능한 원화 (원)
+     * @param availableCoin 매도 주문에 들어가지 않은 코인 (CoinUnits)
+     * @return 1회 거래 금액이 거래소 최소 거래 금액보다 작아 판단하지 않았으면 false
+     */
+    public boolean decide(SlotLadder ladder, int currentPrice, long krwBalance, long availableCoin) {
+        intentCount = 0;
+        lastDecisionMillis = clock.currentTimeMillis();
+        nextDecisionMillis = lastDecisionMillis + decisionIntervalMillis;
+        if (!isTradable(currentPrice))
+            return false;
+
+        // 매수가 체결되었다면 매도 주문을 낸다.
+        for (int f = 0; f < fillCount; f++) {
+            fillSold[f] = false;
+            if (fillTypes[f] != BUY)
+                continue;
+
+            // 매수되었던 unit이 소수점 4자리 이하 일수도 있으니 다시 4자리로 절사 한다.
+            long units = fillUnits[f];
+            long unit = CoinUnits.floorToLot(units);
+            // 0.00005~9 만큼 남고 잔고가 충분하다면 반올림한다.
+            if ((units - unit) > CoinUnits.LOT / 2 && (availableCoin - unit) > CoinUnits.LOT)
+                unit = CoinUnits.roundToLot(units);
+            // 남은 잔고보다 계산 값이 큰 경우에는 서버 에러가 발생하므로 잔고만큼만 매도한다. (ex : 0.0047 vs 0.00469..)
+            if (unit > availableCoin)
+                unit = CoinUnits.floorToLot(availableCoin);
+            if (unit < CoinUnits.LOT)
+                continue;
+
+            // 매수가가 slot 사이에 있다면 바로 위 slot을 기준으로 한다.
+            int slot = findSellSlot(ladder, ladder.ceilIndex(fillPrices[f]), units);
+            if (slot >= 0) {
+                addSell(ladder, IntentType.SELL_FOR_FILL, slot, unit, f);
+                availableCoin -= unit;
+            }
+        }
+
+        // 매수건에 대한 매도를 다 처리 했음에도 코인 잔고가 남아 있다면 현재가보다 상위에 비어 있는 slot에 매도한다.
+        // 예) 매수 발생 후 앱이 종료되었다가 앱이 재실행 된 경우
+        int floorSlot = ladder.floorIndex(currentPrice);
+        if (floorSlot < 0)
+            return true;
+        if (availableCoin > CoinUnits.LOT) {
+            long unit = Math.min(getUnitAmount4Price(ladder.getSlotPrice(floorSlot)), CoinUnits.floorToLot(availableCoin));
+            int slot = findSellSlot(ladder, floorSlot, unit);
+            if (slot >= 0)
+                addSell(ladder, IntentType.SELL_BALANCE, slot, unit, -1);
+        }
+
+        // 매수 요청 발행, 어느 시점에서나 active한 매수 오더는 1개만 유지하도록 한다.
+        for (int i = 0; i < buyLookAside; i++) {
+            int slot = floorSlot - i;
+            if (slot < 0 || ladder.hasBuy(slot)) // 해당 가격에 이미 대기중인 매수가 있다면 그대로 둔다.
+                break;
+            if (ladder.hasSell(slot)) // 해당 가격에 이미 대기중인 매도가 있다면 skip
+                continue;
+
+            int targetPrice = ladder.getSlotPrice(slot);
+            long units = getUnitAmount4Price(targetPrice);
+            if (krwBalance < CoinUnits.krwValue(units, targetPrice)) // 잔고 부족
+                continue;
+
+            // 체결 되기 어려운 낮은 가격 order는 모두 취소한다.
+            addIntent(IntentType.CANCEL_BUYS, 0, 0, -1);
+            ladder.clearBuyOrders();
+            addIntent(IntentType.BUY, targetPrice, units, -1);
+            ladder.addOrder(BUY, targetPrice, units);
+            break;
+        }
+        return true;
+    }
+
+    // baseSlot부터 SELL 단계 위까지 중 가장 높은, 주문할 수 있는 slot. 없으면 -1
+    private int findSellSlot(SlotLadder ladder, int baseSlot, long units) {
+        for (int i = 0; i < sellLookAside; i++) {
+            int slot = baseSlot + (sellLookAside - 1 - i);
+            if (slot < 0 || slot >= ladder.size())
+                continue;
+            // Slot이 비어 있거나, 이미 Order가 있더라도 분할 매수된 경우라면 동일 가격으로 매도 주문하도록 한다.
+            if (!ladder.hasSell(slot) || isSameSlotOrder(ladder.getSellUnits(slot), units, ladder.getSellPrice(slot)))
+                return slot;
+        }
+        return -1;
+    }
+
+    private void addSell(SlotLadder ladder, IntentType type, int slot, long unit, int fillIndex) {
+        int price = ladder.getSellPrice(slot);
+        addIntent(type, price, unit, fillIndex);
+        ladder.addOrder(SELL, price, unit);
+    }
+
+    private void addIntent(IntentType type, int price, long units, int fillIndex) {
+        if (intentCount == intentTypes.length) {
+            int capacity = intentCount * 2;
+            intentTypes = Arrays.copyOf(intentTypes, capacity);
+            intentPrices = Arrays.copyOf(intentPrices, capacity);
+            intentUnits = Arrays.copyOf(intentUnits, capacity);
+            intentFills = Arrays.copyOf(intentFills, capacity);
+        }
+        intentTypes[intentCount] = type;
+        intentPrices[intentCount] = price;
+        intentUnits[intentCount] = units;
+        intentFills[intentCount] = fillIndex;
+        intentCount++;
+    }
+
+    public int getIntentCount() {return intentCount;}
+    public IntentType getIntentType(int index) {return intentTypes[index];}
+    public int getIntentPrice(int index) {return intentPrices[index];}
+    public long getIntentUnits(int index) {return intentUnits[index];}
+    public int getIntentFill(int index) {return intentFills[index];}
+
+    /**
+     * intent를 순서대로 실행한다.
+     * 체결 대응 매도가 실패하면 다음 intent를 계속 실행하고, 그 외의 주문이 실패하면 나머지 주문은 실행하지 않는다.
+     *
+     * @return 모든 주문이 성공했으면 true
+     */
+    public boolean execute(ExchangePort port) {
+        boolean allDone = true;
+        for (int i = 0; i < intentCount; i++) {
+            switch (intentTypes[i]) {
+                case SELL_FOR_FILL:
+                    if (port.sell(intentPrices[i], intentUnits[i], intentFills[i]))
+                        fillSold[intentFills[i]] = true;
+                    else
+                        allDone = false;
+                    break;
+                case SELL_BALANCE:
+                    if (!port.sell(intentPrices[i], intentUnits[i], -1))
+                        return false;
+                    break;
+                case CANCEL_BUYS:
+                    if (!port.cancelBuys())
+                        return false;
+                    break;
+                case BUY:
+                    if (!port.buy(intentPrices[i], intentUnits[i]))
+                        return false;
+                    break;
+            }
+        }
+        return allDone;
+    }
+}
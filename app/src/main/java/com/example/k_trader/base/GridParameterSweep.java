@@ -0,0 +1,237 @@
+package com.example.k_trader.base;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * grid 설정값 parameter sweep
+ *
+ * 1회 거래 금액, 이익률, slot 간격, look-aside 단계, 매매 주기의 모든 조합을 GridBacktester로 같은 시계열에 재생해 순위를 매긴다.
+ * - 조합은 fork-join으로 나눠 모든 core에서 동시에 실행한다. 조합 하나가 시계열 전체를 재생하므로 조합 단위까지 나눈다.
+ * - 시계열 배열은 모든 조합이 읽기만 하므로 복사하지 않고 공유한다.
+ * - 수수료와 초기 잔고는 base 설정을 그대로 사용한다.
+ *
+ * 단독 실행 : java ... com.example.k_trader.base.GridParameterSweep prices.csv [상위 개수]
+ * prices.csv는 "시간(ms),가격" 형식이며 기본 범위의 조합을 모두 실행해 P&L 순위를 출력한다.
+ */
+public class GridParameterSweep {
+    /** P&L이 큰 순서, 같으면 최대 낙폭이 작은 순서 */
+    public static final Comparator<Entry> BY_PROFIT = (a, b) -> {
+        int c = Double.compare(b.result.getProfit(), a.result.getProfit());
+        return c != 0 ? c : Double.compare(a.result.maxDrawdown, b.result.maxDrawdown);
+    };
+    /** P&L / 최대 낙폭이 큰 순서. 낙폭이 작은 조합을 우선한다. */
+    public static final Comparator<Entry> BY_PROFIT_OVER_DRAWDOWN = (a, b) -> {
+        int c = Double.compare(b.getProfitOverDrawdown(), a.getProfitOverDrawdown());
+        return c != 0 ? c : BY_PROFIT.compare(a, b);
+    };
+
+    private final GridBacktester.Config base;
+    private int[] unitPrices;
+    private float[] earningRates;
+    private float[] slotIntervalRates;
+    private int[] sellLookAsides;
+    private int[] buyLookAsides;
+    private long[] decisionIntervalsMillis;
+
+    public GridParameterSweep(GridBacktester.Config base) {
+        this.base = base;
+        this.unitPrices = new int[]{base.unitPrice};
+        this.earningRates = new float[]{base.earningRate};
+        this.slotIntervalRates = new float[]{base.slotIntervalRate};
+        this.sellLookAsides = new int[]{base.sellLookAside};
+        this.buyLookAsides = new int[]{base.buyLookAside};
+        this.decisionIntervalsMillis = new long[]{base.decisionIntervalMillis};
+    }
+
+    public GridParameterSweep setUnitPrices(int... values) {
+        checkNotEmpty(values.length);
+        this.unitPrices = values;
+        return this;
+    }
+    public GridParameterSweep setEarningRates(float... values) {
+        checkNotEmpty(values.length);
+        this.earningRates = values;
+        return this;
+    }
+    public GridParameterSweep setSlotIntervalRates(float... values) {
+        checkNotEmpty(values.length);
+        this.slotIntervalRates = values;
+        return this;
+    }
+    public GridParameterSweep setLookAsides(int[] sellValues, int[] buyValues) {
+        checkNotEmpty(sellValues.length);
+        this.sellLookAsides = sellValues;
+        checkNotEmpty(buyValues.length);
+        this.buyLookAsides = buyValues;
+        return this;
+    }
+    public GridParameterSweep setDecisionIntervalsMillis(long... values) {
+        checkNotEmpty(values.length);
+        this.decisionIntervalsMillis = values;
+        return this;
+    }
+
+    private static void checkNotEmpty(int length) {
+        if (length == 0)
+            throw new IllegalArgumentException("sweep values must not be empty");
+    }
+
+    /**
+     * 전체 조합 수
+     */
+    public int size() {
+        long size = (long) unitPrices.length * earningRates.length * slotIntervalRates.length
+                * sellLookAsides.length * buyLookAsides.length * decisionIntervalsMillis.length;
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalStateException("too many combinations : " + size);
+        return (int) size;
+    }
+
+    /**
+     * index번째 조합의 설정. 마지막 parameter(매매 주기)가 가장 빨리 바뀐다.
+     */
+    public GridBacktester.Config getConfig(int index) {
+        int i = index;
+        long decisionInterval = decisionIntervalsMillis[i % decisionIntervalsMillis.length];
+        i /= decisionIntervalsMillis.length;
+        int buyLookAside = buyLookAsides[i % buyLookAsides.length];
+        i /= buyLookAsides.length;
+        int sellLookAside = sellLookAsides[i % sellLookAsides.length];
+        i /= sellLookAsides.length;
+        float slotIntervalRate = slotIntervalRates[i % slotIntervalRates.length];
+        i /= slotIntervalRates.length;
+        float earningRate = earningRates[i % earningRates.length];
+        i /= earningRates.length;
+        int unitPrice = unitPrices[i];
+
+        GridBacktester.Config config = new GridBacktester.Config();
+        config.coinType = base.coinType;
+        return config.setUnitPrice(unitPrice)
+                .setEarningRate(earningRate)
+                .setSlotIntervalRate(slotIntervalRate)
+                .setLookAside(sellLookAside, buyLookAside)
+                .setDecisionIntervalMillis(decisionInterval)
+                .setFeeRate(base.feeRate)
+                .setInitialBalance(base.initialKrw, base.initialCoin);
+    }
+
+    /**
+     * 모든 조합을 pool에서 실행하고 ranking 순서로 정렬해 리턴한다.
+     */
+    public List<Entry> run(GridBacktester.PriceSeries series, ForkJoinPool pool, Comparator<Entry> ranking) {
+        Entry[] entries = new Entry[size()];
+        pool.invoke(new SweepTask(series, entries, 0, entries.length));
+        List<Entry> list = new ArrayList<>(Arrays.asList(entries));
+        Collections.sort(list, ranking);
+        return list;
+    }
+
+    public List<Entry> run(GridBacktester.PriceSeries series) {
+        return run(series, ForkJoinPool.commonPool(), BY_PROFIT);
+    }
+
+    private class SweepTask extends RecursiveAction {
+        private final GridBacktester.PriceSeries series;
+        private final Entry[] entries;
+        private final int from;
+        private final int to;
+
+        SweepTask(GridBacktester.PriceSeries series, Entry[] entries, int from, int to) {
+            this.series = series;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                GridBacktester.Config config = getConfig(from);
+                GridBacktester backtester = new GridBacktester(config);
+                backtester.run(series);
+                entries[from] = new Entry(from, config, backtester.getResult());
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SweepTask(series, entries, from, mid), new SweepTask(series, entries, mid, to));
+        }
+    }
+
+    /**
+     * 조합 하나의 결과
+     */
+    public static class Entry {
+        public final int index;
+        public final GridBacktester.Config config;
+        public final GridBacktester.Result result;
+
+        Entry(int index, GridBacktester.Config config, GridBacktester.Result result) {
+            this.index = index;
+            this.config = config;
+            this.result = result;
+        }
+
+        public double getProfitOverDrawdown() {
+            return result.getProfit() / Math.max(1, result.maxDrawdown);
+        }
+
+        @Override
+        public String toString() {
+            return config + " -> " + result;
+        }
+    }
+
+    /**
+     * 상위 limit개 결과를 표로 만든다.
+     */
+    public static String toTable(List<Entry> entries, int limit) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.getDefault(), "%4s %12s %7s %7s %5s %8s %14s %14s %8s %7s %7s%n",
+                "순위", "1회 금액", "이익률", "slot", "LA", "주기(s)", "P&L", "MDD", "MDD%", "매수", "매도"));
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            Entry entry = entries.get(i);
+            GridBacktester.Config c = entry.config;
+            GridBacktester.Result r = entry.result;
+            sb.append(String.format(Locale.getDefault(), "%4d %,12d %6.2f%% %6.2f%% %2d/%-2d %8d %,14.0f %,14.0f %7.2f%% %7d %7d%n",
+                    i + 1, c.unitPrice, c.earningRate, c.slotIntervalRate, c.sellLookAside, c.buyLookAside,
+                    c.decisionIntervalMillis / 1000, r.getProfit(), r.maxDrawdown, r.maxDrawdownRate, r.buyFills, r.sellFills));
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage : GridParameterSweep prices.csv [limit]");
+            return;
+        }
+        GridBacktester.PriceSeries series;
+        try (Reader reader = new FileReader(args[0])) {
+            series = GridBacktester.PriceSeries.readCsv(reader);
+        }
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+        GridParameterSweep sweep = new GridParameterSweep(new GridBacktester.Config())
+                .setUnitPrices(500000, 1000000, 2000000, 5000000)
+                .setEarningRates(0.5f, 0.75f, 1.0f, 1.5f, 2.0f, 3.0f)
+                .setSlotIntervalRates(0.25f, 0.5f, 0.75f, 1.0f, 1.5f, 2.0f)
+                .setLookAsides(new int[]{1, 2, 3, 5}, new int[]{1, 3, 5})
+                .setDecisionIntervalsMillis(10000, 60000, 300000);
+
+        long start = System.nanoTime();
+        List<Entry> entries = sweep.run(series);
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+        System.out.println(String.format(Locale.getDefault(), "가격 %,d건, 조합 %,d개, %,dms (%d threads)",
+                series.size, entries.size(), elapsedMs, ForkJoinPool.commonPool().getParallelism()));
+        System.out.print(toTable(entries, limit));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.k_trader.base;
+
+/**
+ * 원화 금액과 호가 단위
+ *
+ * 원화 잔고는 long 원 단위로 다룬다. 빗썸 응답의 원 단위 아래 값은 주문에 쓸 수 없으므로 읽을 때 버린다.
+ * 주문 가격은 빗썸 원화 마켓의 가격대별 호가 단위에 맞춰야 하므로 tickSize()로 보정한다.
+ */
+public final class Krw {
+    public static final long NONE = Long.MIN_VALUE;    // 값 없음
+
+    private Krw() {}
+
+    /**
+     * "1,234,567.89" 형식의 문자열을 원 단위로 읽는다. 원 아래는 버린다. 숫자가 아니면 NONE을 리턴한다.
+     */
+    public static long parse(CharSequence text) {
+        if (text == null)
+            return NONE;
+        return parse(text, 0, text.length());
+    }
+
+    public static long parse(CharSequence text, int start, int end) {
+        return CoinUnits.parse(text, start, end, 0, false);
+    }
+
+    /**
+     * 빗썸 원화 마켓 호가 단위 (1원 미만 가격대는 1원으로 본다)
+     */
+    public static int tickSize(int price) {
+        if (price >= 1000000) return 1000;
+        if (price >= 500000) return 500;
+        if (price >= 100000) return 100;
+        if (price >= 50000) return 50;
+        if (price >= 10000) return 10;
+        if (price >= 5000) return 5;
+        return 1;
+    }
+
+    // 매수 가격은 호가 단위로 내린다.
+    public static int floorToTick(int price) {
+        return price - price % tickSize(price);
+    }
+
+    // 매도 가격은 호가 단위로 올린다. 올린 가격이 다음 가격대에 걸쳐도 그 가격대의 호가 단위 배수이다.
+    public static int ceilToTick(int price) {
+        int tick = tickSize(price);
+        int remainder = price % tick;
+        return remainder == 0 ? price : price - remainder + tick;
+    }
+
+    public static boolean isOnTick(int price) {
+        return price % tickSize(price) == 0;
+    }
+}
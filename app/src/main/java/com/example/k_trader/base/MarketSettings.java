@@ -0,0 +1,43 @@
+package com.example.k_trader.base;
+
+import com.example.k_trader.MainPage;
+
+/**
+ * 코인(market)별 매매 설정
+ *
+ * 여러 코인을 동시에 매매할 때 코인마다 1회 거래 금액, 이익률, slot 간격을 따로 둘 수 있다.
+ * 따로 설정하지 않은 코인은 GlobalSettings의 공통 설정을 사용한다.
+ */
+public class MarketSettings {
+    private final String coinType;
+    private final int unitPrice;
+    private final float earningRate;
+    private final float slotIntervalRate;
+
+    public MarketSettings(String coinType, int unitPrice, float earningRate, float slotIntervalRate) {
+        this.coinType = coinType;
+        this.unitPrice = unitPrice;
+        this.earningRate = earningRate;
+        this.slotIntervalRate = slotIntervalRate;
+    }
+
+    public String getCoinType() {return coinType;}
+    public int getUnitPrice() {return unitPrice;}
+    public float getEarningRate() {return earningRate;}
+    public float getSlotIntervalRate() {return slotIntervalRate;}
+
+    // MainPage.getProfitPrice()와 같은 계산을 이 코인의 이익률로 한다.
+    public int getProfitPrice(int basePrice) {
+        return (int)(MainPage.getFloorPrice(basePrice) * (earningRate / 100.0));
+    }
+
+    // MainPage.getSlotIntervalPrice()와 같은 계산을 이 코인의 slot 간격으로 한다.
+    public int getSlotIntervalPrice(int basePrice) {
+        return (int)(MainPage.getFloorPrice(basePrice) * (slotIntervalRate / 100.0));
+    }
+
+    @Override
+    public String toString() {
+        return coinType + "(unit=" + unitPrice + ", earning=" + earningRate + "%, slot=" + slotIntervalRate + "%)";
+    }
+}
@@ -4,18 +4,25 @@ import android.content.Intent;
 import android.support.v4.content.LocalBroadcastManager;
 import android.util.Log;
 
-import com.example.k_trader.MainActivity;
 import com.example.k_trader.MainPage;
 import com.example.k_trader.KTraderApplication;
 import com.example.k_trader.TransactionLogFragment;
+import com.example.k_trader.bitthumb.lib.ApiExecutor;
 import com.example.k_trader.bitthumb.lib.Api_Client;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Balance;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Orderbook;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Response;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
 import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 import static com.example.k_trader.base.TradeDataManager.Type.BUY;
 import static com.example.k_trader.base.TradeDataManager.Type.NONE;
@@ -27,10 +34,9 @@ import static com.example.k_trader.base.ErrorCode.*;
  */
 
 public class OrderManager {
-    private static long lastRequestTimeInMillis = 0;
-    private static final long safeIntervalInSec = 15;
     private static final org.apache.log4j.Logger logger = Log4jHelper.getLogger("OrderManager");
     private final TradeApiService tradeApiService;
+    private final String coinType; // null이면 GlobalSettings의 코인을 사용한다.
 
     public interface TradeApiService {
         Api_Client getApiService();
@@ -44,11 +50,27 @@ public class OrderManager {
     }
 
     public OrderManager() {
-        tradeApiService = new DefaultTradeApiService();
+        this(new DefaultTradeApiService(), null);
     }
 
     public OrderManager(TradeApiService tradeApiService) {
+        this(tradeApiService, null);
+    }
+
+    /**
+     * 지정한 코인만 조회/주문하는 OrderManager. 여러 코인을 동시에 매매할 때 엔진마다 하나씩 사용한다.
+     */
+    public OrderManager(String coinType) {
+        this(new DefaultTradeApiService(), coinType);
+    }
+
+    public OrderManager(TradeApiService tradeApiService, String coinType) {
         this.tradeApiService = tradeApiService;
+        this.coinType = coinType;
+    }
+
+    public String getCoinType() {
+        return getCurrentCoinType();
     }
 
     public boolean cancelOrder(String tag, TradeData data) {
@@ -65,7 +87,7 @@ public class OrderManager {
         rgParams.put("order_id", data.getId());
         rgParams.put("payment_currency", "KRW");
 
-        log_info(tag + " : " + data.getType().toString() + " 취소 : " + data.getId() + " : " + data.getUnits() + " : " + String.format(Locale.getDefault(), "%,d", data.getPrice()));
+        log_info(tag + " : " + data.getType().toString() + " 취소 : " + data.getId() + " : " + CoinUnits.toPlainString(data.getUnits(), CoinUnits.SCALE_DIGITS) + " : " + String.format(Locale.getDefault(), "%,d", data.getPrice()));
 
         try {
             result = api.callApi("POST", "/trade/cancel", rgParams);
@@ -119,7 +141,7 @@ public class OrderManager {
                     TradeData data = new TradeData();
                     data.setType(BUY);
                     data.setId((String) item.get("order_id"));
-                    data.setUnits((float) Double.parseDouble((String) item.get("units_remaining")));
+                    data.setUnits(CoinUnits.parse((String) item.get("units_remaining")));
                     data.setPrice(Integer.parseInt(((String) item.get("price")).replaceAll(",", "")));
                     cancelOrder("전체취소", data);
                     cancelCount++;
@@ -131,43 +153,36 @@ public class OrderManager {
         return true;
     }
 
-    public JSONObject addOrder(String tag, TradeDataManager.Type type, double units, int price) {
+    /**
+     * 지정가 주문을 발행한다.
+     * 수량은 주문 단위(0.0001)로 버려 잔고보다 많이 주문하지 않도록 하고, 가격은 호가 단위에 맞춰 매수는 내리고 매도는 올린다.
+     *
+     * @param units CoinUnits 고정소수점 수량
+     */
+    public JSONObject addOrder(String tag, TradeDataManager.Type type, long units, int price) {
         Api_Client api = tradeApiService.getApiService();
         JSONObject result;
-        long requestTime = Calendar.getInstance().getTimeInMillis();
 
-        if (units < 0.0001) {
-            String logMessage = tag + " : " + type.toString() + " 발행 취소 : " + String.format("%.4f", units) + " : " + "최소 수량 미달";
+        units = CoinUnits.floorToLot(units);
+        if (units < CoinUnits.LOT) {
+            String logMessage = tag + " : " + type.toString() + " 발행 취소 : " + CoinUnits.toPlainString(units) + " : " + "최소 수량 미달";
             log_info(logMessage);
             sendErrorCard("Validation Error", ERR_VALIDATION_001.getDescription());
             Log.d("KTrader", "Order " + "Validation Error");
             return null;
         }
 
-        // 마지막 요청으로부터 15초 이내에 신규 요청이 온 경우에는 delay 시킨다.
-        // {"message":"Please try again","status":"5600"} 에러 방지 목적
-        while ((requestTime - lastRequestTimeInMillis) < safeIntervalInSec * 1000) {
-            Intent intent = new Intent(MainActivity.BROADCAST_PROGRESS_MESSAGE);
-
-            Log.d("KTrader", "Order sending progress : " + String.valueOf((15 * 1000) - (requestTime - lastRequestTimeInMillis)));
-
-            intent.putExtra("progress", (int)((safeIntervalInSec) - (requestTime - lastRequestTimeInMillis)/1000));
-            if (KTraderApplication.getAppContext() != null)
-                LocalBroadcastManager.getInstance(KTraderApplication.getAppContext()).sendBroadcast(intent);
-
-            try {
-                Thread.sleep((safeIntervalInSec * 1000) - (requestTime - lastRequestTimeInMillis));
-            } catch (InterruptedException e) {
-                // 에러처리
-            }
-
-            requestTime = Calendar.getInstance().getTimeInMillis();
+        // 자동 매매 가격은 SlotLadder가 호가 단위로 맞춰 둔다. 수동 주문 등 그 밖의 가격만 여기서 보정된다.
+        if (!Krw.isOnTick(price)) {
+            int tickPrice = type == BUY ? Krw.floorToTick(price) : Krw.ceilToTick(price);
+            log_info(tag + " : 호가 단위 보정 : " + String.format(Locale.getDefault(), "%,d -> %,d", price, tickPrice));
+            price = tickPrice;
         }
 
         HashMap<String, String> rgParams = new HashMap<>();
         rgParams.put("order_currency", getCurrentCoinType());
         rgParams.put("Payment_currency", "KRW");
-        rgParams.put("units", String.format("%.4f", units));
+        rgParams.put("units", CoinUnits.toPlainString(units));
         rgParams.put("price", String.valueOf(price));
         rgParams.put("payment_currency", "KRW");
 
@@ -183,13 +198,13 @@ public class OrderManager {
                 if (balanceData != null) {
                     String totalKrw = (String) balanceData.get("total_krw");
                     if (totalKrw != null) {
-                        double krwBalance = Double.parseDouble(totalKrw);
-                        double requiredAmount = units * price;
+                        long krwBalance = Krw.parse(totalKrw);
+                        long requiredAmount = CoinUnits.krwValue(units, price);
                         
                         if (krwBalance < requiredAmount) {
                             log_info(tag + " : 잔고 부족으로 매수 주문을 건너뜁니다. 필요: " + 
-                                String.format(Locale.getDefault(), "%,.0f", requiredAmount) + 
-                                "원, 보유: " + String.format(Locale.getDefault(), "%,.0f", krwBalance) + "원");
+                                String.format(Locale.getDefault(), "%,d", requiredAmount) + 
+                                "원, 보유: " + String.format(Locale.getDefault(), "%,d", krwBalance) + "원");
                             return null;
                         }
                     }
@@ -200,7 +215,7 @@ public class OrderManager {
             }
         }
 
-        log_info(tag + " : " + type.toString() + " 발행 시도 : " + String.format("%.4f", units) + " : " + String.format(Locale.getDefault(), "%,d", price));
+        log_info(tag + " : " + type.toString() + " 발행 시도 : " + CoinUnits.toPlainString(units) + " : " + String.format(Locale.getDefault(), "%,d", price));
         log_info(tag + " : API Key 설정 상태: " + (GlobalSettings.getInstance().getApiKey().isEmpty() ? "비어있음" : "설정됨"));
         log_info(tag + " : API Secret 설정 상태: " + (GlobalSettings.getInstance().getApiSecret().isEmpty() ? "비어있음" : "설정됨"));
         log_info(tag + " : 코인 타입: " + getCurrentCoinType());
@@ -238,7 +253,6 @@ public class OrderManager {
             return null;
         }
 
-        lastRequestTimeInMillis = Calendar.getInstance().getTimeInMillis();
         Log.d("KTrader", "Order : " + result);
         return result;
     }
@@ -252,36 +266,20 @@ public class OrderManager {
             LocalBroadcastManager.getInstance(KTraderApplication.getAppContext()).sendBroadcast(intent);
     }
 
-    public JSONObject addOrderWithMarketPrice(String tag, TradeDataManager.Type type, float units) {
-        Log.d("KTrader", "[OrderManager] addOrderWithMarketPrice() 시작 - tag: " + tag + ", type: " + type + ", units: " + units);
-        log_info(tag + " : 시장가 주문 시작 - " + type.toString() + " " + String.format("%.4f", units));
+    /**
+     * @param units CoinUnits 고정소수점 수량. 주문 단위(0.0001)로 버린다.
+     */
+    public JSONObject addOrderWithMarketPrice(String tag, TradeDataManager.Type type, long units) {
+        units = CoinUnits.floorToLot(units);
+        Log.d("KTrader", "[OrderManager] addOrderWithMarketPrice() 시작 - tag: " + tag + ", type: " + type + ", units: " + CoinUnits.toPlainString(units));
+        log_info(tag + " : 시장가 주문 시작 - " + type.toString() + " " + CoinUnits.toPlainString(units));
         
         Api_Client api = tradeApiService.getApiService();
         JSONObject result;
-        long requestTime = Calendar.getInstance().getTimeInMillis();
-
-        // 마지막 요청으로부터 15초 이내에 신규 요청이 온 경우에는 delay 시킨다.
-        // {"message":"Please try again","status":"5600"} 에러 방지 목적
-        while ((requestTime - lastRequestTimeInMillis) < safeIntervalInSec * 1000) {
-            Intent intent = new Intent(MainActivity.BROADCAST_PROGRESS_MESSAGE);
-
-//            Log.d("KTrader", "sending progress : " + String.valueOf((15 * 1000) - (requestTime - lastRequestTimeInMillis)));
-
-            intent.putExtra("progress", (int)((safeIntervalInSec * 1000) - (requestTime - lastRequestTimeInMillis)));
-            LocalBroadcastManager.getInstance(KTraderApplication.getAppContext()).sendBroadcast(intent);
-
-            try {
-                Thread.sleep((safeIntervalInSec * 1000) - (requestTime - lastRequestTimeInMillis));
-            } catch (InterruptedException e) {
-                // 에러처리
-            }
-
-            requestTime = Calendar.getInstance().getTimeInMillis();
-        }
 
         HashMap<String, String> rgParams = new HashMap<>();
         rgParams.put("order_currency", getCurrentCoinType());
-        rgParams.put("units", String.format("%.4f", units));
+        rgParams.put("units", CoinUnits.toPlainString(units));
         rgParams.put("payment_currency", "KRW");
 
         // 매수 주문인 경우 잔고 확인 (PlacedOrderPage에서 이미 확인했지만 추가 안전장치)
@@ -296,7 +294,7 @@ public class OrderManager {
                     Log.d("KTrader", "[OrderManager] KRW 잔고: " + totalKrw);
                     
                     if (totalKrw != null) {
-                        double krwBalance = Double.parseDouble(totalKrw);
+                        long krwBalance = Krw.parse(totalKrw);
                         // 시장가 매수이므로 현재가를 가져와서 계산
                         JSONObject tickerData = getTicker("시장가 매수 현재가 확인");
                         Log.d("KTrader", "[OrderManager] ticker 조회 결과: " + (tickerData != null ? "성공" : "실패"));
@@ -308,14 +306,14 @@ public class OrderManager {
                                 Log.d("KTrader", "[OrderManager] 현재가: " + currentPriceStr);
                                 
                                 if (currentPriceStr != null) {
-                                    double currentPrice = Double.parseDouble(currentPriceStr);
-                                    double requiredAmount = units * currentPrice;
+                                    long currentPrice = Krw.parse(currentPriceStr);
+                                    long requiredAmount = CoinUnits.krwValue(units, currentPrice);
                                     Log.d("KTrader", "[OrderManager] 필요 금액: " + requiredAmount + ", 보유 금액: " + krwBalance);
                                     
                                     if (krwBalance < requiredAmount) {
                                         String message = tag + " : 잔고 부족으로 시장가 매수 주문을 건너뜁니다. 필요: " + 
-                                            String.format(Locale.getDefault(), "%,.0f", requiredAmount) + 
-                                            "원, 보유: " + String.format(Locale.getDefault(), "%,.0f", krwBalance) + "원";
+                                            String.format(Locale.getDefault(), "%,d", requiredAmount) + 
+                                            "원, 보유: " + String.format(Locale.getDefault(), "%,d", krwBalance) + "원";
                                         Log.w("KTrader", "[OrderManager] " + message);
                                         log_info(message);
                                         return null;
@@ -353,7 +351,7 @@ public class OrderManager {
             }
         }
 
-        log_info(tag + " : " + type.toString() + " 시장가 발행 : " + String.format("%.4f", units) + " : ");
+        log_info(tag + " : " + type.toString() + " 시장가 발행 : " + CoinUnits.toPlainString(units) + " : ");
 
         try {
             String endpoint = type == BUY ? "/trade/market_buy" : "/trade/market_sell";
@@ -400,7 +398,6 @@ public class OrderManager {
             return null;
         }
 
-        lastRequestTimeInMillis = Calendar.getInstance().getTimeInMillis();
         Log.d("KTrader", "[OrderManager] addOrderWithMarketPrice() 완료 - 결과: " + result.toString());
 
         return result;
@@ -583,6 +580,160 @@ public class OrderManager {
         return (JSONArray) result.get("data");
     }
 
+    /**
+     * getBalance()와 같은 잔고 조회이지만 응답을 json-simple 트리 없이 바로 변환한다. 현재 코인 기준 잔고를 리턴한다.
+     */
+    public Balance getBalanceInfo(String tag) throws Exception {
+        Api_Client api = tradeApiService.getApiService();
+        Response<Balance> result;
+
+        try {
+            HashMap<String, String> rgParams = new HashMap<>();
+            rgParams.put("order_currency", getCurrentCoinType());
+            rgParams.put("payment_currency", "KRW");
+
+            result = BithumbResponseDecoder.decodeBalance(api.callApiText("POST", "/info/balance", rgParams), getCurrentCoinType());
+
+            if (result == null) {
+                log_info(tag + " : " + "/info/balance : null");
+                throw new Exception("returns null");
+            }
+
+            if (!result.isSuccess() || result.data == null) {
+                log_info(tag + " : " + "/info/balance : " + result.toString());
+                throw new Exception("returns null");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            log_info(tag + " : " + "/info/balance : " + e.getMessage());
+            throw new Exception("returns null");
+        }
+
+        return result.data;
+    }
+
+    /**
+     * getCurrentPrice()와 같은 호가 조회이지만 응답을 json-simple 트리 없이 바로 변환한다.
+     */
+    public Orderbook getOrderbook(String tag) throws Exception {
+        Api_Client api = tradeApiService.getApiService();
+        Response<Orderbook> result;
+
+        try {
+            result = BithumbResponseDecoder.decodeOrderbook(api.callApiText("GET", "/public/orderbook/" + getCurrentCoinType(), null));
+
+            if (result == null) {
+                log_info(tag + " : " + "/public/orderbook/" + getCurrentCoinType() + " : null");
+                throw new Exception("returns null");
+            }
+
+            if (!result.isSuccess() || result.data == null) {
+                // ex ) {"message":"Database Fail","status":"5400"}
+                log_info(tag + " : " + "/public/orderbook/" + getCurrentCoinType() + " : " + result.toString());
+                throw new Exception("returns null");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            log_info(tag + " : " + "/public/orderbook/" + getCurrentCoinType() + " : " + e.getMessage());
+            throw new Exception("returns null");
+        }
+
+        return result.data;
+    }
+
+    /**
+     * getPlacedOrderList()와 같은 미체결 주문 조회이지만 응답을 바로 PLACED 상태의 TradeData 목록으로 변환한다.
+     * 조회에 실패하거나 미체결 주문이 없으면 빈 목록을 리턴한다.
+     */
+    public List<TradeData> getPlacedOrders(String tag) {
+        Api_Client api = tradeApiService.getApiService();
+        Response<List<TradeData>> result;
+
+        try {
+            HashMap<String, String> param = new HashMap<>();
+            param.put("count", "300");
+            param.put("order_currency", getCurrentCoinType());
+
+            result = BithumbResponseDecoder.decodePlacedOrders(api.callApiText("POST", "/info/orders", param));
+
+            if (result == null) {
+                log_info(tag + " : " + "/info/orders : 1 : null");
+                throw new Exception("returns null");
+            }
+
+            if ("5600".equals(result.status) && "거래 진행중인 내역이 존재하지 않습니다.".equals(result.message)) {
+                // workaround
+                return new ArrayList<>();
+            }
+
+            if (!result.isSuccess() || result.data == null) {
+                log_info(tag + " : " + "/info/orders : 3 : " + result.toString());
+                throw new Exception("returns null");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            log_info(tag + " : " + "/info/orders : 4 : " + e.getMessage());
+            return new ArrayList<>();
+        }
+
+        return result.data;
+    }
+
+    /**
+     * getProcessedOrderList()와 같은 체결 내역 조회이지만 응답을 바로 PROCESSED 상태의 TradeData 목록으로 변환한다.
+     * 매수/매도가 아닌 내역은 제외된다.
+     */
+    public List<TradeData> getProcessedOrders(String tag, int offset, String count) throws Exception {
+        Api_Client api = tradeApiService.getApiService();
+        Response<List<TradeData>> result;
+
+        try {
+            HashMap<String, String> rgParams = new HashMap<>();
+            rgParams.put("offset", String.valueOf(offset));
+            rgParams.put("count", count); // 1~50, default = 20
+            rgParams.put("searchGb", "0"); // 0 = all, 1 = buy
+            rgParams.put("order_currency", getCurrentCoinType());
+            rgParams.put("payment_currency", "KRW");
+
+            result = BithumbResponseDecoder.decodeTransactions(api.callApiText("POST", "/info/user_transactions", rgParams));
+
+            if (result == null) {
+                log_info(tag + " : " + "/info/user_transactions : null");
+                throw new Exception("returns null");
+            }
+
+            if (!result.isSuccess() || result.data == null) {
+                log_info(tag + " : " + "/info/user_transactions : " + result.toString());
+                throw new Exception("returns null");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            log_info(tag + " : " + "/info/user_transactions : " + e.getMessage());
+            throw new Exception("returns null");
+        }
+
+        return result.data;
+    }
+
+    /**
+     * getBalanceInfo()를 I/O 풀에서 실행한다. 실패하면 future는 getBalanceInfo()가 던진 예외로 완료된다.
+     */
+    public CompletableFuture<Balance> getBalanceInfoAsync(final String tag) {
+        return ApiExecutor.getInstance().submit("/info/balance", () -> getBalanceInfo(tag));
+    }
+
+    public CompletableFuture<Orderbook> getOrderbookAsync(final String tag) {
+        return ApiExecutor.getInstance().submit("/public/orderbook/" + getCurrentCoinType(), () -> getOrderbook(tag));
+    }
+
+    public CompletableFuture<List<TradeData>> getPlacedOrdersAsync(final String tag) {
+        return ApiExecutor.getInstance().submit("/info/orders", () -> getPlacedOrders(tag));
+    }
+
+    public CompletableFuture<List<TradeData>> getProcessedOrdersAsync(final String tag, final int offset, final String count) {
+        return ApiExecutor.getInstance().submit("/info/user_transactions", () -> getProcessedOrders(tag, offset, count));
+    }
+
     public TradeDataManager.Type convertOrderType(String type) {
         switch(type) {
             case "bid" : return BUY;
@@ -595,6 +746,8 @@ public class OrderManager {
      * 현재 설정된 코인 타입을 반환
      */
     private String getCurrentCoinType() {
+        if (this.coinType != null)
+            return this.coinType;
         String coinType = GlobalSettings.getInstance().getCoinType();
         if (GlobalSettings.COIN_TYPE_ETH.equals(coinType)) {
             return "ETH";
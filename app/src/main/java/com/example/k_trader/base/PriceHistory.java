@@ -0,0 +1,192 @@
+package com.example.k_trader.base;
+
+import com.example.k_trader.database.PriceCandleEntity;
+import com.example.k_trader.database.PriceTickEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 코인 하나의 시장가 기록을 DB에 저장하기 전에 모아 두는 버퍼
+ *
+ * 체결가를 기록할 때마다 1분/1시간/1일 봉을 함께 갱신(downsampling)하고, drain()으로 마지막 drain() 이후에 모인 체결가와
+ * 봉을 한 번에 꺼낸다. 꺼낸 봉은 그 사이에 들어온 가격만 담고 있으므로 DB에 있는 같은 봉과 merge해서 저장한다.
+ * - 새 봉이 시작될 때만 객체를 만들고, 그 외의 기록은 배열과 기존 봉만 갱신한다.
+ * - 이미 기록한 시각보다 이전 시각의 체결가는 무시한다.
+ * - drain() 전에 tickCapacity보다 많은 체결가가 들어오면 체결가는 버리고 봉만 갱신한다.
+ */
+public class PriceHistory {
+    // 일봉은 빗썸과 같이 한국 시간 0시에 시작한다.
+    private static final long MARKET_ZONE_OFFSET_MS = TimeUnit.HOURS.toMillis(9);
+
+    public static final long TICK_RETENTION_MS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * 봉 단위와 단위별 보관 기간
+     */
+    public enum Resolution {
+        MINUTE(TimeUnit.MINUTES, TimeUnit.DAYS.toMillis(7)),
+        HOUR(TimeUnit.HOURS, TimeUnit.DAYS.toMillis(365)),
+        DAY(TimeUnit.DAYS, 0);  // 0 : 지우지 않는다.
+
+        public final int seconds;
+        public final long periodMillis;
+        public final long retentionMillis;
+
+        Resolution(TimeUnit unit, long retentionMillis) {
+            this.seconds = (int) unit.toSeconds(1);
+            this.periodMillis = unit.toMillis(1);
+            this.retentionMillis = retentionMillis;
+        }
+
+        /**
+         * timeMillis가 속한 봉의 시작 시각
+         */
+        public long openTimeOf(long timeMillis) {
+            long local = timeMillis + MARKET_ZONE_OFFSET_MS;
+            return local - Math.floorMod(local, periodMillis) - MARKET_ZONE_OFFSET_MS;
+        }
+
+        /**
+         * [fromMillis, toMillis) 구간을 maxCandles개 이하의 봉으로 그릴 수 있는 가장 짧은 단위. 보관 기간이 지난 단위는 제외한다.
+         */
+        public static Resolution forRange(long fromMillis, long toMillis, long nowMillis, int maxCandles) {
+            for (Resolution resolution : values()) {
+                if (resolution.retentionMillis > 0 && fromMillis < nowMillis - resolution.retentionMillis)
+                    continue;
+                if ((toMillis - fromMillis) / resolution.periodMillis < maxCandles)
+                    return resolution;
+            }
+            return DAY;
+        }
+    }
+
+    /**
+     * drain()으로 꺼낸 기록
+     */
+    public static class Batch {
+        public final String coinType;
+        public final List<PriceTickEntity> ticks;
+        public final List<PriceCandleEntity> candles;
+        public final int droppedTicks;
+
+        Batch(String coinType, List<PriceTickEntity> ticks, List<PriceCandleEntity> candles, int droppedTicks) {
+            this.coinType = coinType;
+            this.ticks = Collections.unmodifiableList(ticks);
+            this.candles = Collections.unmodifiableList(candles);
+            this.droppedTicks = droppedTicks;
+        }
+
+        public boolean isEmpty() {
+            return ticks.isEmpty() && candles.isEmpty();
+        }
+    }
+
+    private final String coinType;
+    private final long[] tickTimes;
+    private final int[] tickPrices;
+    private int tickCount;
+    private int droppedTicks;
+    private long lastTimeMillis = Long.MIN_VALUE;
+
+    // 단위별로 drain() 이후에 모인 봉. 마지막 봉이 현재 봉이다.
+    private final List<List<PriceCandleEntity>> pendingCandles = new ArrayList<>();
+
+    public PriceHistory(String coinType, int tickCapacity) {
+        if (tickCapacity <= 0)
+            throw new IllegalArgumentException("tickCapacity must be positive");
+        this.coinType = coinType;
+        this.tickTimes = new long[tickCapacity];
+        this.tickPrices = new int[tickCapacity];
+        for (int i = 0; i < Resolution.values().length; i++)
+            pendingCandles.add(new ArrayList<>());
+    }
+
+    public String getCoinType() {
+        return coinType;
+    }
+
+    public synchronized void add(long timeMillis, int price) {
+        if (timeMillis < lastTimeMillis || price <= 0)
+            return;
+        lastTimeMillis = timeMillis;
+
+        if (tickCount < tickTimes.length) {
+            tickTimes[tickCount] = timeMillis;
+            tickPrices[tickCount] = price;
+            tickCount++;
+        } else {
+            droppedTicks++;
+        }
+
+        for (Resolution resolution : Resolution.values()) {
+            List<PriceCandleEntity> candles = pendingCandles.get(resolution.ordinal());
+            long openTime = resolution.openTimeOf(timeMillis);
+            PriceCandleEntity current = candles.isEmpty() ? null : candles.get(candles.size() - 1);
+            if (current != null && current.getOpenTime() == openTime)
+                current.add(price);
+            else
+                candles.add(new PriceCandleEntity(coinType, resolution.seconds, openTime, price));
+        }
+    }
+
+    /**
+     * 마지막 drain() 이후에 모인 체결가와 봉을 꺼내고 버퍼를 비운다.
+     */
+    public synchronized Batch drain() {
+        List<PriceTickEntity> ticks = new ArrayList<>(tickCount);
+        for (int i = 0; i < tickCount; i++)
+            ticks.add(new PriceTickEntity(coinType, tickTimes[i], tickPrices[i]));
+        List<PriceCandleEntity> candles = new ArrayList<>();
+        for (List<PriceCandleEntity> pending : pendingCandles) {
+            candles.addAll(pending);
+            pending.clear();
+        }
+        Batch batch = new Batch(coinType, ticks, candles, droppedTicks);
+        tickCount = 0;
+        droppedTicks = 0;
+        return batch;
+    }
+
+    // ---- 봉 분석 ----
+
+    /**
+     * 봉 목록(시간순)의 최저가/최고가 변동폭(%). RollingPriceWindow.getVariationRate()와 같이 최저가가 먼저면 상승(+), 최고가가 먼저면 하락(-)이다.
+     */
+    public static float getVariationRate(List<PriceCandleEntity> candles) {
+        if (candles.isEmpty())
+            return 0;
+        int minIndex = 0, maxIndex = 0;
+        for (int i = 1; i < candles.size(); i++) {
+            if (candles.get(i).getLow() < candles.get(minIndex).getLow())
+                minIndex = i;
+            if (candles.get(i).getHigh() > candles.get(maxIndex).getHigh())
+                maxIndex = i;
+        }
+        int minPrice = candles.get(minIndex).getLow();
+        int maxPrice = candles.get(maxIndex).getHigh();
+        if (minIndex <= maxIndex)
+            return ((maxPrice / (float) minPrice) - 1) * 100;
+        else
+            return ((minPrice / (float) maxPrice) - 1) * 100;
+    }
+
+    /**
+     * 봉 목록(시간순)의 종가 로그 수익률 표준편차(%). 수익률이 두 개보다 적으면(봉이 세 개보다 적으면) 0이다.
+     */
+    public static double getVolatility(List<PriceCandleEntity> candles) {
+        int n = candles.size() - 1;
+        if (n < 2)
+            return 0;
+        double sum = 0, sumSquares = 0;
+        for (int i = 1; i <= n; i++) {
+            double r = Math.log(candles.get(i).getClose() / (double) candles.get(i - 1).getClose());
+            sum += r;
+            sumSquares += r * r;
+        }
+        double mean = sum / n;
+        return Math.sqrt(Math.max(0, (sumSquares - n * mean * mean) / (n - 1))) * 100;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.k_trader.base;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 최근 일정 시간 동안의 시장가 기록
+ *
+ * 시간과 가격을 고정 크기 ring buffer에 primitive 배열로 저장하고, 최저가/최고가는 단조(monotonic) deque로 관리하므로
+ * 기록과 조회가 모두 O(1)이고 기록할 때 객체를 만들지 않는다.
+ * - 보관 시간(span)보다 오래된 가격은 새 가격을 기록하거나 조회할 때 밀어낸다.
+ * - 보관 시간 안에 capacity보다 많은 가격이 들어오면 가장 오래된 가격부터 밀어낸다.
+ * - 최저가/최고가가 여러 번 나왔다면 가장 오래된 것을 기준으로 한다.
+ */
+public class RollingPriceWindow {
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final long spanMillis;
+    private final int capacity;
+
+    // 가격은 기록 순서(seq)로 구분하며, seq % capacity 위치에 저장한다. [headSeq, tailSeq) 구간이 보관 중인 가격이다.
+    private final long[] times;
+    private final int[] prices;
+    private long headSeq;
+    private long tailSeq;
+
+    // 가격이 증가(min) / 감소(max)하는 순서로 seq를 담는 deque. 앞쪽이 현재 최저가/최고가이다.
+    private final long[] minDeque;
+    private final long[] maxDeque;
+    private int minHead, minSize;
+    private int maxHead, maxSize;
+
+    public RollingPriceWindow(long spanMillis, int capacity) {
+        if (spanMillis <= 0 || capacity <= 0)
+            throw new IllegalArgumentException("span and capacity must be positive");
+        this.spanMillis = spanMillis;
+        this.capacity = capacity;
+        this.times = new long[capacity];
+        this.prices = new int[capacity];
+        this.minDeque = new long[capacity];
+        this.maxDeque = new long[capacity];
+    }
+
+    public long getSpanMillis() {
+        return spanMillis;
+    }
+
+    public synchronized void add(long timeMillis, int price) {
+        expire(timeMillis);
+        if (tailSeq - headSeq == capacity)
+            evictHead();
+
+        long seq = tailSeq++;
+        int slot = (int) (seq % capacity);
+        times[slot] = timeMillis;
+        prices[slot] = price;
+
+        // 새 가격보다 비싼 가격은 앞으로 최저가가 될 수 없다. 같은 가격은 오래된 것을 남긴다.
+        while (minSize > 0 && priceOf(minDeque[(minHead + minSize - 1) % capacity]) > price)
+            minSize--;
+        minDeque[(minHead + minSize++) % capacity] = seq;
+
+        while (maxSize > 0 && priceOf(maxDeque[(maxHead + maxSize - 1) % capacity]) < price)
+            maxSize--;
+        maxDeque[(maxHead + maxSize++) % capacity] = seq;
+    }
+
+    /**
+     * nowMillis 기준으로 보관 시간이 지난 가격을 밀어낸다.
+     */
+    public synchronized void expire(long nowMillis) {
+        long limit = nowMillis - spanMillis;
+        while (headSeq < tailSeq && times[(int) (headSeq % capacity)] <= limit)
+            evictHead();
+    }
+
+    private void evictHead() {
+        long seq = headSeq++;
+        if (minSize > 0 && minDeque[minHead] == seq) {
+            minHead = (minHead + 1) % capacity;
+            minSize--;
+        }
+        if (maxSize > 0 && maxDeque[maxHead] == seq) {
+            maxHead = (maxHead + 1) % capacity;
+            maxSize--;
+        }
+    }
+
+    private int priceOf(long seq) {
+        return prices[(int) (seq % capacity)];
+    }
+
+    public synchronized void clear() {
+        headSeq = tailSeq = 0;
+        minHead = minSize = 0;
+        maxHead = maxSize = 0;
+    }
+
+    public synchronized int size() {
+        return (int) (tailSeq - headSeq);
+    }
+
+    public synchronized boolean isEmpty() {
+        return tailSeq == headSeq;
+    }
+
+    /**
+     * 가장 최근 가격. 기록이 없으면 0을 리턴한다.
+     */
+    public synchronized int getLast() {
+        return isEmpty() ? 0 : priceOf(tailSeq - 1);
+    }
+
+    public synchronized int getMin() {
+        return minSize == 0 ? 0 : priceOf(minDeque[minHead]);
+    }
+
+    public synchronized int getMax() {
+        return maxSize == 0 ? 0 : priceOf(maxDeque[maxHead]);
+    }
+
+    public synchronized long getMinTime() {
+        return minSize == 0 ? 0 : times[(int) (minDeque[minHead] % capacity)];
+    }
+
+    public synchronized long getMaxTime() {
+        return maxSize == 0 ? 0 : times[(int) (maxDeque[maxHead] % capacity)];
+    }
+
+    /**
+     * 보관 중인 가격의 변동폭(%). 최저가가 최고가보다 먼저 나왔다면 상승(양수), 아니면 하락(0 이하)으로 본다.
+     */
+    public synchronized float getVariationRate() {
+        if (isEmpty())
+            return 0;
+        int minPrice = getMin();
+        int maxPrice = getMax();
+        if (minDeque[minHead] < maxDeque[maxHead]) {
+            // 상승
+            return ((maxPrice / (float) minPrice) - 1) * 100;
+        } else {
+            // 하락
+            return ((minPrice / (float) maxPrice) - 1) * 100;
+        }
+    }
+
+    /**
+     * 보관 중인 가격을 오래된 순서로 저장한다.
+     */
+    public synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeLong(spanMillis);
+        out.writeInt(size());
+        for (long seq = headSeq; seq < tailSeq; seq++) {
+            int slot = (int) (seq % capacity);
+            out.writeLong(times[slot]);
+            out.writeInt(prices[slot]);
+        }
+    }
+
+    /**
+     * writeTo()로 저장한 가격을 다시 기록한다. 지금 보관 중인 가격은 지워지고, nowMillis 기준으로 보관 시간이 지난 가격은 버린다.
+     */
+    public synchronized void readFrom(DataInput in, long nowMillis) throws IOException {
+        if (in.readInt() != SNAPSHOT_VERSION)
+            throw new IOException("unknown snapshot version");
+        in.readLong(); // 저장 당시의 span. 현재 설정을 따른다.
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("invalid count : " + count);
+
+        clear();
+        long lastTime = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            long time = in.readLong();
+            int price = in.readInt();
+            if (time < lastTime)
+                throw new IOException("samples are not in time order");
+            lastTime = time;
+            if (time > nowMillis - spanMillis)
+                add(time, price);
+        }
+        expire(nowMillis);
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.k_trader.base;
+
+import com.example.k_trader.MainPage;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+import static com.example.k_trader.base.TradeDataManager.Type.SELL;
+
+/**
+ * 매수/매도 slot 사다리
+ *
+ * 가격 범위 안의 매수 slot 가격을 낮은 가격부터 차례로 번호(index)를 붙여 배열로 들고 있고,
+ * slot별로 걸려 있는 매수/매도 수량을 기록해서 빈 slot을 찾는다.
+ * - slot 간격과 이익금은 MainPage.getSlotIntervalPrice(), getProfitPrice()와 같이 가격의 앞자리만 남긴 floor 가격(band)으로 정해진다.
+ *   floor 가격이 바뀌는 경계(ex: 9,990만 -> 1억)에서 간격이 바뀌므로, band마다 floor 가격부터 간격만큼 slot을 만든다.
+ *   floor 가격이 간격의 배수인 일반적인 설정에서는 기존 price - (price % interval) 계산과 같은 slot이 된다.
+ * - index j slot의 매도 가격은 slot 가격 + 해당 band의 이익금이다. 매도 가격도 낮은 가격부터 정렬되어 있다.
+ * - 거래소에 걸리는 가격과 같도록 slot 가격은 호가 단위로 내리고 매도 가격은 올린다. (Krw.floorToTick(), ceilToTick())
+ *   간격이 호가 단위보다 작아서 앞 slot과 같은 가격이 되는 slot은 만들지 않는다.
+ * - slot에 맞지 않는 가격의 주문(수동 주문 등)은 기록하지 않고 개수만 센다.
+ */
+public class SlotLadder {
+    private final float slotIntervalRate;
+    private final float earningRate;
+
+    private final int[] slotPrices;
+    private final int[] sellPrices;
+    private final int[] intervals;
+
+    private final long[] buyUnits;     // CoinUnits
+    private final long[] sellUnits;
+    private final BitSet buyOccupied;
+    private final BitSet sellOccupied;
+    private int offLadderCount;
+
+    /**
+     * 현재 설정으로 price의 1/4 ~ 4배 가격 범위를 담는 사다리를 만든다.
+     */
+    public static SlotLadder around(int price) {
+        GlobalSettings settings = GlobalSettings.getInstance();
+        return around(price, settings.getSlotIntervalRate(), settings.getEarningRate());
+    }
+
+    /**
+     * 코인별 설정으로 price의 1/4 ~ 4배 가격 범위를 담는 사다리를 만든다.
+     */
+    public static SlotLadder around(int price, MarketSettings settings) {
+        return around(price, settings.getSlotIntervalRate(), settings.getEarningRate());
+    }
+
+    private static SlotLadder around(int price, float slotIntervalRate, float earningRate) {
+        return new SlotLadder(slotIntervalRate, earningRate,
+                Math.max(1, price / 4), (int) Math.min(Integer.MAX_VALUE / 2, price * 4L));
+    }
+
+    public SlotLadder(float slotIntervalRate, float earningRate, int lowPrice, int highPrice) {
+        this.slotIntervalRate = slotIntervalRate;
+        this.earningRate = earningRate;
+
+        int capacity = 64;
+        int[] prices = new int[capacity];
+        int[] sells = new int[capacity];
+        int[] steps = new int[capacity];
+        int count = 0;
+
+        int bandStart = MainPage.getFloorPrice(Math.max(1, lowPrice));
+        while (bandStart <= highPrice) {
+            int bandEnd = getBandEnd(bandStart);
+            int interval = Math.max(1, (int) (bandStart * (slotIntervalRate / 100.0)));
+            int profit = (int) (bandStart * (earningRate / 100.0));
+
+            long first = bandStart;
+            if (lowPrice > bandStart)
+                first += (long) (lowPrice - bandStart) / interval * interval;
+            for (long price = first; price < bandEnd && price <= highPrice; price += interval) {
+                if (count == capacity) {
+                    capacity *= 2;
+                    prices = Arrays.copyOf(prices, capacity);
+                    sells = Arrays.copyOf(sells, capacity);
+                    steps = Arrays.copyOf(steps, capacity);
+                }
+                int slotPrice = Krw.floorToTick((int) price);
+                int sellPrice = Krw.ceilToTick(slotPrice + profit);
+                if (count > 0 && (slotPrice <= prices[count - 1] || sellPrice <= sells[count - 1]))
+                    continue;
+                prices[count] = slotPrice;
+                sells[count] = sellPrice;
+                steps[count] = interval;
+                count++;
+            }
+            bandStart = bandEnd;
+        }
+
+        slotPrices = Arrays.copyOf(prices, count);
+        sellPrices = Arrays.copyOf(sells, count);
+        intervals = Arrays.copyOf(steps, count);
+        buyUnits = new long[count];
+        sellUnits = new long[count];
+        buyOccupied = new BitSet(count);
+        sellOccupied = new BitSet(count);
+    }
+
+    // floor 가격이 bandStart인 가격 범위의 끝(미포함). 자리수는 MainPage.getFloorPrice()와 같이 천만 단위까지만 본다.
+    private static int getBandEnd(int bandStart) {
+        long unit = 1;
+        while (unit * 10 <= bandStart && unit < 10000000)
+            unit *= 10;
+        return (int) Math.min(Integer.MAX_VALUE, bandStart + unit);
+    }
+
+    public boolean isSameSetting(float slotIntervalRate, float earningRate) {
+        return this.slotIntervalRate == slotIntervalRate && this.earningRate == earningRate;
+    }
+
+    /**
+     * 현재 설정으로 만든 사다리이고, price 아래위로 margin개 이상의 slot이 있는지 확인한다.
+     */
+    public boolean covers(int price, int margin) {
+        GlobalSettings settings = GlobalSettings.getInstance();
+        return covers(price, margin, settings.getSlotIntervalRate(), settings.getEarningRate());
+    }
+
+    /**
+     * 코인별 설정으로 만든 사다리이고, price 아래위로 margin개 이상의 slot이 있는지 확인한다.
+     */
+    public boolean covers(int price, int margin, MarketSettings settings) {
+        return covers(price, margin, settings.getSlotIntervalRate(), settings.getEarningRate());
+    }
+
+    private boolean covers(int price, int margin, float slotIntervalRate, float earningRate) {
+        if (!isSameSetting(slotIntervalRate, earningRate))
+            return false;
+        int index = floorIndex(price);
+        return index >= margin && index + margin < size();
+    }
+
+    public int size() {
+        return slotPrices.length;
+    }
+
+    public int getSlotPrice(int index) {
+        return slotPrices[index];
+    }
+
+    public int getSellPrice(int index) {
+        return sellPrices[index];
+    }
+
+    public int getInterval(int index) {
+        return intervals[index];
+    }
+
+    /**
+     * price 이하인 가장 높은 slot의 index. price가 사다리보다 낮으면 -1을 리턴한다.
+     */
+    public int floorIndex(int price) {
+        int index = Arrays.binarySearch(slotPrices, price);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * price 이상인 가장 낮은 slot의 index. price가 사다리보다 높으면 size()를 리턴한다.
+     */
+    public int ceilIndex(int price) {
+        int index = Arrays.binarySearch(slotPrices, price);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * 매도 가격이 price 이하인 가장 높은 slot의 index. price가 가장 낮은 매도 가격보다 낮으면 -1을 리턴한다.
+     */
+    public int sellFloorIndex(int price) {
+        int index = Arrays.binarySearch(sellPrices, price);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    public int indexOfSlotPrice(int price) {
+        int index = Arrays.binarySearch(slotPrices, price);
+        return index >= 0 ? index : -1;
+    }
+
+    public int indexOfSellPrice(int price) {
+        int index = Arrays.binarySearch(sellPrices, price);
+        return index >= 0 ? index : -1;
+    }
+
+    // ---- 주문 기록 ----
+
+    public void clearOrders() {
+        Arrays.fill(buyUnits, 0);
+        Arrays.fill(sellUnits, 0);
+        buyOccupied.clear();
+        sellOccupied.clear();
+        offLadderCount = 0;
+    }
+
+    /**
+     * 걸려 있는 매수 주문을 모두 지운다. (매수 전체 취소)
+     */
+    public void clearBuyOrders() {
+        Arrays.fill(buyUnits, 0);
+        buyOccupied.clear();
+    }
+
+    /**
+     * 매수 주문은 slot 가격, 매도 주문은 매도 가격이 일치하는 slot에 수량을 더한다. 일치하는 slot이 없으면 false를 리턴한다.
+     */
+    public boolean addOrder(TradeDataManager.Type type, int price, long units) {
+        if (type == BUY) {
+            int index = indexOfSlotPrice(price);
+            if (index >= 0) {
+                buyUnits[index] += units;
+                buyOccupied.set(index);
+                return true;
+            }
+        } else if (type == SELL) {
+            int index = indexOfSellPrice(price);
+            if (index >= 0) {
+                sellUnits[index] += units;
+                sellOccupied.set(index);
+                return true;
+            }
+        }
+        offLadderCount++;
+        return false;
+    }
+
+    public boolean addOrder(TradeData data) {
+        return addOrder(data.getType(), data.getPrice(), data.getUnits());
+    }
+
+    public void removeOrder(TradeDataManager.Type type, int price, long units) {
+        if (type == BUY) {
+            int index = indexOfSlotPrice(price);
+            if (index >= 0 && (buyUnits[index] -= units) < CoinUnits.LOT / 2) {
+                buyUnits[index] = 0;
+                buyOccupied.clear(index);
+            }
+        } else if (type == SELL) {
+            int index = indexOfSellPrice(price);
+            if (index >= 0 && (sellUnits[index] -= units) < CoinUnits.LOT / 2) {
+                sellUnits[index] = 0;
+                sellOccupied.clear(index);
+            }
+        }
+    }
+
+    public boolean hasBuy(int index) {
+        return buyOccupied.get(index);
+    }
+
+    public boolean hasSell(int index) {
+        return sellOccupied.get(index);
+    }
+
+    public long getBuyUnits(int index) {
+        return buyUnits[index];
+    }
+
+    public long getSellUnits(int index) {
+        return sellUnits[index];
+    }
+
+    public int getOffLadderCount() {
+        return offLadderCount;
+    }
+
+    /**
+     * fromIndex 이상에서 매도 주문이 없는 가장 낮은 slot의 index. 없으면 -1을 리턴한다.
+     */
+    public int nextFreeSellSlot(int fromIndex) {
+        int index = sellOccupied.nextClearBit(Math.max(0, fromIndex));
+        return index < size() ? index : -1;
+    }
+
+    /**
+     * fromIndex 이하에서 매도 주문이 있는 가장 높은 slot의 index. 없으면 -1을 리턴한다.
+     */
+    public int previousSellSlot(int fromIndex) {
+        if (fromIndex < 0)
+            return -1;
+        return sellOccupied.previousSetBit(Math.min(fromIndex, size() - 1));
+    }
+
+    /**
+     * fromIndex 이하에서 짝이 되는 매도 주문이 없어 매수할 수 있는 가장 높은 slot의 index. 없으면 -1을 리턴한다.
+     */
+    public int nextBuySlotBelow(int fromIndex) {
+        if (fromIndex < 0)
+            return -1;
+        return sellOccupied.previousClearBit(Math.min(fromIndex, size() - 1));
+    }
+}
@@ -15,7 +15,7 @@ public class TradeData {
     private TradeDataManager.Type type;                          // order type
     private TradeDataManager.Status status;                      // order status
     private String id;                          // order id
-    private float units;                       // 비트코인 amount, 소수점 4자리만 허용
+    private long units;                        // 코인 수량, CoinUnits 고정소수점 (1 = 0.00000001)
     private int price;                         // 매수/매도 당시의 비트코인 원화 가격
     private String feeRaw;                     // 수수료 문자열, 매수시에는 BTC 단위, 매도시에는 원화(KRW) 단위, ex) "0.00000765 BTC", "146 KRW"
     private double feeEvaluated;             // 원화 환산 수수료
@@ -26,7 +26,7 @@ public class TradeData {
     public TradeDataManager.Type getType() {return type;}
     public TradeDataManager.Status getStatus() {return status;}
     public String getId() {return id;}
-    public float getUnits() {return units;}
+    public long getUnits() {return units;}
     public int getPrice() {return price;}
     public String getFeeRaw() {return feeRaw;}
     public double getFeeEvaluated() {return feeEvaluated;}
@@ -43,7 +43,7 @@ public class TradeData {
         placedCal.setTimeInMillis(placedTimeInMillis);
         processedCal.setTimeInMillis(processedTimeInMillis);
 
-        return type.toString() + " : " + status.toString() + " : " + id + " : " + units + " : " + String.format(Locale.getDefault(), "%,d", price) + " : "
+        return type.toString() + " : " + status.toString() + " : " + id + " : " + CoinUnits.toPlainString(units, CoinUnits.SCALE_DIGITS) + " : " + String.format(Locale.getDefault(), "%,d", price) + " : "
                 + feeRaw
                 + " : "
                 + String.format(Locale.getDefault(), "%02d/%02d %02d:%02d"
@@ -74,7 +74,7 @@ public class TradeData {
         return this;
     }
 
-    public TradeData setUnits(float units) {
+    public TradeData setUnits(long units) {
         this.units = units;
         return this;
     }
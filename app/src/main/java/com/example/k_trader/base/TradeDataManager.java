@@ -1,8 +1,13 @@
 package com.example.k_trader.base;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static com.example.k_trader.base.TradeDataManager.Type.SELL;
 
@@ -28,15 +33,46 @@ public class TradeDataManager {
 
     private List<TradeData> list = new ArrayList<>();
 
+    // 아래 인덱스는 list의 항목을 add 순서대로 담는다. Gson으로 저장/복원되는 필드가 아니므로 transient로 두고,
+    // 복원된 뒤처럼 list가 바뀌었으면 처음 조회할 때 다시 만든다.
+    // 인덱스는 add 당시의 type, price, id, units, processed time 기준이므로, 추가한 항목의 값을 바꾸려면 remove 후 다시 add 해야 한다.
+    private transient List<TradeData> indexedList;
+    private transient Map<Long, List<TradeData>> priceIndex;           // (type, price) -> 항목
+    private transient Map<String, List<TradeData>> idIndex;            // order id -> 항목
+    private transient Map<Long, List<TradeData>> processedTimeIndex;   // processed time -> 항목
+    private transient Map<Type, TreeMap<Long, List<TradeData>>> latestIndex;  // type -> processed time 순 항목
+    private transient long sellEstimation;   // 원
+    private transient int sellCount;
+
     public List<TradeData> getList() {
-        return list;
+        return Collections.unmodifiableList(list);
+    }
+
+    public int size() {
+        return list.size();
     }
 
     public void clear() {
         list.clear();
+        rebuildIndex();
     }
+
     public void add(TradeData data) {
+        ensureIndex();
         list.add(data);
+        index(data);
+    }
+
+    public boolean remove(TradeData data) {
+        ensureIndex();
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == data) {
+                list.remove(i);
+                unindex(data);
+                return true;
+            }
+        }
+        return false;
     }
 
     public TradeData build() {
@@ -45,40 +81,24 @@ public class TradeDataManager {
     }
 
     public TradeData findById(String orderId) {
-        for (TradeData data : list) {
-            if (data.getId() != null && data.getId().equals(orderId))
-                return data;
-        }
-
-        return null;
+        ensureIndex();
+        return first(idIndex.get(orderId));
     }
 
     public TradeData findByProcessedTime(long time) {
-        for (TradeData data : list) {
-            if (data.getProcessedTime() == time)
-                return data;
-        }
-
-        return null;
+        ensureIndex();
+        return first(processedTimeIndex.get(time));
     }
 
     public TradeData findByPrice(Type type, int price) {
-        for (TradeData data : list) {
-            if (data.getType() == type && data.getPrice() == price)
-                return data;
-        }
-
-        return null;
+        ensureIndex();
+        return first(priceIndex.get(priceKey(type, price)));
     }
 
     public List<TradeData> getByPrice(Type type, int price) {
-        List<TradeData> result = new ArrayList<>();
-        for (TradeData data : list) {
-            if (data.getType() == type && data.getPrice() == price)
-                result.add(data);
-        }
-
-        return result;
+        ensureIndex();
+        List<TradeData> found = priceIndex.get(priceKey(type, price));
+        return found == null ? new ArrayList<TradeData>() : new ArrayList<>(found);
     }
 
     @Override
@@ -101,46 +121,117 @@ public class TradeDataManager {
     }
 
     public void removeUnmarked() {
+        boolean removed = false;
         Iterator<TradeData> i = list.iterator();
         while (i.hasNext()) {
             TradeData o = i.next();
-            if (!o.getMarked())
+            if (!o.getMarked()) {
                 i.remove();
+                removed = true;
+            }
         }
+        if (removed)
+            rebuildIndex();
     }
 
     public int getEstimation() {
-        double result = 0;
-        for (TradeData data : list) {
-            if (data.getType() == SELL)
-                result += (data.getPrice() * data.getUnits());
-        }
-
-        return (int)result;
+        ensureIndex();
+        return (int)sellEstimation;
     }
 
     public TradeData findLatestProcessedTime(Type type) {
-        TradeData result = null;
-        for (TradeData data : list) {
-            if (data.getType() == type) {
-                if (result == null)
-                    result = data;
-                else {
-                    if (result.getProcessedTime() < data.getProcessedTime())
-                        result = data;
-                }
+        ensureIndex();
+        TreeMap<Long, List<TradeData>> byTime = latestIndex.get(type);
+        if (byTime == null || byTime.isEmpty())
+            return null;
+        return first(byTime.lastEntry().getValue());
+    }
+
+    public int getSellCount() {
+        ensureIndex();
+        return sellCount;
+    }
+
+    private void ensureIndex() {
+        if (indexedList != list)
+            rebuildIndex();
+    }
+
+    private void rebuildIndex() {
+        indexedList = list;
+        priceIndex = new HashMap<>();
+        idIndex = new HashMap<>();
+        processedTimeIndex = new HashMap<>();
+        latestIndex = new EnumMap<>(Type.class);
+        sellEstimation = 0;
+        sellCount = 0;
+        for (TradeData data : list)
+            index(data);
+    }
+
+    private void index(TradeData data) {
+        put(priceIndex, priceKey(data.getType(), data.getPrice()), data);
+        if (data.getId() != null)
+            put(idIndex, data.getId(), data);
+        put(processedTimeIndex, data.getProcessedTime(), data);
+        if (data.getType() != null) {
+            TreeMap<Long, List<TradeData>> byTime = latestIndex.get(data.getType());
+            if (byTime == null) {
+                byTime = new TreeMap<>();
+                latestIndex.put(data.getType(), byTime);
             }
+            put(byTime, data.getProcessedTime(), data);
+        }
+        if (data.getType() == SELL) {
+            sellEstimation += CoinUnits.krwValue(data.getUnits(), data.getPrice());
+            sellCount++;
         }
-        return result;
     }
 
-    public int getSellCount() {
-        int result = 0;
-        for (TradeData data : list) {
-            if (data.getType() == SELL) {
-                result++;
+    private void unindex(TradeData data) {
+        take(priceIndex, priceKey(data.getType(), data.getPrice()), data);
+        if (data.getId() != null)
+            take(idIndex, data.getId(), data);
+        take(processedTimeIndex, data.getProcessedTime(), data);
+        if (data.getType() != null)
+            take(latestIndex.get(data.getType()), data.getProcessedTime(), data);
+        if (data.getType() == SELL) {
+            sellEstimation -= CoinUnits.krwValue(data.getUnits(), data.getPrice());
+            sellCount--;
+        }
+    }
+
+    private static long priceKey(Type type, int price) {
+        return ((long)(type == null ? -1 : type.ordinal()) << 32) | (price & 0xFFFFFFFFL);
+    }
+
+    private static <K> void put(Map<K, List<TradeData>> index, K key, TradeData data) {
+        List<TradeData> values = index.get(key);
+        if (values == null) {
+            // 같은 키에 항목이 여러 개인 경우는 드물기 때문에 작게 시작한다.
+            values = new ArrayList<>(1);
+            index.put(key, values);
+        }
+        values.add(data);
+    }
+
+    private static <K> void take(Map<K, List<TradeData>> index, K key, TradeData data) {
+        if (index == null)
+            return;
+        List<TradeData> values = index.get(key);
+        if (values == null)
+            return;
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) == data) {
+                values.remove(i);
+                break;
             }
         }
-        return result;
+        if (values.isEmpty())
+            index.remove(key);
+    }
+
+    private static TradeData first(List<TradeData> values) {
+        return values == null || values.isEmpty() ? null : values.get(0);
     }
 }
@@ -0,0 +1,116 @@
+package com.example.k_trader.bitthumb.lib;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Api_Client 비동기 호출을 실행하는 스레드 풀
+ *
+ * 요청 순서 보장 규칙
+ * - /public/* : I/O 풀에서 병렬로 실행되며 순서를 보장하지 않는다.
+ * - /info/*   : I/O 풀에서 병렬로 실행되며 순서를 보장하지 않는다. 대신 Api-Nonce는 서명 시점마다 증가하는 고유한 값이므로
+ *               같은 ms에 동시에 서명해도 nonce가 중복되지 않는다.
+ * - 그 외 private 요청(/trade/* 등) : 주문 lane(단일 스레드)에서 제출한 순서대로 하나씩 실행된다.
+ *               앞선 주문 요청이 끝나기 전에는 다음 주문 요청이 시작되지 않는다.
+ * 조회 결과를 보고 주문을 내야 하는 경우에는 조회 future를 join 한 뒤 주문을 제출해야 한다.
+ *
+ * ApiRateLimiter의 token은 task가 실제로 네트워크 요청을 보낼 때(Api_Client.execute) 받는다.
+ * MarketDataGateway가 캐시나 진행 중인 요청으로 처리한 조회는 token을 쓰지 않는다.
+ * task는 제출한 스레드의 호출 제한 lane으로 실행되므로, ApiResilience의 재시도도 같은 lane에서 token을 받는다.
+ * I/O 풀의 크기는 HttpConnectionPool의 호스트별 최대 연결 수와 같다.
+ */
+public class ApiExecutor {
+    private static final long IDLE_TIMEOUT_SEC = 30;
+
+    private static final ApiExecutor gExecutor = new ApiExecutor();
+
+    private final ThreadPoolExecutor ioPool;
+    private final ThreadPoolExecutor orderLane;
+
+    private ApiExecutor() {
+        int threads = HttpConnectionPool.getInstance().getMaxConnectionsPerHost();
+        ioPool = new ThreadPoolExecutor(threads, threads, IDLE_TIMEOUT_SEC, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("bithumb-io"));
+        ioPool.allowCoreThreadTimeOut(true);
+
+        orderLane = new ThreadPoolExecutor(1, 1, IDLE_TIMEOUT_SEC, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("bithumb-order"));
+        orderLane.allowCoreThreadTimeOut(true);
+    }
+
+    public static ApiExecutor getInstance() {
+        return gExecutor;
+    }
+
+    /**
+     * endpoint 종류에 맞는 스레드에서 task를 실행한다. 호출 제한 lane은 현재 스레드의 lane을 사용한다.
+     * task가 예외를 던지면 future는 그 예외로 완료된다.
+     */
+    public <T> CompletableFuture<T> submit(String endpoint, final Callable<T> task) {
+        return submit(endpoint, ApiRateLimiter.getLane(), task);
+    }
+
+    /**
+     * laneName의 호출 제한 lane으로 task를 실행한다.
+     */
+    public <T> CompletableFuture<T> submit(String endpoint, final String laneName, final Callable<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final ThreadPoolExecutor executor = isOrdered(endpoint) ? orderLane : ioPool;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.complete(ApiRateLimiter.callInLane(laneName, task));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 제출한 순서대로 하나씩 실행해야 하는 endpoint인지 확인한다.
+     */
+    public static boolean isOrdered(String endpoint) {
+        return ApiRateLimiter.EndpointClass.of(endpoint) == ApiRateLimiter.EndpointClass.TRADE;
+    }
+
+    /**
+     * future의 결과를 기다린다. 실패한 경우에는 task가 던진 예외를 그대로 던진다.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception)
+                throw (Exception) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
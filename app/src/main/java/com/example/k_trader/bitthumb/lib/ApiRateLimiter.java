@@ -0,0 +1,394 @@
+package com.example.k_trader.bitthumb.lib;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 빗썸 API 호출 제한을 지키기 위한 token bucket
+ * endpoint를 public, private 조회, 주문(place/cancel 등) 세 종류로 나누어 종류별로 초당 허용 횟수를 관리한다.
+ *
+ * 기본값은 빗썸 공개 기준(public 초당 135회, private 초당 15회)에서 여유를 두고,
+ * private 한도를 조회 10회와 주문 5회로 나누어 둘을 합쳐도 private 한도를 넘지 않게 한다.
+ *
+ * {@link #acquire(String)} 는 기다리지 않고 바로 future를 리턴하며, token이 생기면 요청 순서대로 future가 완료된다.
+ * 대기열이 가득 찼거나 예상 대기 시간이 너무 길면 {@link RejectedException} 으로 완료된다.
+ *
+ * 여러 코인을 동시에 매매할 때는 코인마다 lane을 두어 같은 한도를 나누어 쓴다.
+ * 요청한 스레드의 lane({@link #setLane(String)})별로 대기열을 따로 두고, token이 생기면 기다리는 lane을 돌아가며 하나씩 발급한다.
+ * 한 코인이 요청을 많이 쌓아도 다른 코인의 요청이 그 뒤에 밀리지 않으며, 같은 lane 안에서는 요청 순서가 유지된다.
+ */
+public class ApiRateLimiter {
+    public enum EndpointClass {
+        PUBLIC, PRIVATE_READ, TRADE;
+
+        public static EndpointClass of(String endpoint) {
+            if (endpoint.startsWith("/public/"))
+                return PUBLIC;
+            if (endpoint.startsWith("/info/"))
+                return PRIVATE_READ;
+            return TRADE;
+        }
+    }
+
+    public static final double PUBLIC_PERMITS_PER_SEC_DEFAULT = 100;
+    public static final int PUBLIC_BURST_DEFAULT = 20;
+    public static final double PRIVATE_READ_PERMITS_PER_SEC_DEFAULT = 10;
+    public static final int PRIVATE_READ_BURST_DEFAULT = 5;
+    public static final double TRADE_PERMITS_PER_SEC_DEFAULT = 5;
+    public static final int TRADE_BURST_DEFAULT = 2;
+    public static final int MAX_QUEUE_DEFAULT = 64;
+    public static final long MAX_WAIT_MS_DEFAULT = 30 * 1000;
+
+    private static final ApiRateLimiter gLimiter = new ApiRateLimiter();
+
+    public static final String DEFAULT_LANE = "";
+
+    // 현재 스레드가 요청하는 token의 lane
+    private static final ThreadLocal<String> lane = new ThreadLocal<>();
+
+    private final EnumMap<EndpointClass, Bucket> buckets = new EnumMap<>(EndpointClass.class);
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private ApiRateLimiter() {
+        scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "bithumb-rate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        configureDefaults();
+    }
+
+    public static ApiRateLimiter getInstance() {
+        return gLimiter;
+    }
+
+    public synchronized void configureDefaults() {
+        configure(EndpointClass.PUBLIC, PUBLIC_PERMITS_PER_SEC_DEFAULT, PUBLIC_BURST_DEFAULT, MAX_QUEUE_DEFAULT, MAX_WAIT_MS_DEFAULT);
+        configure(EndpointClass.PRIVATE_READ, PRIVATE_READ_PERMITS_PER_SEC_DEFAULT, PRIVATE_READ_BURST_DEFAULT, MAX_QUEUE_DEFAULT, MAX_WAIT_MS_DEFAULT);
+        configure(EndpointClass.TRADE, TRADE_PERMITS_PER_SEC_DEFAULT, TRADE_BURST_DEFAULT, MAX_QUEUE_DEFAULT, MAX_WAIT_MS_DEFAULT);
+    }
+
+    /**
+     * 종류별 초당 허용 횟수, 한 번에 몰아서 쓸 수 있는 token 수, 최대 대기 요청 수와 최대 대기 시간을 설정한다.
+     * 기존 bucket에서 기다리던 요청은 새 bucket의 대기열로 옮겨 새 설정의 속도로 발급하며 통계는 초기화된다.
+     */
+    public synchronized void configure(EndpointClass type, double permitsPerSecond, int burst, int maxQueue, long maxWaitMs) {
+        Bucket old = buckets.get(type);
+        Bucket bucket = new Bucket(type, Math.max(0.001, permitsPerSecond), Math.max(1, burst), Math.max(0, maxQueue),
+                TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs)));
+        if (old != null)
+            old.moveWaitersTo(bucket);
+        buckets.put(type, bucket);
+    }
+
+    /**
+     * 현재 스레드에서 요청하는 token의 lane을 정한다. null이면 기본 lane을 사용한다.
+     * 매매 엔진은 tick을 실행하는 동안 코인 이름을 lane으로 사용한다.
+     */
+    public static void setLane(String name) {
+        if (name == null)
+            lane.remove();
+        else
+            lane.set(name);
+    }
+
+    public static String getLane() {
+        String name = lane.get();
+        return name == null ? DEFAULT_LANE : name;
+    }
+
+    /**
+     * endpoint 종류의 token을 현재 스레드의 lane으로 하나 요청한다. 현재 스레드를 막지 않는다.
+     */
+    public CompletableFuture<Void> acquire(String endpoint) {
+        return acquire(endpoint, getLane());
+    }
+
+    public CompletableFuture<Void> acquire(String endpoint, String laneName) {
+        return bucketFor(EndpointClass.of(endpoint)).acquire(laneName);
+    }
+
+    /**
+     * 현재 스레드의 lane으로 token이 생길 때까지 기다린다. 실제로 네트워크 요청을 보내기 직전에 호출한다.
+     */
+    public void awaitPermit(String endpoint) {
+        awaitPermit(endpoint, getLane());
+    }
+
+    public void awaitPermit(String endpoint, String laneName) {
+        try {
+            ApiExecutor.await(acquire(endpoint, laneName));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedException(EndpointClass.of(endpoint), "interrupted");
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 주어진 lane으로 task를 실행한다. task 안의 모든 awaitPermit()(재시도 포함)은 이 lane에서 token을 받는다.
+     * 다른 스레드에서 실행하는 비동기 요청에 요청한 쪽의 lane을 넘길 때 사용한다.
+     */
+    static <T> T callInLane(String laneName, Callable<T> task) throws Exception {
+        String previous = lane.get();
+        setLane(laneName);
+        try {
+            return task.call();
+        } finally {
+            setLane(previous);
+        }
+    }
+
+    private synchronized Bucket bucketFor(EndpointClass type) {
+        return buckets.get(type);
+    }
+
+    public Stats getStats(EndpointClass type) {
+        return bucketFor(type).getStats();
+    }
+
+    public String getStats() {
+        StringBuilder sb = new StringBuilder();
+        for (EndpointClass type : EndpointClass.values()) {
+            if (sb.length() > 0)
+                sb.append(" / ");
+            sb.append(type).append(' ').append(getStats(type));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 대기열이 가득 찼거나 최대 대기 시간을 넘게 되어 요청을 거절한 경우
+     */
+    public static class RejectedException extends RuntimeException {
+        public final EndpointClass type;
+
+        RejectedException(EndpointClass type, String reason) {
+            super("API 호출 제한 초과 (" + type + ") : " + reason);
+            this.type = type;
+        }
+    }
+
+    private class Bucket {
+        private final EndpointClass type;
+        private final double permitsPerNano;
+        private final int burst;
+        private final int maxQueue;
+        private final long maxWaitNanos;
+
+        private double tokens;
+        private long lastRefillNanos;
+        private boolean drainScheduled;
+        private Bucket replacement;     // configure()로 바뀐 뒤의 bucket
+        // lane별 대기열과 기다리는 요청이 있는 lane의 순서. token은 laneOrder 앞쪽 lane부터 하나씩 발급하고 그 lane을 뒤로 보낸다.
+        private final Map<String, ArrayDeque<Waiter>> waiters = new HashMap<>();
+        private final ArrayDeque<String> laneOrder = new ArrayDeque<>();
+        private int waiterCount;
+
+        private long grantedCount;
+        private long delayedCount;
+        private long rejectedCount;
+        private long totalWaitNanos;
+        private long maxObservedWaitNanos;
+
+        Bucket(EndpointClass type, double permitsPerSecond, int burst, int maxQueue, long maxWaitNanos) {
+            this.type = type;
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.burst = burst;
+            this.maxQueue = maxQueue;
+            this.maxWaitNanos = maxWaitNanos;
+            this.tokens = burst;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        CompletableFuture<Void> acquire(String laneName) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            String rejectReason = null;
+            Bucket next = null;
+
+            synchronized (this) {
+                long now = System.nanoTime();
+                refill(now);
+
+                if (replacement != null) {
+                    // configure() 직전에 이 bucket을 받아 간 요청은 새 bucket에서 기다린다.
+                    next = replacement;
+                } else if (waiterCount == 0 && tokens >= 1) {
+                    tokens -= 1;
+                    grantedCount++;
+                } else {
+                    // 같은 lane의 앞선 요청과, 돌아가며 발급되는 다른 lane의 요청이 처리된 뒤에 token을 받을 수 있다.
+                    ArrayDeque<Waiter> queue = waiters.get(laneName);
+                    int ahead = Math.min(waiterCount, (queue == null ? 0 : queue.size()) * Math.max(1, laneOrder.size()) + laneOrder.size());
+                    long expectedWaitNanos = (long) ((ahead + 1 - tokens) / permitsPerNano);
+                    if (waiterCount >= maxQueue)
+                        rejectReason = "대기 요청 " + waiterCount + "개";
+                    else if (expectedWaitNanos > maxWaitNanos)
+                        rejectReason = "예상 대기 " + TimeUnit.NANOSECONDS.toMillis(expectedWaitNanos) + "ms";
+
+                    if (rejectReason != null) {
+                        rejectedCount++;
+                    } else {
+                        if (queue == null) {
+                            queue = new ArrayDeque<>();
+                            waiters.put(laneName, queue);
+                        }
+                        if (queue.isEmpty())
+                            laneOrder.add(laneName);
+                        queue.add(new Waiter(future, now));
+                        waiterCount++;
+                        delayedCount++;
+                        scheduleDrain();
+                        return future;
+                    }
+                }
+            }
+
+            if (next != null)
+                return next.acquire(laneName);
+            if (rejectReason != null)
+                future.completeExceptionally(new RejectedException(type, rejectReason));
+            else
+                future.complete(null);
+            return future;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+        }
+
+        // synchronized(this) 안에서 호출한다.
+        private void scheduleDrain() {
+            if (drainScheduled || waiterCount == 0)
+                return;
+            drainScheduled = true;
+            long delayNanos = Math.max(0, (long) Math.ceil((1 - tokens) / permitsPerNano));
+            scheduler.schedule(this::drain, delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        void drain() {
+            List<CompletableFuture<Void>> ready = new ArrayList<>();
+            synchronized (this) {
+                drainScheduled = false;
+                long now = System.nanoTime();
+                refill(now);
+                while (waiterCount > 0 && tokens >= 1) {
+                    Waiter waiter = pollNextWaiter();
+                    tokens -= 1;
+                    grantedCount++;
+                    long waited = now - waiter.enqueuedNanos;
+                    totalWaitNanos += waited;
+                    maxObservedWaitNanos = Math.max(maxObservedWaitNanos, waited);
+                    ready.add(waiter.future);
+                }
+                scheduleDrain();
+            }
+            // 발급한 순서대로 완료한다.
+            for (CompletableFuture<Void> future : ready)
+                future.complete(null);
+        }
+
+        // synchronized(this) 안에서 호출한다. 차례가 된 lane의 가장 오래된 요청을 꺼내고 그 lane을 맨 뒤로 보낸다.
+        private Waiter pollNextWaiter() {
+            String laneName = laneOrder.poll();
+            ArrayDeque<Waiter> queue = waiters.get(laneName);
+            Waiter waiter = queue.poll();
+            if (queue.isEmpty())
+                waiters.remove(laneName);
+            else
+                laneOrder.add(laneName);
+            waiterCount--;
+            return waiter;
+        }
+
+        // 설정이 바뀌어 더 이상 쓰지 않는 bucket의 대기 요청을 lane 순서 그대로 새 bucket에 옮긴다.
+        // 이미 받아 준 요청이므로 새 bucket의 대기열 한도를 넘어도 거절하지 않는다.
+        void moveWaitersTo(Bucket target) {
+            synchronized (this) {
+                synchronized (target) {
+                    for (String laneName : laneOrder) {
+                        ArrayDeque<Waiter> queue = waiters.get(laneName);
+                        ArrayDeque<Waiter> targetQueue = target.waiters.get(laneName);
+                        if (targetQueue == null) {
+                            targetQueue = new ArrayDeque<>();
+                            target.waiters.put(laneName, targetQueue);
+                            target.laneOrder.add(laneName);
+                        }
+                        targetQueue.addAll(queue);
+                        target.waiterCount += queue.size();
+                        target.delayedCount += queue.size();
+                    }
+                    waiters.clear();
+                    laneOrder.clear();
+                    waiterCount = 0;
+                    replacement = target;
+                    target.scheduleDrain();
+                }
+            }
+        }
+
+        synchronized Stats getStats() {
+            return new Stats(grantedCount, delayedCount, rejectedCount, waiterCount, totalWaitNanos, maxObservedWaitNanos);
+        }
+    }
+
+    private static class Waiter {
+        final CompletableFuture<Void> future;
+        final long enqueuedNanos;
+
+        Waiter(CompletableFuture<Void> future, long enqueuedNanos) {
+            this.future = future;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /**
+     * endpoint 종류별 호출 제한 통계
+     */
+    public static class Stats {
+        public final long grantedCount;     // token을 받은 요청 수
+        public final long delayedCount;     // 대기열에서 기다린 요청 수
+        public final long rejectedCount;    // 거절된 요청 수
+        public final int queuedCount;       // 현재 기다리는 요청 수
+        public final long totalWaitNanos;   // 대기 시간 합계
+        public final long maxWaitNanos;     // 최대 대기 시간
+
+        Stats(long grantedCount, long delayedCount, long rejectedCount, int queuedCount, long totalWaitNanos, long maxWaitNanos) {
+            this.grantedCount = grantedCount;
+            this.delayedCount = delayedCount;
+            this.rejectedCount = rejectedCount;
+            this.queuedCount = queuedCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        /**
+         * 대기열에서 기다렸다가 token을 받은 요청의 평균 대기 시간
+         */
+        public long getAverageWaitMillis() {
+            long waitedCount = delayedCount - queuedCount;
+            if (waitedCount <= 0)
+                return 0;
+            return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / waitedCount);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "granted=%d, delayed=%d, rejected=%d, queued=%d, avgWait=%dms, maxWait=%dms",
+                    grantedCount, delayedCount, rejectedCount, queuedCount, getAverageWaitMillis(), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        }
+    }
+}
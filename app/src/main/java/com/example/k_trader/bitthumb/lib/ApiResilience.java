@@ -0,0 +1,319 @@
+package com.example.k_trader.bitthumb.lib;
+
+import com.example.k_trader.bitthumb.lib.ApiRateLimiter.EndpointClass;
+
+import java.net.SocketTimeoutException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Api_Client 요청의 timeout, 재시도, circuit breaker를 관리한다.
+ *
+ * - endpoint별로 응답 시간 분포(histogram)를 기록하고, 조회 요청의 read timeout을 최근 p99의 3배(2초~10초)로 정한다.
+ *   주문 요청은 timeout 이후에도 서버에서 체결될 수 있으므로 기존과 같이 10초를 유지한다.
+ * - 조회 요청(/public/*, /info/*)은 연결 실패, timeout, 5xx, 5600 응답일 때 최대 2번까지 jitter를 준 간격으로 다시 요청한다.
+ *   재시도는 성공한 요청 수에 비례해 쌓이는 재시도 예산 안에서만 하므로, 장애 중에 재시도가 요청 수를 몇 배로 늘리지 않는다.
+ *   주문 요청은 중복 주문이 될 수 있으므로 다시 요청하지 않는다.
+ * - endpoint 종류(public, private 조회, 주문)별 circuit breaker는 연속 5번 실패하면 30초 동안 요청을 보내지 않고
+ *   {@link CircuitOpenException} 을 던진다. 30초가 지나면 요청 하나를 시험 삼아 보내고, 성공하면 다시 닫힌다.
+ */
+public class ApiResilience {
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    public static final String STATUS_SERVER_ERROR = "5600";
+    private static final String NO_DATA_MESSAGE_SUFFIX = "존재하지 않습니다.";
+    public static final int FAILURE_THRESHOLD_DEFAULT = 5;
+    public static final long OPEN_MS_DEFAULT = 30 * 1000;
+    public static final int MAX_RETRIES_DEFAULT = 2;
+    public static final long RETRY_BASE_DELAY_MS_DEFAULT = 200;
+    public static final long RETRY_MAX_DELAY_MS_DEFAULT = 2000;
+
+    public static final int READ_TIMEOUT_DEFAULT_MS = 10000;
+    private static final int READ_TIMEOUT_MIN_MS = 2000;
+    private static final int TIMEOUT_P99_MULTIPLIER = 3;
+    private static final int TIMEOUT_MIN_SAMPLES = 20;
+
+    private static final double RETRY_BUDGET_MAX = 10;
+    private static final double RETRY_BUDGET_PER_SUCCESS = 0.1;
+
+    private static final ApiResilience gResilience = new ApiResilience();
+
+    /**
+     * 한 번의 HTTP 요청. 주어진 read timeout으로 요청하고 응답 코드와 body를 리턴한다.
+     */
+    interface Call {
+        Response execute(int readTimeoutMs);
+    }
+
+    static class Response {
+        final int code;
+        final String body;
+
+        Response(int code, String body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+
+    private final EnumMap<EndpointClass, Breaker> breakers = new EnumMap<>(EndpointClass.class);
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private volatile int failureThreshold;
+    private volatile long openNanos;
+    private volatile int maxRetries;
+    private volatile long retryBaseDelayMs;
+    private volatile long retryMaxDelayMs;
+
+    private double retryBudget = RETRY_BUDGET_MAX;
+    private long retryCount;
+    private long retryDeniedCount;
+
+    private ApiResilience() {
+        for (EndpointClass type : EndpointClass.values())
+            breakers.put(type, new Breaker(type));
+        configureDefaults();
+    }
+
+    public static ApiResilience getInstance() {
+        return gResilience;
+    }
+
+    public synchronized void configureDefaults() {
+        configure(FAILURE_THRESHOLD_DEFAULT, OPEN_MS_DEFAULT, MAX_RETRIES_DEFAULT, RETRY_BASE_DELAY_MS_DEFAULT, RETRY_MAX_DELAY_MS_DEFAULT);
+    }
+
+    /**
+     * circuit breaker와 재시도 설정을 바꾼다. circuit 상태, 통계, 응답 시간 기록은 초기화된다.
+     */
+    public synchronized void configure(int failureThreshold, long openMs, int maxRetries, long retryBaseDelayMs, long retryMaxDelayMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, openMs));
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBaseDelayMs = Math.max(0, retryBaseDelayMs);
+        this.retryMaxDelayMs = Math.max(this.retryBaseDelayMs, retryMaxDelayMs);
+        this.retryBudget = RETRY_BUDGET_MAX;
+        this.retryCount = 0;
+        this.retryDeniedCount = 0;
+        for (Breaker breaker : breakers.values())
+            breaker.reset();
+        histograms.clear();
+    }
+
+    /**
+     * endpoint를 요청한다. 실패하면 규칙에 따라 다시 요청하며, 마지막 응답 body를 리턴하거나 마지막 예외를 던진다.
+     */
+    String call(String endpoint, Call call) {
+        EndpointClass type = EndpointClass.of(endpoint);
+        Breaker breaker = breakers.get(type);
+        LatencyHistogram histogram = histogramFor(endpoint);
+
+        for (int attempt = 0; ; attempt++) {
+            breaker.beforeCall();
+
+            Response response = null;
+            RuntimeException error = null;
+            long startNanos = System.nanoTime();
+            try {
+                response = call.execute(getReadTimeoutMillis(type, histogram));
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            // 응답을 받았거나 timeout이 난 경우만 응답 시간에 넣는다. 연결 실패는 응답 시간이 아니다.
+            if (response != null || isTimeout(error))
+                histogram.record(elapsedNanos);
+
+            boolean failed = error != null || isServerFailure(response);
+            breaker.record(!failed);
+            if (!failed) {
+                onSuccess();
+                return response.body;
+            }
+
+            if (type == EndpointClass.TRADE || attempt >= maxRetries || breaker.getState() != CircuitState.CLOSED || !tryRetry()) {
+                if (error != null)
+                    throw error;
+                return response.body;
+            }
+
+            try {
+                Thread.sleep(retryDelayMillis(attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (error != null)
+                    throw error;
+                return response.body;
+            }
+        }
+    }
+
+    private static boolean isTimeout(RuntimeException error) {
+        return error != null && error.getCause() instanceof SocketTimeoutException;
+    }
+
+    // 5xx 응답이나 빗썸의 5600(서버 오류 등 일시적인 오류) 응답
+    // 미체결 주문이 없을 때도 5600("거래 진행중인 내역이 존재하지 않습니다.")이 오므로 이런 조회 결과 없음 응답은 제외한다.
+    static boolean isServerFailure(Response response) {
+        if (response.code >= 500)
+            return true;
+        BithumbResponseDecoder.Response<Void> result;
+        try {
+            result = BithumbResponseDecoder.decodeStatus(response.body);
+        } catch (IllegalStateException e) {
+            // 형식이 깨진 응답은 재시도하지 않고 그대로 호출한 쪽에 넘긴다.
+            return false;
+        }
+        if (result == null || !STATUS_SERVER_ERROR.equals(result.status))
+            return false;
+        return result.message == null || !result.message.endsWith(NO_DATA_MESSAGE_SUFFIX);
+    }
+
+    private synchronized void onSuccess() {
+        retryBudget = Math.min(RETRY_BUDGET_MAX, retryBudget + RETRY_BUDGET_PER_SUCCESS);
+    }
+
+    private synchronized boolean tryRetry() {
+        if (retryBudget < 1) {
+            retryDeniedCount++;
+            return false;
+        }
+        retryBudget -= 1;
+        retryCount++;
+        return true;
+    }
+
+    // full jitter : 0 ~ min(최대 간격, 기본 간격 * 2^attempt) 사이의 임의의 시간
+    private long retryDelayMillis(int attempt) {
+        long cap = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt, 16));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    public int getReadTimeoutMillis(String endpoint) {
+        return getReadTimeoutMillis(EndpointClass.of(endpoint), histogramFor(endpoint));
+    }
+
+    private int getReadTimeoutMillis(EndpointClass type, LatencyHistogram histogram) {
+        if (type == EndpointClass.TRADE || histogram.getCount() < TIMEOUT_MIN_SAMPLES)
+            return READ_TIMEOUT_DEFAULT_MS;
+        long timeout = histogram.getPercentileMillis(99) * TIMEOUT_P99_MULTIPLIER;
+        return (int) Math.max(READ_TIMEOUT_MIN_MS, Math.min(READ_TIMEOUT_DEFAULT_MS, timeout));
+    }
+
+    private LatencyHistogram histogramFor(String endpoint) {
+        LatencyHistogram histogram = histograms.get(endpoint);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            LatencyHistogram old = histograms.putIfAbsent(endpoint, histogram);
+            if (old != null)
+                histogram = old;
+        }
+        return histogram;
+    }
+
+    public CircuitState getState(EndpointClass type) {
+        return breakers.get(type).getState();
+    }
+
+    /**
+     * endpoint별 응답 시간 분포. endpoint 이름 순으로 정렬되어 있다.
+     */
+    public Map<String, LatencyHistogram.Snapshot> getLatencySnapshots() {
+        Map<String, LatencyHistogram.Snapshot> result = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet())
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        return result;
+    }
+
+    public synchronized long getRetryCount() {
+        return retryCount;
+    }
+
+    public String getStats() {
+        StringBuilder sb = new StringBuilder();
+        for (EndpointClass type : EndpointClass.values()) {
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append(type).append('=').append(getState(type));
+        }
+        synchronized (this) {
+            sb.append(String.format(Locale.getDefault(), ", retries=%d, retryDenied=%d", retryCount, retryDeniedCount));
+        }
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : getLatencySnapshots().entrySet())
+            sb.append(" / ").append(entry.getKey()).append(' ').append(entry.getValue());
+        return sb.toString();
+    }
+
+    /**
+     * circuit이 열려 있어 요청을 보내지 않은 경우
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public final EndpointClass type;
+
+        CircuitOpenException(EndpointClass type, long remainingMs) {
+            super("API circuit open (" + type + ") : " + remainingMs + "ms 후 재시도");
+            this.type = type;
+        }
+    }
+
+    private class Breaker {
+        private final EndpointClass type;
+        private CircuitState state = CircuitState.CLOSED;
+        private int consecutiveFailures;
+        private long openedNanos;
+        private boolean trialInFlight;
+
+        Breaker(EndpointClass type) {
+            this.type = type;
+        }
+
+        synchronized void reset() {
+            state = CircuitState.CLOSED;
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+
+        synchronized void beforeCall() {
+            if (state == CircuitState.CLOSED)
+                return;
+
+            long now = System.nanoTime();
+            if (state == CircuitState.OPEN && now - openedNanos >= openNanos) {
+                state = CircuitState.HALF_OPEN;
+                trialInFlight = false;
+            }
+            if (state == CircuitState.HALF_OPEN && !trialInFlight) {
+                // 시험 요청 하나만 보낸다.
+                trialInFlight = true;
+                return;
+            }
+            long remainingNanos = Math.max(0, openNanos - (now - openedNanos));
+            throw new CircuitOpenException(type, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+        }
+
+        synchronized void record(boolean success) {
+            if (success) {
+                state = CircuitState.CLOSED;
+                consecutiveFailures = 0;
+                trialInFlight = false;
+                return;
+            }
+
+            consecutiveFailures++;
+            if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = CircuitState.OPEN;
+                openedNanos = System.nanoTime();
+                trialInFlight = false;
+            }
+        }
+
+        synchronized CircuitState getState() {
+            return state;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.k_trader.bitthumb.lib;
+
+import com.example.k_trader.base.GlobalSettings;
+
+import java.io.UnsupportedEncodingException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Private API 요청의 Api-Sign 헤더 값을 만드는 서명기
+ * Api-Sign = Base64( hex( HMAC-SHA512(secret, message) ) )
+ *
+ * 스레드별로 초기화된 Mac과 hex/Base64 버퍼를 보관하여 요청마다 Mac.getInstance()/init()을 반복하지 않는다.
+ * GlobalSettings의 API secret이 바뀐 경우에만 Mac을 다시 초기화한다.
+ * 결과는 기존 Api_Client.asHex(Api_Client.hmacSha512(message, secret)) 와 동일하다.
+ */
+public class ApiSigner {
+    private static final String DEFAULT_ENCODING = "UTF-8";
+    private static final String HMAC_SHA512 = "HmacSHA512";
+    private static final int MAC_LENGTH = 64;
+    private static final int HEX_LENGTH = MAC_LENGTH * 2;
+    private static final int BASE64_LENGTH = (HEX_LENGTH + 2) / 3 * 4;
+
+    private static final byte[] HEX_DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+    private static final char[] BASE64_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private static final ApiSigner gSigner = new ApiSigner();
+
+    private final ThreadLocal<SignerState> states = new ThreadLocal<SignerState>() {
+        @Override
+        protected SignerState initialValue() {
+            return new SignerState();
+        }
+    };
+
+    private ApiSigner() {}
+
+    public static ApiSigner getInstance() {
+        return gSigner;
+    }
+
+    /**
+     * GlobalSettings에 설정된 API secret으로 서명한다.
+     */
+    public String sign(String message) {
+        return sign(message, GlobalSettings.getInstance().getApiSecret());
+    }
+
+    public String sign(String message, String secret) {
+        SignerState state = states.get();
+        state.prepare(secret);
+        return state.sign(message);
+    }
+
+    /**
+     * 스레드마다 하나씩 가지는 Mac과 재사용 버퍼
+     */
+    private static class SignerState {
+        private String secret;
+        private Mac mac;
+        private byte[] input = new byte[256];
+        private final byte[] macData = new byte[MAC_LENGTH];
+        private final byte[] hex = new byte[HEX_LENGTH];
+        private final char[] base64 = new char[BASE64_LENGTH];
+
+        void prepare(String newSecret) {
+            if (mac != null && (secret == newSecret || secret.equals(newSecret)))
+                return;
+
+            try {
+                SecretKeySpec keySpec = new SecretKeySpec(newSecret.getBytes(DEFAULT_ENCODING), HMAC_SHA512);
+                if (mac == null)
+                    mac = Mac.getInstance(HMAC_SHA512);
+                mac.init(keySpec);
+                secret = newSecret;
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            } catch (InvalidKeyException e) {
+                throw new RuntimeException(e);
+            } catch (UnsupportedEncodingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        String sign(String message) {
+            // 서명 대상은 URI 인코딩된 문자열이므로 대부분 ASCII이다. ASCII가 아니면 기존과 같이 기본 charset으로 변환한다.
+            int length = message.length();
+            if (isAscii(message)) {
+                if (input.length < length)
+                    input = new byte[Math.max(length, input.length * 2)];
+                for (int i = 0; i < length; i++)
+                    input[i] = (byte) message.charAt(i);
+                mac.update(input, 0, length);
+            } else {
+                mac.update(message.getBytes());
+            }
+
+            try {
+                mac.doFinal(macData, 0);
+            } catch (ShortBufferException e) {
+                throw new RuntimeException(e);
+            }
+
+            for (int i = 0, j = 0; i < MAC_LENGTH; i++) {
+                hex[j++] = HEX_DIGITS[(macData[i] >> 4) & 0x0F];
+                hex[j++] = HEX_DIGITS[macData[i] & 0x0F];
+            }
+
+            return new String(base64, 0, encodeBase64(hex, base64));
+        }
+
+        private static boolean isAscii(String message) {
+            for (int i = 0, length = message.length(); i < length; i++) {
+                if (message.charAt(i) >= 0x80)
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * 줄바꿈 없이 '=' padding을 포함하는 표준 Base64 (HttpRequest.Base64.encodeBytes와 동일)
+         */
+        private static int encodeBase64(byte[] source, char[] dest) {
+            int d = 0;
+            int e = 0;
+            int len = source.length;
+            for (; d + 2 < len; d += 3) {
+                int bits = ((source[d] & 0xFF) << 16) | ((source[d + 1] & 0xFF) << 8) | (source[d + 2] & 0xFF);
+                dest[e++] = BASE64_ALPHABET[(bits >>> 18) & 0x3F];
+                dest[e++] = BASE64_ALPHABET[(bits >>> 12) & 0x3F];
+                dest[e++] = BASE64_ALPHABET[(bits >>> 6) & 0x3F];
+                dest[e++] = BASE64_ALPHABET[bits & 0x3F];
+            }
+
+            int remain = len - d;
+            if (remain > 0) {
+                int bits = (source[d] & 0xFF) << 16;
+                if (remain > 1)
+                    bits |= (source[d + 1] & 0xFF) << 8;
+                dest[e++] = BASE64_ALPHABET[(bits >>> 18) & 0x3F];
+                dest[e++] = BASE64_ALPHABET[(bits >>> 12) & 0x3F];
+                dest[e++] = remain > 1 ? BASE64_ALPHABET[(bits >>> 6) & 0x3F] : '=';
+                dest[e++] = '=';
+            }
+            return e;
+        }
+    }
+}
@@ -13,6 +13,8 @@ import java.net.URLEncoder;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -25,14 +27,16 @@ import javax.crypto.spec.SecretKeySpec;
 public class Api_Client {
     protected String api_url = "https://api.bithumb.com";
     private static final org.apache.log4j.Logger logger = Log4jHelper.getLogger("Api_Client");
+    private static final AtomicLong lastNonce = new AtomicLong();
 
     public Api_Client() {
     }
 
     /**
-     * 현재의 시간을 ns로 리턴한다.(1/1,000,000,000 초)
+     * 현재의 시간을 ms로 리턴한다. 병렬 요청이 같은 ms에 서명하더라도 nonce가 중복되지 않도록
+     * 이전에 발급한 값보다 항상 1 이상 큰 값을 리턴한다.
      *
-     * @return int
+     * @return String
      */
     private String usecTime() {
     	/*
@@ -47,62 +51,73 @@ public class Api_Client {
 		System.out.println("elapsedTime ==> " + microseconds + " : " + seconds);
 		*/
 
-        return String.valueOf(System.currentTimeMillis());
+        long now = System.currentTimeMillis();
+        while (true) {
+            long last = lastNonce.get();
+            long next = Math.max(now, last + 1);
+            if (lastNonce.compareAndSet(last, next))
+                return String.valueOf(next);
+        }
     }
 
-    private String request(String strHost, String strMemod, HashMap<String, String> rgParams, HashMap<String, String> httpHeaders) {
+    private ApiResilience.Response request(String strHost, String strMemod, HashMap<String, String> rgParams, HashMap<String, String> httpHeaders, int readTimeoutMs) {
         String response = "";
-
-        // SSL 여부
-        if (strHost.startsWith("https://")) {
-            HttpRequest request = HttpRequest.get(strHost);
-            // Accept all certificates
-            request.trustAllCerts();
-            // Accept all hostnames
-            request.trustAllHosts();
-        }
+        int code = 0;
 
         if (strMemod.toUpperCase().equals("HEAD")) {
         } else {
             HttpRequest request = null;
+            boolean isPost = strMemod.toUpperCase().equals("POST");
 
             // POST/GET 설정
-            if (strMemod.toUpperCase().equals("POST")) {
+            if (isPost) {
                 request = new HttpRequest(strHost, "POST");
-                request.readTimeout(10000);
-
-//				System.out.println("POST ==> " + request.url());
-
-                if (httpHeaders != null && !httpHeaders.isEmpty()) {
-                    httpHeaders.put("api-client-type", "2");
-                    request.headers(httpHeaders);
-//				    System.out.println(httpHeaders.toString());
-                }
-                if (rgParams != null && !rgParams.isEmpty()) {
-                    request.form(rgParams);
-//				    System.out.println(rgParams.toString());
-                }
             } else {
                 request = HttpRequest.get(strHost + Util.mapToQueryString(rgParams));
-                request.readTimeout(10000);
-
-                System.out.println("Response was: " + response);
             }
+            request.readTimeout(readTimeoutMs);
+
+            // keep-alive 연결 풀을 통해 요청한다. 연결 설정은 body를 쓰기 전에 이뤄져야 하므로 가장 먼저 acquire 한다.
+            // 응답 body를 끝까지 읽으면 소켓은 풀로 반환되므로 정상 응답에는 disconnect()를 호출하지 않는다.
+            HttpConnectionPool pool = HttpConnectionPool.getInstance();
+            long startNanos = System.nanoTime();
+            pool.acquire(request);
+            try {
+                if (isPost) {
+//				    System.out.println("POST ==> " + request.url());
+
+                    if (httpHeaders != null && !httpHeaders.isEmpty()) {
+                        httpHeaders.put("api-client-type", "2");
+                        request.headers(httpHeaders);
+//				        System.out.println(httpHeaders.toString());
+                    }
+                    if (rgParams != null && !rgParams.isEmpty()) {
+                        request.form(rgParams);
+//				        System.out.println(rgParams.toString());
+                    }
+                }
 
-            if (request.ok()) {
-                response = request.body();
-            } else {
-                response = request.body();
-                if (logger != null) {
-                    logger.error("error : " + request.code() + ", message : "	+ response);
+                code = request.code();
+                if (request.ok()) {
+                    response = request.body();
                 } else {
-                    System.err.println("API Error: " + request.code() + ", message: " + response);
+                    response = request.body();
+                    if (logger != null) {
+                        logger.error("error : " + request.code() + ", message : "	+ response);
+                    } else {
+                        System.err.println("API Error: " + request.code() + ", message: " + response);
+                    }
                 }
+            } catch (HttpRequest.HttpRequestException e) {
+                // 실패한 연결은 재사용하지 않는다.
+                request.disconnect();
+                throw e;
+            } finally {
+                pool.release(request, startNanos);
             }
-            request.disconnect();
         }
 
-        return response;
+        return new ApiResilience.Response(code, response);
     }
 
     public static String encodeURIComponent(String s)
@@ -149,7 +164,7 @@ public class Api_Client {
         String str = endpoint + ";"	+ strData + ";" + nNonce;
         //String str = "/info/balance;order_currency=BTC&payment_currency=KRW&endpoint=%2Finfo%2Fbalance;272184496";
 
-        String encoded = asHex(hmacSha512(str, GlobalSettings.getInstance().getApiSecret()));
+        String encoded = ApiSigner.getInstance().sign(str);
 
 //		System.out.println("strData was: " + str);
 //		System.out.println("apiSecret was: " + apiSecret);
@@ -164,6 +179,9 @@ public class Api_Client {
     private static final String DEFAULT_ENCODING = "UTF-8";
     private static final String HMAC_SHA512 = "HmacSHA512";
 
+    /**
+     * 요청마다 Mac을 새로 만드는 기존 서명 방식. 실제 요청은 ApiSigner를 사용하며, 서명 결과 비교용으로 남겨둔다.
+     */
     public static byte[] hmacSha512(String value, String key){
         try {
             SecretKeySpec keySpec = new SecretKeySpec(
@@ -192,19 +210,52 @@ public class Api_Client {
         return new String(HttpRequest.Base64.encodeBytes(bytes));
     }
 
-    public JSONObject callApi(String method, String endpoint, HashMap<String, String> params) {
-        String rgResultDecode = "";
-        HashMap<String, String> rgParams = new HashMap<String, String>();
+    /**
+     * API를 호출하고 응답 body를 그대로 리턴한다.
+     * BithumbResponseDecoder로 바로 변환하는 경우 json-simple 트리를 만들지 않도록 이 메소드를 사용한다.
+     */
+    public String callApiText(final String method, final String endpoint, HashMap<String, String> params) {
+        final HashMap<String, String> rgParams = new HashMap<String, String>();
         rgParams.put("endpoint", endpoint);
 
         if (params != null) {
             rgParams.putAll(params);
         }
 
-        String api_host = api_url + endpoint;
-        HashMap<String, String> httpHeaders = getHttpHeaders(endpoint, rgParams);
+        final String api_host = api_url + endpoint;
+
+        // 시세 조회는 MarketDataGateway를 통해 동시에 들어온 같은 요청을 합치고 짧은 시간 동안 재사용한다.
+        if (endpoint.startsWith("/public/") && method.toUpperCase().equals("GET")) {
+            String key = api_host + Util.mapToQueryString(rgParams);
+            return MarketDataGateway.getInstance().fetch(key, endpoint, () -> execute(api_host, method, endpoint, rgParams));
+        }
+
+        return execute(api_host, method, endpoint, rgParams);
+    }
+
+    /**
+     * ApiResilience의 timeout, 재시도, circuit breaker 규칙에 따라 요청한다.
+     */
+    private String execute(final String api_host, final String method, final String endpoint, final HashMap<String, String> rgParams) {
+        return ApiResilience.getInstance().call(endpoint, readTimeoutMs -> {
+            // 호출 제한을 넘지 않도록 token을 받은 뒤에 서명한다. (nonce 순서와 실제 전송 순서를 맞추기 위함)
+            // 다시 요청할 때도 token을 새로 받고 nonce도 새로 발급한다.
+            ApiRateLimiter.getInstance().awaitPermit(endpoint);
+            HashMap<String, String> httpHeaders = getHttpHeaders(endpoint, rgParams);
+
+            return request(api_host, method, rgParams, httpHeaders, readTimeoutMs);
+        });
+    }
+
+    /**
+     * callApiText()를 ApiExecutor에서 실행한다. 요청 순서 보장 규칙은 ApiExecutor를 참고한다.
+     */
+    public CompletableFuture<String> callApiTextAsync(final String method, final String endpoint, final HashMap<String, String> params) {
+        return ApiExecutor.getInstance().submit(endpoint, () -> callApiText(method, endpoint, params));
+    }
 
-        rgResultDecode = request(api_host, method, rgParams, httpHeaders);
+    public JSONObject callApi(String method, String endpoint, HashMap<String, String> params) {
+        String rgResultDecode = callApiText(method, endpoint, params);
 
         JSONParser jsonParser = new JSONParser();
         JSONObject jsonObject = null;
@@ -0,0 +1,378 @@
+package com.example.k_trader.bitthumb.lib;
+
+import com.example.k_trader.base.CoinUnits;
+import com.example.k_trader.base.Krw;
+import com.example.k_trader.base.TradeData;
+import com.example.k_trader.base.TradeDataManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static com.example.k_trader.base.TradeDataManager.Status.PLACED;
+import static com.example.k_trader.base.TradeDataManager.Status.PROCESSED;
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+import static com.example.k_trader.base.TradeDataManager.Type.NONE;
+import static com.example.k_trader.base.TradeDataManager.Type.SELL;
+
+/**
+ * 빗썸 응답 문자열을 json-simple 트리를 거치지 않고 바로 TradeData 등 타입이 있는 결과로 변환한다.
+ * /info/orders, /info/user_transactions, /public/orderbook, /info/balance 를 지원한다.
+ *
+ * 모든 decode 메소드는 응답이 비어 있으면 null을 리턴하고, 그 외에는 status/message를 담은 Response를 리턴한다.
+ * status가 "0000"이 아니면 data는 null이다.
+ */
+public class BithumbResponseDecoder {
+    public static final String STATUS_OK = "0000";
+
+    private static final String[] RESPONSE_FIELDS = {"status", "message", "data"};
+    private static final int RESPONSE_STATUS = 0;
+    private static final int RESPONSE_MESSAGE = 1;
+    private static final int RESPONSE_DATA = 2;
+
+    private static final String[] ORDER_FIELDS = {"order_id", "type", "units_remaining", "price", "order_date"};
+    private static final String[] TRANSACTION_FIELDS = {"search", "transfer_date", "units", "price", "fee"};
+    private static final String[] ORDERBOOK_FIELDS = {"timestamp", "bids", "asks"};
+    private static final String[] QUOTE_FIELDS = {"price", "quantity"};
+    private static final String[] ORDER_TYPES = {"bid", "ask"};
+
+    private BithumbResponseDecoder() {}
+
+    private interface DataReader<T> {
+        T read(JsonCursor cursor);
+    }
+
+    /**
+     * 응답 공통 부분
+     */
+    public static class Response<T> {
+        public final String status;
+        public final String message;
+        public final T data;
+
+        Response(String status, String message, T data) {
+            this.status = status;
+            this.message = message;
+            this.data = data;
+        }
+
+        public boolean isSuccess() {
+            return STATUS_OK.equals(status);
+        }
+
+        @Override
+        public String toString() {
+            return "{\"status\":\"" + status + "\",\"message\":\"" + message + "\"}";
+        }
+    }
+
+    /**
+     * /info/balance 결과. 원화는 원 단위(원 아래는 버림), 코인은 CoinUnits 고정소수점이며 응답에 없는 항목은 NONE이다.
+     */
+    public static class Balance {
+        public long totalKrw = Krw.NONE;
+        public long availableKrw = Krw.NONE;
+        public long totalCoin = CoinUnits.NONE;
+        public long availableCoin = CoinUnits.NONE;
+
+        public boolean isValid() {
+            return totalKrw != Krw.NONE && availableCoin != CoinUnits.NONE;
+        }
+    }
+
+    /**
+     * /public/orderbook 결과. bids는 높은 가격 순, asks는 낮은 가격 순이다.
+     */
+    public static class Orderbook {
+        public long timestamp;
+        public int bidCount;
+        public double[] bidPrices = new double[16];
+        public double[] bidQuantities = new double[16];
+        public int askCount;
+        public double[] askPrices = new double[16];
+        public double[] askQuantities = new double[16];
+
+        public double getBestBidPrice() {
+            return bidCount > 0 ? bidPrices[0] : Double.NaN;
+        }
+
+        public double getBestAskPrice() {
+            return askCount > 0 ? askPrices[0] : Double.NaN;
+        }
+
+        void addBid(double price, double quantity) {
+            if (bidCount == bidPrices.length) {
+                bidPrices = Arrays.copyOf(bidPrices, bidCount * 2);
+                bidQuantities = Arrays.copyOf(bidQuantities, bidCount * 2);
+            }
+            bidPrices[bidCount] = price;
+            bidQuantities[bidCount++] = quantity;
+        }
+
+        void addAsk(double price, double quantity) {
+            if (askCount == askPrices.length) {
+                askPrices = Arrays.copyOf(askPrices, askCount * 2);
+                askQuantities = Arrays.copyOf(askQuantities, askCount * 2);
+            }
+            askPrices[askCount] = price;
+            askQuantities[askCount++] = quantity;
+        }
+    }
+
+    /**
+     * /info/orders 응답을 PLACED 상태의 TradeData 목록으로 변환한다.
+     */
+    public static Response<List<TradeData>> decodePlacedOrders(String body) {
+        return decode(body, BithumbResponseDecoder::readPlacedOrders);
+    }
+
+    /**
+     * /info/user_transactions 응답을 PROCESSED 상태의 TradeData 목록으로 변환한다.
+     * 수량과 가격은 부호를 떼고 절대값으로, 체결 시간은 ms 단위로 저장한다. 매수/매도가 아닌 항목(입출금 등)은 제외한다.
+     */
+    public static Response<List<TradeData>> decodeTransactions(String body) {
+        return decode(body, BithumbResponseDecoder::readTransactions);
+    }
+
+    public static Response<Orderbook> decodeOrderbook(String body) {
+        return decode(body, BithumbResponseDecoder::readOrderbook);
+    }
+
+    /**
+     * @param coinType 잔고를 읽을 코인 (ex. "BTC")
+     */
+    public static Response<Balance> decodeBalance(String body, String coinType) {
+        String coin = coinType.toLowerCase(Locale.US);
+        final String[] fields = {"total_krw", "available_krw", "total_" + coin, "available_" + coin};
+        return decode(body, cursor -> readBalance(cursor, fields));
+    }
+
+    /**
+     * status와 message만 읽는다. data는 건너뛴다.
+     */
+    public static Response<Void> decodeStatus(String body) {
+        return decode(body, cursor -> {
+            cursor.skipValue();
+            return null;
+        });
+    }
+
+    private static <T> Response<T> decode(String body, DataReader<T> reader) {
+        if (body == null)
+            return null;
+
+        JsonCursor cursor = new JsonCursor(body);
+        if (!cursor.peekObject())
+            return null;
+
+        String status = null;
+        String message = null;
+        T data = null;
+
+        // status가 data보다 뒤에 올 수도 있으므로 data는 일단 읽어두고 마지막에 status로 판단한다.
+        cursor.beginObject();
+        while (cursor.hasNext()) {
+            switch (cursor.nextName(RESPONSE_FIELDS)) {
+                case RESPONSE_STATUS:
+                    status = cursor.nextString();
+                    break;
+                case RESPONSE_MESSAGE:
+                    message = cursor.nextString();
+                    break;
+                case RESPONSE_DATA:
+                    if (!cursor.peekNull() && (status == null || STATUS_OK.equals(status)))
+                        data = reader.read(cursor);
+                    else
+                        cursor.skipValue();
+                    break;
+                default:
+                    cursor.skipValue();
+                    break;
+            }
+        }
+        cursor.endObject();
+
+        return new Response<>(status, message, STATUS_OK.equals(status) ? data : null);
+    }
+
+    private static List<TradeData> readPlacedOrders(JsonCursor cursor) {
+        List<TradeData> list = new ArrayList<>();
+        if (!cursor.peekArray()) {
+            cursor.skipValue();
+            return list;
+        }
+
+        cursor.beginArray();
+        while (cursor.hasNext()) {
+            String orderId = null;
+            TradeDataManager.Type type = null;
+            long units = CoinUnits.NONE;
+            double price = Double.NaN;
+            long orderDate = -1;
+
+            cursor.beginObject();
+            while (cursor.hasNext()) {
+                switch (cursor.nextName(ORDER_FIELDS)) {
+                    case 0: orderId = cursor.nextString(); break;
+                    case 1: type = readOrderType(cursor); break;
+                    case 2: units = cursor.nextFixed(CoinUnits.SCALE_DIGITS, true); break;
+                    case 3: price = cursor.nextDouble(); break;
+                    case 4: orderDate = cursor.nextLongExact(); break;
+                    default: cursor.skipValue(); break;
+                }
+            }
+            cursor.endObject();
+
+            if (type == null || units == CoinUnits.NONE || Double.isNaN(price) || orderDate < 0)
+                continue;
+
+            list.add(new TradeData()
+                    .setType(type)
+                    .setStatus(PLACED)
+                    .setId(orderId)
+                    .setUnits(units)
+                    .setPrice((int) price)
+                    .setPlacedTime(orderDate / 1000));
+        }
+        cursor.endArray();
+        return list;
+    }
+
+    private static List<TradeData> readTransactions(JsonCursor cursor) {
+        List<TradeData> list = new ArrayList<>();
+        if (!cursor.peekArray()) {
+            cursor.skipValue();
+            return list;
+        }
+
+        cursor.beginArray();
+        while (cursor.hasNext()) {
+            int search = -1;
+            long processedTime = -1;
+            long units = CoinUnits.NONE;
+            double price = Double.NaN;
+            String fee = null;
+
+            cursor.beginObject();
+            while (cursor.hasNext()) {
+                switch (cursor.nextName(TRANSACTION_FIELDS)) {
+                    case 0:
+                        search = (int) cursor.nextLong();
+                        break;
+                    case 1:
+                        processedTime = cursor.nextLongExact();
+                        if (cursor.lastDigitCount() != 13) // micro second
+                            processedTime /= 1000;
+                        break;
+                    case 2: units = cursor.nextFixed(CoinUnits.SCALE_DIGITS, true); break;
+                    case 3: price = cursor.nextDouble(); break;
+                    case 4: fee = cursor.nextString(); break;
+                    default: cursor.skipValue(); break;
+                }
+            }
+            cursor.endObject();
+
+            TradeDataManager.Type type = convertSearchType(search);
+            if (type == NONE || processedTime < 0 || units == CoinUnits.NONE || Double.isNaN(price))
+                continue;
+
+            list.add(new TradeData()
+                    .setType(type)
+                    .setStatus(PROCESSED)
+                    .setUnits(Math.abs(units))
+                    .setPrice(Math.abs((int) price))
+                    .setFeeRaw(fee)
+                    .setProcessedTime(processedTime));
+        }
+        cursor.endArray();
+        return list;
+    }
+
+    private static Orderbook readOrderbook(JsonCursor cursor) {
+        Orderbook orderbook = new Orderbook();
+
+        cursor.beginObject();
+        while (cursor.hasNext()) {
+            switch (cursor.nextName(ORDERBOOK_FIELDS)) {
+                case 0:
+                    orderbook.timestamp = cursor.nextLongExact();
+                    break;
+                case 1:
+                    readQuotes(cursor, orderbook, true);
+                    break;
+                case 2:
+                    readQuotes(cursor, orderbook, false);
+                    break;
+                default:
+                    cursor.skipValue();
+                    break;
+            }
+        }
+        cursor.endObject();
+        return orderbook;
+    }
+
+    private static void readQuotes(JsonCursor cursor, Orderbook orderbook, boolean bid) {
+        cursor.beginArray();
+        while (cursor.hasNext()) {
+            double price = Double.NaN;
+            double quantity = Double.NaN;
+
+            cursor.beginObject();
+            while (cursor.hasNext()) {
+                switch (cursor.nextName(QUOTE_FIELDS)) {
+                    case 0: price = cursor.nextDouble(); break;
+                    case 1: quantity = cursor.nextDouble(); break;
+                    default: cursor.skipValue(); break;
+                }
+            }
+            cursor.endObject();
+
+            if (Double.isNaN(price))
+                continue;
+            if (bid)
+                orderbook.addBid(price, quantity);
+            else
+                orderbook.addAsk(price, quantity);
+        }
+        cursor.endArray();
+    }
+
+    private static Balance readBalance(JsonCursor cursor, String[] fields) {
+        Balance balance = new Balance();
+
+        cursor.beginObject();
+        while (cursor.hasNext()) {
+            switch (cursor.nextName(fields)) {
+                case 0: balance.totalKrw = cursor.nextFixed(0, false); break;
+                case 1: balance.availableKrw = cursor.nextFixed(0, false); break;
+                case 2: balance.totalCoin = cursor.nextFixed(CoinUnits.SCALE_DIGITS, true); break;
+                case 3: balance.availableCoin = cursor.nextFixed(CoinUnits.SCALE_DIGITS, true); break;
+                default: cursor.skipValue(); break;
+            }
+        }
+        cursor.endObject();
+        return balance;
+    }
+
+    private static TradeDataManager.Type readOrderType(JsonCursor cursor) {
+        if (cursor.peekNull()) {
+            cursor.skipValue();
+            return null;
+        }
+        switch (cursor.nextStringIndex(ORDER_TYPES)) {
+            case 0 : return BUY;
+            case 1 : return SELL;
+        }
+        return NONE;
+    }
+
+    private static TradeDataManager.Type convertSearchType(int search) {
+        switch(search) {
+            case 1 : return BUY;
+            case 2 : return SELL;
+        }
+        return NONE;
+    }
+}
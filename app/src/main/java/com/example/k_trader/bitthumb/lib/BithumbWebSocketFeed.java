@@ -0,0 +1,477 @@
+package com.example.k_trader.bitthumb.lib;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 빗썸 public WebSocket(ticker, orderbookdepth, transaction) 시세 수신기
+ *
+ * - 연결이 끊어지면 1초부터 두 배씩 늘려 최대 30초 간격으로 다시 연결한다. 연결에 성공하면 간격은 초기화된다.
+ * - heartbeat 주기마다 ping을 보내고, 일정 시간 동안 아무 frame도 받지 못하면 연결을 끊고 다시 연결한다.
+ * - 다시 연결되면 등록된 코인 전체를 다시 구독한다.
+ *
+ * Listener 콜백은 WebSocket reader 스레드에서 호출되므로 오래 걸리는 작업은 다른 스레드로 넘겨야 한다.
+ */
+public class BithumbWebSocketFeed {
+    public static final String URL_DEFAULT = "wss://pubwss.bithumb.com/pub/ws";
+    public static final long HEARTBEAT_INTERVAL_DEFAULT_MS = 15 * 1000;
+    public static final long STALE_TIMEOUT_DEFAULT_MS = 45 * 1000;
+    public static final long RECONNECT_DELAY_MIN_DEFAULT_MS = 1000;
+    public static final long RECONNECT_DELAY_MAX_DEFAULT_MS = 30 * 1000;
+
+    private static final String[] MESSAGE_FIELDS = {"type", "content", "status", "resmsg"};
+    private static final String[] MESSAGE_TYPES = {"ticker", "transaction", "orderbookdepth"};
+    private static final String[] CONTENT_FIELDS = {"symbol", "tickType", "closePrice", "chgRate", "list"};
+    private static final String[] TRANSACTION_FIELDS = {"symbol", "buySellGb", "contPrice", "contQty"};
+    private static final String[] DEPTH_FIELDS = {"symbol", "orderType", "price", "quantity"};
+    private static final String[] ORDER_TYPES = {"bid", "ask"};
+    private static final String TICK_TYPE = "24H";
+
+    private static BithumbWebSocketFeed gFeed;
+
+    /**
+     * 시세 수신 콜백. 필요한 메소드만 구현하면 된다.
+     */
+    public interface Listener {
+        default void onConnectionChanged(boolean connected) {}
+
+        /**
+         * @param changeRate 24시간 등락률 (%)
+         */
+        default void onTicker(String symbol, double closePrice, double changeRate) {}
+
+        /**
+         * @param buy 매수 체결이면 true
+         */
+        default void onTrade(String symbol, double price, double quantity, boolean buy) {}
+
+        /**
+         * 호가 변경분. quantity가 0이면 해당 가격의 호가가 없어진 것이다.
+         */
+        default void onOrderbookDepth(String symbol, boolean bid, double price, double quantity) {}
+    }
+
+    private final URI uri;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Set<String> symbols = new LinkedHashSet<>();
+    private final ConcurrentHashMap<String, Double> lastPrices = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile long heartbeatIntervalMs = HEARTBEAT_INTERVAL_DEFAULT_MS;
+    private volatile long staleTimeoutMs = STALE_TIMEOUT_DEFAULT_MS;
+    private volatile long reconnectDelayMinMs = RECONNECT_DELAY_MIN_DEFAULT_MS;
+    private volatile long reconnectDelayMaxMs = RECONNECT_DELAY_MAX_DEFAULT_MS;
+
+    // 아래 상태는 synchronized(this)로 보호한다.
+    private boolean running;
+    private WebSocketClient client;
+    private boolean connected;
+    private long reconnectDelayMs;
+    private ScheduledFuture<?> heartbeatTask;
+    private ScheduledFuture<?> reconnectTask;
+
+    private volatile long lastFrameNanos;
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong connectCount = new AtomicLong();
+    private final AtomicLong staleCount = new AtomicLong();
+
+    public BithumbWebSocketFeed(String url) {
+        this.uri = URI.create(url);
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "bithumb-ws");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized BithumbWebSocketFeed getInstance() {
+        if (gFeed == null)
+            gFeed = new BithumbWebSocketFeed(URL_DEFAULT);
+        return gFeed;
+    }
+
+    public void setHeartbeat(long intervalMs, long staleTimeoutMs) {
+        this.heartbeatIntervalMs = intervalMs;
+        this.staleTimeoutMs = staleTimeoutMs;
+    }
+
+    public void setReconnectDelay(long minMs, long maxMs) {
+        this.reconnectDelayMinMs = minMs;
+        this.reconnectDelayMaxMs = Math.max(minMs, maxMs);
+    }
+
+    public void addListener(Listener listener) {
+        if (!listeners.contains(listener))
+            listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 코인을 구독 목록에 추가한다. 연결되어 있으면 바로 구독 요청을 보낸다.
+     * @param coinType "BTC", "ETH" 등
+     */
+    public void subscribe(String coinType) {
+        String symbol = toSymbol(coinType);
+        synchronized (this) {
+            if (!symbols.add(symbol) || !connected)
+                return;
+        }
+        scheduler.execute(this::sendSubscriptions);
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public synchronized boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * 연결을 시작한다. 이미 시작되어 있으면 아무 것도 하지 않는다.
+     */
+    public synchronized void start() {
+        if (running)
+            return;
+        running = true;
+        reconnectDelayMs = reconnectDelayMinMs;
+        scheduler.execute(this::connect);
+        heartbeatTask = scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        WebSocketClient current;
+        synchronized (this) {
+            if (!running)
+                return;
+            running = false;
+            current = client;
+            client = null;
+            if (heartbeatTask != null)
+                heartbeatTask.cancel(false);
+            if (reconnectTask != null)
+                reconnectTask.cancel(false);
+            heartbeatTask = null;
+            reconnectTask = null;
+        }
+        if (current != null)
+            current.close();
+    }
+
+    /**
+     * 마지막 체결가. 체결 정보가 없으면 ticker 종가, 둘 다 없으면 NaN을 리턴한다.
+     */
+    public double getLastPrice(String coinType) {
+        Double price = lastPrices.get(toSymbol(coinType));
+        return price != null ? price : Double.NaN;
+    }
+
+    private static String toSymbol(String coinType) {
+        return coinType.toUpperCase(Locale.US) + "_KRW";
+    }
+
+    private void connect() {
+        WebSocketClient newClient;
+        synchronized (this) {
+            reconnectTask = null;
+            if (!running || client != null)
+                return;
+            newClient = new WebSocketClient(uri, socketListener);
+            client = newClient;
+        }
+
+        try {
+            newClient.connect();
+        } catch (IOException e) {
+            synchronized (this) {
+                if (client == newClient)
+                    client = null;
+            }
+            scheduleReconnect();
+        }
+    }
+
+    private void scheduleReconnect() {
+        synchronized (this) {
+            if (!running || reconnectTask != null)
+                return;
+            long delay = reconnectDelayMs;
+            reconnectDelayMs = Math.min(reconnectDelayMaxMs, reconnectDelayMs * 2);
+            reconnectTask = scheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void heartbeat() {
+        WebSocketClient current;
+        synchronized (this) {
+            current = connected ? client : null;
+        }
+        if (current == null)
+            return;
+
+        if (System.nanoTime() - lastFrameNanos > TimeUnit.MILLISECONDS.toNanos(staleTimeoutMs)) {
+            // 응답이 없는 연결은 닫는다. onClose에서 다시 연결한다.
+            staleCount.incrementAndGet();
+            current.close();
+            return;
+        }
+
+        try {
+            current.sendPing();
+        } catch (IOException e) {
+            current.close();
+        }
+    }
+
+    private void sendSubscriptions() {
+        WebSocketClient current;
+        List<String> symbolList;
+        synchronized (this) {
+            if (!connected || symbols.isEmpty())
+                return;
+            current = client;
+            symbolList = new ArrayList<>(symbols);
+        }
+
+        StringBuilder array = new StringBuilder("[");
+        for (int i = 0; i < symbolList.size(); i++) {
+            if (i > 0)
+                array.append(',');
+            array.append('"').append(symbolList.get(i)).append('"');
+        }
+        array.append(']');
+
+        try {
+            current.sendText("{\"type\":\"ticker\",\"symbols\":" + array + ",\"tickTypes\":[\"" + TICK_TYPE + "\"]}");
+            current.sendText("{\"type\":\"transaction\",\"symbols\":" + array + "}");
+            current.sendText("{\"type\":\"orderbookdepth\",\"symbols\":" + array + "}");
+        } catch (IOException e) {
+            current.close();
+        }
+    }
+
+    private final WebSocketClient.Listener socketListener = new WebSocketClient.Listener() {
+        @Override
+        public void onOpen(WebSocketClient source) {
+            boolean superseded;
+            synchronized (BithumbWebSocketFeed.this) {
+                superseded = source != client;
+                if (!superseded) {
+                    connected = true;
+                    reconnectDelayMs = reconnectDelayMinMs;
+                }
+            }
+            if (superseded) {
+                // stop() 등으로 더 이상 쓰지 않는 연결은 socket과 reader 스레드가 남지 않도록 닫는다.
+                source.close();
+                return;
+            }
+            lastFrameNanos = System.nanoTime();
+            connectCount.incrementAndGet();
+            sendSubscriptions();
+            for (Listener listener : listeners)
+                listener.onConnectionChanged(true);
+        }
+
+        @Override
+        public void onText(WebSocketClient source, String text) {
+            lastFrameNanos = System.nanoTime();
+            messageCount.incrementAndGet();
+            try {
+                dispatch(text);
+            } catch (RuntimeException e) {
+                // 형식이 다른 메시지는 무시한다.
+            }
+        }
+
+        @Override
+        public void onPong(WebSocketClient source) {
+            lastFrameNanos = System.nanoTime();
+        }
+
+        @Override
+        public void onClose(WebSocketClient source, int code, String reason) {
+            boolean wasConnected;
+            synchronized (BithumbWebSocketFeed.this) {
+                if (source != client)
+                    return;
+                wasConnected = connected;
+                connected = false;
+                client = null;
+            }
+            if (wasConnected) {
+                for (Listener listener : listeners)
+                    listener.onConnectionChanged(false);
+            }
+            scheduleReconnect();
+        }
+    };
+
+    private void dispatch(String text) {
+        JsonCursor cursor = new JsonCursor(text);
+        if (!cursor.peekObject())
+            return;
+
+        int type = -1;
+        cursor.beginObject();
+        while (cursor.hasNext()) {
+            switch (cursor.nextName(MESSAGE_FIELDS)) {
+                case 0:
+                    type = cursor.nextStringIndex(MESSAGE_TYPES);
+                    break;
+                case 1:
+                    // 빗썸은 type을 content보다 먼저 보낸다.
+                    if (type == 0)
+                        readTicker(cursor);
+                    else if (type == 1)
+                        readList(cursor, true);
+                    else if (type == 2)
+                        readList(cursor, false);
+                    else
+                        cursor.skipValue();
+                    break;
+                default:
+                    cursor.skipValue();
+                    break;
+            }
+        }
+    }
+
+    private void readTicker(JsonCursor cursor) {
+        String symbol = null;
+        String tickType = null;
+        double closePrice = Double.NaN;
+        double changeRate = Double.NaN;
+
+        cursor.beginObject();
+        while (cursor.hasNext()) {
+            switch (cursor.nextName(CONTENT_FIELDS)) {
+                case 0: symbol = cursor.nextString(); break;
+                case 1: tickType = cursor.nextString(); break;
+                case 2: closePrice = cursor.nextDouble(); break;
+                case 3: changeRate = cursor.nextDouble(); break;
+                default: cursor.skipValue(); break;
+            }
+        }
+        cursor.endObject();
+
+        if (symbol == null || Double.isNaN(closePrice) || !TICK_TYPE.equals(tickType))
+            return;
+        if (!lastPrices.containsKey(symbol))
+            lastPrices.put(symbol, closePrice);
+        for (Listener listener : listeners)
+            listener.onTicker(symbol, closePrice, changeRate);
+    }
+
+    // transaction과 orderbookdepth는 모두 content.list 배열로 온다.
+    private void readList(JsonCursor cursor, boolean transaction) {
+        cursor.beginObject();
+        while (cursor.hasNext()) {
+            if (cursor.nextName(CONTENT_FIELDS) != 4 || !cursor.peekArray()) {
+                cursor.skipValue();
+                continue;
+            }
+
+            cursor.beginArray();
+            while (cursor.hasNext()) {
+                if (transaction)
+                    readTrade(cursor);
+                else
+                    readDepth(cursor);
+            }
+            cursor.endArray();
+        }
+        cursor.endObject();
+    }
+
+    private void readTrade(JsonCursor cursor) {
+        String symbol = null;
+        boolean buy = false;
+        double price = Double.NaN;
+        double quantity = Double.NaN;
+
+        cursor.beginObject();
+        while (cursor.hasNext()) {
+            switch (cursor.nextName(TRANSACTION_FIELDS)) {
+                case 0: symbol = cursor.nextString(); break;
+                case 1: buy = cursor.nextLong() == 2; break; // 1 : 매도 체결, 2 : 매수 체결
+                case 2: price = cursor.nextDouble(); break;
+                case 3: quantity = cursor.nextDouble(); break;
+                default: cursor.skipValue(); break;
+            }
+        }
+        cursor.endObject();
+
+        if (symbol == null || Double.isNaN(price))
+            return;
+        lastPrices.put(symbol, price);
+        for (Listener listener : listeners)
+            listener.onTrade(symbol, price, quantity, buy);
+    }
+
+    private void readDepth(JsonCursor cursor) {
+        String symbol = null;
+        int orderType = -1;
+        double price = Double.NaN;
+        double quantity = Double.NaN;
+
+        cursor.beginObject();
+        while (cursor.hasNext()) {
+            switch (cursor.nextName(DEPTH_FIELDS)) {
+                case 0: symbol = cursor.nextString(); break;
+                case 1: orderType = cursor.nextStringIndex(ORDER_TYPES); break;
+                case 2: price = cursor.nextDouble(); break;
+                case 3: quantity = cursor.nextDouble(); break;
+                default: cursor.skipValue(); break;
+            }
+        }
+        cursor.endObject();
+
+        if (symbol == null || orderType < 0 || Double.isNaN(price))
+            return;
+        for (Listener listener : listeners)
+            listener.onOrderbookDepth(symbol, orderType == 0, price, quantity);
+    }
+
+    public Stats getStats() {
+        return new Stats(isConnected(), connectCount.get(), staleCount.get(), messageCount.get());
+    }
+
+    /**
+     * WebSocket 수신 통계
+     */
+    public static class Stats {
+        public final boolean connected;
+        public final long connectCount;     // 연결에 성공한 횟수 (재연결 포함)
+        public final long staleCount;       // 응답이 없어 끊은 횟수
+        public final long messageCount;     // 받은 text 메시지 수
+
+        Stats(boolean connected, long connectCount, long staleCount, long messageCount) {
+            this.connected = connected;
+            this.connectCount = connectCount;
+            this.staleCount = staleCount;
+            this.messageCount = messageCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "connected=%b, connects=%d, stale=%d, messages=%d",
+                    connected, connectCount, staleCount, messageCount);
+        }
+    }
+}
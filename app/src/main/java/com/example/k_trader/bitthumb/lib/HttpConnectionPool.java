@@ -0,0 +1,251 @@
+package com.example.k_trader.bitthumb.lib;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Api_Client가 사용하는 keep-alive 연결 풀
+ * 플랫폼 HttpURLConnection의 keep-alive 캐시를 사용하되, 호스트별 최대 연결 수와 유휴 연결 만료 시간을 설정하고
+ * 모든 https 요청에 동일한 SSLSocketFactory를 사용하도록 하여 캐시된 소켓이 재사용되게 한다.
+ * (HttpURLConnection은 SSLSocketFactory가 다르면 같은 호스트라도 소켓을 재사용하지 않는다.)
+ */
+public class HttpConnectionPool {
+    public static final int MAX_CONNECTIONS_PER_HOST_DEFAULT = 5;
+    public static final long KEEP_ALIVE_DURATION_DEFAULT_MS = 5 * 60 * 1000; // 5분
+
+    private static final HttpConnectionPool gPool = new HttpConnectionPool();
+
+    private final ConcurrentHashMap<String, HostPermits> hostPermits = new ConcurrentHashMap<>();
+    private final CountingSocketFactory socketFactory = new CountingSocketFactory(HttpsURLConnection.getDefaultSSLSocketFactory());
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong totalRequestNanos = new AtomicLong();
+
+    private volatile int maxConnectionsPerHost;
+    private volatile long keepAliveDurationMs;
+
+    private HttpConnectionPool() {
+        configure(MAX_CONNECTIONS_PER_HOST_DEFAULT, KEEP_ALIVE_DURATION_DEFAULT_MS);
+    }
+
+    public static HttpConnectionPool getInstance() {
+        return gPool;
+    }
+
+    /**
+     * 호스트별 최대 연결 수와 유휴 연결 만료 시간을 설정한다.
+     * 호스트별 동시 요청 수 제한은 이미 진행 중인 요청에는 영향을 주지 않으며, 이후 요청부터 바로 적용된다.
+     * 플랫폼 keep-alive 캐시(keep-alive 사용 여부, 유휴 연결 만료 시간, 캐시할 소켓 수)는 system property로 설정되는데,
+     * 플랫폼이 첫 요청 때 한 번만 읽으므로 첫 요청 전에 호출한 설정만 반영된다. 이후에 바꾼 값은 앱을 다시 시작해야 적용된다.
+     */
+    public synchronized void configure(int maxConnectionsPerHost, long keepAliveDurationMs) {
+        if (maxConnectionsPerHost < 1)
+            maxConnectionsPerHost = 1;
+        if (keepAliveDurationMs < 0)
+            keepAliveDurationMs = 0;
+
+        // 진행 중인 요청이 가진 permit은 release()로 같은 semaphore에 돌아오므로, 호스트별 semaphore는 그대로 두고 개수만 바꾼다.
+        int delta = maxConnectionsPerHost - this.maxConnectionsPerHost;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.keepAliveDurationMs = keepAliveDurationMs;
+        for (HostPermits permits : hostPermits.values())
+            permits.resize(delta);
+
+        // 플랫폼 keep-alive 캐시 설정 (첫 요청 전에만 반영된다.)
+        // http.keepAliveDuration 은 Android(OkHttp 기반 HttpURLConnection)의 유휴 연결 만료 시간이고,
+        // http.keepAlive.time.server 는 JVM에서 서버가 Keep-Alive timeout을 알려주지 않았을 때 사용된다.
+        HttpRequest.keepAlive(keepAliveDurationMs > 0);
+        HttpRequest.maxConnections(maxConnectionsPerHost);
+        System.setProperty("http.keepAliveDuration", String.valueOf(keepAliveDurationMs));
+        System.setProperty("http.keepAlive.time.server", String.valueOf(TimeUnit.MILLISECONDS.toSeconds(keepAliveDurationMs)));
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public long getKeepAliveDurationMs() {
+        return keepAliveDurationMs;
+    }
+
+    /**
+     * 요청 전에 호출하여 호스트별 연결 슬롯을 확보하고 연결을 풀 설정에 맞게 준비한다.
+     * 반드시 응답 body를 끝까지 읽은 뒤 {@link #release(HttpRequest, long)} 를 호출해야 소켓이 풀로 반환된다.
+     */
+    public void acquire(HttpRequest request) {
+        permitsFor(request.getConnection().getURL()).acquireUninterruptibly();
+
+        if (request.getConnection() instanceof HttpsURLConnection)
+            ((HttpsURLConnection) request.getConnection()).setSSLSocketFactory(socketFactory);
+
+        request.header("Connection", "keep-alive");
+    }
+
+    /**
+     * 응답을 모두 읽은 뒤 호출한다. disconnect()를 호출하지 않으므로 소켓은 keep-alive 캐시에 남는다.
+     */
+    public void release(HttpRequest request, long startNanos) {
+        requestCount.incrementAndGet();
+        totalRequestNanos.addAndGet(System.nanoTime() - startNanos);
+        permitsFor(request.getConnection().getURL()).release();
+    }
+
+    private Semaphore permitsFor(URL url) {
+        String key = url.getProtocol() + "://" + url.getHost() + ":" + url.getPort();
+        Semaphore permits = hostPermits.get(key);
+        if (permits != null)
+            return permits;
+        // configure()가 개수를 바꾸는 중에 이전 설정으로 만들어지지 않도록 같은 lock에서 만든다.
+        synchronized (this) {
+            return hostPermits.computeIfAbsent(key, k -> new HostPermits(maxConnectionsPerHost));
+        }
+    }
+
+    /**
+     * 전체 permit 개수를 바꿀 수 있는 호스트별 semaphore
+     * 줄일 때 이미 나간 permit이 더 많으면 사용 가능한 개수가 음수가 되고, 그만큼 반환될 때까지 새 요청은 기다린다.
+     */
+    static class HostPermits extends Semaphore {
+        private static final long serialVersionUID = 2848356280724984822L;
+
+        HostPermits(int permits) {
+            super(permits, true);
+        }
+
+        void resize(int delta) {
+            if (delta > 0)
+                release(delta);
+            else if (delta < 0)
+                reducePermits(-delta);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(requestCount.get(), socketFactory.connectionCount.get(),
+                socketFactory.handshakeCount.get(), totalRequestNanos.get());
+    }
+
+    public void resetStats() {
+        requestCount.set(0);
+        totalRequestNanos.set(0);
+        socketFactory.connectionCount.set(0);
+        socketFactory.handshakeCount.set(0);
+    }
+
+    /**
+     * 연결 풀 통계
+     */
+    public static class Stats {
+        public final long requestCount;         // 완료된 요청 수
+        public final long connectionCount;      // 새로 연 소켓 수
+        public final long handshakeCount;       // 완료된 TLS handshake 수
+        public final long totalRequestNanos;    // 요청 소요 시간 합계
+
+        Stats(long requestCount, long connectionCount, long handshakeCount, long totalRequestNanos) {
+            this.requestCount = requestCount;
+            this.connectionCount = connectionCount;
+            this.handshakeCount = handshakeCount;
+            this.totalRequestNanos = totalRequestNanos;
+        }
+
+        /**
+         * 새 연결 없이 기존 소켓으로 처리된 요청의 비율 (0.0 ~ 1.0)
+         */
+        public double getReuseRatio() {
+            if (requestCount == 0)
+                return 0.0;
+            return Math.max(0, requestCount - connectionCount) / (double) requestCount;
+        }
+
+        public long getAverageRequestMillis() {
+            if (requestCount == 0)
+                return 0;
+            return TimeUnit.NANOSECONDS.toMillis(totalRequestNanos / requestCount);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.getDefault(), "requests=%d, connections=%d, handshakes=%d, reuse=%.1f%%, avg=%dms",
+                    requestCount, connectionCount, handshakeCount, getReuseRatio() * 100, getAverageRequestMillis());
+        }
+    }
+
+    /**
+     * 새 소켓 생성과 TLS handshake 횟수를 세기 위한 SSLSocketFactory wrapper
+     */
+    static class CountingSocketFactory extends SSLSocketFactory {
+        private final SSLSocketFactory delegate;
+        final AtomicLong connectionCount = new AtomicLong();
+        final AtomicLong handshakeCount = new AtomicLong();
+
+        private final HandshakeCompletedListener handshakeListener = new HandshakeCompletedListener() {
+            @Override
+            public void handshakeCompleted(HandshakeCompletedEvent event) {
+                handshakeCount.incrementAndGet();
+            }
+        };
+
+        CountingSocketFactory(SSLSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        private Socket track(Socket socket) {
+            connectionCount.incrementAndGet();
+            if (socket instanceof SSLSocket)
+                ((SSLSocket) socket).addHandshakeCompletedListener(handshakeListener);
+            return socket;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return track(delegate.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(Socket s, String host, int port, boolean autoClose) throws IOException {
+            return track(delegate.createSocket(s, host, port, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return track(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return track(delegate.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return track(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            return track(delegate.createSocket(address, port, localAddress, localPort));
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.example.k_trader.bitthumb.lib;
+
+import com.example.k_trader.base.CoinUnits;
+
+/**
+ * 응답 문자열을 처음부터 끝까지 한 번만 훑으며 값을 꺼내는 JSON pull parser
+ * 중간 Map/List를 만들지 않으며, 숫자는 문자열("1,234", "+ 0.01")이든 JSON 숫자든 그 자리에서 바로 변환한다.
+ * 필드 이름은 미리 준비한 이름 목록과 제자리에서 비교하므로 이름 문자열도 만들지 않는다.
+ */
+final class JsonCursor {
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final String json;
+    private final int length;
+    private int pos;
+    private int lastDigitCount;
+
+    JsonCursor(String json) {
+        this.json = json;
+        this.length = json.length();
+    }
+
+    boolean isEmpty() {
+        skipWhitespace();
+        return pos >= length;
+    }
+
+    boolean peekObject() {
+        skipWhitespace();
+        return pos < length && json.charAt(pos) == '{';
+    }
+
+    boolean peekArray() {
+        skipWhitespace();
+        return pos < length && json.charAt(pos) == '[';
+    }
+
+    boolean peekNull() {
+        skipWhitespace();
+        return json.startsWith("null", pos);
+    }
+
+    void beginObject() {
+        expect('{');
+    }
+
+    void endObject() {
+        expect('}');
+    }
+
+    void beginArray() {
+        expect('[');
+    }
+
+    void endArray() {
+        expect(']');
+    }
+
+    /**
+     * 현재 object/array에 다음 항목이 있으면 구분자(',')를 건너뛰고 true를 리턴한다.
+     */
+    boolean hasNext() {
+        skipWhitespace();
+        if (pos >= length)
+            throw error("unexpected end");
+
+        char c = json.charAt(pos);
+        if (c == ',') {
+            pos++;
+            skipWhitespace();
+            return true;
+        }
+        return c != '}' && c != ']';
+    }
+
+    /**
+     * 다음 필드 이름을 읽고 ':' 까지 소비한다.
+     * @return names 중 일치하는 항목의 index, 없으면 -1
+     */
+    int nextName(String[] names) {
+        skipWhitespace();
+        expect('"');
+        int start = pos;
+        boolean escaped = false;
+        while (pos < length && json.charAt(pos) != '"') {
+            if (json.charAt(pos) == '\\') {
+                escaped = true;
+                pos++;
+            }
+            pos++;
+        }
+        int end = pos;
+        expect('"');
+        expect(':');
+
+        if (escaped)
+            return indexOf(names, unescape(start, end));
+
+        int nameLength = end - start;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].length() == nameLength && json.regionMatches(start, names[i], 0, nameLength))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 문자열 값을 읽어 values 중 일치하는 항목의 index를 리턴한다. 없으면 -1
+     */
+    int nextStringIndex(String[] values) {
+        skipWhitespace();
+        if (pos >= length || json.charAt(pos) != '"')
+            return indexOf(values, nextString());
+
+        pos++;
+        int start = pos;
+        while (pos < length && json.charAt(pos) != '"') {
+            if (json.charAt(pos) == '\\') {
+                pos = start - 1;
+                return indexOf(values, nextString());
+            }
+            pos++;
+        }
+        int end = pos;
+        expect('"');
+
+        int valueLength = end - start;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].length() == valueLength && json.regionMatches(start, values[i], 0, valueLength))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 문자열 값을 리턴한다. 숫자/boolean은 원문 그대로, null은 null로 리턴한다.
+     */
+    String nextString() {
+        skipWhitespace();
+        if (pos >= length)
+            throw error("unexpected end");
+
+        char c = json.charAt(pos);
+        if (c == '"') {
+            pos++;
+            int start = pos;
+            boolean escaped = false;
+            while (pos < length && json.charAt(pos) != '"') {
+                if (json.charAt(pos) == '\\') {
+                    escaped = true;
+                    pos++;
+                }
+                pos++;
+            }
+            int end = pos;
+            expect('"');
+            return escaped ? unescape(start, end) : json.substring(start, end);
+        }
+
+        int start = pos;
+        skipLiteral();
+        String literal = json.substring(start, pos);
+        return literal.equals("null") ? null : literal;
+    }
+
+    /**
+     * 숫자 값을 리턴한다. 문자열로 감싼 숫자의 공백, 천단위 ',' 와 '+' 부호는 무시한다.
+     * 값이 null 이거나 비어 있으면 NaN을 리턴한다.
+     */
+    double nextDouble() {
+        long range = nextNumberRange();
+        return parseDouble((int) (range >>> 32), (int) range);
+    }
+
+    /**
+     * 숫자 값을 double을 거치지 않고 10^scaleDigits 배 한 long으로 읽는다. (코인 수량, 원화 금액)
+     * scaleDigits 아래 자리는 round가 true이면 반올림, false이면 버린다. 값이 null 이거나 비어 있으면 Long.MIN_VALUE를 리턴한다.
+     */
+    long nextFixed(int scaleDigits, boolean round) {
+        long range = nextNumberRange();
+        return CoinUnits.parse(json, (int) (range >>> 32), (int) range, scaleDigits, round);
+    }
+
+    // 다음 값의 [start, end)를 상위/하위 32bit에 담아 리턴한다. 문자열이면 따옴표 안쪽이다.
+    private long nextNumberRange() {
+        skipWhitespace();
+        if (pos >= length)
+            throw error("unexpected end");
+
+        char c = json.charAt(pos);
+        int start;
+        int end;
+        if (c == '"') {
+            pos++;
+            start = pos;
+            while (pos < length && json.charAt(pos) != '"')
+                pos++;
+            end = pos;
+            expect('"');
+        } else {
+            start = pos;
+            skipLiteral();
+            end = pos;
+        }
+        return ((long) start << 32) | end;
+    }
+
+    long nextLong() {
+        double value = nextDouble();
+        return Double.isNaN(value) ? 0 : (long) value;
+    }
+
+    /**
+     * 정수 값("1557543507259903")을 double을 거치지 않고 long으로 읽는다. 소수점 이하는 버린다.
+     * 읽은 정수부 자릿수는 {@link #lastDigitCount()} 로 확인할 수 있다. (transfer_date의 ms/us 구분용)
+     */
+    long nextLongExact() {
+        skipWhitespace();
+        if (pos >= length)
+            throw error("unexpected end");
+
+        boolean quoted = json.charAt(pos) == '"';
+        if (quoted)
+            pos++;
+
+        long result = 0;
+        boolean negative = false;
+        boolean fraction = false;
+        lastDigitCount = 0;
+        while (pos < length) {
+            char c = json.charAt(pos);
+            if (quoted ? c == '"' : (c == ',' || c == '}' || c == ']'))
+                break;
+            if (c >= '0' && c <= '9' && !fraction) {
+                result = result * 10 + (c - '0');
+                lastDigitCount++;
+            } else if (c == '-') {
+                negative = true;
+            } else if (c == '.') {
+                fraction = true;
+            }
+            pos++;
+        }
+        if (quoted)
+            expect('"');
+        return negative ? -result : result;
+    }
+
+    int lastDigitCount() {
+        return lastDigitCount;
+    }
+
+    void skipValue() {
+        skipWhitespace();
+        if (pos >= length)
+            throw error("unexpected end");
+
+        char c = json.charAt(pos);
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            boolean inString = false;
+            for (; pos < length; pos++) {
+                char ch = json.charAt(pos);
+                if (inString) {
+                    if (ch == '\\')
+                        pos++;
+                    else if (ch == '"')
+                        inString = false;
+                } else if (ch == '"') {
+                    inString = true;
+                } else if (ch == '{' || ch == '[') {
+                    depth++;
+                } else if (ch == '}' || ch == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        pos++;
+                        return;
+                    }
+                }
+            }
+            throw error("unterminated value");
+        } else if (c == '"') {
+            pos++;
+            while (pos < length && json.charAt(pos) != '"') {
+                if (json.charAt(pos) == '\\')
+                    pos++;
+                pos++;
+            }
+            expect('"');
+        } else {
+            skipLiteral();
+        }
+    }
+
+    private double parseDouble(int start, int end) {
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean sawDigit = false;
+        boolean negative = false;
+        boolean fraction = false;
+
+        for (int i = start; i < end; i++) {
+            char c = json.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (digits > 0 || c != '0')
+                    digits++;
+                if (digits > 18)
+                    return parseDoubleSlow(start, end);
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction)
+                    scale++;
+            } else if (c == '.') {
+                fraction = true;
+            } else if (c == '-') {
+                negative = true;
+            } else if (c == ' ' || c == ',' || c == '+') {
+                // "1,234,000", "+ 0.01286775", "- 0.1331" 형식
+            } else if (c == 'n' && json.startsWith("null", i)) {
+                return Double.NaN;
+            } else {
+                // 지수 표기 등은 표준 파서에 맡긴다.
+                return parseDoubleSlow(start, end);
+            }
+        }
+
+        if (!sawDigit)
+            return Double.NaN;
+
+        // mantissa와 10^scale이 모두 double로 정확히 표현되면 나눗셈 한 번의 결과가 Double.parseDouble과 같다.
+        if (mantissa > MAX_EXACT_MANTISSA || scale >= POW10.length)
+            return parseDoubleSlow(start, end);
+
+        double value = scale == 0 ? mantissa : mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlow(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = json.charAt(i);
+            if (c != ' ' && c != ',' && c != '+')
+                sb.append(c);
+        }
+        if (sb.length() == 0)
+            return Double.NaN;
+        return Double.parseDouble(sb.toString());
+    }
+
+    private void skipLiteral() {
+        while (pos < length) {
+            char c = json.charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t')
+                break;
+            pos++;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < length) {
+            char c = json.charAt(pos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t')
+                break;
+            pos++;
+        }
+    }
+
+    private void expect(char expected) {
+        skipWhitespace();
+        if (pos >= length || json.charAt(pos) != expected)
+            throw error("expected '" + expected + "'");
+        pos++;
+    }
+
+    private String unescape(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = json.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+
+            char e = json.charAt(++i);
+            switch (e) {
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    sb.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default: sb.append(e); break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int indexOf(String[] names, String name) {
+        if (name == null)
+            return -1;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name))
+                return i;
+        }
+        return -1;
+    }
+
+    private IllegalStateException error(String message) {
+        return new IllegalStateException("JSON " + message + " at " + pos);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.k_trader.bitthumb.lib;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 응답 시간 분포. 고정된 구간(bucket)별 요청 수만 세므로 기록할 때 메모리를 더 쓰지 않는다.
+ * 최근 응답 시간을 반영하기 위해 5분마다 구간을 새로 시작하며, 백분위수는 현재 구간과 직전 구간을 합쳐 계산한다.
+ * 백분위수는 해당 bucket의 상한값이므로 실제보다 조금 크게 나올 수 있다.
+ */
+public class LatencyHistogram {
+    private static final long[] BOUNDS_MS = {5, 10, 20, 50, 75, 100, 150, 200, 300, 500, 750, 1000, 1500, 2000, 3000, 5000, 7500, 10000, 20000};
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private long[] current = new long[BOUNDS_MS.length + 1];
+    private long[] previous = new long[BOUNDS_MS.length + 1];
+    private long windowStartNanos = System.nanoTime();
+
+    private long totalCount;
+    private long totalNanos;
+    private long maxNanos;
+
+    public synchronized void record(long elapsedNanos) {
+        rotate(System.nanoTime());
+
+        long ms = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        int index = 0;
+        while (index < BOUNDS_MS.length && ms > BOUNDS_MS[index])
+            index++;
+        current[index]++;
+
+        totalCount++;
+        totalNanos += elapsedNanos;
+        maxNanos = Math.max(maxNanos, elapsedNanos);
+    }
+
+    private void rotate(long now) {
+        if (now - windowStartNanos < WINDOW_NANOS)
+            return;
+        // 두 구간 이상 지났다면 직전 구간도 비운다.
+        long[] recycled = previous;
+        previous = now - windowStartNanos < 2 * WINDOW_NANOS ? current : new long[current.length];
+        Arrays.fill(recycled, 0);
+        current = recycled;
+        windowStartNanos = now;
+    }
+
+    /**
+     * 최근 두 구간의 요청 수
+     */
+    public synchronized long getCount() {
+        rotate(System.nanoTime());
+        long count = 0;
+        for (int i = 0; i < current.length; i++)
+            count += current[i] + previous[i];
+        return count;
+    }
+
+    /**
+     * 최근 두 구간의 백분위수(ms). 기록이 없으면 0, 가장 큰 bucket이면 최대 응답 시간을 리턴한다.
+     */
+    public synchronized long getPercentileMillis(double percentile) {
+        rotate(System.nanoTime());
+        long count = 0;
+        for (int i = 0; i < current.length; i++)
+            count += current[i] + previous[i];
+        if (count == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < current.length; i++) {
+            seen += current[i] + previous[i];
+            if (seen >= Math.max(1, rank))
+                return i < BOUNDS_MS.length ? BOUNDS_MS[i] : TimeUnit.NANOSECONDS.toMillis(maxNanos);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos);
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(totalCount, totalCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos / totalCount),
+                getPercentileMillis(50), getPercentileMillis(90), getPercentileMillis(99), TimeUnit.NANOSECONDS.toMillis(maxNanos));
+    }
+
+    /**
+     * 통계 조회용 값. count, avg, max는 전체 기간, 백분위수는 최근 두 구간 기준이다.
+     */
+    public static class Snapshot {
+        public final long count;
+        public final long avgMs;
+        public final long p50Ms;
+        public final long p90Ms;
+        public final long p99Ms;
+        public final long maxMs;
+
+        Snapshot(long count, long avgMs, long p50Ms, long p90Ms, long p99Ms, long maxMs) {
+            this.count = count;
+            this.avgMs = avgMs;
+            this.p50Ms = p50Ms;
+            this.p90Ms = p90Ms;
+            this.p99Ms = p99Ms;
+            this.maxMs = maxMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "count=%d, avg=%dms, p50=%dms, p90=%dms, p99=%dms, max=%dms",
+                    count, avgMs, p50Ms, p90Ms, p99Ms, maxMs);
+        }
+    }
+}
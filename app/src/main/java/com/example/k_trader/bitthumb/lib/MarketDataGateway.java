@@ -0,0 +1,174 @@
+package com.example.k_trader.bitthumb.lib;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /public/* 시세 조회(orderbook, ticker)를 공유하는 gateway
+ * TradeJobService, MainPage, PlacedOrderPage 등이 같은 시세를 거의 동시에 요청하는 경우가 많아
+ * 같은 요청이 이미 진행 중이면 그 결과를 같이 기다리고(single-flight), 성공 응답은 endpoint별 유효 시간 동안 재사용한다.
+ *
+ * 유효 시간은 endpoint 앞부분(prefix) 기준으로 설정하며, 설정이 없는 endpoint는 캐시 없이 single-flight만 적용된다.
+ * status가 "0000"이 아닌 응답(5600 등)은 캐시하지 않는다.
+ */
+public class MarketDataGateway {
+    public static final long ORDERBOOK_FRESHNESS_DEFAULT_MS = 1000;
+    public static final long TICKER_FRESHNESS_DEFAULT_MS = 1000;
+
+    private static final MarketDataGateway gGateway = new MarketDataGateway();
+
+    private final ConcurrentHashMap<String, Long> freshness = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CachedResponse> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong cacheHitCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    public interface Loader {
+        String load();
+    }
+
+    private MarketDataGateway() {
+        setFreshness("/public/orderbook/", ORDERBOOK_FRESHNESS_DEFAULT_MS);
+        setFreshness("/public/ticker/", TICKER_FRESHNESS_DEFAULT_MS);
+    }
+
+    public static MarketDataGateway getInstance() {
+        return gGateway;
+    }
+
+    /**
+     * endpointPrefix로 시작하는 endpoint의 응답 재사용 시간을 설정한다. 0이면 캐시하지 않는다.
+     */
+    public void setFreshness(String endpointPrefix, long freshnessMs) {
+        freshness.put(endpointPrefix, Math.max(0, freshnessMs));
+        cache.clear();
+    }
+
+    public long getFreshness(String endpoint) {
+        long result = 0;
+        int matched = -1;
+        for (Map.Entry<String, Long> entry : freshness.entrySet()) {
+            String prefix = entry.getKey();
+            if (endpoint.startsWith(prefix) && prefix.length() > matched) {
+                matched = prefix.length();
+                result = entry.getValue();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 캐시된 응답이 유효하면 바로 리턴하고, 같은 key의 요청이 진행 중이면 그 결과를 기다린다.
+     * 둘 다 아니면 현재 스레드에서 loader를 실행한다.
+     *
+     * @param key 요청을 구분하는 값 (host + endpoint + query)
+     */
+    public String fetch(String key, String endpoint, Loader loader) {
+        requestCount.incrementAndGet();
+        long freshnessNanos = TimeUnit.MILLISECONDS.toNanos(getFreshness(endpoint));
+
+        CachedResponse cached = cache.get(key);
+        if (cached != null && System.nanoTime() - cached.loadedNanos < freshnessNanos) {
+            cacheHitCount.incrementAndGet();
+            return cached.body;
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalescedCount.incrementAndGet();
+            return join(running);
+        }
+
+        try {
+            String body = loader.load();
+            if (freshnessNanos > 0 && isSuccess(body))
+                cache.put(key, new CachedResponse(body, System.nanoTime()));
+            mine.complete(body);
+            return body;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public void invalidate() {
+        cache.clear();
+    }
+
+    private static String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    // 형식이 깨진 응답은 캐시하지 않는다.
+    private static boolean isSuccess(String body) {
+        try {
+            BithumbResponseDecoder.Response<Void> result = BithumbResponseDecoder.decodeStatus(body);
+            return result != null && result.isSuccess();
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private static class CachedResponse {
+        final String body;
+        final long loadedNanos;
+
+        CachedResponse(String body, long loadedNanos) {
+            this.body = body;
+            this.loadedNanos = loadedNanos;
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(requestCount.get(), cacheHitCount.get(), coalescedCount.get());
+    }
+
+    public void resetStats() {
+        requestCount.set(0);
+        cacheHitCount.set(0);
+        coalescedCount.set(0);
+    }
+
+    /**
+     * gateway 통계
+     */
+    public static class Stats {
+        public final long requestCount;     // 전체 요청 수
+        public final long cacheHitCount;    // 캐시로 처리된 요청 수
+        public final long coalescedCount;   // 진행 중인 요청에 합쳐진 요청 수
+
+        Stats(long requestCount, long cacheHitCount, long coalescedCount) {
+            this.requestCount = requestCount;
+            this.cacheHitCount = cacheHitCount;
+            this.coalescedCount = coalescedCount;
+        }
+
+        /**
+         * 실제로 네트워크 요청을 보낸 횟수
+         */
+        public long getNetworkCount() {
+            return requestCount - cacheHitCount - coalescedCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.getDefault(), "requests=%d, cacheHits=%d, coalesced=%d, network=%d",
+                    requestCount, cacheHitCount, coalescedCount, getNetworkCount());
+        }
+    }
+}
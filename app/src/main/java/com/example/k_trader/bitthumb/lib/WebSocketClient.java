@@ -0,0 +1,345 @@
+package com.example.k_trader.bitthumb.lib;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * 빗썸 WebSocket 시세 수신용 최소 RFC 6455 클라이언트
+ * text/ping/pong/close frame만 다루며 binary frame은 무시한다. 클라이언트가 보내는 frame은 모두 masking 한다.
+ * 수신은 별도의 reader 스레드에서 처리하며, Listener 콜백도 그 스레드에서 호출된다.
+ */
+public class WebSocketClient {
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int CONNECT_TIMEOUT_MS = 10000;
+    private static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_BINARY = 0x2;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+
+    public static final int CLOSE_NORMAL = 1000;
+    public static final int CLOSE_ABNORMAL = 1006;
+
+    public interface Listener {
+        void onOpen(WebSocketClient client);
+        void onText(WebSocketClient client, String text);
+        void onPong(WebSocketClient client);
+        void onClose(WebSocketClient client, int code, String reason);
+    }
+
+    private final URI uri;
+    private final Listener listener;
+    private final SecureRandom random = new SecureRandom();
+    private final Object writeLock = new Object();
+    private final AtomicBoolean closeNotified = new AtomicBoolean();
+
+    // close()는 다른 스레드에서 호출된다.
+    private volatile Socket socket;
+    private volatile InputStream in;
+    private volatile OutputStream out;
+    private volatile boolean closing;
+
+    public WebSocketClient(URI uri, Listener listener) {
+        this.uri = uri;
+        this.listener = listener;
+    }
+
+    /**
+     * 연결과 handshake를 마치고 reader 스레드를 시작한다. handshake가 끝날 때까지 현재 스레드를 막는다.
+     */
+    public void connect() throws IOException {
+        boolean secure = "wss".equalsIgnoreCase(uri.getScheme());
+        String host = uri.getHost();
+        int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
+
+        // 연결 중에 close()가 호출되면 이 소켓을 닫아 connect/handshake를 중단시킨다.
+        Socket plain = new Socket();
+        socket = plain;
+        try {
+            if (closing)
+                throw new IOException("closed");
+            plain.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            plain.setTcpNoDelay(true);
+            plain.setSoTimeout(CONNECT_TIMEOUT_MS);
+            if (secure) {
+                SSLSocket ssl = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault()).createSocket(plain, host, port, true);
+                socket = ssl;
+                ssl.startHandshake();
+            }
+
+            in = new BufferedInputStream(socket.getInputStream());
+            out = socket.getOutputStream();
+            handshake(host, port, secure);
+            // 연결 이후의 무응답은 heartbeat로 감지한다.
+            socket.setSoTimeout(0);
+        } catch (IOException e) {
+            // TLS 소켓은 plain 소켓도 함께 닫는다.
+            closeSocket();
+            throw e;
+        }
+
+        // handshake 중에 close()되었으면 onClose는 이미 전달되었으므로 소켓만 닫고 끝낸다.
+        if (closing) {
+            closeSocket();
+            return;
+        }
+        // onOpen()이 끝난 뒤에 수신을 시작하여 첫 메시지가 onOpen()보다 먼저 전달되지 않도록 한다.
+        listener.onOpen(this);
+        if (closing) {
+            closeSocket();
+            return;
+        }
+        Thread reader = new Thread(this::readLoop, "bithumb-ws-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void handshake(String host, int port, boolean secure) throws IOException {
+        byte[] nonce = new byte[16];
+        random.nextBytes(nonce);
+        String key = HttpRequest.Base64.encodeBytes(nonce);
+
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null)
+            path += "?" + uri.getRawQuery();
+        boolean defaultPort = port == (secure ? 443 : 80);
+
+        String request = "GET " + path + " HTTP/1.1\r\n"
+                + "Host: " + host + (defaultPort ? "" : ":" + port) + "\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: " + key + "\r\n"
+                + "Sec-WebSocket-Version: 13\r\n\r\n";
+        out.write(request.getBytes(UTF_8));
+        out.flush();
+
+        String statusLine = readLine();
+        if (statusLine == null || !statusLine.contains(" 101"))
+            throw new IOException("WebSocket handshake 실패 : " + statusLine);
+
+        String accept = null;
+        String line;
+        while ((line = readLine()) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().toLowerCase(Locale.US).equals("sec-websocket-accept"))
+                accept = line.substring(colon + 1).trim();
+        }
+
+        if (!expectedAccept(key).equals(accept))
+            throw new IOException("WebSocket handshake 실패 : Sec-WebSocket-Accept 불일치");
+    }
+
+    static String expectedAccept(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return HttpRequest.Base64.encodeBytes(sha1.digest((key + ACCEPT_GUID).getBytes(UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                int length = sb.length();
+                if (length > 0 && sb.charAt(length - 1) == '\r')
+                    sb.setLength(length - 1);
+                return sb.toString();
+            }
+            sb.append((char) c);
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    public void sendText(String text) throws IOException {
+        sendFrame(OPCODE_TEXT, text.getBytes(UTF_8));
+    }
+
+    public void sendPing() throws IOException {
+        sendFrame(OPCODE_PING, new byte[0]);
+    }
+
+    /**
+     * close frame을 보내고 연결을 닫는다. onClose는 한 번만 호출된다.
+     */
+    public void close() {
+        if (closing)
+            return;
+        closing = true;
+        try {
+            byte[] payload = {(byte) (CLOSE_NORMAL >> 8), (byte) (CLOSE_NORMAL & 0xFF)};
+            sendFrame(OPCODE_CLOSE, payload);
+        } catch (IOException e) {
+            // 이미 끊어진 연결
+        }
+        closeSocket();
+        notifyClose(CLOSE_NORMAL, "client close");
+    }
+
+    private void sendFrame(int opcode, byte[] payload) throws IOException {
+        int length = payload.length;
+        byte[] mask = new byte[4];
+        random.nextBytes(mask);
+
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(length + 14);
+        frame.write(0x80 | opcode);
+        if (length < 126) {
+            frame.write(0x80 | length);
+        } else if (length <= 0xFFFF) {
+            frame.write(0x80 | 126);
+            frame.write(length >> 8);
+            frame.write(length);
+        } else {
+            frame.write(0x80 | 127);
+            for (int i = 7; i >= 0; i--)
+                frame.write((int) ((long) length >> (8 * i)));
+        }
+        frame.write(mask, 0, 4);
+        for (int i = 0; i < length; i++)
+            frame.write(payload[i] ^ mask[i & 3]);
+
+        synchronized (writeLock) {
+            if (out == null)
+                throw new IOException("not connected");
+            out.write(frame.toByteArray());
+            out.flush();
+        }
+    }
+
+    private void readLoop() {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        int messageOpcode = -1;
+
+        try {
+            while (true) {
+                int b0 = in.read();
+                int b1 = in.read();
+                if (b0 == -1 || b1 == -1)
+                    throw new EOFException();
+
+                boolean fin = (b0 & 0x80) != 0;
+                int opcode = b0 & 0x0F;
+                boolean masked = (b1 & 0x80) != 0;
+                long length = b1 & 0x7F;
+                if (length == 126) {
+                    length = (readByte() << 8) | readByte();
+                } else if (length == 127) {
+                    length = 0;
+                    for (int i = 0; i < 8; i++)
+                        length = (length << 8) | readByte();
+                }
+                // 127 길이의 최상위 bit가 켜져 있으면 음수가 된다.
+                if (length < 0 || length > MAX_FRAME_LENGTH)
+                    throw new IOException("invalid frame length : " + length);
+
+                byte[] mask = null;
+                if (masked) {
+                    mask = new byte[4];
+                    readFully(mask);
+                }
+                byte[] payload = new byte[(int) length];
+                readFully(payload);
+                if (mask != null) {
+                    for (int i = 0; i < payload.length; i++)
+                        payload[i] ^= mask[i & 3];
+                }
+
+                switch (opcode) {
+                    case OPCODE_TEXT:
+                    case OPCODE_BINARY:
+                    case OPCODE_CONTINUATION:
+                        if (opcode != OPCODE_CONTINUATION) {
+                            message.reset();
+                            messageOpcode = opcode;
+                        }
+                        message.write(payload, 0, payload.length);
+                        if (fin) {
+                            if (messageOpcode == OPCODE_TEXT)
+                                listener.onText(this, new String(message.toByteArray(), UTF_8));
+                            message.reset();
+                            messageOpcode = -1;
+                        }
+                        break;
+                    case OPCODE_PING:
+                        sendFrame(OPCODE_PONG, payload);
+                        break;
+                    case OPCODE_PONG:
+                        listener.onPong(this);
+                        break;
+                    case OPCODE_CLOSE:
+                        int code = payload.length >= 2 ? ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF) : CLOSE_NORMAL;
+                        String reason = payload.length > 2 ? new String(payload, 2, payload.length - 2, UTF_8) : "";
+                        if (!closing) {
+                            closing = true;
+                            try {
+                                sendFrame(OPCODE_CLOSE, payload.length >= 2 ? new byte[]{payload[0], payload[1]} : new byte[0]);
+                            } catch (IOException e) {
+                                // 응답하지 못해도 연결은 닫는다.
+                            }
+                        }
+                        closeSocket();
+                        notifyClose(code, reason);
+                        return;
+                    default:
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            closeSocket();
+            notifyClose(CLOSE_ABNORMAL, e.toString());
+        }
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b == -1)
+            throw new EOFException();
+        return b;
+    }
+
+    private void readFully(byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int read = in.read(buffer, offset, buffer.length - offset);
+            if (read == -1)
+                throw new EOFException();
+            offset += read;
+        }
+    }
+
+    private void closeSocket() {
+        try {
+            if (socket != null)
+                socket.close();
+        } catch (IOException e) {
+            // 무시
+        }
+    }
+
+    private void notifyClose(int code, String reason) {
+        if (closeNotified.compareAndSet(false, true))
+            listener.onClose(this, code, reason);
+    }
+}
@@ -189,11 +189,7 @@ public class TransactionDataManager {
                 // 성공한 경우 - TransactionData 저장
                 String transactionDataJson = convertTransactionDataToJson(result.getTransactionData());
                 apiCallResultRepository.saveSuccessfulApiCall("TransactionData", 
-                    "Success", transactionDataJson)
-                    .subscribe(
-                        id -> android.util.Log.d("TransactionDataManager", "API call result saved with ID: " + id),
-                        throwable -> android.util.Log.e("TransactionDataManager", "Failed to save API call result", throwable)
-                    );
+                    "Success", transactionDataJson);
             }
             
             // 에러가 있는 경우 각 에러별로 저장
@@ -207,11 +203,7 @@ public class TransactionDataManager {
                         errorCode, serverMessage, apiError.getErrorMessage());
                     
                     apiCallResultRepository.saveFailedApiCall(apiError.getApiEndpoint(), 
-                        errorCode, fullErrorMessage, serverMessage)
-                        .subscribe(
-                            id -> android.util.Log.d("TransactionDataManager", "API error saved with ID: " + id),
-                            throwable -> android.util.Log.e("TransactionDataManager", "Failed to save API error", throwable)
-                        );
+                        errorCode, fullErrorMessage, serverMessage);
                 }
             }
             
@@ -352,25 +344,13 @@ public class TransactionDataManager {
      */
     private void saveErrorToDatabaseWithApiDetails(long errorTime, String errorType, String errorMessage,
                                                    String transactionContext, Exception exception, String apiErrorDetails) {
-        executorService.execute(() -> {
-            try {
-                errorRepository.saveErrorWithApiDetails(errorTime, errorType, errorMessage,
-                    transactionContext, exception, apiErrorDetails)
-                    .subscribe(
-                        errorId -> {
-                            android.util.Log.d("TransactionDataManager",
-                                "Error with API details saved to database with ID: " + errorId);
-                        },
-                        throwable -> {
-                            android.util.Log.e("TransactionDataManager",
-                                "Failed to save error with API details to database", throwable);
-                        }
-                    );
-            } catch (Exception e) {
-                android.util.Log.e("TransactionDataManager",
-                    "Exception while saving error with API details to database", e);
-            }
-        });
+        try {
+            errorRepository.saveErrorWithApiDetails(errorTime, errorType, errorMessage,
+                transactionContext, exception, apiErrorDetails);
+        } catch (Exception e) {
+            android.util.Log.e("TransactionDataManager",
+                "Exception while saving error with API details to database", e);
+        }
     }
 
     /**
@@ -438,26 +418,12 @@ public class TransactionDataManager {
      */
     private void saveErrorToDatabase(long errorTime, String errorType, String errorMessage, 
                                    String transactionContext, Exception exception) {
-        executorService.execute(() -> {
-            try {
-                errorRepository.saveErrorFromException(exception, errorType, transactionContext)
-                        .subscribe(
-                            errorId -> {
-                                // 에러 저장 성공 로그
-                                android.util.Log.d("TransactionDataManager", 
-                                    "Error saved to database with ID: " + errorId);
-                            },
-                            throwable -> {
-                                // 에러 저장 실패 로그
-                                android.util.Log.e("TransactionDataManager", 
-                                    "Failed to save error to database", throwable);
-                            }
-                        );
-            } catch (Exception e) {
-                android.util.Log.e("TransactionDataManager", 
-                    "Exception while saving error to database", e);
-            }
-        });
+        try {
+            errorRepository.saveErrorFromException(exception, errorType, transactionContext);
+        } catch (Exception e) {
+            android.util.Log.e("TransactionDataManager", 
+                "Exception while saving error to database", e);
+        }
     }
 
     /**
@@ -465,48 +431,24 @@ public class TransactionDataManager {
      */
     public void saveError(String errorType, String errorMessage, String transactionContext) {
         long errorTime = System.currentTimeMillis();
-        executorService.execute(() -> {
-            try {
-                errorRepository.saveError(errorTime, errorType, errorMessage, null, transactionContext)
-                        .subscribe(
-                            errorId -> {
-                                android.util.Log.d("TransactionDataManager", 
-                                    "Error saved to database with ID: " + errorId);
-                            },
-                            throwable -> {
-                                android.util.Log.e("TransactionDataManager", 
-                                    "Failed to save error to database", throwable);
-                            }
-                        );
-            } catch (Exception e) {
-                android.util.Log.e("TransactionDataManager", 
-                    "Exception while saving error to database", e);
-            }
-        });
+        try {
+            errorRepository.saveError(errorTime, errorType, errorMessage, null, transactionContext);
+        } catch (Exception e) {
+            android.util.Log.e("TransactionDataManager", 
+                "Exception while saving error to database", e);
+        }
     }
 
     /**
      * 예외를 데이터베이스에 저장
      */
     public void saveException(Exception exception, String errorType, String transactionContext) {
-        executorService.execute(() -> {
-            try {
-                errorRepository.saveErrorFromException(exception, errorType, transactionContext)
-                        .subscribe(
-                            errorId -> {
-                                android.util.Log.d("TransactionDataManager", 
-                                    "Exception saved to database with ID: " + errorId);
-                            },
-                            throwable -> {
-                                android.util.Log.e("TransactionDataManager", 
-                                    "Failed to save exception to database", throwable);
-                            }
-                        );
-            } catch (Exception e) {
-                android.util.Log.e("TransactionDataManager", 
-                    "Exception while saving exception to database", e);
-            }
-        });
+        try {
+            errorRepository.saveErrorFromException(exception, errorType, transactionContext);
+        } catch (Exception e) {
+            android.util.Log.e("TransactionDataManager", 
+                "Exception while saving exception to database", e);
+        }
     }
 
     /**
@@ -46,6 +46,13 @@ public interface ApiCallResultDao {
     @Query("DELETE FROM api_call_results WHERE call_time < :beforeTime")
     int deleteOldApiCallResults(long beforeTime);
     
+    @Query("DELETE FROM api_call_results WHERE is_success = :success AND call_time < :beforeTime")
+    int deleteApiCallResultsBefore(boolean success, long beforeTime);
+    
+    @Query("UPDATE api_call_results SET response_data = NULL, transaction_data = NULL "
+            + "WHERE is_success = 1 AND call_time < :beforeTime AND (response_data IS NOT NULL OR transaction_data IS NOT NULL)")
+    int clearSuccessfulPayloadsBefore(long beforeTime);
+    
     @Query("SELECT COUNT(*) FROM api_call_results")
     int getApiCallResultCount();
     
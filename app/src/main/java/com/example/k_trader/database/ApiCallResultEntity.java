@@ -1,6 +1,7 @@
 package com.example.k_trader.database;
 
 import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.Index;
 import android.arch.persistence.room.PrimaryKey;
 import android.arch.persistence.room.ColumnInfo;
 import android.arch.persistence.room.Ignore;
@@ -8,8 +9,14 @@ import java.util.Date;
 
 /**
  * API 호출 결과를 저장하는 Entity
+ * response_data, transaction_data는 PayloadCodec으로 압축한 BLOB이다. getter/setter는 문자열로 변환해서 주고받는다.
  */
-@Entity(tableName = "api_call_results")
+@Entity(tableName = "api_call_results",
+        indices = {
+                @Index({"call_time"}),                  // 기간 조회, 오래된 결과 삭제
+                @Index({"api_endpoint", "call_time"}),  // endpoint별 조회
+                @Index({"is_success", "call_time"})     // 성공/실패별 조회와 개수
+        })
 public class ApiCallResultEntity {
     
     @PrimaryKey(autoGenerate = true)
@@ -26,7 +33,7 @@ public class ApiCallResultEntity {
     public boolean isSuccess;
     
     @ColumnInfo(name = "response_data")
-    public String responseData;
+    public byte[] packedResponseData;
     
     @ColumnInfo(name = "error_code")
     public String errorCode;
@@ -38,7 +45,7 @@ public class ApiCallResultEntity {
     public String serverErrorMessage;
     
     @ColumnInfo(name = "transaction_data")
-    public String transactionData;
+    public byte[] packedTransactionData;
     
     @ColumnInfo(name = "created_at")
     public long createdAt;
@@ -85,11 +92,11 @@ public class ApiCallResultEntity {
     }
 
     public String getResponseData() {
-        return responseData;
+        return PayloadCodec.unpack(packedResponseData);
     }
 
     public void setResponseData(String responseData) {
-        this.responseData = responseData;
+        this.packedResponseData = PayloadCodec.pack(responseData);
     }
 
     public String getErrorCode() {
@@ -117,11 +124,11 @@ public class ApiCallResultEntity {
     }
 
     public String getTransactionData() {
-        return transactionData;
+        return PayloadCodec.unpack(packedTransactionData);
     }
 
     public void setTransactionData(String transactionData) {
-        this.transactionData = transactionData;
+        this.packedTransactionData = PayloadCodec.pack(transactionData);
     }
 
     public long getCreatedAt() {
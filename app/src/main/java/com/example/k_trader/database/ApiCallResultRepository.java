@@ -11,14 +11,26 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * API 호출 결과 Repository
+ *
+ * saveSuccessfulApiCall()/saveFailedApiCall()은 write-behind 큐에 넣고 바로 리턴하며, 큐가 모아서 batch로 저장한다.
+ * 응답 본문은 ApiCallStoragePolicy에 따라 압축하거나 저장하지 않는다.
  */
 public class ApiCallResultRepository {
     
+    private static final int WRITE_BATCH_SIZE = 50;
+    private static final long WRITE_DELAY_MS = 1000;
+    private static final int WRITE_QUEUE_CAPACITY = 1000;
+    private static final long WRITE_OFFER_TIMEOUT_MS = 100;
+
     private static volatile ApiCallResultRepository INSTANCE;
     private final ApiCallResultDao apiCallResultDao;
+    private final WriteBehindQueue<ApiCallResultEntity> writeQueue;
+    private final ApiCallStoragePolicy storagePolicy = new ApiCallStoragePolicy();
     
     private ApiCallResultRepository(ApiCallResultDao apiCallResultDao) {
         this.apiCallResultDao = apiCallResultDao;
+        this.writeQueue = new WriteBehindQueue<>("api_call_results", apiCallResultDao::insertApiCallResults,
+                WRITE_BATCH_SIZE, WRITE_DELAY_MS, WRITE_QUEUE_CAPACITY, WRITE_OFFER_TIMEOUT_MS);
     }
     
     public static ApiCallResultRepository getInstance(ApiCallResultDao apiCallResultDao) {
@@ -42,24 +54,23 @@ public class ApiCallResultRepository {
     }
     
     /**
-     * 성공한 API 호출 결과 저장
+     * 성공한 API 호출 결과 저장 (write-behind)
      */
-    public Single<Long> saveSuccessfulApiCall(String apiEndpoint, String responseData, String transactionData) {
+    public void saveSuccessfulApiCall(String apiEndpoint, String responseData, String transactionData) {
         long callTime = System.currentTimeMillis();
         ApiCallResultEntity entity = new ApiCallResultEntity();
         entity.setCallTime(callTime);
         entity.setApiEndpoint(apiEndpoint);
         entity.setSuccess(true);
-        entity.setResponseData(responseData);
-        entity.setTransactionData(transactionData);
+        storagePolicy.applyPayload(entity, responseData, transactionData);
         
-        return saveApiCallResult(entity);
+        writeQueue.offer(entity);
     }
     
     /**
-     * 실패한 API 호출 결과 저장
+     * 실패한 API 호출 결과 저장 (write-behind)
      */
-    public Single<Long> saveFailedApiCall(String apiEndpoint, String errorCode, String errorMessage, String serverErrorMessage) {
+    public void saveFailedApiCall(String apiEndpoint, String errorCode, String errorMessage, String serverErrorMessage) {
         long callTime = System.currentTimeMillis();
         ApiCallResultEntity entity = new ApiCallResultEntity();
         entity.setCallTime(callTime);
@@ -69,9 +80,23 @@ public class ApiCallResultRepository {
         entity.setErrorMessage(errorMessage);
         entity.setServerErrorMessage(serverErrorMessage);
         // 전체 에러 메시지를 responseData로 저장
-        entity.setResponseData(errorMessage);
+        storagePolicy.applyPayload(entity, errorMessage, null);
         
-        return saveApiCallResult(entity);
+        writeQueue.offer(entity);
+    }
+
+    /**
+     * write-behind 큐에 남은 API 호출 결과를 저장할 때까지 기다린다. 서비스가 종료될 때 호출한다.
+     */
+    public void flushPendingWrites(long timeoutMillis) {
+        writeQueue.flush(timeoutMillis);
+    }
+
+    /**
+     * write-behind 큐의 대기 항목 수, batch 저장 시간 등의 통계
+     */
+    public WriteBehindQueue.Stats getWriteStats() {
+        return writeQueue.getStats();
     }
     
     /**
@@ -121,14 +146,30 @@ public class ApiCallResultRepository {
     }
     
     /**
-     * 오래된 API 호출 결과 삭제 (7일 이전)
+     * 보관 기간이 지난 API 호출 결과 삭제 (성공 7일, 실패 30일, 성공 응답 본문 1일)
      */
     public Completable cleanupOldApiCallResults() {
-        long sevenDaysAgo = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(7);
-        return Completable.fromAction(() -> apiCallResultDao.deleteOldApiCallResults(sevenDaysAgo))
+        return Completable.fromAction(() -> applyRetention(System.currentTimeMillis()))
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread());
     }
+
+    /**
+     * ApiCallStoragePolicy의 보관 기간을 적용하고 삭제하거나 본문을 비운 행 수를 리턴한다. 호출한 스레드에서 실행한다.
+     */
+    int applyRetention(long now) {
+        int count = apiCallResultDao.deleteApiCallResultsBefore(true, now - ApiCallStoragePolicy.SUCCESS_RETENTION_MS);
+        count += apiCallResultDao.deleteApiCallResultsBefore(false, now - ApiCallStoragePolicy.FAILURE_RETENTION_MS);
+        count += apiCallResultDao.clearSuccessfulPayloadsBefore(now - ApiCallStoragePolicy.SUCCESS_BODY_RETENTION_MS);
+        return count;
+    }
+
+    /**
+     * 응답 본문 압축/sampling 통계
+     */
+    public ApiCallStoragePolicy.Stats getStorageStats() {
+        return storagePolicy.getStats();
+    }
     
     /**
      * API 호출 결과 통계 조회
@@ -0,0 +1,97 @@
+package com.example.k_trader.database;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * api_call_results에 무엇을 얼마나 오래 저장할지 정하는 정책
+ *
+ * - 실패한 호출은 응답 본문까지 모두 저장하고 FAILURE_RETENTION_MS 동안 보관한다.
+ * - 성공한 호출은 endpoint마다 SUCCESS_SAMPLE_INTERVAL_MS에 한 건만 본문을 저장하고 나머지는 시간/endpoint만 남긴다.
+ *   저장한 본문도 SUCCESS_BODY_RETENTION_MS가 지나면 비우고, 행은 SUCCESS_RETENTION_MS 동안 보관한다.
+ * - 저장하는 본문은 PayloadCodec으로 압축한다.
+ */
+public class ApiCallStoragePolicy {
+    public static final long SUCCESS_SAMPLE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(10);
+    public static final long SUCCESS_BODY_RETENTION_MS = TimeUnit.DAYS.toMillis(1);
+    public static final long SUCCESS_RETENTION_MS = TimeUnit.DAYS.toMillis(7);
+    public static final long FAILURE_RETENTION_MS = TimeUnit.DAYS.toMillis(30);
+
+    private final Map<String, Long> lastSampleTimes = new HashMap<>();
+    private long rawBytes;          // 저장하려던 본문 크기
+    private long storedBytes;       // 실제로 저장한 본문 크기
+    private long droppedBytes;      // sampling으로 저장하지 않은 본문 크기
+    private long sampledCount;
+    private long strippedCount;
+
+    /**
+     * 정책에 따라 entity에 응답 본문을 채운다.
+     */
+    public synchronized void applyPayload(ApiCallResultEntity entity, String responseData, String transactionData) {
+        long raw = PayloadCodec.rawLength(responseData) + PayloadCodec.rawLength(transactionData);
+        rawBytes += raw;
+        if (entity.isSuccess() && !takeSample(entity.getApiEndpoint(), entity.getCallTime())) {
+            entity.packedResponseData = null;
+            entity.packedTransactionData = null;
+            droppedBytes += raw;
+            strippedCount++;
+            return;
+        }
+        entity.setResponseData(responseData);
+        entity.setTransactionData(transactionData);
+        storedBytes += length(entity.packedResponseData) + length(entity.packedTransactionData);
+        if (entity.isSuccess())
+            sampledCount++;
+    }
+
+    // endpoint별로 직전 sample에서 SUCCESS_SAMPLE_INTERVAL_MS가 지났으면 이번 호출을 sample로 남긴다.
+    private boolean takeSample(String endpoint, long callTime) {
+        Long last = lastSampleTimes.get(endpoint);
+        if (last != null && callTime - last < SUCCESS_SAMPLE_INTERVAL_MS && callTime >= last)
+            return false;
+        lastSampleTimes.put(endpoint, callTime);
+        return true;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(rawBytes, storedBytes, droppedBytes, sampledCount, strippedCount);
+    }
+
+    /**
+     * 본문 저장 통계
+     */
+    public static class Stats {
+        public final long rawBytes;
+        public final long storedBytes;
+        public final long droppedBytes;
+        public final long sampledCount;     // 본문을 저장한 성공 호출 수
+        public final long strippedCount;    // 본문을 저장하지 않은 성공 호출 수
+
+        Stats(long rawBytes, long storedBytes, long droppedBytes, long sampledCount, long strippedCount) {
+            this.rawBytes = rawBytes;
+            this.storedBytes = storedBytes;
+            this.droppedBytes = droppedBytes;
+            this.sampledCount = sampledCount;
+            this.strippedCount = strippedCount;
+        }
+
+        /**
+         * 압축과 sampling으로 줄인 byte 수
+         */
+        public long getSavedBytes() {
+            return rawBytes - storedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "raw=%,dB, stored=%,dB, saved=%,dB (압축 %,dB, sampling %,dB), sampled=%d, stripped=%d",
+                    rawBytes, storedBytes, getSavedBytes(), getSavedBytes() - droppedBytes, droppedBytes, sampledCount, strippedCount);
+        }
+    }
+}
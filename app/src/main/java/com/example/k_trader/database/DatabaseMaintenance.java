@@ -0,0 +1,139 @@
+package com.example.k_trader.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DB 파일 크기 관리
+ *
+ * 매매 중에 주기적으로 api_call_results 보관 기간을 적용하고, 지워진 행이 남긴 빈 page를 incremental vacuum으로 파일에서 돌려준다.
+ * - 처음 실행할 때 auto_vacuum이 INCREMENTAL이 아니면 한 번 전체 VACUUM해서 바꾼다. 이후에는 VACUUM_PAGES씩만 돌려준다.
+ * - 작업은 전용 스레드 하나에서 실행되므로 매매 tick을 기다리게 하지 않는다.
+ */
+public class DatabaseMaintenance {
+    private static final long INITIAL_DELAY_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final long INTERVAL_MS = TimeUnit.HOURS.toMillis(6);
+    private static final int VACUUM_PAGES = 2048;
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private static final DatabaseMaintenance INSTANCE = new DatabaseMaintenance();
+
+    private volatile OrderDatabase database;
+    private ScheduledExecutorService executor;
+
+    private volatile long lastRunTime;
+    private volatile long lastRunMs;
+    private volatile long retainedRowCount;   // 지우거나 본문을 비운 행 수 (누적)
+    private volatile long vacuumedPageCount;  // 파일에서 돌려준 page 수 (누적)
+    private volatile long databaseBytes;
+    private volatile long freeBytes;
+
+    public static DatabaseMaintenance getInstance() {
+        return INSTANCE;
+    }
+
+    private DatabaseMaintenance() {
+    }
+
+    public synchronized void start(Context context) {
+        if (executor != null)
+            return;
+        database = OrderDatabase.getInstance(context);
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "DatabaseMaintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runOnce, INITIAL_DELAY_MS, INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor == null)
+            return;
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    private void runOnce() {
+        long start = System.nanoTime();
+        try {
+            int retained = ApiCallResultRepository.getInstance(database.apiCallResultDao()).applyRetention(System.currentTimeMillis());
+            retainedRowCount += retained;
+
+            SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+            if (queryLong(db, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+                // auto_vacuum 모드는 VACUUM을 해야 파일에 반영된다.
+                db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+                db.execSQL("VACUUM");
+                Log.d("KTrader", "[DatabaseMaintenance] auto_vacuum INCREMENTAL 설정");
+            }
+            long freePages = queryLong(db, "PRAGMA freelist_count");
+            try (Cursor cursor = db.query("PRAGMA incremental_vacuum(" + VACUUM_PAGES + ")")) {
+                while (cursor.moveToNext()) {
+                    // page 하나를 돌려줄 때마다 빈 row가 하나 나오므로 끝까지 읽어야 모두 돌려준다.
+                }
+            }
+            long pageSize = queryLong(db, "PRAGMA page_size");
+            long remainingFreePages = queryLong(db, "PRAGMA freelist_count");
+            vacuumedPageCount += freePages - remainingFreePages;
+            databaseBytes = queryLong(db, "PRAGMA page_count") * pageSize;
+            freeBytes = remainingFreePages * pageSize;
+            lastRunTime = System.currentTimeMillis();
+            lastRunMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Log.d("KTrader", "[DatabaseMaintenance] 정리 완료 : 보관 기간 " + retained + "건, vacuum " + (freePages - remainingFreePages)
+                    + " page, " + getStats());
+        } catch (RuntimeException e) {
+            // 예외로 scheduleWithFixedDelay가 멈추지 않도록 여기서 처리한다.
+            Log.e("KTrader", "[DatabaseMaintenance] 정리 중 오류", e);
+        }
+    }
+
+    private static long queryLong(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    public Stats getStats() {
+        ApiCallStoragePolicy.Stats storage = database == null ? null
+                : ApiCallResultRepository.getInstance(database.apiCallResultDao()).getStorageStats();
+        return new Stats(databaseBytes, freeBytes, retainedRowCount, vacuumedPageCount, lastRunTime, lastRunMs, storage);
+    }
+
+    /**
+     * DB 크기와 정리 통계. DB 크기는 마지막 정리 시점 기준이다.
+     */
+    public static class Stats {
+        public final long databaseBytes;
+        public final long freeBytes;            // 파일 안의 빈 page 크기
+        public final long retainedRowCount;
+        public final long vacuumedPageCount;
+        public final long lastRunTime;
+        public final long lastRunMs;
+        public final ApiCallStoragePolicy.Stats storage;   // 본문 압축/sampling으로 줄인 크기
+
+        Stats(long databaseBytes, long freeBytes, long retainedRowCount, long vacuumedPageCount, long lastRunTime, long lastRunMs,
+              ApiCallStoragePolicy.Stats storage) {
+            this.databaseBytes = databaseBytes;
+            this.freeBytes = freeBytes;
+            this.retainedRowCount = retainedRowCount;
+            this.vacuumedPageCount = vacuumedPageCount;
+            this.lastRunTime = lastRunTime;
+            this.lastRunMs = lastRunMs;
+            this.storage = storage;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "db=%,dB, free=%,dB, retained=%d, vacuumed=%d page, lastRun=%dms, payload=[%s]",
+                    databaseBytes, freeBytes, retainedRowCount, vacuumedPageCount, lastRunMs, storage);
+        }
+    }
+}
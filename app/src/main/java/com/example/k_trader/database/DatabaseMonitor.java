@@ -46,6 +46,11 @@ public class DatabaseMonitor {
      */
     public interface DatabaseChangeListener {
         void onOrdersChanged(List<TradeData> orders);
+
+        /**
+         * 미체결 주문 동기화로 실제 바뀐 주문만 전달한다. 바뀐 것이 없으면 호출되지 않는다.
+         */
+        default void onOrdersReconciled(OrderChangeSet changes) {}
     }
 
     /**
@@ -86,6 +91,15 @@ public class DatabaseMonitor {
         }
     }
 
+    /**
+     * 미체결 주문 동기화 결과 알림
+     */
+    public void notifyOrdersReconciled(OrderChangeSet changes) {
+        for (DatabaseChangeListener listener : listeners) {
+            listener.onOrdersReconciled(changes);
+        }
+    }
+
     /**
      * 리스너들에게 변경사항 알림
      */
@@ -1,6 +1,7 @@
 package com.example.k_trader.database;
 
 import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.Index;
 import android.arch.persistence.room.PrimaryKey;
 import android.arch.persistence.room.ColumnInfo;
 import android.arch.persistence.room.Ignore;
@@ -9,7 +10,12 @@ import java.util.Date;
 /**
  * Transaction 에러 정보를 저장하는 Entity
  */
-@Entity(tableName = "transaction_errors")
+@Entity(tableName = "transaction_errors",
+        indices = {
+                @Index({"error_time"}),                 // 기간 조회, 오래된 에러 삭제
+                @Index({"is_resolved", "error_time"}),  // 미해결 에러 조회와 개수
+                @Index({"error_type", "error_time"})    // 타입별 조회와 통계
+        })
 public class ErrorEntity {
     
     @PrimaryKey(autoGenerate = true)
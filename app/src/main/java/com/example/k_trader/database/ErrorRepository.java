@@ -12,15 +12,24 @@ import io.reactivex.schedulers.Schedulers;
 /**
  * Transaction 에러 데이터 Repository
  * 에러 데이터의 비즈니스 로직을 처리하고 데이터베이스 접근을 추상화
+ * 편의 메서드로 저장하는 에러는 write-behind 큐에 넣고 바로 리턴하며, 큐가 모아서 batch로 저장한다.
  */
 public class ErrorRepository {
     
+    private static final int WRITE_BATCH_SIZE = 50;
+    private static final long WRITE_DELAY_MS = 1000;
+    private static final int WRITE_QUEUE_CAPACITY = 1000;
+    private static final long WRITE_OFFER_TIMEOUT_MS = 100;
+
     private final ErrorDao errorDao;
+    private final WriteBehindQueue<ErrorEntity> writeQueue;
     private static volatile ErrorRepository INSTANCE;
 
     private ErrorRepository(Context context) {
         OrderDatabase database = OrderDatabase.getInstance(context);
         this.errorDao = database.errorDao();
+        this.writeQueue = new WriteBehindQueue<>("transaction_errors", errorDao::insertErrors,
+                WRITE_BATCH_SIZE, WRITE_DELAY_MS, WRITE_QUEUE_CAPACITY, WRITE_OFFER_TIMEOUT_MS);
     }
 
     /**
@@ -56,26 +65,26 @@ public class ErrorRepository {
     }
 
     /**
-     * 에러 저장 (편의 메서드)
+     * 에러 저장 (편의 메서드, write-behind)
      */
-    public Single<Long> saveError(long errorTime, String errorType, String errorMessage) {
+    public void saveError(long errorTime, String errorType, String errorMessage) {
         ErrorEntity error = new ErrorEntity(errorTime, errorType, errorMessage);
-        return saveError(error);
+        writeQueue.offer(error);
     }
 
     /**
-     * 에러 저장 (상세 정보 포함)
+     * 에러 저장 (상세 정보 포함, write-behind)
      */
-    public Single<Long> saveError(long errorTime, String errorType, String errorMessage, 
-                                String errorCode, String transactionContext) {
+    public void saveError(long errorTime, String errorType, String errorMessage, 
+                          String errorCode, String transactionContext) {
         ErrorEntity error = new ErrorEntity(errorTime, errorType, errorMessage, errorCode, transactionContext);
-        return saveError(error);
+        writeQueue.offer(error);
     }
 
     /**
-     * 예외 정보로 에러 저장
+     * 예외 정보로 에러 저장 (write-behind)
      */
-    public Single<Long> saveErrorFromException(Exception exception, String errorType, String transactionContext) {
+    public void saveErrorFromException(Exception exception, String errorType, String transactionContext) {
         long errorTime = System.currentTimeMillis();
         String errorMessage = exception.getMessage() != null ? exception.getMessage() : "Unknown error";
         String stackTrace = getStackTrace(exception);
@@ -84,14 +93,14 @@ public class ErrorRepository {
         error.setStackTrace(stackTrace);
         error.setTransactionContext(transactionContext);
         
-        return saveError(error);
+        writeQueue.offer(error);
     }
 
     /**
-     * API 상세 정보와 함께 에러 저장
+     * API 상세 정보와 함께 에러 저장 (write-behind)
      */
-    public Single<Long> saveErrorWithApiDetails(long errorTime, String errorType, String errorMessage,
-                                               String transactionContext, Exception exception, String apiErrorDetails) {
+    public void saveErrorWithApiDetails(long errorTime, String errorType, String errorMessage,
+                                        String transactionContext, Exception exception, String apiErrorDetails) {
         String stackTrace = exception != null ? getStackTrace(exception) : null;
         
         ErrorEntity error = new ErrorEntity(errorTime, errorType, errorMessage);
@@ -99,7 +108,21 @@ public class ErrorRepository {
         error.setTransactionContext(transactionContext);
         error.setApiErrorDetails(apiErrorDetails);
         
-        return saveError(error);
+        writeQueue.offer(error);
+    }
+
+    /**
+     * write-behind 큐에 남은 에러를 저장할 때까지 기다린다. 서비스가 종료될 때 호출한다.
+     */
+    public void flushPendingWrites(long timeoutMillis) {
+        writeQueue.flush(timeoutMillis);
+    }
+
+    /**
+     * write-behind 큐의 대기 항목 수, batch 저장 시간 등의 통계
+     */
+    public WriteBehindQueue.Stats getWriteStats() {
+        return writeQueue.getStats();
     }
 
     /**
@@ -0,0 +1,82 @@
+package com.example.k_trader.database;
+
+import com.example.k_trader.base.TradeData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 미체결 주문 동기화 결과
+ *
+ * 거래소에서 받은 미체결 주문 목록과 DB의 PLACED 주문을 거래소 주문 ID로 비교해서 새로 생긴 주문(added),
+ * 수량/가격/상태가 바뀐 주문(updated), 거래소에 없어진 주문(removed)만 골라낸다. 바뀌지 않은 주문은 DB에 쓰지 않는다.
+ */
+public class OrderChangeSet {
+    public final List<OrderEntity> added;
+    public final List<OrderEntity> updated;
+    public final List<OrderEntity> removed;
+
+    private OrderChangeSet(List<OrderEntity> added, List<OrderEntity> updated, List<OrderEntity> removed) {
+        this.added = Collections.unmodifiableList(added);
+        this.updated = Collections.unmodifiableList(updated);
+        this.removed = Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * @param placed 현재 DB에 있는 PLACED 주문
+     * @param fetched 거래소에서 받은 미체결 주문 (주문 ID가 없는 항목은 비교할 수 없으므로 무시한다)
+     * @param now updated/added 항목에 기록할 수정 시간
+     */
+    public static OrderChangeSet diff(List<OrderEntity> placed, List<TradeData> fetched, long now) {
+        HashMap<String, OrderEntity> byOrderId = new HashMap<>();
+        List<OrderEntity> removed = new ArrayList<>();
+        for (OrderEntity entity : placed) {
+            // 주문 ID가 없거나 중복된 행은 정리한다.
+            if (entity.getOrderId() == null || byOrderId.containsKey(entity.getOrderId()))
+                removed.add(entity);
+            else
+                byOrderId.put(entity.getOrderId(), entity);
+        }
+
+        List<OrderEntity> added = new ArrayList<>();
+        List<OrderEntity> updated = new ArrayList<>();
+        for (TradeData data : fetched) {
+            if (data.getId() == null)
+                continue;
+            OrderEntity existing = byOrderId.remove(data.getId());
+            if (existing == null) {
+                OrderEntity entity = OrderEntity.fromTradeData(data);
+                entity.setUpdatedAt(now);
+                added.add(entity);
+            } else if (isChanged(existing, data)) {
+                existing.setType(data.getType());
+                existing.setStatus(data.getStatus());
+                existing.setUnits(data.getUnits());
+                existing.setPrice(data.getPrice());
+                existing.setUpdatedAt(now);
+                updated.add(existing);
+            }
+        }
+        removed.addAll(byOrderId.values());
+        return new OrderChangeSet(added, updated, removed);
+    }
+
+    private static boolean isChanged(OrderEntity entity, TradeData data) {
+        return entity.getUnits() != data.getUnits()
+                || entity.getPrice() != data.getPrice()
+                || entity.getStatus() != data.getStatus()
+                || entity.getType() != data.getType();
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.getDefault(), "추가 %d, 변경 %d, 삭제 %d", added.size(), updated.size(), removed.size());
+    }
+}
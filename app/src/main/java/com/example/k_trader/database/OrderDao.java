@@ -1,9 +1,11 @@
 package com.example.k_trader.database;
 
 import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Delete;
 import android.arch.persistence.room.Insert;
 import android.arch.persistence.room.OnConflictStrategy;
 import android.arch.persistence.room.Query;
+import android.arch.persistence.room.Update;
 
 import java.util.List;
 
@@ -29,16 +31,28 @@ public interface OrderDao {
     List<Long> insertOrders(List<OrderEntity> orders);
 
     /**
-     * 마킹되지 않은 주문들 삭제
+     * 여러 주문 수정 (id 기준)
      */
-    @Query("DELETE FROM orders WHERE marked = 0")
-    int deleteUnmarkedOrders();
+    @Update
+    int updateOrders(List<OrderEntity> orders);
 
     /**
-     * 모든 주문의 마킹 상태 해제
+     * 여러 주문 삭제 (id 기준)
      */
-    @Query("UPDATE orders SET marked = 0, updatedAt = :currentTime WHERE marked = 1")
-    int unmarkAllOrders(long currentTime);
+    @Delete
+    int deleteOrders(List<OrderEntity> orders);
+
+    /**
+     * 마킹되지 않은 체결 주문들 삭제 (미체결 주문은 OrderChangeSet으로 정리한다)
+     */
+    @Query("DELETE FROM orders WHERE status != 'PLACED' AND marked = 0")
+    int deleteUnmarkedProcessedOrders();
+
+    /**
+     * 체결 주문의 마킹 상태 해제
+     */
+    @Query("UPDATE orders SET marked = 0, updatedAt = :currentTime WHERE status != 'PLACED' AND marked = 1")
+    int unmarkProcessedOrders(long currentTime);
     
     /**
      * 모든 주문 삭제
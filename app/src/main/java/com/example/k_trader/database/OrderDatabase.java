@@ -1,27 +1,128 @@
 package com.example.k_trader.database;
 
+import android.arch.persistence.db.SupportSQLiteDatabase;
 import android.arch.persistence.room.Database;
 import android.arch.persistence.room.Room;
 import android.arch.persistence.room.RoomDatabase;
+import android.arch.persistence.room.migration.Migration;
 import android.content.Context;
+import android.support.annotation.NonNull;
 
 /**
  * Room 데이터베이스 설정
+ *
+ * 스키마를 바꿀 때는 version을 올리고 이전 version에서 올라오는 Migration을 MIGRATIONS에 추가한다.
+ * 인덱스 이름은 Room 기본 규칙(index_테이블_컬럼_컬럼)을 따라야 Room의 스키마 검증을 통과한다.
  */
 @Database(
-    entities = {OrderEntity.class, ErrorEntity.class, ApiCallResultEntity.class, CoinPriceInfoEntity.class, TransactionInfoEntity.class},
-    version = 5,
+    entities = {OrderEntity.class, ErrorEntity.class, ApiCallResultEntity.class, CoinPriceInfoEntity.class, TransactionInfoEntity.class,
+            PriceTickEntity.class, PriceCandleEntity.class},
+    version = 10,
     exportSchema = false
 )
 public abstract class OrderDatabase extends RoomDatabase {
 
     private static volatile OrderDatabase INSTANCE;
 
+    /**
+     * 5 -> 6 : orders.units를 REAL(코인 수량)에서 INTEGER(CoinUnits 고정소수점)로 바꾼다.
+     * SQLite는 컬럼 타입을 바꿀 수 없으므로 테이블을 새로 만들어 옮긴다.
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `orders_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`orderId` TEXT, `type` TEXT, `status` TEXT, `units` INTEGER NOT NULL, `price` INTEGER NOT NULL, "
+                    + "`feeRaw` TEXT, `feeEvaluated` REAL NOT NULL, `placedTimeInMillis` INTEGER NOT NULL, "
+                    + "`processedTimeInMillis` INTEGER NOT NULL, `marked` INTEGER NOT NULL, "
+                    + "`createdAt` INTEGER NOT NULL, `updatedAt` INTEGER NOT NULL)");
+            database.execSQL("INSERT INTO `orders_new` (`id`, `orderId`, `type`, `status`, `units`, `price`, `feeRaw`, "
+                    + "`feeEvaluated`, `placedTimeInMillis`, `processedTimeInMillis`, `marked`, `createdAt`, `updatedAt`) "
+                    + "SELECT `id`, `orderId`, `type`, `status`, CAST(ROUND(`units` * 100000000) AS INTEGER), `price`, `feeRaw`, "
+                    + "`feeEvaluated`, `placedTimeInMillis`, `processedTimeInMillis`, `marked`, `createdAt`, `updatedAt` FROM `orders`");
+            database.execSQL("DROP TABLE `orders`");
+            database.execSQL("ALTER TABLE `orders_new` RENAME TO `orders`");
+        }
+    };
+
+    /**
+     * 6 -> 7 : DAO 조회 조건과 정렬에 맞춘 인덱스를 추가한다. 데이터는 그대로 둔다.
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_orders_status_type` ON `orders` (`status`, `type`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_orders_createdAt` ON `orders` (`createdAt`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_api_call_results_call_time` ON `api_call_results` (`call_time`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_api_call_results_api_endpoint_call_time` ON `api_call_results` (`api_endpoint`, `call_time`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_api_call_results_is_success_call_time` ON `api_call_results` (`is_success`, `call_time`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_errors_error_time` ON `transaction_errors` (`error_time`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_errors_is_resolved_error_time` ON `transaction_errors` (`is_resolved`, `error_time`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_errors_error_type_error_time` ON `transaction_errors` (`error_type`, `error_time`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_info_created_at` ON `transaction_info` (`created_at`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_info_is_from_server_created_at` ON `transaction_info` (`is_from_server`, `created_at`)");
+        }
+    };
+
+    /**
+     * 7 -> 8 : 같은 거래소 주문이 동기화마다 중복 저장되지 않도록 orderId에 unique 인덱스를 건다.
+     * 이미 중복된 행은 가장 최근에 저장된 것만 남긴다.
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("DELETE FROM `orders` WHERE `orderId` IS NOT NULL AND `id` NOT IN "
+                    + "(SELECT MAX(`id`) FROM `orders` WHERE `orderId` IS NOT NULL GROUP BY `orderId`)");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_orders_orderId` ON `orders` (`orderId`)");
+        }
+    };
+
+    /**
+     * 8 -> 9 : 시장가 기록(체결가, 1분/1시간/1일 봉) 테이블을 추가한다.
+     */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `price_ticks` (`coin_type` TEXT NOT NULL, `time` INTEGER NOT NULL, "
+                    + "`price` INTEGER NOT NULL, PRIMARY KEY(`coin_type`, `time`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `price_candles` (`coin_type` TEXT NOT NULL, `resolution` INTEGER NOT NULL, "
+                    + "`open_time` INTEGER NOT NULL, `open` INTEGER NOT NULL, `high` INTEGER NOT NULL, `low` INTEGER NOT NULL, "
+                    + "`close` INTEGER NOT NULL, `tick_count` INTEGER NOT NULL, PRIMARY KEY(`coin_type`, `resolution`, `open_time`))");
+        }
+    };
+
+    /**
+     * 9 -> 10 : api_call_results의 응답 본문 컬럼을 PayloadCodec으로 압축한 BLOB으로 바꾼다.
+     * 기존 TEXT 값은 UTF-8 byte 그대로 옮기며 PayloadCodec이 압축하지 않은 값으로 읽는다.
+     */
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `api_call_results_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`call_time` INTEGER NOT NULL, `api_endpoint` TEXT, `is_success` INTEGER NOT NULL, `response_data` BLOB, "
+                    + "`error_code` TEXT, `error_message` TEXT, `server_error_message` TEXT, `transaction_data` BLOB, "
+                    + "`created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL)");
+            database.execSQL("INSERT INTO `api_call_results_new` (`id`, `call_time`, `api_endpoint`, `is_success`, `response_data`, "
+                    + "`error_code`, `error_message`, `server_error_message`, `transaction_data`, `created_at`, `updated_at`) "
+                    + "SELECT `id`, `call_time`, `api_endpoint`, `is_success`, CAST(`response_data` AS BLOB), `error_code`, "
+                    + "`error_message`, `server_error_message`, CAST(`transaction_data` AS BLOB), `created_at`, `updated_at` "
+                    + "FROM `api_call_results`");
+            database.execSQL("DROP TABLE `api_call_results`");
+            database.execSQL("ALTER TABLE `api_call_results_new` RENAME TO `api_call_results`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_api_call_results_call_time` ON `api_call_results` (`call_time`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_api_call_results_api_endpoint_call_time` ON `api_call_results` (`api_endpoint`, `call_time`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_api_call_results_is_success_call_time` ON `api_call_results` (`is_success`, `call_time`)");
+        }
+    };
+
+    public static final Migration[] MIGRATIONS = {MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10};
+
     public abstract OrderDao orderDao();
     public abstract ErrorDao errorDao();
     public abstract ApiCallResultDao apiCallResultDao();
     public abstract CoinPriceInfoDao coinPriceInfoDao();
     public abstract TransactionInfoDao transactionInfoDao();
+    public abstract PriceHistoryDao priceHistoryDao();
 
     /**
      * 싱글톤 패턴으로 데이터베이스 인스턴스 반환
@@ -35,7 +136,8 @@ public abstract class OrderDatabase extends RoomDatabase {
                             OrderDatabase.class,
                             "order_database"
                     )
-                    .fallbackToDestructiveMigration() // 스키마 변경 시 데이터 삭제
+                    .addMigrations(MIGRATIONS)
+                    .fallbackToDestructiveMigrationFrom(1, 2, 3, 4) // migration이 없는 이전 스키마만 데이터 삭제
                     .build();
                 }
             }
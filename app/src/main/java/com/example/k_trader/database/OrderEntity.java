@@ -3,6 +3,7 @@ package com.example.k_trader.database;
 import android.support.annotation.NonNull;
 
 import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.Index;
 import android.arch.persistence.room.PrimaryKey;
 import android.arch.persistence.room.TypeConverters;
 
@@ -12,7 +13,12 @@ import com.example.k_trader.base.TradeDataManager;
  * Order 데이터베이스 엔티티
  * Room을 사용하여 로컬 데이터베이스에 저장되는 Order 정보
  */
-@Entity(tableName = "orders")
+@Entity(tableName = "orders",
+        indices = {
+                @Index(value = {"orderId"}, unique = true), // 거래소 주문 ID당 한 행 (동기화 시 비교 기준)
+                @Index({"status", "type"}),     // 미체결 주문 개수 / 목록 (status = 'PLACED' AND type = ?)
+                @Index({"createdAt"})           // 전체 주문 목록 정렬
+        })
 @TypeConverters({OrderTypeConverter.class, OrderStatusConverter.class})
 public class OrderEntity {
     @PrimaryKey(autoGenerate = true)
@@ -21,7 +27,7 @@ public class OrderEntity {
     private String orderId;                    // 거래소에서 제공하는 주문 ID
     private TradeDataManager.Type type;        // 주문 타입 (BUY, SELL 등)
     private TradeDataManager.Status status;    // 주문 상태 (PLACED, PROCESSED)
-    private float units;                       // 비트코인 수량
+    private long units;                        // 코인 수량, CoinUnits 고정소수점 (1 = 0.00000001)
     private int price;                         // 주문 가격 (원화)
     private String feeRaw;                     // 수수료 문자열
     private double feeEvaluated;              // 원화 환산 수수료
@@ -70,11 +76,11 @@ public class OrderEntity {
         this.status = status;
     }
 
-    public float getUnits() {
+    public long getUnits() {
         return units;
     }
 
-    public void setUnits(float units) {
+    public void setUnits(long units) {
         this.units = units;
     }
 
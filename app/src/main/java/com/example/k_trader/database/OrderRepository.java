@@ -18,11 +18,12 @@ import io.reactivex.schedulers.Schedulers;
  */
 public class OrderRepository {
     
+    private final OrderDatabase database;
     private final OrderDao orderDao;
     private static volatile OrderRepository INSTANCE;
 
     private OrderRepository(Context context) {
-        OrderDatabase database = OrderDatabase.getInstance(context);
+        this.database = OrderDatabase.getInstance(context);
         this.orderDao = database.orderDao();
     }
 
@@ -90,23 +91,27 @@ public class OrderRepository {
 
 
     /**
-     * 마킹되지 않은 주문들 삭제
+     * 거래소 미체결 주문 목록으로 DB를 맞춘다.
+     * 바뀐 주문만 추가/수정/삭제하고, 이전 동기화에서 남은 체결 주문 정리까지 하나의 transaction으로 처리하므로
+     * 한 번 동기화하면 Flowable 구독자에게 변경 알림이 한 번만 간다. 바뀐 것이 없으면 DB에 쓰지 않는다.
      */
-    public Completable deleteUnmarkedOrders() {
-        return Single.fromCallable(orderDao::deleteUnmarkedOrders)
-                .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
-                .ignoreElement();
-    }
+    public Single<OrderChangeSet> reconcilePlacedOrders(List<TradeData> placedOrders) {
+        return Single.fromCallable(() -> database.runInTransaction(() -> {
+                    long currentTime = System.currentTimeMillis();
+                    OrderChangeSet changes = OrderChangeSet.diff(orderDao.getAllActiveOrders(), placedOrders, currentTime);
+                    if (!changes.removed.isEmpty())
+                        orderDao.deleteOrders(changes.removed);
+                    if (!changes.updated.isEmpty())
+                        orderDao.updateOrders(changes.updated);
+                    if (!changes.added.isEmpty())
+                        orderDao.insertOrders(changes.added);
 
-    /**
-     * 모든 주문의 마킹 상태 해제
-     */
-    public Completable unmarkAllOrders() {
-        return Single.fromCallable(() -> orderDao.unmarkAllOrders(System.currentTimeMillis()))
+                    orderDao.deleteUnmarkedProcessedOrders();
+                    orderDao.unmarkProcessedOrders(currentTime);
+                    return changes;
+                }))
                 .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
-                .ignoreElement();
+                .observeOn(AndroidSchedulers.mainThread());
     }
     
     /**
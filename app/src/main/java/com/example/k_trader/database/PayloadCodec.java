@@ -0,0 +1,109 @@
+package com.example.k_trader.database;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * api_call_results의 응답 본문을 BLOB으로 저장하기 위한 압축/복원
+ *
+ * 거래소 응답과 에러 JSON은 key와 endpoint가 매번 같으므로 자주 나오는 문자열을 preset dictionary로 주고 deflate한다.
+ * - 압축한 값은 첫 byte가 FORMAT_DEFLATE이다. 압축해도 작아지지 않는 짧은 값은 UTF-8 그대로 저장한다.
+ * - 이전 버전이 TEXT로 저장한 값도 UTF-8 그대로이므로 같은 방법으로 읽는다. JSON/텍스트는 0x01로 시작하지 않는다.
+ * - dictionary를 바꾸면 이미 저장된 값을 읽을 수 없으므로 새 FORMAT 값을 추가해야 한다.
+ */
+public final class PayloadCodec {
+    private static final byte FORMAT_DEFLATE = 0x01;
+    private static final int MIN_COMPRESS_BYTES = 32;
+
+    // deflate는 dictionary 뒤쪽에 있는 문자열을 더 짧게 참조하므로 자주 나오는 문자열을 뒤에 둔다.
+    private static final byte[] DICTIONARY = ("\"order_currency\":\"BTC\",\"payment_currency\":\"KRW\",\"order_id\":\"C0"
+            + "\"units_remaining\":\"\"fee\":\"\"transfer_date\":\"\"search\":\"\"units\":\"\"price\":\"\"total\":\"\"type\":\"bid\"\"type\":\"ask\""
+            + "{\"status\":\"0000\",\"data\":[{\"status\":\"5600\",\"message\":\""
+            + "\"server_url\": \"https://api.bithumb.com\",\n  \"api_endpoint\": \"/info/user_transactions\",\n"
+            + "  \"error_code\": \"\",\n  \"server_message\": \"\",\n  \"original_error\": \"\",\n  \"timestamp\": \"17"
+            + "/info/balance/info/orders/info/order_detail/public/ticker/public/orderbook/trade/place/trade/cancel"
+            + "{\"transactionTime\":\"\",\"btcCurrentPrice\":\"₩\",\"hourlyChange\":\"\",\"estimatedBalance\":\"₩"
+            + "\",\"lastBuyPrice\":\"₩\",\"lastSellPrice\":\"₩\",\"nextBuyPrice\":\"₩\"}").getBytes(StandardCharsets.UTF_8);
+
+    private PayloadCodec() {
+    }
+
+    /**
+     * 저장할 값으로 변환한다. null은 null이다.
+     */
+    public static byte[] pack(String text) {
+        if (text == null)
+            return null;
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < MIN_COMPRESS_BYTES)
+            return raw;
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+            out.write(FORMAT_DEFLATE);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+                if (out.size() >= raw.length)
+                    return raw;     // 압축해도 작아지지 않는다.
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 저장된 값을 문자열로 복원한다. 압축된 값이 깨졌으면 IllegalStateException을 던진다.
+     */
+    public static String unpack(byte[] stored) {
+        if (stored == null)
+            return null;
+        if (!isCompressed(stored))
+            return new String(stored, StandardCharsets.UTF_8);
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored, 1, stored.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(stored.length * 4);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.needsInput()) {
+                        throw new IllegalStateException("truncated payload");
+                    }
+                }
+                out.write(buffer, 0, count);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public static boolean isCompressed(byte[] stored) {
+        return stored != null && stored.length > 0 && stored[0] == FORMAT_DEFLATE;
+    }
+
+    /**
+     * 압축하지 않았을 때의 크기(UTF-8 byte 수)
+     */
+    public static int rawLength(String text) {
+        if (text == null)
+            return 0;
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.k_trader.database;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.support.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * 코인별 시장가 OHLC 봉 (1분/1시간/1일)
+ *
+ * (coin_type, resolution, open_time)이 primary key이므로 한 코인/단위의 기간 조회는 primary key 인덱스만 읽는다.
+ * resolution은 봉 단위(초)이고 open_time은 봉이 시작하는 시각이다.
+ */
+@Entity(tableName = "price_candles", primaryKeys = {"coin_type", "resolution", "open_time"})
+public class PriceCandleEntity {
+
+    @NonNull
+    @ColumnInfo(name = "coin_type")
+    private String coinType = "";
+
+    @ColumnInfo(name = "resolution")
+    private int resolution;
+
+    @ColumnInfo(name = "open_time")
+    private long openTime;
+
+    @ColumnInfo(name = "open")
+    private int open;
+
+    @ColumnInfo(name = "high")
+    private int high;
+
+    @ColumnInfo(name = "low")
+    private int low;
+
+    @ColumnInfo(name = "close")
+    private int close;
+
+    @ColumnInfo(name = "tick_count")
+    private int tickCount;
+
+    public PriceCandleEntity() {
+    }
+
+    public PriceCandleEntity(@NonNull String coinType, int resolution, long openTime, int price) {
+        this.coinType = coinType;
+        this.resolution = resolution;
+        this.openTime = openTime;
+        this.open = price;
+        this.high = price;
+        this.low = price;
+        this.close = price;
+        this.tickCount = 1;
+    }
+
+    /**
+     * 같은 봉에 이어서 들어온 가격을 반영한다.
+     */
+    public void add(int price) {
+        if (price > high)
+            high = price;
+        if (price < low)
+            low = price;
+        close = price;
+        tickCount++;
+    }
+
+    /**
+     * 이 봉 이후에 모은 같은 봉의 가격(later)을 합친다.
+     */
+    public void merge(PriceCandleEntity later) {
+        if (later.high > high)
+            high = later.high;
+        if (later.low < low)
+            low = later.low;
+        close = later.close;
+        tickCount += later.tickCount;
+    }
+
+    // Getters and Setters
+    @NonNull
+    public String getCoinType() {
+        return coinType;
+    }
+
+    public void setCoinType(@NonNull String coinType) {
+        this.coinType = coinType;
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(int resolution) {
+        this.resolution = resolution;
+    }
+
+    public long getOpenTime() {
+        return openTime;
+    }
+
+    public void setOpenTime(long openTime) {
+        this.openTime = openTime;
+    }
+
+    public int getOpen() {
+        return open;
+    }
+
+    public void setOpen(int open) {
+        this.open = open;
+    }
+
+    public int getHigh() {
+        return high;
+    }
+
+    public void setHigh(int high) {
+        this.high = high;
+    }
+
+    public int getLow() {
+        return low;
+    }
+
+    public void setLow(int low) {
+        this.low = low;
+    }
+
+    public int getClose() {
+        return close;
+    }
+
+    public void setClose(int close) {
+        this.close = close;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    public void setTickCount(int tickCount) {
+        this.tickCount = tickCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.getDefault(), "%s %ds %d O:%,d H:%,d L:%,d C:%,d (%d)",
+                coinType, resolution, openTime, open, high, low, close, tickCount);
+    }
+}
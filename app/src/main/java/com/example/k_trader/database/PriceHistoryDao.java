@@ -0,0 +1,43 @@
+package com.example.k_trader.database;
+
+import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Insert;
+import android.arch.persistence.room.OnConflictStrategy;
+import android.arch.persistence.room.Query;
+import android.arch.persistence.room.Update;
+
+import java.util.List;
+
+/**
+ * 시장가 기록(체결가, OHLC 봉) DAO
+ *
+ * 모든 조회/삭제는 coin_type과 resolution을 같음 조건으로 주고 시간을 범위 조건으로 주므로 primary key 인덱스를 사용한다.
+ */
+@Dao
+public interface PriceHistoryDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertTicks(List<PriceTickEntity> ticks);
+
+    @Query("SELECT * FROM price_ticks WHERE coin_type = :coinType AND time >= :fromTime AND time < :toTime ORDER BY time")
+    List<PriceTickEntity> getTicks(String coinType, long fromTime, long toTime);
+
+    @Query("DELETE FROM price_ticks WHERE coin_type = :coinType AND time < :beforeTime")
+    int deleteTicksBefore(String coinType, long beforeTime);
+
+    @Insert
+    void insertCandle(PriceCandleEntity candle);
+
+    @Update
+    int updateCandle(PriceCandleEntity candle);
+
+    @Query("SELECT * FROM price_candles WHERE coin_type = :coinType AND resolution = :resolution AND open_time = :openTime")
+    PriceCandleEntity getCandle(String coinType, int resolution, long openTime);
+
+    @Query("SELECT * FROM price_candles WHERE coin_type = :coinType AND resolution = :resolution "
+            + "AND open_time >= :fromTime AND open_time < :toTime ORDER BY open_time")
+    List<PriceCandleEntity> getCandles(String coinType, int resolution, long fromTime, long toTime);
+
+    @Query("DELETE FROM price_candles WHERE coin_type = :coinType AND resolution = :resolution AND open_time < :beforeTime")
+    int deleteCandlesBefore(String coinType, int resolution, long beforeTime);
+}
@@ -0,0 +1,115 @@
+package com.example.k_trader.database;
+
+import android.content.Context;
+
+import com.example.k_trader.base.PriceHistory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Single;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * 시장가 기록 Repository
+ *
+ * PriceHistory에 모인 체결가와 봉을 한 transaction으로 저장하고, 단위별 보관 기간이 지난 기록을 지운다.
+ */
+public class PriceHistoryRepository {
+
+    private static final long RETENTION_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+
+    private static volatile PriceHistoryRepository INSTANCE;
+    private final OrderDatabase database;
+    private final PriceHistoryDao priceHistoryDao;
+    private final Map<String, Long> lastRetentionTimes = new HashMap<>();
+
+    private PriceHistoryRepository(Context context) {
+        this.database = OrderDatabase.getInstance(context);
+        this.priceHistoryDao = database.priceHistoryDao();
+    }
+
+    /**
+     * 싱글톤 패턴으로 Repository 인스턴스 반환
+     */
+    public static PriceHistoryRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (PriceHistoryRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new PriceHistoryRepository(context);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * drain()한 기록을 저장한다. 봉은 DB에 있는 같은 봉과 합친다.
+     * 코인마다 한 시간에 한 번 보관 기간이 지난 기록도 함께 지운다.
+     */
+    public Completable save(PriceHistory.Batch batch) {
+        return Completable.fromAction(() -> database.runInTransaction(() -> {
+                    if (!batch.ticks.isEmpty())
+                        priceHistoryDao.insertTicks(batch.ticks);
+                    for (PriceCandleEntity candle : batch.candles) {
+                        PriceCandleEntity stored = priceHistoryDao.getCandle(candle.getCoinType(), candle.getResolution(), candle.getOpenTime());
+                        if (stored == null) {
+                            priceHistoryDao.insertCandle(candle);
+                        } else {
+                            stored.merge(candle);
+                            priceHistoryDao.updateCandle(stored);
+                        }
+                    }
+                    long now = System.currentTimeMillis();
+                    if (isRetentionDue(batch.coinType, now))
+                        deleteExpired(batch.coinType, now);
+                }))
+                .subscribeOn(Schedulers.io());
+    }
+
+    private synchronized boolean isRetentionDue(String coinType, long now) {
+        Long last = lastRetentionTimes.get(coinType);
+        if (last != null && now - last < RETENTION_INTERVAL_MS)
+            return false;
+        lastRetentionTimes.put(coinType, now);
+        return true;
+    }
+
+    private void deleteExpired(String coinType, long now) {
+        priceHistoryDao.deleteTicksBefore(coinType, now - PriceHistory.TICK_RETENTION_MS);
+        for (PriceHistory.Resolution resolution : PriceHistory.Resolution.values()) {
+            if (resolution.retentionMillis > 0)
+                priceHistoryDao.deleteCandlesBefore(coinType, resolution.seconds, now - resolution.retentionMillis);
+        }
+    }
+
+    /**
+     * [fromTime, toTime) 구간의 봉 조회
+     */
+    public Single<List<PriceCandleEntity>> getCandles(String coinType, PriceHistory.Resolution resolution, long fromTime, long toTime) {
+        return Single.fromCallable(() -> priceHistoryDao.getCandles(coinType, resolution.seconds, fromTime, toTime))
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread());
+    }
+
+    /**
+     * [fromTime, toTime) 구간을 maxCandles개 이하로 그릴 수 있는 가장 짧은 단위의 봉 조회 (차트 표시용)
+     */
+    public Single<List<PriceCandleEntity>> getCandlesForChart(String coinType, long fromTime, long toTime, int maxCandles) {
+        PriceHistory.Resolution resolution = PriceHistory.Resolution.forRange(fromTime, toTime, System.currentTimeMillis(), maxCandles);
+        return getCandles(coinType, resolution, fromTime, toTime);
+    }
+
+    /**
+     * [fromTime, toTime) 구간의 체결가 조회
+     */
+    public Single<List<PriceTickEntity>> getTicks(String coinType, long fromTime, long toTime) {
+        return Single.fromCallable(() -> priceHistoryDao.getTicks(coinType, fromTime, toTime))
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.k_trader.database;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.support.annotation.NonNull;
+
+/**
+ * 코인별 체결가 기록
+ *
+ * 정수 컬럼 세 개만 저장하고 (coin_type, time)을 primary key로 사용한다. 같은 시각(ms)의 체결가는 마지막 것만 남는다.
+ */
+@Entity(tableName = "price_ticks", primaryKeys = {"coin_type", "time"})
+public class PriceTickEntity {
+
+    @NonNull
+    @ColumnInfo(name = "coin_type")
+    private String coinType = "";
+
+    @ColumnInfo(name = "time")
+    private long time;
+
+    @ColumnInfo(name = "price")
+    private int price;
+
+    public PriceTickEntity() {
+    }
+
+    public PriceTickEntity(@NonNull String coinType, long time, int price) {
+        this.coinType = coinType;
+        this.time = time;
+        this.price = price;
+    }
+
+    // Getters and Setters
+    @NonNull
+    public String getCoinType() {
+        return coinType;
+    }
+
+    public void setCoinType(@NonNull String coinType) {
+        this.coinType = coinType;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    public void setPrice(int price) {
+        this.price = price;
+    }
+}
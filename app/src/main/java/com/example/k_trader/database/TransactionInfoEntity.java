@@ -1,13 +1,18 @@
 package com.example.k_trader.database;
 
 import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.Index;
 import android.arch.persistence.room.PrimaryKey;
 import android.arch.persistence.room.ColumnInfo;
 
 /**
  * Transaction 정보를 저장하는 Entity
  */
-@Entity(tableName = "transaction_info")
+@Entity(tableName = "transaction_info",
+        indices = {
+                @Index({"created_at"}),                     // 최신 정보 조회
+                @Index({"is_from_server", "created_at"})    // 최신 서버 정보 조회
+        })
 public class TransactionInfoEntity {
     
     @PrimaryKey(autoGenerate = true)
@@ -0,0 +1,211 @@
+package com.example.k_trader.database;
+
+import android.util.Log;
+
+import com.example.k_trader.bitthumb.lib.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 한 건씩 들어오는 insert를 모아 batch로 저장하는 write-behind 큐
+ *
+ * 장애 중에 에러/API 호출 기록이 쏟아져도 행마다 transaction과 observer 갱신이 일어나지 않도록
+ * batchSize개가 모이거나 첫 항목이 들어온 뒤 maxDelayMillis가 지나면 전용 스레드에서 한 번의 writer 호출(한 transaction)로 저장한다.
+ * - 큐가 capacity만큼 차 있으면 offer()를 호출한 스레드가 최대 offerTimeoutMillis까지 기다린다(backpressure).
+ *   그래도 자리가 나지 않으면 그 항목은 버리고 dropped로 센다.
+ * - batchSize가 모여서 하는 저장은 꽉 찬 batch만 저장하고, 남은 항목은 지연 저장이 가져간다.
+ * - writer가 실패한 batch는 다시 시도하지 않고 failed로 센다.
+ * - close()는 남은 항목을 모두 저장한 뒤 스레드를 종료한다. 이후의 offer()는 버린다.
+ */
+public class WriteBehindQueue<T> {
+
+    /**
+     * 모인 항목을 한 번에 저장한다. 전용 스레드에서 호출된다.
+     */
+    public interface BatchWriter<T> {
+        void write(List<T> items);
+    }
+
+    private final String name;
+    private final BatchWriter<T> writer;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final long offerTimeoutMillis;
+    private final ArrayBlockingQueue<T> queue;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicBoolean immediateFlushScheduled = new AtomicBoolean();
+    private final AtomicBoolean delayedFlushScheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong maxDepth = new AtomicLong();
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+
+    public WriteBehindQueue(String name, BatchWriter<T> writer, int batchSize, long maxDelayMillis, int capacity, long offerTimeoutMillis) {
+        if (batchSize <= 0 || capacity < batchSize)
+            throw new IllegalArgumentException("capacity must be at least batchSize");
+        this.name = name;
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "WriteBehind-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 저장할 항목을 큐에 넣는다. 큐에 넣었으면 true, 버렸으면 false를 리턴한다.
+     */
+    public boolean offer(T item) {
+        if (closed.get()) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        boolean added = queue.offer(item);
+        if (!added) {
+            // 저장 스레드가 따라오지 못하고 있으므로 batch를 바로 저장하게 하고 자리가 날 때까지 기다린다.
+            requestFlush(true);
+            try {
+                added = queue.offer(item, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!added) {
+                droppedCount.incrementAndGet();
+                return false;
+            }
+        }
+        enqueuedCount.incrementAndGet();
+        int depth = queue.size();
+        maxDepth.accumulateAndGet(depth, Math::max);
+        requestFlush(false);
+        if (depth >= batchSize)
+            requestFlush(true);
+        return true;
+    }
+
+    // 같은 종류의 저장이 이미 예약되어 있으면 그 저장이 이번 항목도 가져간다.
+    // 예약 표시는 저장을 시작하기 전에 지우므로 저장 중에 들어온 항목은 새로 예약된 저장이 가져간다.
+    private void requestFlush(boolean immediate) {
+        AtomicBoolean scheduled = immediate ? immediateFlushScheduled : delayedFlushScheduled;
+        if (!scheduled.compareAndSet(false, true))
+            return;
+        try {
+            executor.schedule(() -> {
+                scheduled.set(false);
+                drain(immediate);
+            }, immediate ? 0 : maxDelayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // close() 이후에는 close()가 남은 항목을 저장한다.
+            scheduled.set(false);
+        }
+    }
+
+    private void drainAll() {
+        drain(false);
+    }
+
+    // 저장 스레드(종료된 뒤에는 close()를 호출한 스레드)에서만 호출한다.
+    // fullBatchesOnly이면 batchSize만큼 모인 동안만 저장하고, 덜 모인 나머지는 큐에 남긴다.
+    private void drain(boolean fullBatchesOnly) {
+        List<T> batch = new ArrayList<>(batchSize);
+        while ((!fullBatchesOnly || queue.size() >= batchSize) && queue.drainTo(batch, batchSize) > 0) {
+            long start = System.nanoTime();
+            try {
+                writer.write(batch);
+                writtenCount.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                failedCount.addAndGet(batch.size());
+                Log.e("KTrader", "[WriteBehindQueue] " + name + " " + batch.size() + "건 저장 실패", e);
+            } finally {
+                batchCount.incrementAndGet();
+                flushLatency.record(System.nanoTime() - start);
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * 지금까지 들어온 항목을 모두 저장할 때까지 기다린다.
+     */
+    public void flush(long timeoutMillis) {
+        try {
+            executor.submit(this::drainAll).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 이미 close()되었다.
+        } catch (Exception e) {
+            Log.e("KTrader", "[WriteBehindQueue] " + name + " flush 실패", e);
+        }
+    }
+
+    /**
+     * 남은 항목을 저장하고 저장 스레드를 종료한다. 서비스가 종료될 때 호출한다.
+     */
+    public void close(long timeoutMillis) {
+        if (!closed.compareAndSet(false, true))
+            return;
+        flush(timeoutMillis);
+        executor.shutdownNow();
+        try {
+            // close() 직전에 들어온 항목은 저장 스레드가 끝난 뒤 여기서 저장한다.
+            if (executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS))
+                drainAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(queue.size(), maxDepth.get(), enqueuedCount.get(), writtenCount.get(), batchCount.get(),
+                droppedCount.get(), failedCount.get(), flushLatency.snapshot());
+    }
+
+    /**
+     * write-behind 큐 통계
+     */
+    public static class Stats {
+        public final int depth;             // 저장을 기다리는 항목 수
+        public final long maxDepth;
+        public final long enqueuedCount;
+        public final long writtenCount;
+        public final long batchCount;       // writer 호출(transaction) 수
+        public final long droppedCount;     // 큐가 차서(또는 close() 이후라서) 버린 항목 수
+        public final long failedCount;      // writer가 실패해서 저장하지 못한 항목 수
+        public final LatencyHistogram.Snapshot flushLatency;   // batch 하나를 저장하는 데 걸린 시간
+
+        Stats(int depth, long maxDepth, long enqueuedCount, long writtenCount, long batchCount, long droppedCount, long failedCount,
+              LatencyHistogram.Snapshot flushLatency) {
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.enqueuedCount = enqueuedCount;
+            this.writtenCount = writtenCount;
+            this.batchCount = batchCount;
+            this.droppedCount = droppedCount;
+            this.failedCount = failedCount;
+            this.flushLatency = flushLatency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "depth=%d, maxDepth=%d, enqueued=%d, written=%d, batches=%d, dropped=%d, failed=%d, flush=[%s]",
+                    depth, maxDepth, enqueuedCount, writtenCount, batchCount, droppedCount, failedCount, flushLatency);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.database.ApiCallResultEntity;
+import com.example.k_trader.database.ApiCallStoragePolicy;
+import com.example.k_trader.database.PayloadCodec;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class ApiCallStoragePolicyTest {
+    private static final String TRANSACTION_JSON = "{\"transactionTime\":\"2024-01-01 12:00:00\",\"btcCurrentPrice\":\"₩50,123,000\","
+            + "\"hourlyChange\":\"+0.52%\",\"estimatedBalance\":\"₩12,345,678\",\"lastBuyPrice\":\"₩49,800,000\","
+            + "\"lastSellPrice\":\"₩50,300,000\",\"nextBuyPrice\":\"₩49,550,000\"}";
+    private static final String ERROR_JSON = "{\n  \"server_url\": \"https://api.bithumb.com/info/orders\",\n"
+            + "  \"api_endpoint\": \"/info/orders\",\n  \"error_code\": \"5600\",\n  \"server_message\": \"거래 진행중인 내역이 존재하지 않습니다.\",\n"
+            + "  \"original_error\": \"{\\\"status\\\":\\\"5600\\\",\\\"message\\\":\\\"거래 진행중인 내역이 존재하지 않습니다.\\\"}\",\n"
+            + "  \"timestamp\": \"1704078000000\"\n}";
+
+    private static ApiCallResultEntity call(String endpoint, boolean success, long callTime) {
+        ApiCallResultEntity entity = new ApiCallResultEntity();
+        entity.setApiEndpoint(endpoint);
+        entity.setSuccess(success);
+        entity.setCallTime(callTime);
+        return entity;
+    }
+
+    @Test
+    public void compressesRepetitiveJson() {
+        byte[] packed = PayloadCodec.pack(TRANSACTION_JSON);
+        assertTrue(PayloadCodec.isCompressed(packed));
+        assertEquals(TRANSACTION_JSON, PayloadCodec.unpack(packed));
+        assertTrue(packed.length + " / " + PayloadCodec.rawLength(TRANSACTION_JSON), packed.length * 2 < PayloadCodec.rawLength(TRANSACTION_JSON));
+
+        byte[] error = PayloadCodec.pack(ERROR_JSON);
+        assertEquals(ERROR_JSON, PayloadCodec.unpack(error));
+        assertTrue(error.length * 2 < PayloadCodec.rawLength(ERROR_JSON));
+    }
+
+    // 짧은 값과 이전 버전이 TEXT로 저장한 값은 UTF-8 그대로 읽는다.
+    @Test
+    public void readsUncompressedValues() {
+        assertArrayEquals("Success".getBytes(StandardCharsets.UTF_8), PayloadCodec.pack("Success"));
+        assertEquals("Success", PayloadCodec.unpack(PayloadCodec.pack("Success")));
+        assertEquals(TRANSACTION_JSON, PayloadCodec.unpack(TRANSACTION_JSON.getBytes(StandardCharsets.UTF_8)));
+        assertFalse(PayloadCodec.isCompressed(TRANSACTION_JSON.getBytes(StandardCharsets.UTF_8)));
+        assertNull(PayloadCodec.pack(null));
+        assertNull(PayloadCodec.unpack(null));
+        assertEquals("", PayloadCodec.unpack(PayloadCodec.pack("")));
+    }
+
+    // 실패는 모두 저장하고, 성공은 endpoint마다 10분에 한 건만 본문을 저장한다.
+    @Test
+    public void samplesSuccessBodies() {
+        ApiCallStoragePolicy policy = new ApiCallStoragePolicy();
+        long start = 1704078000000L;
+        int kept = 0;
+        for (int i = 0; i < 60; i++) {     // 1분마다 30분 동안 두 endpoint 호출
+            for (String endpoint : new String[]{"TransactionData", "/info/balance"}) {
+                ApiCallResultEntity entity = call(endpoint, true, start + i * 60000L);
+                policy.applyPayload(entity, "Success", TRANSACTION_JSON);
+                if (entity.getTransactionData() != null) {
+                    assertEquals(TRANSACTION_JSON, entity.getTransactionData());
+                    assertEquals("Success", entity.getResponseData());
+                    kept++;
+                } else {
+                    assertNull(entity.getResponseData());
+                }
+            }
+        }
+        assertEquals(12, kept);     // endpoint마다 0, 10, 20, 30, 40, 50분
+
+        for (int i = 0; i < 5; i++) {
+            ApiCallResultEntity failure = call("/info/orders", false, start + i);
+            policy.applyPayload(failure, ERROR_JSON, null);
+            assertEquals(ERROR_JSON, failure.getResponseData());
+        }
+
+        ApiCallStoragePolicy.Stats stats = policy.getStats();
+        assertEquals(12, stats.sampledCount);
+        assertEquals(108, stats.strippedCount);
+        long raw = 120L * (7 + PayloadCodec.rawLength(TRANSACTION_JSON)) + 5L * PayloadCodec.rawLength(ERROR_JSON);
+        assertEquals(raw, stats.rawBytes);
+        assertEquals(108L * (7 + PayloadCodec.rawLength(TRANSACTION_JSON)), stats.droppedBytes);
+        assertTrue(stats.storedBytes > 0 && stats.getSavedBytes() > stats.droppedBytes);
+    }
+}
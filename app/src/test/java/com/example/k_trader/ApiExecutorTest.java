@@ -0,0 +1,140 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.OrderManager;
+import com.example.k_trader.base.TradeData;
+import com.example.k_trader.bitthumb.lib.ApiExecutor;
+import com.example.k_trader.bitthumb.lib.ApiRateLimiter;
+import com.example.k_trader.bitthumb.lib.ApiRateLimiter.EndpointClass;
+import com.example.k_trader.bitthumb.lib.Api_Client;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Balance;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Orderbook;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ApiExecutorTest {
+    private static final long DELAY_MS = 300;
+
+    // 모든 요청이 DELAY_MS 만큼 걸리는 가짜 빗썸 응답
+    class SlowApiClient extends Api_Client {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public String callApiText(String method, String endpoint, HashMap<String, String> params) {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            calls.add(params != null && params.containsKey("seq") ? params.get("seq") : endpoint);
+            running.decrementAndGet();
+
+            switch (endpoint) {
+                case "/info/balance":
+                    return "{\"status\":\"0000\",\"data\":{\"total_krw\":\"1000000\",\"available_krw\":\"1000000\",\"total_btc\":\"0.1\",\"available_btc\":\"0.1\"}}";
+                case "/public/orderbook/BTC":
+                    return "{\"status\":\"0000\",\"data\":{\"bids\":[{\"price\":\"50000000\",\"quantity\":\"1\"}],\"asks\":[]}}";
+                case "/info/orders":
+                    return "{\"status\":\"0000\",\"data\":[{\"order_id\":\"1\",\"type\":\"ask\",\"units_remaining\":\"0.01\",\"price\":\"51000000\",\"order_date\":\"1000000\"}]}";
+                case "/info/user_transactions":
+                    return "{\"status\":\"0000\",\"data\":[]}";
+            }
+            return "{\"status\":\"0000\"}";
+        }
+    }
+
+    // 네 조회를 동시에 요청하면 가장 느린 요청 하나의 시간 정도에 끝나야 한다.
+    @Test
+    public void fanOut_wallTimeCloseToSlowestCall() throws Exception {
+        final SlowApiClient api = new SlowApiClient();
+        OrderManager orderManager = new OrderManager(new OrderManager.TradeApiService() {
+            @Override
+            public Api_Client getApiService() {
+                return api;
+            }
+        });
+
+        // 풀 생성과 클래스 로딩은 측정에서 제외한다.
+        ApiExecutor.await(ApiExecutor.getInstance().submit("/public/ticker/BTC", () -> null));
+
+        long start = System.nanoTime();
+        CompletableFuture<Balance> balance = orderManager.getBalanceInfoAsync("");
+        CompletableFuture<Orderbook> orderbook = orderManager.getOrderbookAsync("");
+        CompletableFuture<List<TradeData>> placed = orderManager.getPlacedOrdersAsync("");
+        CompletableFuture<List<TradeData>> processed = orderManager.getProcessedOrdersAsync("", 0, "50");
+
+        assertEquals(1000000, ApiExecutor.await(balance).totalKrw);
+        assertEquals(50000000, ApiExecutor.await(orderbook).getBestBidPrice(), 0);
+        assertEquals(1, ApiExecutor.await(placed).size());
+        assertEquals(0, ApiExecutor.await(processed).size());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(4, api.maxRunning.get());
+        assertTrue("elapsed " + elapsedMs + "ms", elapsedMs < DELAY_MS * 2);
+    }
+
+    // 주문 요청은 제출한 순서대로 하나씩 실행되어야 한다.
+    @Test
+    public void tradeEndpoints_runInSubmissionOrder() throws Exception {
+        SlowApiClient api = new SlowApiClient();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            HashMap<String, String> params = new HashMap<>();
+            params.put("seq", String.valueOf(i));
+            futures.add(api.callApiTextAsync("POST", i % 2 == 0 ? "/trade/place" : "/trade/cancel", params));
+        }
+        for (CompletableFuture<String> future : futures)
+            ApiExecutor.await(future);
+
+        assertEquals(1, api.maxRunning.get());
+        assertEquals(Arrays.asList("0", "1", "2", "3"), api.calls);
+    }
+
+    // task에서 발생한 예외는 await()에서 그대로 다시 던져진다.
+    @Test(expected = IllegalStateException.class)
+    public void await_rethrowsTaskException() throws Exception {
+        ApiExecutor.await(ApiExecutor.getInstance().submit("/info/balance", () -> {
+            throw new IllegalStateException("fail");
+        }));
+    }
+
+    // 네트워크 요청을 보내지 않은 task는 호출 제한 token을 쓰지 않는다.
+    @Test
+    public void submit_takesNoTokenWithoutNetworkCall() throws Exception {
+        ApiRateLimiter limiter = ApiRateLimiter.getInstance();
+        long before = limiter.getStats(EndpointClass.PUBLIC).grantedCount;
+
+        for (int i = 0; i < 5; i++)
+            ApiExecutor.await(ApiExecutor.getInstance().submit("/public/ticker/BTC", () -> null));
+
+        assertEquals(before, limiter.getStats(EndpointClass.PUBLIC).grantedCount);
+    }
+
+    // task는 제출한 스레드의 lane으로 실행되고, 풀 스레드에 lane이 남지 않는다.
+    @Test
+    public void submit_runsInSubmittersLane() throws Exception {
+        ApiRateLimiter.setLane("ETH");
+        try {
+            assertEquals("ETH", ApiExecutor.await(ApiExecutor.getInstance().submit("/trade/place", ApiRateLimiter::getLane)));
+        } finally {
+            ApiRateLimiter.setLane(null);
+        }
+        assertEquals(ApiRateLimiter.DEFAULT_LANE, ApiExecutor.await(ApiExecutor.getInstance().submit("/trade/place", ApiRateLimiter::getLane)));
+        assertEquals("BTC", ApiExecutor.await(ApiExecutor.getInstance().submit("/info/balance", "BTC", ApiRateLimiter::getLane)));
+    }
+}
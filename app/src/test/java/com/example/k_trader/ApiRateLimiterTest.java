@@ -0,0 +1,125 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.k_trader.bitthumb.lib.ApiRateLimiter;
+import com.example.k_trader.bitthumb.lib.ApiRateLimiter.EndpointClass;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class ApiRateLimiterTest {
+
+    @After
+    public void tearDown() {
+        ApiRateLimiter.getInstance().configureDefaults();
+    }
+
+    @Test
+    public void endpointClass_of() {
+        assertEquals(EndpointClass.PUBLIC, EndpointClass.of("/public/orderbook/BTC"));
+        assertEquals(EndpointClass.PRIVATE_READ, EndpointClass.of("/info/balance"));
+        assertEquals(EndpointClass.TRADE, EndpointClass.of("/trade/place"));
+        assertEquals(EndpointClass.TRADE, EndpointClass.of("/trade/cancel"));
+    }
+
+    // token이 없으면 acquire()는 기다리지 않고 리턴하며, 이후 초당 허용 횟수에 맞춰 요청 순서대로 완료된다.
+    @Test
+    public void acquire_queuesWithoutBlockingAndKeepsOrder() throws Exception {
+        ApiRateLimiter limiter = ApiRateLimiter.getInstance();
+        limiter.configure(EndpointClass.TRADE, 10, 1, 10, 10000);
+
+        final List<Integer> completed = Collections.synchronizedList(new ArrayList<Integer>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            final int seq = i;
+            CompletableFuture<Void> future = limiter.acquire("/trade/place");
+            futures.add(future.thenRun(() -> completed.add(seq)));
+        }
+        long submitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("submit " + submitMs + "ms", submitMs < 50);
+        assertTrue(futures.get(0).isDone());
+        assertFalse(futures.get(4).isDone());
+
+        for (CompletableFuture<Void> future : futures)
+            future.get();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 첫 요청은 바로, 나머지 4개는 100ms 간격
+        assertTrue("elapsed " + elapsedMs + "ms", elapsedMs >= 350 && elapsedMs < 1000);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), completed);
+
+        ApiRateLimiter.Stats stats = limiter.getStats(EndpointClass.TRADE);
+        assertEquals(5, stats.grantedCount);
+        assertEquals(4, stats.delayedCount);
+        assertEquals(0, stats.rejectedCount);
+        assertTrue(stats.maxWaitNanos >= TimeUnit.MILLISECONDS.toNanos(350));
+    }
+
+    // 대기열이 가득 차면 거절한다.
+    @Test
+    public void acquire_rejectsWhenQueueIsFull() throws Exception {
+        ApiRateLimiter limiter = ApiRateLimiter.getInstance();
+        limiter.configure(EndpointClass.PRIVATE_READ, 10, 1, 2, 10000);
+
+        limiter.acquire("/info/balance");
+        limiter.acquire("/info/orders");
+        limiter.acquire("/info/orders");
+        CompletableFuture<Void> rejected = limiter.acquire("/info/user_transactions");
+
+        try {
+            rejected.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals(ApiRateLimiter.RejectedException.class, e.getCause().getClass());
+        }
+        assertEquals(1, limiter.getStats(EndpointClass.PRIVATE_READ).rejectedCount);
+    }
+
+    // 예상 대기 시간이 최대 대기 시간보다 길면 거절한다.
+    @Test
+    public void acquire_rejectsWhenWaitIsTooLong() {
+        ApiRateLimiter limiter = ApiRateLimiter.getInstance();
+        limiter.configure(EndpointClass.PUBLIC, 1, 1, 10, 500);
+
+        assertTrue(limiter.acquire("/public/ticker/BTC").isDone());
+        assertTrue(limiter.acquire("/public/ticker/BTC").isCompletedExceptionally());
+        assertEquals(1, limiter.getStats(EndpointClass.PUBLIC).rejectedCount);
+    }
+
+    // 설정을 바꾸면 기다리던 요청은 한꺼번에 풀리지 않고 새 설정의 속도로 순서대로 완료된다.
+    @Test
+    public void configure_movesWaitersToNewBucket() throws Exception {
+        ApiRateLimiter limiter = ApiRateLimiter.getInstance();
+        limiter.configure(EndpointClass.TRADE, 1, 1, 10, 10000);
+
+        assertTrue(limiter.acquire("/trade/place").isDone());
+        final List<Integer> completed = Collections.synchronizedList(new ArrayList<Integer>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final int seq = i;
+            futures.add(limiter.acquire("/trade/place").thenRun(() -> completed.add(seq)));
+        }
+
+        limiter.configure(EndpointClass.TRADE, 10, 1, 10, 10000);
+        Thread.sleep(30);
+        assertTrue("completed " + completed, completed.size() <= 1);
+
+        for (CompletableFuture<Void> future : futures)
+            future.get(2, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(0, 1, 2, 3), completed);
+    }
+}
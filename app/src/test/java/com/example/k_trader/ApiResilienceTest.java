@@ -0,0 +1,189 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.bitthumb.lib.ApiResilience;
+import com.example.k_trader.bitthumb.lib.ApiResilience.CircuitState;
+import com.example.k_trader.bitthumb.lib.ApiRateLimiter.EndpointClass;
+import com.example.k_trader.bitthumb.lib.Api_Client;
+import com.example.k_trader.bitthumb.lib.LatencyHistogram;
+import com.example.k_trader.bitthumb.lib.MarketDataGateway;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 로컬 HTTP 서버로 재시도, circuit breaker, 응답 시간 기록을 확인한다.
+ */
+public class ApiResilienceTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String OK = "{\"status\":\"0000\",\"data\":{}}";
+    private static final String SERVER_ERROR = "{\"status\":\"5600\",\"message\":\"잠시 후 다시 시도해 주세요.\"}";
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    // 서버가 차례대로 돌려줄 응답. "500:..." 형식이면 HTTP 500으로 응답한다. 비어 있으면 OK를 돌려준다.
+    private final ConcurrentLinkedQueue<String> responses = new ConcurrentLinkedQueue<>();
+
+    class LocalApiClient extends Api_Client {
+        LocalApiClient() {
+            api_url = "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        GlobalSettings.getInstance().setApiKey("key").setApiSecret("secret");
+        ApiResilience.getInstance().configure(3, 300, 2, 10, 20);
+        MarketDataGateway.getInstance().invalidate();
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            String next = responses.poll();
+            int code = 200;
+            String body = next == null ? OK : next;
+            if (body.startsWith("500:")) {
+                code = 500;
+                body = body.substring(4);
+            }
+            byte[] bytes = body.getBytes(UTF_8);
+            exchange.sendResponseHeaders(code, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        ApiResilience.getInstance().configureDefaults();
+        MarketDataGateway.getInstance().invalidate();
+    }
+
+    // 조회 요청은 5xx, 5600 응답이면 다시 요청한다.
+    @Test
+    public void retriesReadsOnServerErrors() {
+        responses.add("500:error");
+        responses.add(SERVER_ERROR);
+
+        String body = new LocalApiClient().callApiText("POST", "/info/balance", null);
+
+        assertEquals(OK, body);
+        assertEquals(3, hits.get());
+        assertEquals(2, ApiResilience.getInstance().getRetryCount());
+        assertEquals(CircuitState.CLOSED, ApiResilience.getInstance().getState(EndpointClass.PRIVATE_READ));
+    }
+
+    // 미체결 주문이 없다는 5600 응답은 오류가 아니므로 다시 요청하지 않는다.
+    @Test
+    public void noOpenOrdersNoticeIsNotFailure() {
+        String notice = "{\"status\":\"5600\",\"message\":\"거래 진행중인 내역이 존재하지 않습니다.\"}";
+        for (int i = 0; i < 5; i++)
+            responses.add(notice);
+
+        Api_Client client = new LocalApiClient();
+        for (int i = 0; i < 5; i++)
+            assertEquals(notice, client.callApiText("POST", "/info/orders", null));
+
+        assertEquals(5, hits.get());
+        assertEquals(0, ApiResilience.getInstance().getRetryCount());
+        assertEquals(CircuitState.CLOSED, ApiResilience.getInstance().getState(EndpointClass.PRIVATE_READ));
+    }
+
+    // message가 status보다 앞에 와도 5600을 알아보고, 형식이 깨진 응답은 다시 요청하지 않고 그대로 돌려준다.
+    @Test
+    public void readsStatusAsJson() {
+        responses.add("{\"message\":\"잠시 후 다시 시도해 주세요.\", \"status\" : \"5600\"}");
+        assertEquals(OK, new LocalApiClient().callApiText("POST", "/info/balance", null));
+        assertEquals(2, hits.get());
+
+        String truncated = "{\"status\":\"5600\",\"message\":\"";
+        responses.add(truncated);
+        assertEquals(truncated, new LocalApiClient().callApiText("POST", "/info/balance", null));
+        assertEquals(3, hits.get());
+    }
+
+    // 주문 요청은 중복 주문이 될 수 있으므로 다시 요청하지 않는다.
+    @Test
+    public void doesNotRetryTrades() {
+        responses.add(SERVER_ERROR);
+
+        String body = new LocalApiClient().callApiText("POST", "/trade/place", null);
+
+        assertEquals(SERVER_ERROR, body);
+        assertEquals(1, hits.get());
+    }
+
+    // 연속으로 실패하면 circuit이 열려 요청을 보내지 않고, 시간이 지나면 시험 요청이 성공한 뒤 다시 닫힌다.
+    @Test
+    public void circuitOpensAfterConsecutiveFailuresAndRecovers() throws Exception {
+        ApiResilience.getInstance().configure(3, 300, 0, 10, 20);
+        for (int i = 0; i < 3; i++)
+            responses.add(SERVER_ERROR);
+
+        Api_Client client = new LocalApiClient();
+        for (int i = 0; i < 3; i++)
+            assertEquals(SERVER_ERROR, client.callApiText("POST", "/trade/cancel", null));
+        assertEquals(CircuitState.OPEN, ApiResilience.getInstance().getState(EndpointClass.TRADE));
+
+        try {
+            client.callApiText("POST", "/trade/cancel", null);
+            fail();
+        } catch (ApiResilience.CircuitOpenException e) {
+            assertEquals(EndpointClass.TRADE, e.type);
+        }
+        assertEquals(3, hits.get());
+
+        // 다른 종류의 endpoint에는 영향이 없다.
+        assertEquals(OK, client.callApiText("POST", "/info/orders", null));
+
+        Thread.sleep(350);
+        assertEquals(OK, client.callApiText("POST", "/trade/cancel", null));
+        assertEquals(CircuitState.CLOSED, ApiResilience.getInstance().getState(EndpointClass.TRADE));
+    }
+
+    // 응답 시간이 충분히 쌓이면 조회 요청의 timeout은 p99를 기준으로 줄어든다.
+    @Test
+    public void readTimeoutFollowsObservedLatency() {
+        Api_Client client = new LocalApiClient();
+        assertEquals(ApiResilience.READ_TIMEOUT_DEFAULT_MS, ApiResilience.getInstance().getReadTimeoutMillis("/info/orders"));
+
+        for (int i = 0; i < 20; i++)
+            client.callApiText("POST", "/info/orders", null);
+
+        LatencyHistogram.Snapshot snapshot = ApiResilience.getInstance().getLatencySnapshots().get("/info/orders");
+        assertEquals(20, snapshot.count);
+        assertTrue(snapshot.p99Ms <= 500);
+        assertEquals(2000, ApiResilience.getInstance().getReadTimeoutMillis("/info/orders"));
+        assertEquals(ApiResilience.READ_TIMEOUT_DEFAULT_MS, ApiResilience.getInstance().getReadTimeoutMillis("/trade/place"));
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++)
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(40));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(400));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(30000));
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getPercentileMillis(50));
+        assertEquals(500, histogram.getPercentileMillis(99));
+        assertEquals(30000, histogram.getPercentileMillis(100));
+    }
+}
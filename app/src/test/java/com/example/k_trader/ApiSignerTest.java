@@ -0,0 +1,113 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.bitthumb.lib.ApiSigner;
+import com.example.k_trader.bitthumb.lib.Api_Client;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ApiSignerTest {
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final String MESSAGE = "/info/balance;order_currency=BTC&payment_currency=KRW&endpoint=%2Finfo%2Fbalance;1700000000000";
+
+    private static String legacySign(String message, String secret) {
+        return Api_Client.asHex(Api_Client.hmacSha512(message, secret));
+    }
+
+    // 기존 방식과 Api-Sign 값이 완전히 같아야 한다.
+    @Test
+    public void sign_matchesLegacySignature() {
+        ApiSigner signer = ApiSigner.getInstance();
+        String[] messages = {
+                "",
+                "a",
+                MESSAGE,
+                "/trade/place;order_currency=BTC&payment_currency=KRW&units=0.0001&price=10000000&type=bid&endpoint=%2Ftrade%2Fplace;1700000000001",
+                "/info/orders;count=300&endpoint=%2Finfo%2Forders;1700000000002",
+                "/info/balance;memo=%EC%A0%80%EC%A0%90;1700000000003",
+                "non-ascii 저점;1700000000004"
+        };
+
+        for (String message : messages)
+            assertEquals(legacySign(message, SECRET), signer.sign(message, SECRET));
+    }
+
+    // secret이 바뀌면 새 secret으로 서명해야 한다.
+    @Test
+    public void sign_followsSecretChange() {
+        GlobalSettings.getInstance().setApiSecret(SECRET);
+        assertEquals(legacySign(MESSAGE, SECRET), ApiSigner.getInstance().sign(MESSAGE));
+
+        String newSecret = "fedcba9876543210fedcba9876543210";
+        GlobalSettings.getInstance().setApiSecret(newSecret);
+        assertEquals(legacySign(MESSAGE, newSecret), ApiSigner.getInstance().sign(MESSAGE));
+    }
+
+    // 여러 스레드에서 동시에 서명해도 결과가 섞이지 않아야 한다.
+    @Test
+    public void sign_isThreadSafe() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int seed = t;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 500; i++) {
+                            String message = MESSAGE + seed + "_" + i;
+                            String secret = (i % 2 == 0) ? SECRET : SECRET + seed;
+                            if (!legacySign(message, secret).equals(ApiSigner.getInstance().sign(message, secret)))
+                                return false;
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results)
+                assertEquals(true, result.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // 기존 방식(Api_Client.hmacSha512)과 ApiSigner의 초당 서명 횟수를 비교한다. 실행 환경에 따라 결과가 달라지므로 필요할 때 직접 실행한다.
+    @Ignore("성능 측정")
+    @Test
+    public void measureSignaturesPerSecond() {
+        final int warmUp = 20000;
+        final int iterations = 100000;
+        ApiSigner signer = ApiSigner.getInstance();
+
+        for (int i = 0; i < warmUp; i++) {
+            legacySign(MESSAGE, SECRET);
+            signer.sign(MESSAGE, SECRET);
+        }
+
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            sink += legacySign(MESSAGE, SECRET).length();
+        long legacyNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            sink += signer.sign(MESSAGE, SECRET).length();
+        long signerNanos = System.nanoTime() - start;
+
+        System.out.println(String.format(Locale.getDefault(), "Api-Sign : before %,.0f sig/s, after %,.0f sig/s (x%.2f)",
+                iterations * 1e9 / legacyNanos, iterations * 1e9 / signerNanos, legacyNanos / (double) signerNanos));
+        assertEquals(iterations * 2 * 172, sink);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.k_trader;
+
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+import static com.example.k_trader.base.TradeDataManager.Type.SELL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.TradeData;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Balance;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Orderbook;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Response;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class BithumbResponseDecoderTest {
+
+    @Test
+    public void decodePlacedOrders() {
+        String body = "{\"status\":\"0000\",\"data\":["
+                + "{\"order_currency\":\"BTC\",\"order_date\":\"1572497603668315\",\"type\":\"ask\",\"units\":\"0.0123\",\"units_remaining\":\"0.0123\",\"price\":\"51,500,000\",\"order_id\":\"C0101000007408440032\"},"
+                + "{\"order_currency\":\"BTC\",\"order_date\":\"1572497603668316\",\"type\":\"bid\",\"units\":\"0.0005\",\"units_remaining\":\"0.0001\",\"price\":\"50750000\",\"order_id\":\"C0101000007408440033\"}"
+                + "]}";
+
+        Response<List<TradeData>> result = BithumbResponseDecoder.decodePlacedOrders(body);
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.data.size());
+
+        TradeData ask = result.data.get(0);
+        assertEquals(SELL, ask.getType());
+        assertEquals("C0101000007408440032", ask.getId());
+        assertEquals(1230000, ask.getUnits());
+        assertEquals(51500000, ask.getPrice());
+        assertEquals(1572497603668L, ask.getPlacedTime());
+
+        TradeData bid = result.data.get(1);
+        assertEquals(BUY, bid.getType());
+        assertEquals(10000, bid.getUnits());
+        assertEquals(50750000, bid.getPrice());
+    }
+
+    @Test
+    public void decodePlacedOrders_noOrders() {
+        String body = "{\"status\":\"5600\",\"message\":\"\\uAC70\\uB798 \\uC9C4\\uD589\\uC911\\uC778 \\uB0B4\\uC5ED\\uC774 \\uC874\\uC7AC\\uD558\\uC9C0 \\uC54A\\uC2B5\\uB2C8\\uB2E4.\"}";
+
+        Response<List<TradeData>> result = BithumbResponseDecoder.decodePlacedOrders(body);
+        assertFalse(result.isSuccess());
+        assertEquals("5600", result.status);
+        assertEquals("거래 진행중인 내역이 존재하지 않습니다.", result.message);
+        assertNull(result.data);
+    }
+
+    // ProcessedOrderPage 주석에 남아 있는 실제 응답 형식들
+    @Test
+    public void decodeTransactions() {
+        String body = "{\"status\":\"0000\",\"data\":["
+                + "{\"search\":\"1\",\"btc_remain\":\"5.42478202\",\"price\":-99330,\"fee\":\"0.00003225\",\"krw_remain\":4275528,\"units\":\"+ 0.01286775\",\"transfer_date\":\"1557543507259903\",\"btc1krw\":7700000},"
+                + "{\"search\":\"2\",\"btc_remain\":\"5.41191427\",\"price\":1012350,\"fee\":\"2537.22\",\"krw_remain\":4374858,\"units\":\"- 0.1331\",\"transfer_date\":\"1557538928212073\",\"btc1krw\":7625000},"
+                + "{\"search\":\"4\",\"btc_remain\":\"5.41191427\",\"price\":0,\"fee\":\"0\",\"krw_remain\":4374858,\"units\":\"0\",\"transfer_date\":\"1557538928212000\",\"btc1krw\":7625000},"
+                + "{\"search\":\"2\",\"btc_remain\":\"0.75468327\",\"price\":\"101010\",\"fee\":\"0\",\"krw_remain\":9157566,\"units\":\"0.0078\",\"transfer_date\":\"1566201030737\",\"btc1krw\":\"12950000\"}"
+                + "]}";
+
+        Response<List<TradeData>> result = BithumbResponseDecoder.decodeTransactions(body);
+        assertTrue(result.isSuccess());
+        assertEquals(3, result.data.size()); // 입출금(search 4) 제외
+
+        TradeData buy = result.data.get(0);
+        assertEquals(BUY, buy.getType());
+        assertEquals(1286775, buy.getUnits());
+        assertEquals(99330, buy.getPrice());
+        assertEquals("0.00003225", buy.getFeeRaw());
+        assertEquals(1557543507259L, buy.getProcessedTime());
+
+        TradeData sell = result.data.get(1);
+        assertEquals(SELL, sell.getType());
+        assertEquals(13310000, sell.getUnits());
+        assertEquals(1012350, sell.getPrice());
+        assertEquals(2537.22, sell.getFeeEvaluated(), 0);
+
+        TradeData millis = result.data.get(2);
+        assertEquals(101010, millis.getPrice());
+        assertEquals(1566201030737L, millis.getProcessedTime());
+    }
+
+    @Test
+    public void decodeOrderbook() {
+        String body = "{\"status\":\"0000\",\"data\":{\"timestamp\":\"1572497603668\",\"payment_currency\":\"KRW\",\"order_currency\":\"BTC\","
+                + "\"bids\":[{\"quantity\":\"0.5\",\"price\":\"51234567\"},{\"quantity\":\"1.25\",\"price\":\"51234000\"}],"
+                + "\"asks\":[{\"quantity\":\"0.1\",\"price\":\"51240000\"}]}}";
+
+        Response<Orderbook> result = BithumbResponseDecoder.decodeOrderbook(body);
+        assertTrue(result.isSuccess());
+        assertEquals(1572497603668L, result.data.timestamp);
+        assertEquals(2, result.data.bidCount);
+        assertEquals(51234567, result.data.getBestBidPrice(), 0);
+        assertEquals(1.25, result.data.bidQuantities[1], 0);
+        assertEquals(1, result.data.askCount);
+        assertEquals(51240000, result.data.getBestAskPrice(), 0);
+    }
+
+    @Test
+    public void decodeBalance() {
+        String body = "{\"status\":\"0000\",\"data\":{\"total_btc\":\"0.00011808\",\"total_krw\":\"1234567.89\",\"in_use_btc\":\"0\","
+                + "\"in_use_krw\":\"0\",\"available_btc\":\"0.00011808\",\"available_krw\":\"1234567.89\",\"xcoin_last_btc\":\"51234567\"}}";
+
+        Response<Balance> result = BithumbResponseDecoder.decodeBalance(body, "BTC");
+        assertTrue(result.isSuccess());
+        assertTrue(result.data.isValid());
+        assertEquals(1234567, result.data.totalKrw); // 원 아래는 버린다.
+        assertEquals(11808, result.data.availableCoin);
+
+        // 다른 코인의 잔고는 없으므로 유효하지 않다.
+        assertFalse(BithumbResponseDecoder.decodeBalance(body, "ETH").data.isValid());
+    }
+
+    @Test
+    public void decode_errorAndEmptyResponse() {
+        Response<Balance> error = BithumbResponseDecoder.decodeBalance("{\"status\":\"5400\",\"message\":\"Database Fail\"}", "BTC");
+        assertFalse(error.isSuccess());
+        assertEquals("Database Fail", error.message);
+        assertNull(error.data);
+
+        assertNull(BithumbResponseDecoder.decodeOrderbook(""));
+        assertNull(BithumbResponseDecoder.decodeOrderbook(null));
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.bitthumb.lib.BithumbWebSocketFeed;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로컬 WebSocket 서버를 띄워 구독, 메시지 전달, 재연결, heartbeat를 확인한다.
+ */
+public class BithumbWebSocketFeedTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private FakeWebSocketServer server;
+    private BithumbWebSocketFeed feed;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FakeWebSocketServer();
+        feed = new BithumbWebSocketFeed("ws://127.0.0.1:" + server.getPort() + "/pub/ws");
+        feed.setReconnectDelay(50, 200);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        feed.stop();
+        server.close();
+    }
+
+    @Test
+    public void subscribesAndDispatchesMessages() throws Exception {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        feed.addListener(new BithumbWebSocketFeed.Listener() {
+            @Override
+            public void onTicker(String symbol, double closePrice, double changeRate) {
+                events.add("ticker " + symbol + " " + (long) closePrice + " " + changeRate);
+            }
+
+            @Override
+            public void onTrade(String symbol, double price, double quantity, boolean buy) {
+                events.add("trade " + symbol + " " + (long) price + " " + quantity + " " + buy);
+            }
+
+            @Override
+            public void onOrderbookDepth(String symbol, boolean bid, double price, double quantity) {
+                events.add("depth " + symbol + " " + bid + " " + (long) price + " " + quantity);
+            }
+        });
+        feed.subscribe("BTC");
+        feed.start();
+
+        FakeConnection connection = server.accept();
+        assertEquals("{\"type\":\"ticker\",\"symbols\":[\"BTC_KRW\"],\"tickTypes\":[\"24H\"]}", connection.nextText());
+        assertEquals("{\"type\":\"transaction\",\"symbols\":[\"BTC_KRW\"]}", connection.nextText());
+        assertEquals("{\"type\":\"orderbookdepth\",\"symbols\":[\"BTC_KRW\"]}", connection.nextText());
+
+        connection.sendText("{\"status\":\"0000\",\"resmsg\":\"Filter Registered Successfully\"}");
+        connection.sendText("{\"type\":\"ticker\",\"content\":{\"symbol\":\"BTC_KRW\",\"tickType\":\"24H\",\"date\":\"20240101\","
+                + "\"closePrice\":\"48000000\",\"chgRate\":\"-1.25\",\"volume\":\"10.5\"}}");
+        connection.sendText("{\"type\":\"transaction\",\"content\":{\"list\":[{\"symbol\":\"BTC_KRW\",\"buySellGb\":\"2\","
+                + "\"contPrice\":\"48010000\",\"contQty\":\"0.0125\",\"contAmt\":\"600125\"}]}}");
+        connection.sendText("{\"type\":\"orderbookdepth\",\"content\":{\"list\":[{\"symbol\":\"BTC_KRW\",\"orderType\":\"bid\","
+                + "\"price\":\"47990000\",\"quantity\":\"0.5\",\"total\":\"3\"}],\"datetime\":\"1700000000000000\"}}");
+
+        assertEquals("ticker BTC_KRW 48000000 -1.25", events.poll(2, TimeUnit.SECONDS));
+        assertEquals("trade BTC_KRW 48010000 0.0125 true", events.poll(2, TimeUnit.SECONDS));
+        assertEquals("depth BTC_KRW true 47990000 0.5", events.poll(2, TimeUnit.SECONDS));
+        assertEquals(48010000, (long) feed.getLastPrice("BTC"));
+        assertEquals(4, feed.getStats().messageCount);
+    }
+
+    // 서버가 연결을 끊으면 다시 연결하여 같은 코인을 다시 구독한다.
+    @Test
+    public void reconnectsAndResubscribesAfterDisconnect() throws Exception {
+        feed.subscribe("BTC");
+        feed.start();
+
+        FakeConnection first = server.accept();
+        assertTrue(first.nextText().contains("\"ticker\""));
+        first.close();
+
+        FakeConnection second = server.accept();
+        assertEquals("{\"type\":\"ticker\",\"symbols\":[\"BTC_KRW\"],\"tickTypes\":[\"24H\"]}", second.nextText());
+        assertEquals(2, feed.getStats().connectCount);
+    }
+
+    // 서버가 pong도 메시지도 보내지 않으면 heartbeat에서 연결을 끊고 다시 연결한다.
+    @Test
+    public void reconnectsWhenConnectionIsStale() throws Exception {
+        feed.setHeartbeat(100, 300);
+        feed.subscribe("ETH");
+        feed.start();
+
+        FakeConnection first = server.accept();
+        first.setAutoPong(false);
+        assertTrue(first.nextText().contains("ETH_KRW"));
+
+        FakeConnection second = server.accept();
+        assertTrue(second.nextText().contains("ETH_KRW"));
+        assertTrue(feed.getStats().staleCount >= 1);
+    }
+
+    // ping에 pong이 오면 연결을 유지한다.
+    @Test
+    public void keepsConnectionWhilePongArrives() throws Exception {
+        feed.setHeartbeat(100, 300);
+        feed.subscribe("BTC");
+        feed.start();
+
+        server.accept();
+        Thread.sleep(1000);
+
+        assertTrue(feed.isConnected());
+        assertEquals(1, feed.getStats().connectCount);
+        assertEquals(0, feed.getStats().staleCount);
+    }
+
+    // 여러 frame으로 나뉜 text 메시지는 모두 받은 뒤에 한 번 처리한다.
+    @Test
+    public void joinsFragmentedMessage() throws Exception {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        feed.addListener(new BithumbWebSocketFeed.Listener() {
+            @Override
+            public void onTicker(String symbol, double closePrice, double changeRate) {
+                events.add("ticker " + symbol + " " + (long) closePrice + " " + changeRate);
+            }
+        });
+        feed.subscribe("BTC");
+        feed.start();
+
+        FakeConnection connection = server.accept();
+        assertTrue(connection.nextText().contains("\"ticker\""));
+        connection.sendFrame(false, 0x1, "{\"type\":\"ticker\",\"content\":{\"symbol\":\"BTC_KRW\",\"tickType\":\"24H\",".getBytes(UTF_8));
+        connection.sendFrame(false, 0x0, "\"closePrice\":\"48000000\",".getBytes(UTF_8));
+        connection.sendFrame(true, 0x0, "\"chgRate\":\"0.5\"}}".getBytes(UTF_8));
+
+        assertEquals("ticker BTC_KRW 48000000 0.5", events.poll(2, TimeUnit.SECONDS));
+        assertEquals(1, feed.getStats().messageCount);
+    }
+
+    // 길이가 음수가 되는 frame을 받으면 heartbeat를 기다리지 않고 바로 끊고 다시 연결한다.
+    @Test
+    public void reconnectsOnInvalidFrameLength() throws Exception {
+        feed.subscribe("BTC");
+        feed.start();
+
+        FakeConnection first = server.accept();
+        assertTrue(first.nextText().contains("\"ticker\""));
+        first.sendRaw(0x81, 127, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF);
+
+        FakeConnection second = server.accept();
+        assertTrue(second.nextText().contains("\"ticker\""));
+        assertEquals(2, feed.getStats().connectCount);
+        assertEquals(0, feed.getStats().staleCount);
+    }
+
+    // handshake 응답을 기다리는 중에 stop()하면 연결을 열지 않고 소켓을 닫는다.
+    @Test
+    public void stopWhileConnectingClosesSocket() throws Exception {
+        feed.subscribe("BTC");
+        feed.start();
+
+        Socket socket = server.acceptWithoutHandshake();
+        feed.stop();
+
+        socket.setSoTimeout(2000);
+        InputStream in = socket.getInputStream();
+        while (in.read() != -1) {
+            // handshake 요청을 읽고 나면 클라이언트가 닫은 연결의 끝이 나온다.
+        }
+        socket.close();
+        assertFalse(feed.isConnected());
+        assertEquals(0, feed.getStats().connectCount);
+    }
+
+    /**
+     * handshake와 frame 송수신만 하는 테스트용 WebSocket 서버
+     */
+    private static class FakeWebSocketServer {
+        private final ServerSocket serverSocket = new ServerSocket(0);
+
+        FakeWebSocketServer() throws IOException {
+            serverSocket.setSoTimeout(5000);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        FakeConnection accept() throws Exception {
+            Socket socket = serverSocket.accept();
+            socket.setSoTimeout(5000);
+            FakeConnection connection = new FakeConnection(socket);
+            connection.handshake();
+            connection.startReader();
+            return connection;
+        }
+
+        Socket acceptWithoutHandshake() throws IOException {
+            return serverSocket.accept();
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+
+    private static class FakeConnection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private final BlockingQueue<String> texts = new LinkedBlockingQueue<>();
+        private volatile boolean autoPong = true;
+
+        FakeConnection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = socket.getInputStream();
+            this.out = socket.getOutputStream();
+        }
+
+        void setAutoPong(boolean autoPong) {
+            this.autoPong = autoPong;
+        }
+
+        void handshake() throws Exception {
+            String key = null;
+            String line;
+            while (!(line = readLine()).isEmpty()) {
+                if (line.toLowerCase().startsWith("sec-websocket-key:"))
+                    key = line.substring(line.indexOf(':') + 1).trim();
+            }
+            assertNotNull(key);
+
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            String accept = Base64.getEncoder().encodeToString(
+                    sha1.digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(UTF_8)));
+            String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n";
+            out.write(response.getBytes(UTF_8));
+            out.flush();
+            socket.setSoTimeout(0);
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c == -1)
+                    throw new EOFException();
+                if (c != '\r')
+                    sb.append((char) c);
+            }
+            return sb.toString();
+        }
+
+        void startReader() {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (true) {
+                        int b0 = in.read();
+                        int b1 = in.read();
+                        if (b0 == -1 || b1 == -1)
+                            return;
+                        int opcode = b0 & 0x0F;
+                        int length = b1 & 0x7F;
+                        if (length == 126)
+                            length = (in.read() << 8) | in.read();
+                        byte[] mask = new byte[4];
+                        readFully(mask);
+                        byte[] payload = new byte[length];
+                        readFully(payload);
+                        for (int i = 0; i < length; i++)
+                            payload[i] ^= mask[i & 3];
+
+                        if (opcode == 0x1)
+                            texts.add(new String(payload, UTF_8));
+                        else if (opcode == 0x9 && autoPong)
+                            sendFrame(0xA, payload);
+                        else if (opcode == 0x8)
+                            return;
+                    }
+                } catch (IOException e) {
+                    // 연결 종료
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void readFully(byte[] buffer) throws IOException {
+            int offset = 0;
+            while (offset < buffer.length) {
+                int read = in.read(buffer, offset, buffer.length - offset);
+                if (read == -1)
+                    throw new EOFException();
+                offset += read;
+            }
+        }
+
+        String nextText() throws InterruptedException {
+            String text = texts.poll(5, TimeUnit.SECONDS);
+            assertNotNull(text);
+            return text;
+        }
+
+        void sendText(String text) throws IOException {
+            sendFrame(0x1, text.getBytes(UTF_8));
+        }
+
+        private void sendFrame(int opcode, byte[] payload) throws IOException {
+            sendFrame(true, opcode, payload);
+        }
+
+        synchronized void sendFrame(boolean fin, int opcode, byte[] payload) throws IOException {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            frame.write((fin ? 0x80 : 0) | opcode);
+            if (payload.length < 126) {
+                frame.write(payload.length);
+            } else {
+                frame.write(126);
+                frame.write(payload.length >> 8);
+                frame.write(payload.length);
+            }
+            frame.write(payload, 0, payload.length);
+            out.write(frame.toByteArray());
+            out.flush();
+        }
+
+        synchronized void sendRaw(int... bytes) throws IOException {
+            for (int b : bytes)
+                out.write(b);
+            out.flush();
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+    }
+}
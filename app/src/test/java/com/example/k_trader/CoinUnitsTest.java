@@ -0,0 +1,74 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.CoinUnits;
+import com.example.k_trader.base.Krw;
+
+import org.junit.Test;
+
+public class CoinUnitsTest {
+
+    @Test
+    public void parsesExchangeStrings() {
+        assertEquals(469814, CoinUnits.parse("0.00469814"));
+        assertEquals(123450000000L, CoinUnits.parse("1,234.5"));
+        assertEquals(1286775, CoinUnits.parse("+ 0.01286775"));
+        assertEquals(-13310000, CoinUnits.parse("- 0.1331"));
+        assertEquals(1, CoinUnits.parse("0.000000005"));    // 8자리 아래는 반올림
+        assertEquals(0, CoinUnits.parse("0.000000004"));
+        assertEquals(CoinUnits.NONE, CoinUnits.parse(""));
+        assertEquals(CoinUnits.NONE, CoinUnits.parse("1e-4"));
+        assertEquals(CoinUnits.NONE, CoinUnits.parse(null));
+
+        assertEquals(1234567, Krw.parse("1,234,567.89"));   // 원 아래는 버린다.
+        assertEquals(Krw.NONE, Krw.parse("-"));
+    }
+
+    // float로 절사하면 0.0047이 0.0046이 되던 경우도 정확히 남는다.
+    @Test
+    public void roundsToLotWithoutDrift() {
+        long units = CoinUnits.parse("0.0047");
+        assertEquals(470000, units);
+        assertEquals(units, CoinUnits.floorToLot(units));
+        assertEquals("0.0047", CoinUnits.toPlainString(units));
+
+        assertEquals(460000, CoinUnits.floorToLot(469999));
+        assertEquals(470000, CoinUnits.ceilToLot(460001));
+        assertEquals(470000, CoinUnits.roundToLot(465000));
+        assertEquals(460000, CoinUnits.roundToLot(464999));
+        assertEquals(-10000, CoinUnits.floorToLot(-1));
+    }
+
+    @Test
+    public void convertsWithKrw() {
+        // 100만원 / 5,050만원 = 0.01980198..
+        assertEquals(1980198, CoinUnits.forKrw(1000000, 50500000));
+        assertEquals(CoinUnits.fromDouble(0.0198), CoinUnits.roundToLot(CoinUnits.forKrw(1000000, 50500000)));
+        assertEquals(999900, CoinUnits.krwValue(CoinUnits.fromDouble(0.0198), 50500000));
+        // 가격과 수량이 커도 넘치지 않는다.
+        assertEquals(2000000000000L, CoinUnits.krwValue(20000 * CoinUnits.ONE, 100000000));
+    }
+
+    @Test
+    public void formatsPlainString() {
+        assertEquals("0.00469814", CoinUnits.toPlainString(469814, CoinUnits.SCALE_DIGITS));
+        assertEquals("0.0047", CoinUnits.toPlainString(469814));
+        assertEquals("12", CoinUnits.toPlainString(12 * CoinUnits.ONE, 0));
+        assertEquals("-0.1331", CoinUnits.toPlainString(-13310000));
+        assertEquals("0.0000", CoinUnits.toPlainString(-1));
+    }
+
+    @Test
+    public void adjustsPriceToTick() {
+        assertEquals(1000, Krw.tickSize(50000000));
+        assertEquals(50, Krw.tickSize(99999));
+        assertEquals(50123000, Krw.floorToTick(50123456));
+        assertEquals(50124000, Krw.ceilToTick(50123456));
+        assertEquals(1000000, Krw.ceilToTick(999600));
+        assertTrue(Krw.isOnTick(50124000));
+        assertFalse(Krw.isOnTick(50123456));
+    }
+}
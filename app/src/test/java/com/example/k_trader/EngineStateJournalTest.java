@@ -0,0 +1,180 @@
+package com.example.k_trader;
+
+import static com.example.k_trader.base.TradeDataManager.Status.PROCESSED;
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+import static com.example.k_trader.base.TradeDataManager.Type.SELL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.CoinUnits;
+import com.example.k_trader.base.EngineStateJournal;
+import com.example.k_trader.base.RollingPriceWindow;
+import com.example.k_trader.base.TradeData;
+import com.example.k_trader.base.TradeDataManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Random;
+
+public class EngineStateJournalTest {
+    private static final long SPAN = 3600000;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("engine_state").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null)
+            for (File file : files)
+                file.delete();
+        dir.delete();
+    }
+
+    private static TradeData fill(TradeDataManager.Type type, int price, long processedTime) {
+        return new TradeData().build()
+                .setType(type)
+                .setStatus(PROCESSED)
+                .setPrice(price)
+                .setUnits(CoinUnits.fromDouble(0.0012))
+                .setProcessedTime(processedTime)
+                .setFeeRaw(type == SELL ? "146" : "0.00000765");
+    }
+
+    private static void assertSameState(RollingPriceWindow expectedWindow, TradeDataManager expectedTrades,
+                                        RollingPriceWindow window, TradeDataManager trades) {
+        assertEquals(expectedWindow.size(), window.size());
+        assertEquals(expectedWindow.getMin(), window.getMin());
+        assertEquals(expectedWindow.getMax(), window.getMax());
+        assertEquals(expectedWindow.getLast(), window.getLast());
+        assertEquals(expectedWindow.getVariationRate(), window.getVariationRate(), 0f);
+
+        assertEquals(expectedTrades.size(), trades.size());
+        for (TradeDataManager.Type type : new TradeDataManager.Type[]{BUY, SELL}) {
+            TradeData expected = expectedTrades.findLatestProcessedTime(type);
+            TradeData actual = trades.findLatestProcessedTime(type);
+            assertEquals(expected.getProcessedTime(), actual.getProcessedTime());
+            assertEquals(expected.getPrice(), actual.getPrice());
+            assertEquals(expected.getUnits(), actual.getUnits());
+            assertEquals(expected.getFeeEvaluated(), actual.getFeeEvaluated(), 0);
+        }
+    }
+
+    // tick마다 기록하다 종료된 뒤 복원하면, 중단 없이 실행한 것과 같은 변동폭과 마지막 체결로 다음 tick을 판단한다.
+    @Test
+    public void restoreMatchesUninterruptedRun() throws Exception {
+        File file = new File(dir, "engine_state.bin");
+        EngineStateJournal journal = new EngineStateJournal(file, Long.MAX_VALUE);
+        RollingPriceWindow window = new RollingPriceWindow(SPAN, 8192);
+        TradeDataManager trades = new TradeDataManager();
+
+        Random random = new Random(5);
+        long now = 1700000000000L;
+        int price = 50000000;
+        for (int tick = 0; tick < 300; tick++) {
+            for (int i = 0; i < 20; i++) {
+                now += 500;
+                price += (random.nextInt(5) - 2) * 10000;
+                window.add(now, price);
+                journal.appendPrice(now, price);
+            }
+            if (random.nextInt(3) == 0) {
+                TradeData data = fill(random.nextBoolean() ? BUY : SELL, price, now);
+                trades.add(data);
+                journal.appendTrade(data);
+            }
+            journal.appendState(now, CoinUnits.LOT * tick);
+            journal.flush();
+        }
+
+        RollingPriceWindow restoredWindow = new RollingPriceWindow(SPAN, 8192);
+        TradeDataManager restoredTrades = new TradeDataManager();
+        EngineStateJournal.State state = new EngineStateJournal(file, Long.MAX_VALUE).restore(restoredWindow, restoredTrades, now);
+
+        assertNotNull(state);
+        assertEquals(now, state.lastNotiTimeInMillis);
+        assertEquals(CoinUnits.fromDouble(0.0299), state.availableCoinBalance);
+        window.expire(now);
+        assertSameState(window, trades, restoredWindow, restoredTrades);
+    }
+
+    // 마지막 record를 쓰는 도중에 종료되었다면 그 앞까지 복원한다.
+    @Test
+    public void ignoresTruncatedTail() throws Exception {
+        File file = new File(dir, "engine_state.bin");
+        EngineStateJournal journal = new EngineStateJournal(file, Long.MAX_VALUE);
+        journal.appendPrice(1000, 100);
+        journal.appendTrade(fill(BUY, 100, 1000));
+        journal.appendState(1000, CoinUnits.ONE / 2);
+        journal.flush();
+        long complete = file.length();
+        journal.appendPrice(2000, 120);
+        journal.flush();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(complete + 5);
+        }
+
+        RollingPriceWindow window = new RollingPriceWindow(SPAN, 16);
+        TradeDataManager trades = new TradeDataManager();
+        EngineStateJournal.State state = journal.restore(window, trades, 3000);
+        assertEquals(3, state.recordCount);
+        assertEquals(1, window.size());
+        assertEquals(100, window.getLast());
+        assertEquals(1, trades.size());
+        assertEquals(CoinUnits.ONE / 2, state.availableCoinBalance);
+    }
+
+    // compaction 후에도 같은 상태로 복원되고, 같은 체결 이력은 한 번만 들어간다.
+    @Test
+    public void compactionKeepsState() throws Exception {
+        File file = new File(dir, "engine_state.bin");
+        EngineStateJournal journal = new EngineStateJournal(file, 4096);
+        RollingPriceWindow window = new RollingPriceWindow(SPAN, 64);
+        TradeDataManager trades = new TradeDataManager();
+
+        for (int i = 0; i < 1000; i++) {
+            window.add(i * 1000L, 100 + i % 37);
+            journal.appendPrice(i * 1000L, 100 + i % 37);
+            if (i % 100 == 0) {
+                TradeData data = fill(i % 200 == 0 ? BUY : SELL, 100, i * 1000L);
+                trades.add(data);
+                journal.appendTrade(data);
+            }
+            if (i % 50 == 49) {
+                journal.appendState(i * 1000L, CoinUnits.ONE * 3 / 2);
+                journal.flush();
+                if (journal.needsCompaction())
+                    journal.compact(window, trades, i * 1000L, CoinUnits.ONE * 3 / 2);
+            }
+        }
+        assertTrue(file.length() <= 4096 + 50 * 13 + 100);
+
+        // 이미 저장된 체결이 다시 기록되어도 한 번만 복원된다.
+        journal.appendTrade(fill(BUY, 100, 800000));
+        journal.flush();
+
+        RollingPriceWindow restoredWindow = new RollingPriceWindow(SPAN, 64);
+        TradeDataManager restoredTrades = new TradeDataManager();
+        EngineStateJournal.State state = journal.restore(restoredWindow, restoredTrades, 999000);
+        assertEquals(999000, state.lastNotiTimeInMillis);
+        assertSameState(window, trades, restoredWindow, restoredTrades);
+    }
+
+    @Test
+    public void missingFileRestoresNothing() throws Exception {
+        EngineStateJournal journal = new EngineStateJournal(new File(dir, "none.bin"), 4096);
+        assertNull(journal.restore(new RollingPriceWindow(SPAN, 16), new TradeDataManager(), 0));
+    }
+}
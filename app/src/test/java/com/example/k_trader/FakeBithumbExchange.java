@@ -0,0 +1,622 @@
+package com.example.k_trader;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 테스트용 빗썸 REST API 서버
+ *
+ * Api_Client가 사용하는 endpoint를 로컬 HTTP로 제공하여, 실제 거래소 없이 전체 호출 경로의 지연 시간과 처리량을 측정할 수 있게 한다.
+ * - 시장가는 {@link #setPrice(int)} 나 {@link #setPricePath(int...)} / {@link #advance()} 로 움직인다.
+ *   매수 호가 1위는 시장가, 매도 호가 1위는 시장가 + tick 이다.
+ * - 지정가 주문은 호가를 넘으면 바로 체결되고, 아니면 대기하다가 시장가가 주문 가격에 닿으면 체결된다.
+ *   {@link #setPartialFillRatio(double)} 로 한 번에 주문 수량의 일부만 체결되게 할 수 있다.
+ * - endpoint prefix별로 응답 지연, HTTP 500/5600 오류 비율을 설정할 수 있고, 초당 요청 수 제한을 둘 수 있다.
+ *
+ * 단독 실행 : java ... com.example.k_trader.FakeBithumbExchange [port] 로 실행하면 1초마다 시장가가 임의로 움직인다.
+ */
+public class FakeBithumbExchange {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String NO_ORDERS_MESSAGE = "거래 진행중인 내역이 존재하지 않습니다.";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+    private final String coin;
+    private final Random random = new Random(1);
+
+    private final Map<String, long[]> latencies = new ConcurrentHashMap<>();     // prefix -> {min, max} ms
+    private final Map<String, double[]> errorRates = new ConcurrentHashMap<>();  // prefix -> {http500, status5600}
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile double rateLimitPerSec;
+    private long rateWindowStartMillis;
+    private int rateWindowCount;
+
+    // 아래는 synchronized(this)로 보호한다.
+    private int price;
+    private int tick = 1000;
+    private int depth = 30;
+    private double depthQuantity = 0.5;
+    private double partialFillRatio = 1.0;
+    private double feeRate = 0.0004;
+    private int[] pricePath = new int[0];
+    private int pricePathIndex;
+
+    private double availableKrw;
+    private double inUseKrw;
+    private double availableCoin;
+    private double inUseCoin;
+    private long orderSeq;
+    private long lastMicros;
+    private final LinkedHashMap<String, Order> openOrders = new LinkedHashMap<>();
+    private final List<Fill> fills = new ArrayList<>();   // 최신 체결이 뒤에 있다.
+
+    static class Order {
+        final String id;
+        final boolean bid;
+        final int price;
+        final double units;
+        final long placedMicros;
+        double remaining;
+
+        Order(String id, boolean bid, int price, double units, long placedMicros) {
+            this.id = id;
+            this.bid = bid;
+            this.price = price;
+            this.units = units;
+            this.placedMicros = placedMicros;
+            this.remaining = units;
+        }
+    }
+
+    static class Fill {
+        final String orderId;
+        final boolean bid;
+        final int price;
+        final double units;
+        final double fee;
+        final long micros;
+
+        Fill(String orderId, boolean bid, int price, double units, double fee, long micros) {
+            this.orderId = orderId;
+            this.bid = bid;
+            this.price = price;
+            this.units = units;
+            this.fee = fee;
+            this.micros = micros;
+        }
+    }
+
+    public FakeBithumbExchange(String coin, int startPrice) throws IOException {
+        this(coin, startPrice, 0);
+    }
+
+    public FakeBithumbExchange(String coin, int startPrice, int port) throws IOException {
+        this.coin = coin.toUpperCase(Locale.US);
+        this.price = startPrice;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 64);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    public FakeBithumbExchange start() {
+        server.start();
+        return this;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    // ---- 설정 ----
+
+    /**
+     * prefix로 시작하는 endpoint의 응답을 minMs~maxMs 사이로 늦춘다.
+     */
+    public FakeBithumbExchange setLatency(String prefix, long minMs, long maxMs) {
+        latencies.put(prefix, new long[]{minMs, Math.max(minMs, maxMs)});
+        return this;
+    }
+
+    /**
+     * prefix로 시작하는 endpoint 요청 중 주어진 비율만큼 HTTP 500이나 status 5600으로 응답한다.
+     */
+    public FakeBithumbExchange setErrorRate(String prefix, double http500Rate, double status5600Rate) {
+        errorRates.put(prefix, new double[]{http500Rate, status5600Rate});
+        return this;
+    }
+
+    /**
+     * 초당 요청 수 제한. 넘으면 HTTP 429로 응답한다. 0이면 제한하지 않는다.
+     */
+    public FakeBithumbExchange setRateLimit(double permitsPerSecond) {
+        this.rateLimitPerSec = permitsPerSecond;
+        return this;
+    }
+
+    public synchronized FakeBithumbExchange setBalance(double krw, double coinUnits) {
+        this.availableKrw = krw;
+        this.availableCoin = coinUnits;
+        return this;
+    }
+
+    public synchronized FakeBithumbExchange setOrderbook(int tick, int depth, double quantityPerLevel) {
+        this.tick = tick;
+        this.depth = depth;
+        this.depthQuantity = quantityPerLevel;
+        return this;
+    }
+
+    public synchronized FakeBithumbExchange setPartialFillRatio(double ratio) {
+        this.partialFillRatio = Math.max(0.0001, Math.min(1.0, ratio));
+        return this;
+    }
+
+    public synchronized FakeBithumbExchange setFeeRate(double feeRate) {
+        this.feeRate = feeRate;
+        return this;
+    }
+
+    /**
+     * {@link #advance()} 를 호출할 때마다 차례로 적용할 시장가 목록
+     */
+    public synchronized FakeBithumbExchange setPricePath(int... prices) {
+        this.pricePath = prices.clone();
+        this.pricePathIndex = 0;
+        return this;
+    }
+
+    /**
+     * 가격 경로의 다음 가격으로 움직인다. 경로가 끝났으면 false를 리턴한다.
+     */
+    public synchronized boolean advance() {
+        if (pricePathIndex >= pricePath.length)
+            return false;
+        setPrice(pricePath[pricePathIndex++]);
+        return true;
+    }
+
+    /**
+     * 시장가를 바꾸고, 가격이 닿은 대기 주문을 체결한다.
+     */
+    public synchronized void setPrice(int newPrice) {
+        price = newPrice;
+        Iterator<Order> it = openOrders.values().iterator();
+        while (it.hasNext()) {
+            Order order = it.next();
+            boolean touched = order.bid ? price <= order.price : price >= order.price;
+            if (!touched)
+                continue;
+            double units = Math.min(order.remaining, roundUnits(order.units * partialFillRatio));
+            fill(order, order.price, units);
+            if (order.remaining < 0.00000001)
+                it.remove();
+        }
+    }
+
+    // ---- 조회 ----
+
+    public synchronized int getPrice() {
+        return price;
+    }
+
+    public synchronized List<Order> getOpenOrders() {
+        return new ArrayList<>(openOrders.values());
+    }
+
+    public synchronized List<Fill> getFills() {
+        return new ArrayList<>(fills);
+    }
+
+    public synchronized double getAvailableKrw() {
+        return availableKrw;
+    }
+
+    public synchronized double getTotalCoin() {
+        return availableCoin + inUseCoin;
+    }
+
+    public long getRequestCount(String endpoint) {
+        AtomicLong count = requestCounts.get(endpoint);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * resetMaxConcurrentRequests() 이후 동시에 처리 중이던 요청 수의 최대값
+     */
+    public int getMaxConcurrentRequests() {
+        return maxInFlight.get();
+    }
+
+    public void resetMaxConcurrentRequests() {
+        maxInFlight.set(inFlight.get());
+    }
+
+    // ---- HTTP 처리 ----
+
+    private void handle(HttpExchange exchange) throws IOException {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            respond(exchange);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requestCounts.computeIfAbsent(path, k -> new AtomicLong()).incrementAndGet();
+
+        int code = 200;
+        String body;
+        try {
+            sleep(latencyFor(path));
+            double[] errors = match(errorRates, path);
+            double dice = nextDouble();
+            if (!allowByRateLimit()) {
+                code = 429;
+                body = error("5600", "Too Many Requests");
+            } else if (errors != null && dice < errors[0]) {
+                code = 500;
+                body = error("5900", "Internal Server Error");
+            } else if (errors != null && dice < errors[0] + errors[1]) {
+                body = error("5600", "잠시 후 이용해 주십시오.[9900]");
+            } else {
+                body = dispatch(exchange.getRequestMethod(), path, readParams(exchange));
+            }
+        } catch (RuntimeException e) {
+            code = 500;
+            body = error("5900", String.valueOf(e.getMessage()));
+        }
+
+        byte[] bytes = body.getBytes(UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String dispatch(String method, String path, Map<String, String> params) {
+        if (path.equals("/public/orderbook/" + coin))
+            return orderbook();
+        if (path.equals("/public/ticker/" + coin))
+            return ticker();
+        if (!path.startsWith("/public/") && !"POST".equals(method))
+            return error("5302", "Method Not Allowed");
+
+        switch (path) {
+            case "/info/balance": return balance();
+            case "/info/orders": return orders();
+            case "/info/user_transactions": return transactions(params);
+            case "/trade/place": return place(params);
+            case "/trade/cancel": return cancel(params);
+            case "/trade/market_buy": return market(true, params);
+            case "/trade/market_sell": return market(false, params);
+            default: return error("5100", "Bad Request");
+        }
+    }
+
+    private synchronized String orderbook() {
+        StringBuilder bids = new StringBuilder();
+        StringBuilder asks = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            if (i > 0) {
+                bids.append(',');
+                asks.append(',');
+            }
+            bids.append(quote(price - tick * i, depthQuantity));
+            asks.append(quote(price + tick * (i + 1), depthQuantity));
+        }
+        return "{\"status\":\"0000\",\"data\":{\"timestamp\":\"" + (System.currentTimeMillis()) + "\",\"payment_currency\":\"KRW\","
+                + "\"order_currency\":\"" + coin + "\",\"bids\":[" + bids + "],\"asks\":[" + asks + "]}}";
+    }
+
+    private static String quote(int price, double quantity) {
+        return "{\"price\":\"" + price + "\",\"quantity\":\"" + units(quantity) + "\"}";
+    }
+
+    private synchronized String ticker() {
+        return "{\"status\":\"0000\",\"data\":{\"opening_price\":\"" + price + "\",\"closing_price\":\"" + price + "\",\"min_price\":\""
+                + price + "\",\"max_price\":\"" + price + "\",\"units_traded\":\"0\",\"fluctate_rate_24H\":\"0.00\",\"date\":\""
+                + System.currentTimeMillis() + "\"}}";
+    }
+
+    private synchronized String balance() {
+        String c = coin.toLowerCase(Locale.US);
+        return "{\"status\":\"0000\",\"data\":{"
+                + "\"total_" + c + "\":\"" + units(availableCoin + inUseCoin) + "\",\"in_use_" + c + "\":\"" + units(inUseCoin) + "\","
+                + "\"available_" + c + "\":\"" + units(availableCoin) + "\",\"xcoin_last_" + c + "\":\"" + price + "\","
+                + "\"total_krw\":\"" + krw(availableKrw + inUseKrw) + "\",\"in_use_krw\":\"" + krw(inUseKrw) + "\","
+                + "\"available_krw\":\"" + krw(availableKrw) + "\"}}";
+    }
+
+    private synchronized String orders() {
+        if (openOrders.isEmpty())
+            return error("5600", NO_ORDERS_MESSAGE);
+
+        StringBuilder sb = new StringBuilder("{\"status\":\"0000\",\"data\":[");
+        boolean first = true;
+        for (Order order : openOrders.values()) {
+            if (!first)
+                sb.append(',');
+            first = false;
+            sb.append("{\"order_currency\":\"").append(coin).append("\",\"order_date\":\"").append(order.placedMicros)
+                    .append("\",\"payment_currency\":\"KRW\",\"order_id\":\"").append(order.id)
+                    .append("\",\"type\":\"").append(order.bid ? "bid" : "ask")
+                    .append("\",\"units\":\"").append(units(order.units))
+                    .append("\",\"units_remaining\":\"").append(units(order.remaining))
+                    .append("\",\"price\":\"").append(order.price).append("\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private synchronized String transactions(Map<String, String> params) {
+        int offset = parseInt(params.get("offset"), 0);
+        int count = Math.min(50, parseInt(params.get("count"), 20));
+        String searchGb = params.containsKey("searchGb") ? params.get("searchGb") : "0";
+
+        StringBuilder sb = new StringBuilder("{\"status\":\"0000\",\"data\":[");
+        int skipped = 0;
+        int written = 0;
+        for (int i = fills.size() - 1; i >= 0 && written < count; i--) {
+            Fill fill = fills.get(i);
+            if ("1".equals(searchGb) && !fill.bid || "2".equals(searchGb) && fill.bid)
+                continue;
+            if (skipped++ < offset)
+                continue;
+            if (written++ > 0)
+                sb.append(',');
+            sb.append("{\"search\":\"").append(fill.bid ? 1 : 2)
+                    .append("\",\"transfer_date\":\"").append(fill.micros)
+                    .append("\",\"order_currency\":\"").append(coin)
+                    .append("\",\"payment_currency\":\"KRW\",\"units\":\"").append(units(fill.units))
+                    .append("\",\"price\":\"").append(fill.price)
+                    .append("\",\"amount\":\"").append(krw(fill.price * fill.units))
+                    .append("\",\"fee_currency\":\"KRW\",\"fee\":\"").append(krw(fill.fee))
+                    .append("\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private synchronized String place(Map<String, String> params) {
+        if (!coin.equals(params.get("order_currency")))
+            return error("5500", "Invalid Parameter");
+        boolean bid = "bid".equals(params.get("type"));
+        double units = parseDouble(params.get("units"));
+        int orderPrice = parseInt(params.get("price"), -1);
+        if (units < 0.0001 || orderPrice <= 0)
+            return error("5600", "최소 주문수량은 0.0001 " + coin + " 입니다.");
+
+        if (bid) {
+            double cost = orderPrice * units * (1 + feeRate);
+            if (cost > availableKrw)
+                return error("5600", "주문금액이 사용가능 KRW를 초과하였습니다.");
+            availableKrw -= cost;
+            inUseKrw += cost;
+        } else {
+            if (units > availableCoin + 0.00000001)
+                return error("5600", "주문량이 사용가능 " + coin + "을 초과하였습니다.");
+            availableCoin -= units;
+            inUseCoin += units;
+        }
+
+        Order order = new Order("C0" + (100000000 + ++orderSeq), bid, orderPrice, units, nowMicros());
+        // 반대편 호가를 넘는 가격이면 바로 체결된다. 체결 가격은 주문 가격으로 단순화한다.
+        boolean crossed = bid ? orderPrice >= price + tick : orderPrice <= price;
+        if (crossed)
+            fill(order, orderPrice, order.remaining);
+        if (order.remaining > 0.00000001)
+            openOrders.put(order.id, order);
+        return "{\"status\":\"0000\",\"order_id\":\"" + order.id + "\"}";
+    }
+
+    private synchronized String cancel(Map<String, String> params) {
+        Order order = openOrders.get(params.get("order_id"));
+        if (order == null || order.bid != "bid".equals(params.get("type")))
+            return error("5600", "거래 체결내역이 존재하지 않습니다.");
+
+        openOrders.remove(order.id);
+        if (order.bid) {
+            double locked = order.price * order.remaining * (1 + feeRate);
+            inUseKrw -= locked;
+            availableKrw += locked;
+        } else {
+            inUseCoin -= order.remaining;
+            availableCoin += order.remaining;
+        }
+        return "{\"status\":\"0000\"}";
+    }
+
+    private synchronized String market(boolean bid, Map<String, String> params) {
+        double units = parseDouble(params.get("units"));
+        if (units < 0.0001)
+            return error("5600", "최소 주문수량은 0.0001 " + coin + " 입니다.");
+        int fillPrice = bid ? price + tick : price;
+        if (bid && fillPrice * units * (1 + feeRate) > availableKrw)
+            return error("5600", "주문금액이 사용가능 KRW를 초과하였습니다.");
+        if (!bid && units > availableCoin + 0.00000001)
+            return error("5600", "주문량이 사용가능 " + coin + "을 초과하였습니다.");
+
+        Order order = new Order("C0" + (100000000 + ++orderSeq), bid, fillPrice, units, nowMicros());
+        if (bid) {
+            double cost = fillPrice * units * (1 + feeRate);
+            availableKrw -= cost;
+            inUseKrw += cost;
+        } else {
+            availableCoin -= units;
+            inUseCoin += units;
+        }
+        fill(order, fillPrice, units);
+        return "{\"status\":\"0000\",\"order_id\":\"" + order.id + "\"}";
+    }
+
+    // synchronized(this) 안에서 호출한다.
+    private void fill(Order order, int fillPrice, double units) {
+        double amount = fillPrice * units;
+        double fee = amount * feeRate;
+        if (order.bid) {
+            double locked = order.price * units * (1 + feeRate);
+            inUseKrw -= locked;
+            availableKrw += locked - amount - fee;
+            availableCoin += units;
+        } else {
+            inUseCoin -= units;
+            availableKrw += amount - fee;
+        }
+        order.remaining -= units;
+        fills.add(new Fill(order.id, order.bid, fillPrice, units, fee, nowMicros()));
+    }
+
+    // synchronized(this) 안에서 호출한다. 체결 시간이 겹치지 않도록 항상 증가하는 us 값을 돌려준다.
+    private long nowMicros() {
+        lastMicros = Math.max(System.currentTimeMillis() * 1000, lastMicros + 1);
+        return lastMicros;
+    }
+
+    // ---- 유틸 ----
+
+    private long latencyFor(String path) {
+        long[] range = match(latencies, path);
+        if (range == null || range[1] <= 0)
+            return 0;
+        return range[0] + (long) (nextDouble() * (range[1] - range[0]));
+    }
+
+    private synchronized double nextDouble() {
+        return random.nextDouble();
+    }
+
+    private synchronized boolean allowByRateLimit() {
+        if (rateLimitPerSec <= 0)
+            return true;
+        long now = System.currentTimeMillis();
+        if (now - rateWindowStartMillis >= 1000) {
+            rateWindowStartMillis = now;
+            rateWindowCount = 0;
+        }
+        return ++rateWindowCount <= rateLimitPerSec;
+    }
+
+    // 가장 긴 prefix가 일치하는 설정을 찾는다.
+    private static <T> T match(Map<String, T> map, String path) {
+        T found = null;
+        int length = -1;
+        for (Map.Entry<String, T> entry : map.entrySet()) {
+            if (path.startsWith(entry.getKey()) && entry.getKey().length() > length) {
+                found = entry.getValue();
+                length = entry.getKey().length();
+            }
+        }
+        return found;
+    }
+
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseQuery(exchange.getRequestURI().getRawQuery(), params);
+        InputStream in = exchange.getRequestBody();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            body.write(buffer, 0, read);
+        parseQuery(new String(body.toByteArray(), UTF_8), params);
+        return params;
+    }
+
+    private static void parseQuery(String query, Map<String, String> params) throws IOException {
+        if (query == null || query.isEmpty())
+            return;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0)
+                continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+        }
+    }
+
+    private static String error(String status, String message) {
+        return "{\"status\":\"" + status + "\",\"message\":\"" + message + "\"}";
+    }
+
+    private static String units(double value) {
+        return String.format(Locale.US, "%.8f", value);
+    }
+
+    private static String krw(double value) {
+        return String.format(Locale.US, "%.0f", value);
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value == null ? defaultValue : (int) Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static double parseDouble(String value) {
+        try {
+            return value == null ? 0 : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double roundUnits(double units) {
+        return Math.round(units * 100000000d) / 100000000d;
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0)
+            return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 18080;
+        FakeBithumbExchange exchange = new FakeBithumbExchange("BTC", 50000000, port)
+                .setBalance(10000000, 0)
+                .setLatency("/", 30, 120)
+                .start();
+        System.out.println("fake bithumb : " + exchange.getBaseUrl());
+
+        Random walk = new Random();
+        while (true) {
+            Thread.sleep(1000);
+            int current = exchange.getPrice();
+            exchange.setPrice(current + (walk.nextInt(5) - 2) * 10000);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.CoinUnits;
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.base.OrderManager;
+import com.example.k_trader.base.TradeData;
+import com.example.k_trader.base.TradeDataManager;
+import com.example.k_trader.bitthumb.lib.ApiResilience;
+import com.example.k_trader.bitthumb.lib.Api_Client;
+import com.example.k_trader.bitthumb.lib.BithumbResponseDecoder.Balance;
+import com.example.k_trader.bitthumb.lib.MarketDataGateway;
+
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FakeBithumbExchange를 상대로 Api_Client ~ OrderManager 전체 경로를 확인한다.
+ */
+public class FakeBithumbExchangeTest {
+    private FakeBithumbExchange exchange;
+    private OrderManager orderManager;
+    private String coin;
+
+    class LocalApiClient extends Api_Client {
+        LocalApiClient() {
+            api_url = exchange.getBaseUrl();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        GlobalSettings.getInstance().setApiKey("key").setApiSecret("secret");
+        ApiResilience.getInstance().configureDefaults();
+        MarketDataGateway.getInstance().invalidate();
+
+        coin = GlobalSettings.getInstance().getCoinType().toUpperCase(Locale.US);
+        exchange = new FakeBithumbExchange(coin, 50000000).setBalance(10000000, 0.1).start();
+        orderManager = new OrderManager(LocalApiClient::new);
+    }
+
+    @After
+    public void tearDown() {
+        exchange.stop();
+        ApiResilience.getInstance().configureDefaults();
+        MarketDataGateway.getInstance().invalidate();
+    }
+
+    // addOrder()는 앱 로그를 남기므로 주문은 Api_Client로 직접 보낸다.
+    private String place(String type, double units, int price) {
+        HashMap<String, String> params = new HashMap<>();
+        params.put("order_currency", coin);
+        params.put("payment_currency", "KRW");
+        params.put("units", String.format(Locale.US, "%.4f", units));
+        params.put("price", String.valueOf(price));
+        params.put("type", type);
+
+        JSONObject result = new LocalApiClient().callApi("POST", "/trade/place", params);
+        assertEquals("0000", result.get("status"));
+        return (String) result.get("order_id");
+    }
+
+    // 매수 주문은 시장가가 주문 가격까지 내려오면 체결되고, 체결 내역과 잔고에 반영된다.
+    @Test
+    public void restingBidFillsWhenPriceDrops() throws Exception {
+        String orderId = place("bid", 0.01, 49000000);
+
+        List<TradeData> placed = orderManager.getPlacedOrders("test");
+        assertEquals(1, placed.size());
+        assertEquals(orderId, placed.get(0).getId());
+        assertEquals(TradeDataManager.Type.BUY, placed.get(0).getType());
+
+        exchange.setPricePath(49500000, 49000000);
+        exchange.advance();
+        assertEquals(1, orderManager.getPlacedOrders("test").size());
+        exchange.advance();
+        assertEquals(0, orderManager.getPlacedOrders("test").size());
+
+        List<TradeData> processed = orderManager.getProcessedOrders("test", 0, "5");
+        assertEquals(1, processed.size());
+        assertEquals(TradeDataManager.Type.BUY, processed.get(0).getType());
+        assertEquals(49000000, processed.get(0).getPrice());
+
+        Balance balance = orderManager.getBalanceInfo("test");
+        assertEquals(CoinUnits.fromDouble(0.11), balance.totalCoin);
+        assertEquals((long) (10000000 - 490000 * 1.0004), balance.totalKrw);
+    }
+
+    // 부분 체결 비율을 주면 가격이 닿을 때마다 주문 수량의 일부씩 체결된다.
+    @Test
+    public void askFillsPartially() throws Exception {
+        exchange.setPartialFillRatio(0.5);
+        place("ask", 0.02, 51000000);
+
+        exchange.setPrice(51000000);
+        List<TradeData> placed = orderManager.getPlacedOrders("test");
+        assertEquals(1, placed.size());
+        assertEquals(CoinUnits.fromDouble(0.01), placed.get(0).getUnits());
+
+        exchange.setPrice(51500000);
+        assertEquals(0, orderManager.getPlacedOrders("test").size());
+        assertEquals(2, orderManager.getProcessedOrders("test", 0, "5").size());
+        assertEquals(0.08, exchange.getTotalCoin(), 0.00000001);
+    }
+
+    // 호가를 넘는 주문은 바로 체결되고, 잔고가 모자라면 거절된다.
+    @Test
+    public void crossingOrderFillsImmediatelyAndBalanceIsChecked() throws Exception {
+        place("bid", 0.01, 50001000);
+        assertEquals(0, exchange.getOpenOrders().size());
+        assertEquals(1, exchange.getFills().size());
+
+        HashMap<String, String> params = new HashMap<>();
+        params.put("order_currency", coin);
+        params.put("units", "1.0000");
+        params.put("price", "50000000");
+        params.put("type", "bid");
+        JSONObject result = new LocalApiClient().callApi("POST", "/trade/place", params);
+        assertEquals("5600", result.get("status"));
+    }
+
+    // 주입한 오류는 ApiResilience의 재시도로 감춰진다.
+    @Test
+    public void injectedErrorsAreRetried() throws Exception {
+        ApiResilience.getInstance().configure(100, 1000, 5, 1, 5);
+        exchange.setErrorRate("/info/balance", 0.1, 0.1);
+
+        for (int i = 0; i < 20; i++)
+            orderManager.getBalanceInfo("test");
+
+        long requests = exchange.getRequestCount("/info/balance");
+        assertTrue(requests > 20);
+        assertEquals(requests - 20, ApiResilience.getInstance().getRetryCount());
+    }
+
+    // tick 한 번에 필요한 조회를 동시에 보내면, 응답 지연이 더해지지 않고 가장 느린 조회 하나만큼 걸린다.
+    @Test
+    public void tickFanOutTakesOneRoundTrip() throws Exception {
+        exchange.setLatency("/", 150, 150);
+
+        long start = System.nanoTime();
+        CompletableFuture<Balance> balance = orderManager.getBalanceInfoAsync("test");
+        CompletableFuture<List<TradeData>> placed = orderManager.getPlacedOrdersAsync("test");
+        CompletableFuture<List<TradeData>> processed = orderManager.getProcessedOrdersAsync("test", 0, "20");
+        CompletableFuture.allOf(balance, placed, processed, orderManager.getOrderbookAsync("test")).get(5, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(CoinUnits.fromDouble(0.1), balance.get().totalCoin);
+        assertTrue("elapsed " + elapsedMs + "ms", elapsedMs >= 150 && elapsedMs < 450);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.base.OrderManager;
+import com.example.k_trader.bitthumb.lib.Api_Client;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FillEventMonitorTest {
+    private final AtomicInteger transactionCalls = new AtomicInteger();
+    private final Semaphore fillSignals = new Semaphore(0);
+    private volatile String transactions = "[]";
+
+    private FillEventMonitor monitor;
+    private String symbol;
+
+    class DummyApiClient extends Api_Client {
+        @Override
+        public String callApiText(String method, String endpoint, HashMap<String, String> params) {
+            if (endpoint.equals("/info/user_transactions")) {
+                transactionCalls.incrementAndGet();
+                return "{\"status\":\"0000\",\"data\":" + transactions + "}";
+            }
+            return "{\"status\":\"0000\"}";
+        }
+    }
+
+    @Before
+    public void setUp() {
+        TradeJobService.lastNotiTimeInMillis = System.currentTimeMillis() - 60000;
+        symbol = GlobalSettings.getInstance().getCoinType().toUpperCase(Locale.US) + "_KRW";
+        monitor = new FillEventMonitor();
+        monitor.start(new OrderManager(DummyApiClient::new), fillSignals::release);
+    }
+
+    private static String fill(int search, long timeMillis) {
+        return "{\"search\":\"" + search + "\",\"price\":\"50000000\",\"units\":\"0.001\",\"fee\":\"0\","
+                + "\"transfer_date\":\"" + (timeMillis * 1000) + "\"}";
+    }
+
+    // 대기 중인 매수가보다 높은 체결이나, 매수 주문이 없는 상태에서의 체결은 조회하지 않는다.
+    @Test
+    public void ignoresTradesAboveRestingBuy() throws Exception {
+        monitor.onTrade(symbol, 50000000, 0.1, true);
+        monitor.setRestingBuyPrice(50000000);
+        monitor.onTrade(symbol, 50000001, 0.1, true);
+        monitor.onTrade("XRP_KRW", 1000, 0.1, true);
+        Thread.sleep(200);
+
+        assertEquals(0, transactionCalls.get());
+        assertEquals(0, monitor.getStats().hintCount);
+    }
+
+    // 매수가 이하 체결을 보면 최근 체결 이력을 조회하고, 새 매수 체결이 있으면 한 번만 알린다.
+    @Test
+    public void signalsNewBuyFillOnce() throws Exception {
+        transactions = "[" + fill(1, System.currentTimeMillis() - 500) + "," + fill(2, System.currentTimeMillis() - 400) + "]";
+        monitor.setRestingBuyPrice(50000000);
+
+        monitor.onTrade(symbol, 50000000, 0.1, false);
+        assertEquals(true, fillSignals.tryAcquire(2, TimeUnit.SECONDS));
+
+        // 같은 체결을 다시 보더라도 다시 알리지 않는다.
+        monitor.onTrade(symbol, 49990000, 0.1, false);
+        Thread.sleep(300);
+        assertEquals(0, fillSignals.availablePermits());
+        assertEquals(1, monitor.getStats().fillCount);
+        assertEquals(2, transactionCalls.get());
+    }
+
+    // 이미 처리된 체결과 매도 체결은 알리지 않는다.
+    @Test
+    public void ignoresHandledAndSellFills() throws Exception {
+        transactions = "[" + fill(2, System.currentTimeMillis() - 500) + "," + fill(1, TradeJobService.lastNotiTimeInMillis - 1000) + "]";
+        monitor.setRestingBuyPrice(50000000);
+
+        monitor.onTrade(symbol, 49000000, 0.1, false);
+        Thread.sleep(300);
+
+        assertEquals(1, transactionCalls.get());
+        assertEquals(0, fillSignals.availablePermits());
+    }
+}
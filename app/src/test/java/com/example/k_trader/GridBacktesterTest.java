@@ -0,0 +1,182 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.GridBacktester;
+import com.example.k_trader.base.GridBacktester.PriceSeries;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Random;
+
+public class GridBacktesterTest {
+
+    // 1회 100만원, 이익률 1%, slot 0.5% : 5,000만원대는 slot 간격 25만원, 이익금 50만원
+    private static GridBacktester.Config config() {
+        return new GridBacktester.Config()
+                .setUnitPrice(1000000)
+                .setEarningRate(1.0f)
+                .setSlotIntervalRate(0.5f)
+                .setFeeRate(0.0004)
+                .setDecisionIntervalMillis(0)
+                .setInitialBalance(10000000, 0);
+    }
+
+    private static PriceSeries series(int... prices) {
+        PriceSeries series = new PriceSeries(prices.length);
+        for (int i = 0; i < prices.length; i++)
+            series.add(i * 1000L, prices[i]);
+        return series;
+    }
+
+    // floor slot에 매수하고, 체결되면 look-aside 범위의 가장 높은 slot + 이익금 가격에 매도한다.
+    @Test
+    public void buysFloorSlotAndSellsAtProfitSlot() {
+        GridBacktester backtester = new GridBacktester(config());
+        backtester.run(series(50100000, 49990000, 50600000, 51000000));
+        GridBacktester.Result result = backtester.getResult();
+
+        assertEquals(1, result.buyFills);
+        assertEquals(1, result.sellOrders);
+        assertEquals(1, result.sellFills);
+        assertEquals(0, result.sellFailures);
+        assertEquals(0, result.availableCoin + result.lockedCoin, 0.00001);
+        // 5,000만원에 0.02개 매수, 5,050만원 slot의 매도가 5,100만원에 매도
+        double expectedFee = (50000000 + 51000000) * 0.02 * 0.0004;
+        assertEquals(expectedFee, result.fees, 1);
+        assertEquals(10000000 + 1000000 * 0.02 - expectedFee, result.krw, 1);
+        assertEquals(result.krw - 10000000, result.getProfit(), 1);
+    }
+
+    // 같은 slot에서 다시 매수가 체결되면, 가장 높은 slot에는 이미 매도가 있으므로 그 아래 빈 slot에 매도한다.
+    @Test
+    public void looksAsideForFreeSellSlot() {
+        GridBacktester backtester = new GridBacktester(config().setUnitPrice(500000));
+        PriceSeries series = series(50100000, 49990000, 50100000, 49990000, 50760000, 51000000);
+        backtester.run(series.timeMillis, series.prices, 0, 4);
+        GridBacktester.Result result = backtester.getResult();
+        assertEquals(2, result.buyFills);
+        assertEquals(2, result.sellOrders);
+        assertEquals(0.02, result.lockedCoin, 0.00001);
+
+        // 두 번째 매도는 5,025만원 slot(매도가 5,075만원), 첫 번째 매도는 5,050만원 slot(매도가 5,100만원)에 있다.
+        backtester.run(series.timeMillis, series.prices, 4, 5);
+        assertEquals(1, backtester.getResult().sellFills);
+        backtester.run(series.timeMillis, series.prices, 5, 6);
+        assertEquals(2, backtester.getResult().sellFills);
+        assertEquals(0, backtester.getResult().lockedCoin, 0.00001);
+    }
+
+    // 가격이 떨어지면 slot마다 매수하고 낙폭을 기록하며, 다시 오르면 모두 매도한다.
+    @Test
+    public void tracksDrawdownThroughDipAndRecovery() {
+        PriceSeries series = new PriceSeries(64);
+        long time = 0;
+        for (int price = 50100000; price > 48000000; price -= 50000)
+            series.add(time += 1000, price);
+        for (int price = 48000000; price < 52000000; price += 50000)
+            series.add(time += 1000, price);
+
+        GridBacktester backtester = new GridBacktester(config());
+        backtester.run(series);
+        GridBacktester.Result result = backtester.getResult();
+
+        assertTrue(result.toString(), result.buyFills >= 8);
+        assertTrue(result.toString(), result.sellFills >= result.buyFills - 1);
+        assertTrue(result.toString(), result.maxDrawdown > 0);
+        assertTrue(result.toString(), result.maxDrawdownRate > 0 && result.maxDrawdownRate < 100);
+        assertTrue(result.toString(), result.getProfit() > 0);
+    }
+
+    // 원화가 1회 거래 금액보다 적으면 매수하지 않는다.
+    @Test
+    public void skipsBuyWithoutBalance() {
+        GridBacktester backtester = new GridBacktester(config().setInitialBalance(500000, 0));
+        backtester.run(series(50100000, 49990000, 49700000));
+        assertEquals(0, backtester.getResult().buyOrders);
+    }
+
+    // 매수 체결 없이 남아 있는 코인 잔고도 현재가 위 slot에 매도한다.
+    @Test
+    public void sellsAvailableBalance() {
+        GridBacktester backtester = new GridBacktester(config().setInitialBalance(0, 0.05));
+        backtester.run(series(50100000, 50200000, 51000000, 52000000, 53000000));
+        GridBacktester.Result result = backtester.getResult();
+
+        assertTrue(result.toString(), result.sellFills >= 2);
+        assertEquals(0, result.availableCoin, 0.00001);
+    }
+
+    // 판단은 decisionIntervalMillis마다 한 번만 한다.
+    @Test
+    public void decidesOncePerInterval() {
+        GridBacktester backtester = new GridBacktester(config().setDecisionIntervalMillis(10000));
+        PriceSeries series = new PriceSeries(100);
+        for (int i = 0; i < 100; i++)
+            series.add(i * 1000L, 50100000);
+        backtester.run(series);
+        assertEquals(10, backtester.getResult().decisions);
+    }
+
+    @Test
+    public void readsCsv() throws Exception {
+        PriceSeries series = PriceSeries.readCsv(new StringReader("time,price\n1000,50100000\n2000, 49990000.0,0.1\n\n"));
+        assertEquals(2, series.size);
+        assertEquals(2000L, series.timeMillis[1]);
+        assertEquals(49990000, series.prices[1]);
+    }
+
+    // 100ms마다 5,000원 단위로 움직이는 random walk
+    private static PriceSeries randomWalk(int count) {
+        PriceSeries series = new PriceSeries(count);
+        Random random = new Random(7);
+        int price = 50000000;
+        for (int i = 0; i < count; i++) {
+            price += (random.nextInt(9) - 4) * 5000;
+            series.add(i * 100L, price);
+        }
+        return series;
+    }
+
+    private static GridBacktester.Config walkConfig() {
+        return config().setDecisionIntervalMillis(1000).setInitialBalance(100000000, 0);
+    }
+
+    // 나눠서 재생해도 한 번에 재생한 결과와 같다.
+    @Test
+    public void chunkedReplayMatchesWhole() {
+        int count = 200000;
+        PriceSeries series = randomWalk(count);
+
+        GridBacktester whole = new GridBacktester(walkConfig());
+        whole.run(series.timeMillis, series.prices, 0, count);
+
+        GridBacktester chunked = new GridBacktester(walkConfig());
+        for (int from = 0; from < count; from += 4096)
+            chunked.run(series.timeMillis, series.prices, from, Math.min(count, from + 4096));
+
+        GridBacktester.Result a = whole.getResult();
+        GridBacktester.Result b = chunked.getResult();
+        assertEquals(a.toString(), b.toString());
+        assertEquals(a.krw, b.krw, 0);
+        assertTrue(a.toString(), a.buyFills > 0 && a.sellFills > 0);
+    }
+
+    // 처리 속도 측정용. 실행 환경에 따라 결과가 달라지므로 필요할 때 직접 실행한다.
+    @Ignore("성능 측정")
+    @Test
+    public void measureThroughput() {
+        int count = 5000000;
+        PriceSeries series = randomWalk(count);
+        GridBacktester backtester = new GridBacktester(walkConfig());
+        long start = System.nanoTime();
+        backtester.run(series.timeMillis, series.prices, 0, count);
+        long elapsedNanos = System.nanoTime() - start;
+        System.out.println(String.format(Locale.getDefault(), "backtest : %,.0f ticks/s, %s",
+                count * 1e9 / elapsedNanos, backtester.getResult()));
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.k_trader;
+
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+import static com.example.k_trader.base.TradeDataManager.Type.SELL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.CoinUnits;
+import com.example.k_trader.base.GridDecisionKernel;
+import com.example.k_trader.base.GridDecisionKernel.IntentType;
+import com.example.k_trader.base.MarketSettings;
+import com.example.k_trader.base.SlotLadder;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+public class GridDecisionKernelTest {
+
+    // 1회 100만원, 이익률 1%, slot 0.5% : 5,000만원대는 slot 간격 25만원, 이익금 50만원
+    private static final long U001 = CoinUnits.fromDouble(0.01);
+    private static final long U002 = CoinUnits.fromDouble(0.02);
+
+    private static final MarketSettings SETTINGS = new MarketSettings("BTC", 1000000, 1.0f, 0.5f);
+
+    private long now = 1000;
+    private final GridDecisionKernel kernel = new GridDecisionKernel(() -> now, SETTINGS);
+
+    private static class RecordingPort implements GridDecisionKernel.ExchangePort {
+        final StringBuilder calls = new StringBuilder();
+        boolean sellResult = true;
+        boolean cancelResult = true;
+
+        @Override
+        public boolean sell(int price, long units, int fillIndex) {
+            calls.append("sell ").append(price).append(' ').append(fillIndex).append(';');
+            return sellResult;
+        }
+
+        @Override
+        public boolean cancelBuys() {
+            calls.append("cancel;");
+            return cancelResult;
+        }
+
+        @Override
+        public boolean buy(int price, long units) {
+            calls.append("buy ").append(price).append(';');
+            return true;
+        }
+    }
+
+    // 체결된 매수는 바로 위 slot부터 SELL 단계 위까지 중 가장 높은 빈 slot에 매도한다.
+    @Test
+    public void sellsFilledBuyAtHighestFreeSlot() {
+        SlotLadder ladder = SlotLadder.around(50000000, SETTINGS);
+        kernel.addFill(BUY, 50000000, U002, 900);
+
+        assertTrue(kernel.decide(ladder, 50100000, 0, U002));
+        assertEquals(1, kernel.getIntentCount());
+        assertEquals(IntentType.SELL_FOR_FILL, kernel.getIntentType(0));
+        assertEquals(51000000, kernel.getIntentPrice(0)); // 5,050만원 slot의 매도가
+        assertEquals(U002, kernel.getIntentUnits(0));
+        assertEquals(0, kernel.getIntentFill(0));
+        assertTrue(ladder.hasSell(ladder.indexOfSellPrice(51000000)));
+
+        // 같은 slot의 매수가 다시 체결되면 합칠 수 없으므로 그 아래 slot에 매도한다.
+        kernel.clearFills();
+        kernel.addFill(BUY, 50000000, U002, 950);
+        kernel.decide(ladder, 50100000, 0, U002);
+        assertEquals(50750000, kernel.getIntentPrice(0));
+    }
+
+    // 같은 가격의 체결은 수량을 합치고 늦은 체결 시간을 사용한다.
+    @Test
+    public void mergesSamePriceFills() {
+        kernel.addFill(BUY, 50000000, U001, 900);
+        kernel.addFill(SELL, 51000000, U002, 910);
+        kernel.addFill(BUY, 50000000, U001, 950);
+
+        assertEquals(2, kernel.getFillCount());
+        assertEquals(BUY, kernel.getFillType(0));
+        assertEquals(CoinUnits.fromDouble(0.02), kernel.getFillUnits(0));
+        assertEquals(950, kernel.getFillTime(0));
+        assertEquals(SELL, kernel.getFillType(1));
+
+        kernel.decide(SlotLadder.around(50000000, SETTINGS), 50100000, 0, U002);
+        assertEquals(1, kernel.getIntentCount());
+    }
+
+    // 매수는 floor slot에 하나만 걸고, 걸기 전에 기존 매수를 모두 취소한다.
+    @Test
+    public void cancelsRestingBuysBeforeNewBuy() {
+        SlotLadder ladder = SlotLadder.around(50000000, SETTINGS);
+        ladder.addOrder(BUY, 50000000, U002);
+
+        kernel.decide(ladder, 50600000, 10000000, 0);
+        assertEquals(2, kernel.getIntentCount());
+        assertEquals(IntentType.CANCEL_BUYS, kernel.getIntentType(0));
+        assertEquals(IntentType.BUY, kernel.getIntentType(1));
+        assertEquals(50500000, kernel.getIntentPrice(1));
+        assertEquals(CoinUnits.fromDouble(0.0198), kernel.getIntentUnits(1)); // 100만원 / 5,050만원 = 0.019801.. -> 0.0198
+        assertFalse(ladder.hasBuy(ladder.indexOfSlotPrice(50000000)));
+        assertTrue(ladder.hasBuy(ladder.indexOfSlotPrice(50500000)));
+
+        // floor slot에 이미 매수가 있으면 그대로 둔다.
+        kernel.decide(ladder, 50600000, 10000000, 0);
+        assertEquals(0, kernel.getIntentCount());
+    }
+
+    // 매도가 걸린 slot은 건너뛰고, 원화가 부족한 slot에는 매수하지 않는다.
+    @Test
+    public void skipsSellSlotAndShortBalance() {
+        SlotLadder ladder = SlotLadder.around(50000000, SETTINGS);
+        ladder.addOrder(SELL, 51000000, U002); // 5,050만원 slot
+
+        kernel.decide(ladder, 50600000, 10000000, 0);
+        assertEquals(50250000, kernel.getIntentPrice(1));
+
+        kernel.decide(SlotLadder.around(50000000, SETTINGS), 50600000, 500000, 0);
+        assertEquals(0, kernel.getIntentCount());
+    }
+
+    // 1회 거래 금액으로 최소 거래 단위를 살 수 없으면 판단하지 않고 체결은 남겨 둔다.
+    @Test
+    public void skipsWhenUnitPriceBelowMinimum() {
+        GridDecisionKernel small = new GridDecisionKernel(() -> now, new MarketSettings("BTC", 1000, 1.0f, 0.5f));
+        small.addFill(BUY, 50000000, U002, 900);
+
+        assertFalse(small.isTradable(50100000));
+        assertFalse(small.decide(SlotLadder.around(50000000, SETTINGS), 50100000, 10000000, U002));
+        assertEquals(0, small.getIntentCount());
+        assertEquals(1, small.getFillCount());
+    }
+
+    // 체결 대응 매도가 실패해도 계속하고, 그 외 주문이 실패하면 나머지 주문은 실행하지 않는다.
+    @Test
+    public void executeStopsAfterFailedOrder() {
+        SlotLadder ladder = SlotLadder.around(50000000, SETTINGS);
+        ladder.addOrder(BUY, 50000000, U002);
+        kernel.addFill(BUY, 50000000, U002, 900);
+        kernel.decide(ladder, 50600000, 10000000, U002);
+
+        RecordingPort port = new RecordingPort();
+        port.sellResult = false;
+        port.cancelResult = false;
+        assertFalse(kernel.execute(port));
+        assertEquals("sell 51000000 0;cancel;", port.calls.toString());
+        assertFalse(kernel.isFillSold(0));
+
+        port = new RecordingPort();
+        assertTrue(kernel.execute(port));
+        assertEquals("sell 51000000 0;cancel;buy 50250000;", port.calls.toString());
+        assertTrue(kernel.isFillSold(0));
+    }
+
+    // 시간은 주입한 Clock으로만 읽는다.
+    @Test
+    public void usesInjectedClock() {
+        kernel.setDecisionIntervalMillis(10000);
+        assertTrue(kernel.isDecisionDue());
+
+        kernel.decide(SlotLadder.around(50000000, SETTINGS), 50100000, 0, 0);
+        assertEquals(1000, kernel.getLastDecisionMillis());
+        assertFalse(kernel.isDecisionDue());
+
+        now += 9999;
+        assertFalse(kernel.isDecisionDue());
+        now += 1;
+        assertTrue(kernel.isDecisionDue());
+    }
+
+    private static final GridDecisionKernel.ExchangePort NOP_PORT = new GridDecisionKernel.ExchangePort() {
+        @Override public boolean sell(int price, long units, int fillIndex) {return true;}
+        @Override public boolean cancelBuys() {return true;}
+        @Override public boolean buy(int price, long units) {return true;}
+    };
+
+    // 판단과 실행을 반복해도 객체를 만들지 않는다.
+    @Test
+    public void decidesWithoutAllocation() {
+        SlotLadder ladder = SlotLadder.around(50000000, SETTINGS);
+        GridDecisionKernel.ExchangePort nop = NOP_PORT;
+        for (int i = 0; i < 20000; i++)
+            decideOnce(ladder, nop, i);
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return; // 할당량을 잴 수 없는 JVM
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100000; i++)
+            decideOnce(ladder, nop, i);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allocated + " bytes", allocated < 64 * 1024);
+    }
+
+    // 초당 판단 횟수 측정용. 실행 환경에 따라 결과가 달라지므로 필요할 때 직접 실행한다.
+    @Ignore("성능 측정")
+    @Test
+    public void measureDecisionsPerSecond() {
+        SlotLadder ladder = SlotLadder.around(50000000, SETTINGS);
+        for (int i = 0; i < 100000; i++)
+            decideOnce(ladder, NOP_PORT, i);
+
+        int iterations = 2000000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            decideOnce(ladder, NOP_PORT, i);
+        long elapsedNanos = System.nanoTime() - start;
+        System.out.println(String.format(Locale.getDefault(), "kernel : %,.0f decisions/s, %.0fns/decision",
+                iterations * 1e9 / elapsedNanos, elapsedNanos / (double) iterations));
+    }
+
+    private void decideOnce(SlotLadder ladder, GridDecisionKernel.ExchangePort port, int i) {
+        ladder.clearOrders();
+        kernel.clearFills();
+        kernel.addFill(BUY, 50000000 + (i % 4) * 250000, U002, i);
+        kernel.addFill(SELL, 51000000, U002, i);
+        kernel.decide(ladder, 50100000, 10000000, CoinUnits.fromDouble(0.05));
+        kernel.execute(port);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.GridBacktester;
+import com.example.k_trader.base.GridParameterSweep;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+public class GridParameterSweepTest {
+
+    private static GridBacktester.PriceSeries randomWalk(int count, long seed) {
+        GridBacktester.PriceSeries series = new GridBacktester.PriceSeries(count);
+        Random random = new Random(seed);
+        int price = 50000000;
+        for (int i = 0; i < count; i++) {
+            price += (random.nextInt(9) - 4) * 10000;
+            series.add(i * 1000L, price);
+        }
+        return series;
+    }
+
+    private static GridParameterSweep sweep() {
+        return new GridParameterSweep(new GridBacktester.Config().setInitialBalance(50000000, 0).setFeeRate(0.0004))
+                .setUnitPrices(500000, 1000000)
+                .setEarningRates(0.5f, 1.0f, 2.0f)
+                .setSlotIntervalRates(0.25f, 0.5f)
+                .setLookAsides(new int[]{1, 3}, new int[]{3})
+                .setDecisionIntervalsMillis(10000, 60000);
+    }
+
+    @Test
+    public void enumeratesEveryCombinationOnce() {
+        GridParameterSweep sweep = sweep();
+        assertEquals(2 * 3 * 2 * 2 * 1 * 2, sweep.size());
+
+        Set<String> configs = new HashSet<>();
+        for (int i = 0; i < sweep.size(); i++)
+            configs.add(sweep.getConfig(i).toString());
+        assertEquals(sweep.size(), configs.size());
+
+        GridBacktester.Config last = sweep.getConfig(sweep.size() - 1);
+        assertEquals(1000000, last.getUnitPrice());
+        assertEquals(2.0f, last.getEarningRate(), 0f);
+        assertEquals(60000, last.getDecisionIntervalMillis());
+    }
+
+    // 병렬로 실행한 결과는 조합마다 따로 실행한 결과와 같고, 순위대로 정렬되어 있다.
+    @Test
+    public void parallelSweepMatchesSequentialRuns() {
+        GridBacktester.PriceSeries series = randomWalk(200000, 11);
+        GridParameterSweep sweep = sweep();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<GridParameterSweep.Entry> entries;
+        try {
+            entries = sweep.run(series, pool, GridParameterSweep.BY_PROFIT);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(sweep.size(), entries.size());
+
+        for (GridParameterSweep.Entry entry : entries) {
+            GridBacktester backtester = new GridBacktester(sweep.getConfig(entry.index));
+            backtester.run(series);
+            assertEquals(backtester.getResult().toString(), entry.result.toString());
+        }
+        for (int i = 1; i < entries.size(); i++)
+            assertTrue(entries.get(i - 1).result.getProfit() >= entries.get(i).result.getProfit());
+
+        String table = GridParameterSweep.toTable(entries, 5);
+        assertEquals(6, table.split("\n").length);
+    }
+
+    @Test
+    public void ranksByProfitOverDrawdown() {
+        List<GridParameterSweep.Entry> entries = sweep().run(randomWalk(50000, 3), ForkJoinPool.commonPool(),
+                GridParameterSweep.BY_PROFIT_OVER_DRAWDOWN);
+        for (int i = 1; i < entries.size(); i++)
+            assertTrue(entries.get(i - 1).getProfitOverDrawdown() >= entries.get(i).getProfitOverDrawdown());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyValues() {
+        sweep().setEarningRates();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.bitthumb.lib.ApiResilience;
+import com.example.k_trader.bitthumb.lib.Api_Client;
+import com.example.k_trader.bitthumb.lib.HttpConnectionPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FakeBithumbExchange를 상대로 HttpConnectionPool의 호스트별 연결 수 제한과 통계를 확인한다.
+ */
+public class HttpConnectionPoolTest {
+    private static final long LATENCY_MS = 150;
+
+    private FakeBithumbExchange exchange;
+    private ExecutorService callers;
+
+    class LocalApiClient extends Api_Client {
+        LocalApiClient() {
+            api_url = exchange.getBaseUrl();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        GlobalSettings.getInstance().setApiKey("key").setApiSecret("secret");
+        ApiResilience.getInstance().configureDefaults();
+        exchange = new FakeBithumbExchange("BTC", 50000000).setBalance(10000000, 0.1)
+                .setLatency("/info/", LATENCY_MS, LATENCY_MS)
+                .start();
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        callers.shutdownNow();
+        exchange.stop();
+        HttpConnectionPool.getInstance().configure(HttpConnectionPool.MAX_CONNECTIONS_PER_HOST_DEFAULT,
+                HttpConnectionPool.KEEP_ALIVE_DURATION_DEFAULT_MS);
+    }
+
+    // count개의 잔고 조회를 동시에 보낸다. (시세 조회는 MarketDataGateway가 합치므로 private endpoint를 사용한다.)
+    private List<Future<String>> callConcurrently(int count) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            results.add(callers.submit(() -> new LocalApiClient().callApiText("POST", "/info/balance", null)));
+        return results;
+    }
+
+    private static void awaitAll(List<Future<String>> results) throws Exception {
+        for (Future<String> result : results)
+            assertTrue(result.get(10, TimeUnit.SECONDS).contains("\"0000\""));
+    }
+
+    // 호스트별 최대 연결 수만큼만 동시에 요청하고, 완료된 요청 수와 소요 시간을 센다.
+    @Test
+    public void limitsConcurrentRequestsPerHost() throws Exception {
+        HttpConnectionPool pool = HttpConnectionPool.getInstance();
+        pool.configure(2, HttpConnectionPool.KEEP_ALIVE_DURATION_DEFAULT_MS);
+        HttpConnectionPool.Stats before = pool.getStats();
+
+        awaitAll(callConcurrently(6));
+
+        assertEquals(2, exchange.getMaxConcurrentRequests());
+        HttpConnectionPool.Stats after = pool.getStats();
+        assertEquals(6, after.requestCount - before.requestCount);
+        assertTrue(after.toString(), after.totalRequestNanos - before.totalRequestNanos >= TimeUnit.MILLISECONDS.toNanos(6 * LATENCY_MS));
+    }
+
+    // 요청이 진행 중일 때 설정을 줄여도, 그 요청들이 반환한 permit 때문에 제한을 넘지 않는다.
+    @Test
+    public void shrinksLimitWhileRequestsInFlight() throws Exception {
+        HttpConnectionPool pool = HttpConnectionPool.getInstance();
+        pool.configure(3, HttpConnectionPool.KEEP_ALIVE_DURATION_DEFAULT_MS);
+
+        List<Future<String>> inFlight = callConcurrently(3);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (exchange.getMaxConcurrentRequests() < 3 && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+        assertEquals(3, exchange.getMaxConcurrentRequests());
+
+        pool.configure(1, HttpConnectionPool.KEEP_ALIVE_DURATION_DEFAULT_MS);
+        awaitAll(inFlight);
+
+        exchange.resetMaxConcurrentRequests();
+        awaitAll(callConcurrently(4));
+        assertEquals(1, exchange.getMaxConcurrentRequests());
+
+        // 다시 늘리면 바로 적용된다.
+        pool.configure(2, HttpConnectionPool.KEEP_ALIVE_DURATION_DEFAULT_MS);
+        exchange.resetMaxConcurrentRequests();
+        awaitAll(callConcurrently(4));
+        assertEquals(2, exchange.getMaxConcurrentRequests());
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.example.k_trader.bitthumb.lib.MarketDataGateway;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MarketDataGatewayTest {
+    private static final String ENDPOINT = "/public/test/BTC";
+    private static final String OK_BODY = "{\"status\":\"0000\",\"data\":{\"closing_price\":\"50000000\"}}";
+
+    @After
+    public void tearDown() {
+        MarketDataGateway.getInstance().setFreshness("/public/test/", 0);
+        MarketDataGateway.getInstance().invalidate();
+    }
+
+    // 같은 요청이 동시에 들어오면 네트워크 요청은 한 번만 나가야 한다.
+    @Test
+    public void fetch_coalescesConcurrentRequests() throws Exception {
+        final MarketDataGateway gateway = MarketDataGateway.getInstance();
+        gateway.setFreshness("/public/test/", 0);
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return gateway.fetch("single-flight", ENDPOINT, () -> {
+                        loads.incrementAndGet();
+                        sleep(300);
+                        return OK_BODY;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results)
+                assertEquals(OK_BODY, result.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    // 유효 시간 안에는 캐시된 응답을 쓰고, 지나면 다시 요청한다.
+    @Test
+    public void fetch_servesFromCacheWithinFreshness() {
+        MarketDataGateway gateway = MarketDataGateway.getInstance();
+        gateway.setFreshness("/public/test/", 200);
+        final AtomicInteger loads = new AtomicInteger();
+        MarketDataGateway.Loader loader = () -> {
+            loads.incrementAndGet();
+            return OK_BODY;
+        };
+
+        gateway.fetch("ttl", ENDPOINT, loader);
+        gateway.fetch("ttl", ENDPOINT, loader);
+        assertEquals(1, loads.get());
+
+        sleep(300);
+        gateway.fetch("ttl", ENDPOINT, loader);
+        assertEquals(2, loads.get());
+    }
+
+    // 실패 응답(5600 등)은 캐시하지 않는다.
+    @Test
+    public void fetch_doesNotCacheErrorResponse() {
+        MarketDataGateway gateway = MarketDataGateway.getInstance();
+        gateway.setFreshness("/public/test/", 10000);
+        final AtomicInteger loads = new AtomicInteger();
+        MarketDataGateway.Loader loader = () -> {
+            loads.incrementAndGet();
+            return "{\"status\":\"5600\",\"message\":\"Please try again\"}";
+        };
+
+        gateway.fetch("error", ENDPOINT, loader);
+        gateway.fetch("error", ENDPOINT, loader);
+        assertEquals(2, loads.get());
+    }
+
+    // status는 JSON으로 읽으므로 공백이 있어도 성공 응답은 캐시하고, data 안의 status나 깨진 응답은 캐시하지 않는다.
+    @Test
+    public void fetch_decodesStatusToDecideCaching() {
+        MarketDataGateway gateway = MarketDataGateway.getInstance();
+        gateway.setFreshness("/public/test/", 10000);
+        final AtomicInteger loads = new AtomicInteger();
+
+        gateway.fetch("spaced", ENDPOINT, () -> {
+            loads.incrementAndGet();
+            return "{ \"status\" : \"0000\", \"data\" : {} }";
+        });
+        gateway.fetch("spaced", ENDPOINT, () -> {
+            loads.incrementAndGet();
+            return OK_BODY;
+        });
+        assertEquals(1, loads.get());
+
+        MarketDataGateway.Loader nested = () -> {
+            loads.incrementAndGet();
+            return "{\"status\":\"5600\",\"data\":{\"status\":\"0000\"}}";
+        };
+        gateway.fetch("nested", ENDPOINT, nested);
+        gateway.fetch("nested", ENDPOINT, nested);
+        assertEquals(3, loads.get());
+
+        MarketDataGateway.Loader truncated = () -> {
+            loads.incrementAndGet();
+            return "{\"status\":\"0000\",\"data\":{";
+        };
+        gateway.fetch("truncated", ENDPOINT, truncated);
+        gateway.fetch("truncated", ENDPOINT, truncated);
+        assertEquals(5, loads.get());
+    }
+
+    // 진행 중인 요청이 실패하면 기다리던 요청도 같은 예외를 받는다.
+    @Test
+    public void fetch_propagatesFailureToWaiters() throws Exception {
+        final MarketDataGateway gateway = MarketDataGateway.getInstance();
+        final CountDownLatch loading = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> gateway.fetch("failure", ENDPOINT, () -> {
+                loading.countDown();
+                sleep(300);
+                throw new IllegalStateException("network");
+            }));
+            loading.await();
+
+            try {
+                gateway.fetch("failure", ENDPOINT, () -> OK_BODY);
+                fail();
+            } catch (IllegalStateException e) {
+                assertEquals("network", e.getMessage());
+            }
+
+            try {
+                first.get();
+                fail();
+            } catch (ExecutionException e) {
+                assertEquals(IllegalStateException.class, e.getCause().getClass());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
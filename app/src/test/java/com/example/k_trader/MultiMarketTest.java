@@ -0,0 +1,148 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.base.MarketSettings;
+import com.example.k_trader.base.OrderManager;
+import com.example.k_trader.base.SlotLadder;
+import com.example.k_trader.bitthumb.lib.ApiRateLimiter;
+import com.example.k_trader.bitthumb.lib.ApiRateLimiter.EndpointClass;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class MultiMarketTest {
+
+    @After
+    public void tearDown() {
+        ApiRateLimiter.getInstance().configureDefaults();
+        ApiRateLimiter.setLane(null);
+        GlobalSettings.getInstance().setCoinType(GlobalSettings.COIN_TYPE_DEFAULT_VALUE)
+                .setCoinTypes("")
+                .clearMarketSettings();
+    }
+
+    // 한 코인이 요청을 많이 쌓아 두어도 다른 코인의 요청은 그 뒤에 밀리지 않고 다음 차례에 발급된다.
+    @Test
+    public void rateLimiter_servesLanesInTurn() throws Exception {
+        ApiRateLimiter limiter = ApiRateLimiter.getInstance();
+        limiter.configure(EndpointClass.TRADE, 20, 1, 100, 10000);
+
+        final List<String> completed = Collections.synchronizedList(new ArrayList<String>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final String name = "BTC" + i;
+            futures.add(limiter.acquire("/trade/place", "BTC").thenRun(() -> completed.add(name)));
+        }
+        for (int i = 0; i < 2; i++) {
+            final String name = "ETH" + i;
+            futures.add(limiter.acquire("/trade/place", "ETH").thenRun(() -> completed.add(name)));
+        }
+        for (CompletableFuture<Void> future : futures)
+            future.get(5, TimeUnit.SECONDS);
+
+        // BTC0은 바로 발급되고, 이후 대기열은 BTC와 ETH가 번갈아 발급된다.
+        assertEquals(Arrays.asList("BTC0", "BTC1", "ETH0", "BTC2", "ETH1", "BTC3"), completed.subList(0, 6));
+        assertEquals("BTC9", completed.get(11));
+    }
+
+    // lane을 지정하지 않은 요청은 기본 lane에서 순서대로 발급된다.
+    @Test
+    public void rateLimiter_threadLane() {
+        assertEquals(ApiRateLimiter.DEFAULT_LANE, ApiRateLimiter.getLane());
+        ApiRateLimiter.setLane("ETH");
+        assertEquals("ETH", ApiRateLimiter.getLane());
+        ApiRateLimiter.setLane(null);
+        assertEquals(ApiRateLimiter.DEFAULT_LANE, ApiRateLimiter.getLane());
+    }
+
+    @Test
+    public void coinTypes_startWithDisplayedCoin() {
+        GlobalSettings settings = GlobalSettings.getInstance();
+        settings.setCoinType(GlobalSettings.COIN_TYPE_BTC).setCoinTypes("");
+        assertEquals(Collections.singletonList("BTC"), settings.getCoinTypes());
+
+        settings.setCoinType(GlobalSettings.COIN_TYPE_ETH).setCoinTypes("btc, ETH ,BTC");
+        assertEquals(Arrays.asList("ETH", "BTC"), settings.getCoinTypes());
+    }
+
+    // 따로 설정하지 않은 코인은 공통 설정을 사용하고, 설정한 코인은 자기 slot 간격으로 사다리를 만든다.
+    @Test
+    public void marketSettings_fallBackToGlobal() {
+        GlobalSettings settings = GlobalSettings.getInstance();
+        settings.setCoinType(GlobalSettings.COIN_TYPE_BTC).setCoinTypes("BTC,ETH")
+                .setMarketSettings(new MarketSettings("ETH", 30000, 1.0f, 1.0f));
+
+        MarketSettings btc = settings.getMarketSettings("BTC");
+        assertEquals(settings.getUnitPrice(), btc.getUnitPrice());
+        assertEquals(settings.getEarningRate(), btc.getEarningRate(), 0f);
+        assertEquals(settings.getSlotIntervalRate(), btc.getSlotIntervalRate(), 0f);
+
+        MarketSettings eth = settings.getMarketSettings("ETH");
+        assertEquals(30000, eth.getUnitPrice());
+        assertEquals(1.0f, eth.getSlotIntervalRate(), 0f);
+
+        int price = 5000000;
+        SlotLadder ladder = SlotLadder.around(price, eth);
+        int floor = ladder.getSlotPrice(ladder.floorIndex(price));
+        int next = ladder.getSlotPrice(ladder.floorIndex(price) + 1);
+        assertEquals(eth.getSlotIntervalPrice(price), next - floor);
+    }
+
+    // 코인을 지정하지 않은 OrderManager는 화면에 표시하는 코인을 매매한다.
+    @Test
+    public void orderManager_keepsCoinType() {
+        GlobalSettings.getInstance().setCoinType(GlobalSettings.COIN_TYPE_BTC);
+        assertEquals("BTC", new OrderManager().getCoinType());
+        assertEquals("ETH", new OrderManager("ETH").getCoinType());
+    }
+
+    @Test
+    public void marketState_perCoin() {
+        GlobalSettings.getInstance().setCoinType(GlobalSettings.COIN_TYPE_BTC);
+        assertSame(MarketState.of("BTC"), MarketState.of(null));
+        assertNotSame(MarketState.of("BTC"), MarketState.of("ETH"));
+        assertTrue(MarketState.of("BTC").isPrimary());
+        assertFalse(MarketState.of("ETH").isPrimary());
+    }
+
+    // 코인별 엔진은 따로 실행되며, 첫 tick을 늦춰 시작한 엔진은 그만큼 뒤에 tick을 실행한다.
+    @Test
+    public void engine_perCoinWithStaggeredStart() throws Exception {
+        assertSame(TradingEngine.getInstance("BTC"), TradingEngine.getInstance("BTC"));
+        assertNotSame(TradingEngine.getInstance("BTC"), TradingEngine.getInstance("ETH"));
+
+        TradingEngine btc = new TradingEngine("BTC");
+        TradingEngine eth = new TradingEngine("ETH");
+        final CountDownLatch btcTick = new CountDownLatch(1);
+        final CountDownLatch ethTick = new CountDownLatch(1);
+        final long[] tickNanos = new long[2];
+        try {
+            long start = System.nanoTime();
+            btc.start(() -> { tickNanos[0] = System.nanoTime(); btcTick.countDown(); }, 400, 0);
+            eth.start(() -> { tickNanos[1] = System.nanoTime(); ethTick.countDown(); }, 400, 200);
+            assertTrue(btcTick.await(2, TimeUnit.SECONDS));
+            assertTrue(ethTick.await(2, TimeUnit.SECONDS));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(tickNanos[0] - start) < 150);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(tickNanos[1] - start) >= 190);
+        } finally {
+            btc.stop();
+            eth.stop();
+        }
+        assertFalse(btc.isRunning());
+        assertFalse(eth.isRunning());
+    }
+}
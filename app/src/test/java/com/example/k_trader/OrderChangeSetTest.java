@@ -0,0 +1,118 @@
+package com.example.k_trader;
+
+import static com.example.k_trader.base.TradeDataManager.Status.PLACED;
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+import static com.example.k_trader.base.TradeDataManager.Type.SELL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.CoinUnits;
+import com.example.k_trader.base.TradeData;
+import com.example.k_trader.base.TradeDataManager;
+import com.example.k_trader.database.OrderChangeSet;
+import com.example.k_trader.database.OrderEntity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class OrderChangeSetTest {
+    private static final long UNITS = CoinUnits.fromDouble(0.02);
+
+    private static TradeData placed(String id, TradeDataManager.Type type, long units, int price) {
+        return new TradeData()
+                .setId(id)
+                .setType(type)
+                .setStatus(PLACED)
+                .setUnits(units)
+                .setPrice(price)
+                .setPlacedTime(1000);
+    }
+
+    private static OrderEntity stored(long rowId, TradeData data) {
+        OrderEntity entity = OrderEntity.fromTradeData(data);
+        entity.setId(rowId);
+        entity.setUpdatedAt(1);
+        return entity;
+    }
+
+    // 바뀐 주문만 골라내고, 바뀌지 않은 주문은 건드리지 않는다.
+    @Test
+    public void diffsByOrderId() {
+        List<OrderEntity> db = Arrays.asList(
+                stored(1, placed("C1", SELL, UNITS, 51000000)),
+                stored(2, placed("C2", SELL, UNITS, 51250000)),
+                stored(3, placed("C3", BUY, UNITS, 50000000)));
+        List<TradeData> fetched = Arrays.asList(
+                placed("C1", SELL, UNITS, 51000000),                       // 그대로
+                placed("C2", SELL, CoinUnits.fromDouble(0.01), 51250000),  // 부분 체결
+                placed("C4", BUY, UNITS, 50250000));                       // 신규
+
+        OrderChangeSet changes = OrderChangeSet.diff(db, fetched, 5000);
+
+        assertEquals(1, changes.added.size());
+        assertEquals("C4", changes.added.get(0).getOrderId());
+        assertEquals(5000, changes.added.get(0).getUpdatedAt());
+
+        assertEquals(1, changes.updated.size());
+        OrderEntity updated = changes.updated.get(0);
+        assertSame(db.get(1), updated);             // id를 유지해서 그 행만 수정한다.
+        assertEquals(2, updated.getId());
+        assertEquals(CoinUnits.fromDouble(0.01), updated.getUnits());
+        assertEquals(5000, updated.getUpdatedAt());
+
+        assertEquals(1, changes.removed.size());
+        assertEquals("C3", changes.removed.get(0).getOrderId());
+        assertEquals(1, db.get(0).getUpdatedAt());
+        assertEquals("추가 1, 변경 1, 삭제 1", changes.toString());
+    }
+
+    // 같은 목록으로 다시 동기화하면 쓸 것이 없다.
+    @Test
+    public void sameListIsEmpty() {
+        List<TradeData> fetched = new ArrayList<>();
+        List<OrderEntity> db = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TradeData data = placed("C" + i, i % 2 == 0 ? BUY : SELL, UNITS, 50000000 + i * 250000);
+            fetched.add(data);
+            db.add(stored(i + 1, data));
+        }
+        Collections.reverse(fetched);
+
+        assertTrue(OrderChangeSet.diff(db, fetched, 5000).isEmpty());
+    }
+
+    // 예전 동기화가 남긴 중복 행과 주문 ID 없는 행은 정리하고, 주문 ID 없는 응답은 무시한다.
+    @Test
+    public void removesDuplicateAndUnkeyedRows() {
+        List<OrderEntity> db = Arrays.asList(
+                stored(1, placed("C1", SELL, UNITS, 51000000)),
+                stored(2, placed("C1", SELL, UNITS, 51000000)),
+                stored(3, placed(null, SELL, UNITS, 51000000)));
+        List<TradeData> fetched = Arrays.asList(
+                placed("C1", SELL, UNITS, 51000000),
+                placed(null, BUY, UNITS, 50000000));
+
+        OrderChangeSet changes = OrderChangeSet.diff(db, fetched, 5000);
+        assertEquals(0, changes.added.size());
+        assertEquals(0, changes.updated.size());
+        assertEquals(2, changes.removed.size());
+        assertEquals(2, changes.removed.get(0).getId());
+        assertEquals(3, changes.removed.get(1).getId());
+    }
+
+    // 거래소에 미체결 주문이 없으면 DB의 미체결 주문을 모두 지운다.
+    @Test
+    public void emptyFetchRemovesAll() {
+        List<OrderEntity> db = Arrays.asList(
+                stored(1, placed("C1", SELL, UNITS, 51000000)),
+                stored(2, placed("C2", BUY, UNITS, 50000000)));
+        OrderChangeSet changes = OrderChangeSet.diff(db, Collections.emptyList(), 5000);
+        assertEquals(2, changes.removed.size());
+        assertTrue(changes.added.isEmpty() && changes.updated.isEmpty());
+    }
+}
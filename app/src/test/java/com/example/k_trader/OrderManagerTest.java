@@ -3,6 +3,7 @@ package com.example.k_trader;
 import static com.example.k_trader.base.TradeDataManager.Type.BUY;
 import static org.junit.Assert.assertNotEquals;
 
+import com.example.k_trader.base.CoinUnits;
 import com.example.k_trader.base.OrderManager;
 import com.example.k_trader.bitthumb.lib.Api_Client;
 
@@ -32,7 +33,7 @@ public class OrderManagerTest {
     @Test
     public void addOrder_minValueCheck() throws Exception {
         OrderManager orderManager = new OrderManager(new DummyTradeApiService());
-        JSONObject obj = orderManager.addOrder("저점", BUY, 0.0001, 10000000);;
+        JSONObject obj = orderManager.addOrder("저점", BUY, CoinUnits.LOT, 10000000);
         
         // 결과값이 null이 아니어야 정상
         assertNotEquals(null, obj);
@@ -0,0 +1,145 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.PriceHistory;
+import com.example.k_trader.base.PriceHistory.Resolution;
+import com.example.k_trader.database.PriceCandleEntity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class PriceHistoryTest {
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    // 2024-01-01 00:00 KST
+    private static final long KST_MIDNIGHT = 1704034800000L;
+
+    private static List<PriceCandleEntity> candlesOf(PriceHistory.Batch batch, Resolution resolution) {
+        List<PriceCandleEntity> candles = new ArrayList<>();
+        for (PriceCandleEntity candle : batch.candles) {
+            if (candle.getResolution() == resolution.seconds)
+                candles.add(candle);
+        }
+        return candles;
+    }
+
+    @Test
+    public void alignsToKoreanDay() {
+        assertEquals(KST_MIDNIGHT, Resolution.DAY.openTimeOf(KST_MIDNIGHT));
+        assertEquals(KST_MIDNIGHT, Resolution.DAY.openTimeOf(KST_MIDNIGHT + DAY - 1));
+        assertEquals(KST_MIDNIGHT - DAY, Resolution.DAY.openTimeOf(KST_MIDNIGHT - 1));
+        assertEquals(KST_MIDNIGHT + HOUR, Resolution.HOUR.openTimeOf(KST_MIDNIGHT + HOUR + 59 * MINUTE));
+        assertEquals(KST_MIDNIGHT + MINUTE, Resolution.MINUTE.openTimeOf(KST_MIDNIGHT + MINUTE + 59999));
+    }
+
+    // 체결가가 들어오는 대로 1분/1시간/1일 봉이 함께 만들어진다.
+    @Test
+    public void rollsUpTicksIntoCandles() {
+        PriceHistory history = new PriceHistory("BTC", 100);
+        history.add(KST_MIDNIGHT + 1000, 50000000);
+        history.add(KST_MIDNIGHT + 2000, 50500000);
+        history.add(KST_MIDNIGHT + 3000, 49800000);
+        history.add(KST_MIDNIGHT + MINUTE, 50100000);
+        history.add(KST_MIDNIGHT + HOUR + 5000, 50200000);
+        history.add(KST_MIDNIGHT + 4000, 1);    // 이미 지난 시각은 무시한다.
+
+        PriceHistory.Batch batch = history.drain();
+        assertEquals("BTC", batch.coinType);
+        assertEquals(5, batch.ticks.size());
+
+        List<PriceCandleEntity> minutes = candlesOf(batch, Resolution.MINUTE);
+        assertEquals(3, minutes.size());
+        PriceCandleEntity first = minutes.get(0);
+        assertEquals(KST_MIDNIGHT, first.getOpenTime());
+        assertEquals(50000000, first.getOpen());
+        assertEquals(50500000, first.getHigh());
+        assertEquals(49800000, first.getLow());
+        assertEquals(49800000, first.getClose());
+        assertEquals(3, first.getTickCount());
+
+        List<PriceCandleEntity> hours = candlesOf(batch, Resolution.HOUR);
+        assertEquals(2, hours.size());
+        assertEquals(4, hours.get(0).getTickCount());
+        assertEquals(50100000, hours.get(0).getClose());
+
+        List<PriceCandleEntity> days = candlesOf(batch, Resolution.DAY);
+        assertEquals(1, days.size());
+        assertEquals(50000000, days.get(0).getOpen());
+        assertEquals(50500000, days.get(0).getHigh());
+        assertEquals(49800000, days.get(0).getLow());
+        assertEquals(50200000, days.get(0).getClose());
+        assertEquals(5, days.get(0).getTickCount());
+
+        assertTrue(history.drain().isEmpty());
+    }
+
+    // drain()마다 나뉘어 저장된 같은 봉을 merge하면 한 번에 모은 것과 같다.
+    @Test
+    public void mergedDeltasEqualSingleCandle() {
+        PriceHistory whole = new PriceHistory("BTC", 100);
+        PriceHistory split = new PriceHistory("BTC", 100);
+        PriceCandleEntity stored = null;
+        int[] prices = {50000000, 50300000, 49900000, 50100000, 50050000, 50400000};
+        for (int i = 0; i < prices.length; i++) {
+            whole.add(KST_MIDNIGHT + i * 1000, prices[i]);
+            split.add(KST_MIDNIGHT + i * 1000, prices[i]);
+            if (i % 2 == 1) {
+                PriceCandleEntity delta = candlesOf(split.drain(), Resolution.DAY).get(0);
+                if (stored == null)
+                    stored = delta;
+                else
+                    stored.merge(delta);
+            }
+        }
+        PriceCandleEntity expected = candlesOf(whole.drain(), Resolution.DAY).get(0);
+        assertEquals(expected.toString(), stored.toString());
+    }
+
+    // drain() 전에 버퍼가 차면 체결가는 버리지만 봉은 계속 갱신한다.
+    @Test
+    public void dropsTicksButKeepsCandlesWhenFull() {
+        PriceHistory history = new PriceHistory("ETH", 2);
+        for (int i = 0; i < 5; i++)
+            history.add(KST_MIDNIGHT + i, 3000000 + i * 1000);
+        PriceHistory.Batch batch = history.drain();
+        assertEquals(2, batch.ticks.size());
+        assertEquals(3, batch.droppedTicks);
+        assertEquals(5, candlesOf(batch, Resolution.MINUTE).get(0).getTickCount());
+        assertEquals(3004000, candlesOf(batch, Resolution.MINUTE).get(0).getClose());
+    }
+
+    @Test
+    public void choosesResolutionForRange() {
+        long now = KST_MIDNIGHT + 400 * DAY;
+        assertEquals(Resolution.MINUTE, Resolution.forRange(now - DAY, now, now, 2000));
+        assertEquals(Resolution.HOUR, Resolution.forRange(now - 30 * DAY, now, now, 2000));
+        // 1분 봉은 7일만 보관하므로 10일 전 하루는 1시간 봉으로 그린다.
+        assertEquals(Resolution.HOUR, Resolution.forRange(now - 10 * DAY, now - 9 * DAY, now, 2000));
+        assertEquals(Resolution.DAY, Resolution.forRange(now - 400 * DAY, now, now, 2000));
+    }
+
+    @Test
+    public void computesVariationAndVolatility() {
+        List<PriceCandleEntity> rising = Arrays.asList(
+                new PriceCandleEntity("BTC", 3600, 0, 50000000),
+                new PriceCandleEntity("BTC", 3600, HOUR, 51000000),
+                new PriceCandleEntity("BTC", 3600, 2 * HOUR, 52000000));
+        rising.get(0).add(49000000);
+        assertEquals(((52000000 / 49000000f) - 1) * 100, PriceHistory.getVariationRate(rising), 1e-4);
+        assertTrue(PriceHistory.getVolatility(rising) > 0);
+
+        List<PriceCandleEntity> flat = Arrays.asList(
+                new PriceCandleEntity("BTC", 3600, 0, 50000000),
+                new PriceCandleEntity("BTC", 3600, HOUR, 50000000),
+                new PriceCandleEntity("BTC", 3600, 2 * HOUR, 50000000));
+        assertEquals(0, PriceHistory.getVolatility(flat), 1e-12);
+        assertEquals(0, PriceHistory.getVolatility(flat.subList(0, 2)), 1e-12);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.RollingPriceWindow;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class RollingPriceWindowTest {
+    // 기존 priceQueue 계산 방식
+    private static float listVariationRate(List<Integer> queue) {
+        int maxPrice = Collections.max(queue);
+        int minPrice = Collections.min(queue);
+        if (queue.indexOf(minPrice) < queue.indexOf(maxPrice))
+            return ((maxPrice / (float) minPrice) - 1) * 100;
+        else
+            return ((minPrice / (float) maxPrice) - 1) * 100;
+    }
+
+    @Test
+    public void variationRateDirection() {
+        RollingPriceWindow window = new RollingPriceWindow(60000, 16);
+        window.add(1000, 100);
+        window.add(2000, 110);
+        assertEquals(10f, window.getVariationRate(), 0.001f);
+
+        window.add(3000, 99);
+        assertEquals(-10f, window.getVariationRate(), 0.001f);
+        assertEquals(110, window.getMax());
+        assertEquals(2000, window.getMaxTime());
+        assertEquals(99, window.getMin());
+        assertEquals(99, window.getLast());
+    }
+
+    // 보관 시간이 지난 가격은 최저가/최고가에서도 빠진다.
+    @Test
+    public void expiresBySpan() {
+        RollingPriceWindow window = new RollingPriceWindow(10000, 16);
+        window.add(0, 200);
+        window.add(5000, 100);
+        window.add(9000, 150);
+        assertEquals(200, window.getMax());
+
+        window.expire(10000);
+        assertEquals(2, window.size());
+        assertEquals(150, window.getMax());
+        assertEquals(100, window.getMin());
+
+        window.add(20000, 120);
+        assertEquals(1, window.size());
+        assertEquals(120, window.getMin());
+        assertEquals(0f, window.getVariationRate(), 0f);
+    }
+
+    // 보관 시간과 상관없이 capacity를 넘으면 가장 오래된 가격부터 밀어내며, 기존 고정 개수 큐와 결과가 같다.
+    @Test
+    public void matchesFixedCountQueue() {
+        Random random = new Random(11);
+        RollingPriceWindow window = new RollingPriceWindow(Long.MAX_VALUE / 2, 60);
+        List<Integer> queue = new ArrayList<>();
+        int price = 50000000;
+        for (int i = 0; i < 5000; i++) {
+            price += (random.nextInt(7) - 3) * 10000;
+            window.add(i, price);
+            queue.add(price);
+            while (queue.size() > 60)
+                queue.remove(0);
+
+            assertEquals(queue.size(), window.size());
+            assertEquals((int) Collections.max(queue), window.getMax());
+            assertEquals((int) Collections.min(queue), window.getMin());
+            assertEquals(listVariationRate(queue), window.getVariationRate(), 0f);
+        }
+    }
+
+    @Test
+    public void snapshotRoundTrip() throws Exception {
+        RollingPriceWindow window = new RollingPriceWindow(10000, 8);
+        for (int i = 0; i < 10; i++)
+            window.add(i * 1000L, 100 + i);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        window.writeTo(new DataOutputStream(bytes));
+
+        RollingPriceWindow restored = new RollingPriceWindow(10000, 8);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 12500);
+        // 2500 이하 시간의 가격은 보관 시간이 지나 버려진다.
+        assertEquals(7, restored.size());
+        assertEquals(103, restored.getMin());
+        assertEquals(109, restored.getMax());
+        assertTrue(restored.getVariationRate() > 0);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.k_trader;
+
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+import static com.example.k_trader.base.TradeDataManager.Type.SELL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.base.CoinUnits;
+import com.example.k_trader.base.GlobalSettings;
+import com.example.k_trader.base.Krw;
+import com.example.k_trader.base.SlotLadder;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class SlotLadderTest {
+    private static final float SLOT_RATE = GlobalSettings.SLOT_INTERVAL_RATE_DEFAULT_VALUE;
+    private static final float EARNING_RATE = GlobalSettings.EARNING_RATE_DEFAULT_VALUE;
+
+    // 기본 설정에서는 기존 slot 계산(price - price % interval, + profit)과 결과가 같다.
+    @Test
+    public void matchesExistingSlotMath() {
+        GlobalSettings.getInstance().setSlotIntervalRate(SLOT_RATE).setEarningRate(EARNING_RATE);
+        SlotLadder ladder = new SlotLadder(SLOT_RATE, EARNING_RATE, 1000000, 400000000);
+        Random random = new Random(3);
+        for (int i = 0; i < 100000; i++) {
+            int price = 1000000 + random.nextInt(399000000);
+            int floor = price - (price % MainPage.getSlotIntervalPrice(price));
+
+            int index = ladder.floorIndex(price);
+            assertEquals(floor, ladder.getSlotPrice(index));
+            assertEquals(MainPage.getSlotIntervalPrice(price), ladder.getInterval(index));
+            assertEquals(floor + MainPage.getProfitPrice(floor), ladder.getSellPrice(index));
+        }
+    }
+
+    // floor 가격이 바뀌는 경계에서 간격이 바뀌고, 경계 바로 위 slot은 새 floor 가격에서 시작한다.
+    @Test
+    public void intervalChangesAtBandBoundary() {
+        SlotLadder ladder = new SlotLadder(SLOT_RATE, EARNING_RATE, 95000000, 105000000);
+        int below = ladder.floorIndex(99999999);
+        int above = below + 1;
+
+        assertEquals(99900000, ladder.getSlotPrice(below));
+        assertEquals(450000, ladder.getInterval(below));
+        assertEquals(100000000, ladder.getSlotPrice(above));
+        assertEquals(500000, ladder.getInterval(above));
+        assertEquals(101000000, ladder.getSellPrice(above));
+        assertEquals(above, ladder.ceilIndex(99900001));
+
+        // 1억 이상은 천만 단위까지만 절사한다.
+        SlotLadder high = new SlotLadder(SLOT_RATE, EARNING_RATE, 150000000, 170000000);
+        assertEquals(750000, high.getInterval(high.floorIndex(159999999)));
+        assertEquals(800000, high.getInterval(high.floorIndex(160000000)));
+    }
+
+    @Test
+    public void occupancyAndFreeSlotQueries() {
+        SlotLadder ladder = new SlotLadder(SLOT_RATE, EARNING_RATE, 40000000, 60000000);
+        int index = ladder.floorIndex(50100000);
+        assertEquals(50000000, ladder.getSlotPrice(index));
+
+        assertTrue(ladder.addOrder(SELL, ladder.getSellPrice(index), CoinUnits.fromDouble(0.001)));
+        assertTrue(ladder.addOrder(SELL, ladder.getSellPrice(index + 1), CoinUnits.fromDouble(0.001)));
+        assertTrue(ladder.addOrder(SELL, ladder.getSellPrice(index), CoinUnits.fromDouble(0.001)));
+        assertTrue(ladder.addOrder(BUY, ladder.getSlotPrice(index - 1), CoinUnits.fromDouble(0.002)));
+        assertFalse(ladder.addOrder(SELL, 50123456, CoinUnits.fromDouble(0.001)));
+        assertEquals(1, ladder.getOffLadderCount());
+
+        assertEquals(CoinUnits.fromDouble(0.002), ladder.getSellUnits(index));
+        assertTrue(ladder.hasBuy(index - 1));
+        assertEquals(index + 2, ladder.nextFreeSellSlot(index));
+        assertEquals(index - 1, ladder.nextBuySlotBelow(index + 1));
+
+        ladder.removeOrder(SELL, ladder.getSellPrice(index), CoinUnits.fromDouble(0.002));
+        assertFalse(ladder.hasSell(index));
+        assertEquals(index, ladder.nextBuySlotBelow(index));
+
+        ladder.clearOrders();
+        assertFalse(ladder.hasBuy(index - 1));
+        assertEquals(0, ladder.getOffLadderCount());
+    }
+
+    @Test
+    public void aroundCoversCurrentSetting() {
+        GlobalSettings.getInstance().setSlotIntervalRate(SLOT_RATE).setEarningRate(EARNING_RATE);
+        SlotLadder ladder = SlotLadder.around(50000000);
+        assertTrue(ladder.covers(50000000, 3));
+        assertTrue(ladder.covers(13000000, 3));
+        assertFalse(ladder.covers(300000000, 3));
+
+        GlobalSettings.getInstance().setSlotIntervalRate(0.3f);
+        assertFalse(ladder.covers(50000000, 3));
+        GlobalSettings.getInstance().setSlotIntervalRate(SLOT_RATE);
+    }
+
+    // 간격과 이익금이 호가 단위의 배수가 아니어도 slot/매도 가격은 호가 단위에 맞고, 주문한 가격 그대로 slot을 찾는다.
+    @Test
+    public void pricesAreOnTick() {
+        SlotLadder ladder = new SlotLadder(0.25f, 0.35f, 500000, 3000000);
+        assertEquals(1002000, ladder.getSlotPrice(ladder.floorIndex(1002500)));
+        assertEquals(1006000, ladder.getSellPrice(ladder.floorIndex(1002500)));    // 1,002,000 + 3,500
+        for (int i = 0; i < ladder.size(); i++) {
+            assertTrue(Krw.isOnTick(ladder.getSlotPrice(i)));
+            assertTrue(Krw.isOnTick(ladder.getSellPrice(i)));
+            if (i > 0) {
+                assertTrue(ladder.getSlotPrice(i) > ladder.getSlotPrice(i - 1));
+                assertTrue(ladder.getSellPrice(i) > ladder.getSellPrice(i - 1));
+            }
+            assertTrue(ladder.addOrder(SELL, ladder.getSellPrice(i), CoinUnits.LOT));
+        }
+        assertEquals(0, ladder.getOffLadderCount());
+
+        // 간격(500원)이 호가 단위(1,000원)보다 작으면 같은 가격이 되는 slot은 건너뛴다.
+        SlotLadder fine = new SlotLadder(0.05f, 0.35f, 1000000, 1010000);
+        assertEquals(1001000, fine.getSlotPrice(fine.floorIndex(1000000) + 1));
+    }
+}
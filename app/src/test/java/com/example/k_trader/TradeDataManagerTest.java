@@ -0,0 +1,157 @@
+package com.example.k_trader;
+
+import static com.example.k_trader.base.TradeDataManager.Status.PLACED;
+import static com.example.k_trader.base.TradeDataManager.Status.PROCESSED;
+import static com.example.k_trader.base.TradeDataManager.Type.BUY;
+import static com.example.k_trader.base.TradeDataManager.Type.SELL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.k_trader.base.CoinUnits;
+import com.example.k_trader.base.TradeData;
+import com.example.k_trader.base.TradeDataManager;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TradeDataManagerTest {
+    private static TradeData order(TradeDataManager.Type type, String id, int price, float units, long processedTime) {
+        return new TradeData().build()
+                .setType(type)
+                .setStatus(processedTime == 0 ? PLACED : PROCESSED)
+                .setId(id)
+                .setPrice(price)
+                .setUnits(CoinUnits.fromDouble(units))
+                .setProcessedTime(processedTime);
+    }
+
+    @Test
+    public void lookupsFollowAddAndRemove() {
+        TradeDataManager manager = new TradeDataManager();
+        TradeData sell1 = order(SELL, "1", 51000000, 0.01f, 0);
+        TradeData sell2 = order(SELL, "2", 51000000, 0.02f, 0);
+        TradeData buy = order(BUY, "3", 51000000, 0.01f, 0);
+        manager.add(sell1);
+        manager.add(sell2);
+        manager.add(buy);
+
+        // 같은 키면 먼저 추가된 항목을 찾는다.
+        assertSame(sell1, manager.findByPrice(SELL, 51000000));
+        assertSame(buy, manager.findByPrice(BUY, 51000000));
+        assertNull(manager.findByPrice(SELL, 50000000));
+        assertEquals(2, manager.getByPrice(SELL, 51000000).size());
+        assertSame(sell2, manager.findById("2"));
+        assertEquals(2, manager.getSellCount());
+        assertEquals((int)(51000000 * 0.01f + 51000000 * 0.02f), manager.getEstimation());
+
+        assertTrue(manager.remove(sell1));
+        assertSame(sell2, manager.findByPrice(SELL, 51000000));
+        assertNull(manager.findById("1"));
+        assertEquals(1, manager.getSellCount());
+
+        sell2.setMarked(true);
+        manager.removeUnmarked();
+        assertEquals(1, manager.size());
+        assertNull(manager.findByPrice(BUY, 51000000));
+        assertEquals((int)(51000000 * 0.02f), manager.getEstimation());
+
+        manager.clear();
+        assertNull(manager.findById("2"));
+        assertEquals(0, manager.getSellCount());
+    }
+
+    @Test
+    public void latestProcessedTimePerType() {
+        TradeDataManager manager = new TradeDataManager();
+        TradeData oldBuy = order(BUY, null, 50000000, 0.01f, 1000);
+        TradeData newBuy = order(BUY, null, 49000000, 0.01f, 3000);
+        TradeData sameTimeBuy = order(BUY, null, 48000000, 0.01f, 3000);
+        TradeData sell = order(SELL, null, 51000000, 0.01f, 2000);
+        manager.add(oldBuy);
+        manager.add(newBuy);
+        manager.add(sameTimeBuy);
+        manager.add(sell);
+
+        assertSame(newBuy, manager.findLatestProcessedTime(BUY));
+        assertSame(sell, manager.findLatestProcessedTime(SELL));
+        assertSame(oldBuy, manager.findByProcessedTime(1000));
+
+        manager.remove(newBuy);
+        assertSame(sameTimeBuy, manager.findLatestProcessedTime(BUY));
+        manager.remove(sell);
+        assertNull(manager.findLatestProcessedTime(SELL));
+    }
+
+    // ProcessedOrderPage는 Gson으로 저장한 목록을 복원하므로, 복원된 목록으로도 인덱스가 만들어져야 한다.
+    @Test
+    public void indexRebuiltAfterGsonRestore() {
+        TradeDataManager manager = new TradeDataManager();
+        manager.add(order(BUY, null, 50000000, 0.01f, 1000));
+        manager.add(order(SELL, null, 51000000, 0.01f, 2000));
+
+        Gson gson = new Gson();
+        TradeDataManager restored = gson.fromJson(gson.toJson(manager), TradeDataManager.class);
+
+        assertEquals(2, restored.size());
+        assertEquals(51000000, restored.findByProcessedTime(2000).getPrice());
+        assertEquals(1, restored.getSellCount());
+        assertEquals(50000000, restored.findLatestProcessedTime(BUY).getPrice());
+    }
+
+    // 무작위로 추가/삭제해도 선형 탐색과 결과가 같다.
+    @Test
+    public void matchesLinearScan() {
+        Random random = new Random(7);
+        TradeDataManager manager = new TradeDataManager();
+        for (int i = 0; i < 2000; i++) {
+            if (manager.size() > 0 && random.nextInt(4) == 0) {
+                manager.remove(manager.getList().get(random.nextInt(manager.size())));
+            } else {
+                manager.add(order(random.nextBoolean() ? BUY : SELL, String.valueOf(random.nextInt(500)),
+                        50000000 + random.nextInt(20) * 100000, 0.001f * (1 + random.nextInt(10)), random.nextInt(300)));
+            }
+
+            TradeDataManager.Type type = random.nextBoolean() ? BUY : SELL;
+            int price = 50000000 + random.nextInt(20) * 100000;
+            long time = random.nextInt(300);
+            String id = String.valueOf(random.nextInt(500));
+
+            TradeData byPrice = null, byId = null, byTime = null, latest = null;
+            long estimation = 0;
+            int sellCount = 0;
+            for (TradeData data : manager.getList()) {
+                if (byPrice == null && data.getType() == type && data.getPrice() == price)
+                    byPrice = data;
+                if (byId == null && id.equals(data.getId()))
+                    byId = data;
+                if (byTime == null && data.getProcessedTime() == time)
+                    byTime = data;
+                if (data.getType() == type && (latest == null || latest.getProcessedTime() < data.getProcessedTime()))
+                    latest = data;
+                if (data.getType() == SELL) {
+                    estimation += CoinUnits.krwValue(data.getUnits(), data.getPrice());
+                    sellCount++;
+                }
+            }
+
+            assertSame(byPrice, manager.findByPrice(type, price));
+            assertSame(byId, manager.findById(id));
+            assertSame(byTime, manager.findByProcessedTime(time));
+            assertSame(latest, manager.findLatestProcessedTime(type));
+            assertEquals((int)estimation, manager.getEstimation());
+            assertEquals(sellCount, manager.getSellCount());
+        }
+
+        // 인덱스를 거치지 않고 목록을 바꿀 수 없다.
+        try {
+            manager.getList().clear();
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+}
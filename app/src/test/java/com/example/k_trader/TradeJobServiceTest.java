@@ -25,6 +25,11 @@ public class TradeJobServiceTest {
     int buyPrice;
 
     class DummyApiClient extends Api_Client {
+        @Override
+        public String callApiText(String method, String endpoint, HashMap<String, String> params) {
+            return callApi(method, endpoint, params).toJSONString();
+        }
+
         @Override
         public JSONObject callApi(String method, String endpoint, HashMap<String, String> params) {
             if (endpoint.equals("/info/balance")) { // getBalance
@@ -114,16 +119,17 @@ public class TradeJobServiceTest {
     }
 
     @Test
-    public void checkGetFloorPrice()  throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
-        TradeJobService job = new TradeJobService();
-        Method method = job.getClass().getDeclaredMethod("getFloorPrice", int.class);
-        method.setAccessible(true);
-
-        int result = (int)method.invoke(job, 50000000);
+    public void checkGetFloorPrice() {
+        int result = MainPage.getFloorPrice(50000000);
         assertEquals(50000000, result);
     }
 
     class DummyApiClient2 extends Api_Client {
+        @Override
+        public String callApiText(String method, String endpoint, HashMap<String, String> params) {
+            return callApi(method, endpoint, params).toJSONString();
+        }
+
         @Override
         public JSONObject callApi(String method, String endpoint, HashMap<String, String> params) {
             if (endpoint.equals("/info/balance")) { // getBalance
@@ -229,6 +235,11 @@ public class TradeJobServiceTest {
     }
 
     class DummyApiClient3 extends Api_Client {
+        @Override
+        public String callApiText(String method, String endpoint, HashMap<String, String> params) {
+            return callApi(method, endpoint, params).toJSONString();
+        }
+
         @Override
         public JSONObject callApi(String method, String endpoint, HashMap<String, String> params) {
             if (endpoint.equals("/info/balance")) { // getBalance
@@ -329,6 +340,11 @@ public class TradeJobServiceTest {
     }
 
     class DummyApiClient4 extends Api_Client {
+        @Override
+        public String callApiText(String method, String endpoint, HashMap<String, String> params) {
+            return callApi(method, endpoint, params).toJSONString();
+        }
+
         @Override
         public JSONObject callApi(String method, String endpoint, HashMap<String, String> params) {
             if (endpoint.equals("/info/balance")) { // getBalance
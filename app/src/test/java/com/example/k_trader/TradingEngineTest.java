@@ -0,0 +1,108 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TradingEngineTest {
+    private final TradingEngine engine = new TradingEngine();
+
+    @After
+    public void tearDown() {
+        engine.stop();
+    }
+
+    // 1초 미만 주기로도 고정 간격으로 tick을 실행하고 jitter를 기록한다.
+    @Test
+    public void runsSubSecondFixedRateTicks() throws Exception {
+        CountDownLatch latch = new CountDownLatch(10);
+        engine.start(latch::countDown, 50);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(engine.isRunning());
+
+        TradingEngine.Stats stats = engine.getStats();
+        assertEquals(50, stats.periodMs);
+        assertTrue(stats.tickCount >= 10);
+        assertTrue(stats.jitter.count >= 10);
+        assertTrue(stats.jitter.p50Ms < 50);
+    }
+
+    // 같은 thread에서 tick을 실행하므로 tick끼리 겹치지 않는다.
+    @Test
+    public void ticksDoNotOverlap() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(20);
+        engine.start(() -> {
+            maxActive.set(Math.max(maxActive.get(), active.incrementAndGet()));
+            engine.requestTick();
+            active.decrementAndGet();
+            latch.countDown();
+        }, 10);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(1, maxActive.get());
+        assertTrue(engine.getStats().requestedCount > 0);
+    }
+
+    // 주기보다 오래 걸린 tick 뒤에 밀린 tick을 몰아서 실행하지 않는다.
+    @Test
+    public void skipsTicksAfterOverrun() throws Exception {
+        AtomicInteger ticks = new AtomicInteger();
+        engine.start(() -> {
+            if (ticks.incrementAndGet() == 1)
+                sleep(250);
+        }, 50);
+        Thread.sleep(400);
+        engine.stop();
+
+        TradingEngine.Stats stats = engine.getStats();
+        assertTrue(stats.skippedCount >= 3);
+        // 밀린 tick을 모두 실행했다면 8번 이상이다.
+        assertTrue(ticks.get() < 8);
+    }
+
+    @Test
+    public void requestTickRunsOnlyWhileRunning() throws Exception {
+        assertFalse(engine.requestTick());
+
+        CountDownLatch latch = new CountDownLatch(2);
+        engine.start(latch::countDown, 60000);
+        assertTrue(engine.requestTick());
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void noTicksAfterStop() throws Exception {
+        AtomicInteger ticks = new AtomicInteger();
+        engine.start(ticks::incrementAndGet, 10);
+        Thread.sleep(100);
+        engine.stop();
+        assertFalse(engine.isRunning());
+        assertFalse(engine.requestTick());
+
+        Thread.sleep(50);
+        int stopped = ticks.get();
+        Thread.sleep(100);
+        assertEquals(stopped, ticks.get());
+
+        // 다시 시작할 수 있다.
+        CountDownLatch latch = new CountDownLatch(1);
+        engine.start(latch::countDown, 10);
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
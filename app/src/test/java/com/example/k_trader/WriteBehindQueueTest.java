@@ -0,0 +1,123 @@
+package com.example.k_trader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.k_trader.database.WriteBehindQueue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class WriteBehindQueueTest {
+
+    // writer 호출(transaction)마다 받은 항목을 기록한다.
+    private static class RecordingWriter implements WriteBehindQueue.BatchWriter<Integer> {
+        final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void write(List<Integer> items) {
+            batches.add(new ArrayList<>(items));
+        }
+
+        int itemCount() {
+            synchronized (batches) {
+                int count = 0;
+                for (List<Integer> batch : batches)
+                    count += batch.size();
+                return count;
+            }
+        }
+    }
+
+    // batchSize만큼 모이면 꽉 찬 batch를 바로, 나머지는 maxDelay 뒤에 한 번에 저장한다.
+    @Test
+    public void coalescesBySizeAndTime() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        WriteBehindQueue<Integer> queue = new WriteBehindQueue<>("test", writer, 10, 1000, 100, 100);
+
+        for (int i = 0; i < 25; i++)
+            assertTrue(queue.offer(i));
+        queue.flush(1000);
+        assertEquals(25, writer.itemCount());
+        assertEquals(3, writer.batches.size());
+        assertEquals(10, writer.batches.get(0).size());
+        assertEquals(10, writer.batches.get(1).size());
+
+        queue.offer(100);
+        queue.offer(101);
+        Thread.sleep(50);
+        assertEquals(25, writer.itemCount());   // 아직 지연 시간 전
+        long deadline = System.currentTimeMillis() + 3000;
+        while (writer.itemCount() < 27 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(27, writer.itemCount());
+
+        WriteBehindQueue.Stats stats = queue.getStats();
+        assertEquals(0, stats.depth);
+        assertEquals(27, stats.enqueuedCount);
+        assertEquals(27, stats.writtenCount);
+        assertEquals(writer.batches.size(), stats.batchCount);
+        assertEquals(0, stats.droppedCount);
+        queue.close(1000);
+    }
+
+    // 저장이 밀리면 offer()가 기다리고(backpressure), 그래도 자리가 없으면 버린다.
+    @Test
+    public void appliesBackpressureWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingWriter recorder = new RecordingWriter();
+        WriteBehindQueue<Integer> queue = new WriteBehindQueue<>("test", items -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            recorder.write(items);
+        }, 2, 10, 4, 50);
+
+        // 첫 batch(2건)를 저장 스레드가 가져가서 멈춘 뒤 큐(4건)를 채운다.
+        queue.offer(0);
+        queue.offer(1);
+        Thread.sleep(100);
+        for (int i = 2; i < 6; i++)
+            assertTrue(queue.offer(i));
+
+        long start = System.nanoTime();
+        assertFalse(queue.offer(6));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 40);
+        assertEquals(1, queue.getStats().droppedCount);
+        assertEquals(4, queue.getStats().maxDepth);
+
+        release.countDown();
+        queue.close(2000);
+        assertEquals(6, recorder.itemCount());
+        assertFalse(queue.offer(7));    // close() 이후
+        assertEquals(2, queue.getStats().droppedCount);
+    }
+
+    // 실패한 batch는 세고 다음 batch는 계속 저장한다.
+    @Test
+    public void countsFailedBatches() {
+        RecordingWriter recorder = new RecordingWriter();
+        WriteBehindQueue<Integer> queue = new WriteBehindQueue<>("test", items -> {
+            if (items.contains(0))
+                throw new IllegalStateException("disk full");
+            recorder.write(items);
+        }, 2, 1000, 10, 10);
+        queue.offer(0);
+        queue.offer(1);
+        queue.offer(2);
+        queue.close(1000);
+
+        WriteBehindQueue.Stats stats = queue.getStats();
+        assertEquals(2, stats.failedCount);
+        assertEquals(1, stats.writtenCount);
+        assertEquals(1, recorder.itemCount());
+    }
+}